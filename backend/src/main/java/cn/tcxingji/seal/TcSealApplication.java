@@ -2,6 +2,7 @@ package cn.tcxingji.seal;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 太初星集电子签章系统 - 主启动类
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 2026-01-01
  */
 @SpringBootApplication
+@EnableScheduling
 public class TcSealApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,606 @@
+package cn.tcxingji.seal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 盖章配置类
+ * 读取 application.yml 中的 seal.stamp 配置
+ *
+ * @author TC System
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "seal.stamp")
+public class StampConfig {
+
+    /**
+     * 签章文件保存模式（默认增量更新）
+     */
+    private SaveMode saveMode = SaveMode.INCREMENTAL;
+
+    /**
+     * 完整重写时的压缩配置（默认的 INCREMENTAL 模式下不生效，仅 save-mode 为 FULL 时使用）
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * 印章图片预编码缓存配置
+     */
+    private ImageCache imageCache = new ImageCache();
+
+    /**
+     * 印章图片嵌入优化配置
+     */
+    private ImageOptimizer imageOptimizer = new ImageOptimizer();
+
+    /**
+     * 骑缝章切片缓存配置
+     */
+    private PerforationCache perforationCache = new PerforationCache();
+
+    /**
+     * 异步盖章任务队列配置
+     */
+    private Job job = new Job();
+
+    /**
+     * 多合同批量盖章配置
+     */
+    private Bulk bulk = new Bulk();
+
+    /**
+     * PDF 内存预算配置
+     */
+    private Memory memory = new Memory();
+
+    /**
+     * 合同并发控制配置
+     */
+    private Lock lock = new Lock();
+
+    /**
+     * 合同级盖章信箱（合并同一合同的并发单次盖章）配置
+     */
+    private Mailbox mailbox = new Mailbox();
+
+    /**
+     * 盖章接口幂等键配置
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * 文本位置索引（锚点定位）配置
+     */
+    private TextIndex textIndex = new TextIndex();
+
+    /**
+     * 盖章版式配置
+     */
+    private Layout layout = new Layout();
+
+    /**
+     * 盖章预览（不落盘的合成预览）配置
+     */
+    private Preview preview = new Preview();
+
+    /**
+     * 多方签署会话配置
+     */
+    private Session session = new Session();
+
+    /**
+     * 盖章工作区（常驻内存的逐个盖章会话）配置
+     */
+    private Workspace workspace = new Workspace();
+
+    /**
+     * 数字签名（PAdES）配置
+     */
+    private Signing signing = new Signing();
+
+    /**
+     * 已盖章位置索引（重叠检测、页面叠加层查询和空位建议）配置
+     */
+    private Placement placement = new Placement();
+
+    /**
+     * 管理员基准测试接口配置
+     */
+    private Benchmark benchmark = new Benchmark();
+
+    /**
+     * 签章文件保存模式枚举
+     */
+    public enum SaveMode {
+        /** 完整重写：重新序列化整个文档 */
+        FULL,
+        /** 增量更新：保留原文件字节，仅追加变更对象和新的 xref 段 */
+        INCREMENTAL
+    }
+
+    /**
+     * 盖章位置重叠处理策略枚举
+     */
+    public enum OverlapPolicy {
+        /** 不检测 */
+        IGNORE,
+        /** 允许盖章，在响应中返回重叠提示 */
+        WARN,
+        /** 拒绝盖章 */
+        REJECT
+    }
+
+    /**
+     * 完整重写时的压缩配置
+     * <p>
+     * 只在 FULL 模式下生效，默认的 INCREMENTAL 模式会忽略全部压缩参数：增量更新追加的修订段始终使用传统 xref 表；
+     * 文档已包含数字签名时始终增量保存，避免完整重写使已有签名失效
+     * </p>
+     */
+    @Data
+    public static class Compression {
+
+        /**
+         * 是否将非流对象打包进对象流，并以交叉引用流代替 xref 表
+         */
+        private boolean objectStreams = true;
+
+        /**
+         * 每个对象流最多包含的对象数
+         */
+        private int objectStreamSize = 100;
+
+        /**
+         * 是否移除页面资源中未被内容流引用的 XObject（之后不可达的图片流不再写出）
+         */
+        private boolean pruneUnused = false;
+    }
+
+    /**
+     * 印章图片预编码缓存配置
+     */
+    @Data
+    public static class ImageCache {
+
+        /**
+         * 最大缓存条目数
+         */
+        private int maxEntries = 256;
+
+        /**
+         * 最大缓存字节数（默认 64MB）
+         */
+        private long maxBytes = 64L * 1024 * 1024;
+    }
+
+    /**
+     * 印章图片嵌入优化配置
+     */
+    @Data
+    public static class ImageOptimizer {
+
+        /**
+         * 是否按盖章尺寸降采样并按图片属性选择编码（关闭后按原图嵌入）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 目标有效分辨率（DPI），按盖章区域尺寸换算目标像素数
+         */
+        private int effectiveDpi = 200;
+
+        /**
+         * 照片类图片的 JPEG 压缩质量（0~1）
+         */
+        private float jpegQuality = 0.85f;
+    }
+
+    /**
+     * 骑缝章切片缓存配置
+     */
+    @Data
+    public static class PerforationCache {
+
+        /**
+         * 最大缓存条目数（印章 × 页数组合）
+         */
+        private int maxEntries = 64;
+
+        /**
+         * 最大缓存字节数（默认 64MB）
+         */
+        private long maxBytes = 64L * 1024 * 1024;
+    }
+
+    /**
+     * 异步盖章任务队列配置
+     */
+    @Data
+    public static class Job {
+
+        /**
+         * 是否在本实例启动任务工作线程（关闭后仍可提交任务，由其他实例执行）
+         */
+        private boolean workerEnabled = true;
+
+        /**
+         * 工作线程数
+         */
+        private int workerThreads = 4;
+
+        /**
+         * 轮询间隔（毫秒）
+         */
+        private long pollIntervalMs = 1000;
+
+        /**
+         * 任务租约时长：执行期间按三分之一周期续期，超过该时长未续期（如节点宕机）的任务可被其他实例重新领取
+         */
+        private Duration visibilityTimeout = Duration.ofMinutes(10);
+
+        /**
+         * 最大尝试次数
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * 重试退避基准时长（按尝试次数指数增长）
+         */
+        private Duration retryBackoff = Duration.ofSeconds(10);
+
+        /**
+         * SSE 订阅超时时长
+         */
+        private Duration sseTimeout = Duration.ofMinutes(5);
+    }
+
+    /**
+     * 多合同批量盖章配置
+     */
+    @Data
+    public static class Bulk {
+
+        /**
+         * 并行处理线程数（所有批量请求共享）
+         */
+        private int threads = 4;
+
+        /**
+         * 单次请求最大合同数
+         */
+        private int maxContracts = 5000;
+
+        /**
+         * SSE 连接超时时长
+         */
+        private Duration sseTimeout = Duration.ofMinutes(30);
+    }
+
+    /**
+     * PDF 内存预算配置
+     */
+    @Data
+    public static class Memory {
+
+        /**
+         * 所有打开文档的堆内存总预算（默认 512MB）
+         */
+        private long totalBudget = 512L * 1024 * 1024;
+
+        /**
+         * 单文档堆内存上限，超出部分的流缓存写入临时文件（默认 64MB）
+         */
+        private long perDocumentBudget = 64L * 1024 * 1024;
+
+        /**
+         * 预算不足时的最长等待时间
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 流缓存临时目录（为空时使用 java.io.tmpdir/seal-pdf-scratch）
+         */
+        private String scratchDir;
+    }
+
+    /**
+     * 合同并发控制配置
+     */
+    @Data
+    public static class Lock {
+
+        /**
+         * 是否启用跨实例租约锁（单实例部署可关闭）
+         */
+        private boolean clusterEnabled = true;
+
+        /**
+         * 获取锁的最长等待时间
+         */
+        private Duration waitTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 租约时长（持有期间定期续期，实例宕机后最多经过该时长锁被接管）
+         */
+        private Duration leaseDuration = Duration.ofMinutes(5);
+
+        /**
+         * 租约锁被占用时的重试间隔
+         */
+        private Duration retryInterval = Duration.ofMillis(100);
+    }
+
+    /**
+     * 合同级盖章信箱配置
+     */
+    @Data
+    public static class Mailbox {
+
+        /**
+         * 是否合并同一合同排队中的单次盖章请求（关闭后每个请求各自加载和保存文档）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 单批次最多合并的请求数
+         */
+        private int maxBatch = 32;
+
+        /**
+         * 排队等待的最长时间，超时未开始处理的请求返回 409
+         */
+        private Duration waitTimeout = Duration.ofSeconds(60);
+    }
+
+    /**
+     * 盖章接口幂等键配置
+     */
+    @Data
+    public static class Idempotency {
+
+        /**
+         * 结果保留时长，过期后同一幂等键视为新请求
+         */
+        private Duration retention = Duration.ofHours(24);
+
+        /**
+         * 处理中租约时长，超时未完成（如实例宕机）的请求可被重试接管
+         */
+        private Duration processingLease = Duration.ofMinutes(10);
+
+        /**
+         * 重试请求等待原请求完成的最长时间
+         */
+        private Duration waitTimeout = Duration.ofMinutes(2);
+
+        /**
+         * 原请求在其他实例处理时的轮询间隔
+         */
+        private Duration pollInterval = Duration.ofMillis(200);
+    }
+
+    /**
+     * 文本位置索引（锚点定位）配置
+     */
+    @Data
+    public static class TextIndex {
+
+        /**
+         * 内存中缓存的索引数量（按合同）
+         */
+        private int cacheMaxEntries = 128;
+    }
+
+    /**
+     * 盖章版式配置
+     */
+    @Data
+    public static class Layout {
+
+        /**
+         * 编译后版式的缓存有效期（其他实例修改版式后最迟在此时间后生效）
+         */
+        private Duration cacheTtl = Duration.ofMinutes(5);
+
+        /**
+         * 单个版式最多条目数
+         */
+        private int maxItems = 200;
+    }
+
+    /**
+     * 盖章预览配置
+     */
+    @Data
+    public static class Preview {
+
+        /**
+         * 页面预览图 DPI（页面预览图生成和盖章预览合成共用；修改后需清理已缓存的预览图）
+         */
+        private float dpi = 150f;
+
+        /**
+         * 解码后页面预览图的内存缓存上限（字节，150 DPI 的 A4 页约 6.5MB）
+         */
+        private long pageCacheMaxBytes = 128L * 1024 * 1024;
+
+        /**
+         * 缩放后印章图片的缓存条目数
+         */
+        private int stampCacheMaxEntries = 64;
+
+        /**
+         * 签章后后台重新渲染预览图的线程数
+         */
+        private int renderThreads = 2;
+    }
+
+    /**
+     * 多方签署会话配置
+     */
+    @Data
+    public static class Session {
+
+        /**
+         * 会话有效期（过期后不再接受签署方提交）
+         */
+        private Duration ttl = Duration.ofHours(24);
+
+        /**
+         * 单个会话最多签署方数量
+         */
+        private int maxSigners = 20;
+
+        /**
+         * 合并租约：合并期间按三分之一周期续期，超过该时长未续期（如节点宕机）的会话可重新合并
+         */
+        private Duration mergeLease = Duration.ofMinutes(15);
+    }
+
+    /**
+     * 盖章工作区配置
+     */
+    @Data
+    public static class Workspace {
+
+        /**
+         * 工作区最长存活时间（自打开起）
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+
+        /**
+         * 空闲超时：超过该时长没有操作的工作区被关闭并释放文档
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * 本实例同时打开的工作区上限（文档内存另受 memory.total-budget 约束）
+         */
+        private int maxOpen = 32;
+
+        /**
+         * 单个工作区最多盖章次数
+         */
+        private int maxPlacements = 50;
+    }
+
+    /**
+     * 数字签名（PAdES-B）配置
+     * <p>
+     * 签名私钥来自本地 PKCS#12 密钥库，进程内只解锁一次
+     * </p>
+     */
+    @Data
+    public static class Signing {
+
+        /**
+         * 是否启用数字签名
+         */
+        private boolean enabled = false;
+
+        /**
+         * PKCS#12 密钥库文件路径
+         */
+        private String keystorePath;
+
+        /**
+         * 密钥库密码
+         */
+        private String keystorePassword;
+
+        /**
+         * 私钥别名（为空时使用密钥库中第一个私钥条目）
+         */
+        private String keyAlias;
+
+        /**
+         * 私钥密码（为空时与密钥库密码相同）
+         */
+        private String keyPassword;
+
+        /**
+         * 并行签名线程数（0 表示 CPU 核数）
+         */
+        private int threads = 0;
+
+        /**
+         * 单次批量签名最大合同数
+         */
+        private int maxContracts = 1000;
+
+        /**
+         * 签名值预留字节数（须容纳证书链和 CMS 结构）
+         */
+        private int signatureSize = 16384;
+
+        /**
+         * 签名原因
+         */
+        private String reason = "电子合同签署";
+
+        /**
+         * 签名地点
+         */
+        private String location;
+    }
+
+    /**
+     * 已盖章位置索引配置
+     * <p>
+     * 每份合同按页维护有效签章矩形的网格索引，首次使用时从签章记录构建，按合同版本号校验是否过期
+     * </p>
+     */
+    @Data
+    public static class Placement {
+
+        /**
+         * 盖章位置与已有签章重叠时的处理策略（骑缝章不检测）
+         */
+        private OverlapPolicy overlapPolicy = OverlapPolicy.WARN;
+
+        /**
+         * 重叠判定阈值：相交面积占较小一方面积的比例达到该值视为重叠（边缘轻微接触不算）
+         */
+        private double overlapThreshold = 0.1;
+
+        /**
+         * 网格单元边长（pt）
+         */
+        private float gridCellSize = 72f;
+
+        /**
+         * 本实例缓存的合同索引上限（LRU 淘汰）
+         */
+        private int cacheMaxEntries = 512;
+
+        /**
+         * 空位建议的扫描步长（pt）
+         */
+        private float suggestionStep = 12f;
+
+        /**
+         * 空位建议与页面边缘的最小距离（pt）
+         */
+        private float suggestionMargin = 18f;
+    }
+
+    /**
+     * 管理员基准测试接口配置
+     * <p>
+     * 基准测试会对整份合同反复加载、保存或签名，占用大量 CPU 和内存，只应在压测环境临时开启；
+     * 关闭时不注册相关接口，开启后也仅管理员可调用，且同一时间只运行一个测试
+     * </p>
+     */
+    @Data
+    public static class Benchmark {
+
+        /**
+         * 是否注册基准测试接口
+         */
+        private boolean enabled = false;
+    }
+}
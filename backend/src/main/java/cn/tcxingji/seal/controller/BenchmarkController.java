@@ -0,0 +1,102 @@
+package cn.tcxingji.seal.controller;
+
+import cn.tcxingji.seal.context.UserContext;
+import cn.tcxingji.seal.dto.response.ApiResponse;
+import cn.tcxingji.seal.dto.response.SaveBenchmarkResponse;
+import cn.tcxingji.seal.dto.response.SigningBenchmarkResponse;
+import cn.tcxingji.seal.service.ContractService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 基准测试控制器
+ * <p>
+ * 提供保存方案、数字签名等压测接口，用于调优 seal.stamp 配置。
+ * 仅在 seal.stamp.benchmark.enabled=true 时注册；只有管理员可以调用，且同一时间只运行一个测试
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/benchmarks")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "seal.stamp.benchmark", name = "enabled", havingValue = "true")
+public class BenchmarkController {
+
+    private final ContractService contractService;
+
+    /**
+     * 同一时间只允许一个基准测试运行
+     */
+    private final Semaphore running = new Semaphore(1);
+
+    /**
+     * 保存方案基准测试
+     * <p>
+     * 对比增量更新、完整重写及对象流压缩等方案的输出大小和写出耗时，用于选择 seal.stamp.save-mode 和 compression 配置
+     * </p>
+     *
+     * @param id         合同ID
+     * @param iterations 每个方案的测量次数（默认3，最多10）
+     * @return 测试结果
+     */
+    @PostMapping("/contracts/{id}/save")
+    public ResponseEntity<ApiResponse<SaveBenchmarkResponse>> saveBenchmark(
+            @PathVariable Long id,
+            @RequestParam(value = "iterations", defaultValue = "3") Integer iterations) {
+
+        log.info("保存方案基准测试: contractId={}, iterations={}, operator={}",
+                id, iterations, UserContext.getCurrentUsername());
+        return runExclusive(() -> contractService.benchmarkSaveProfiles(id, iterations));
+    }
+
+    /**
+     * 数字签名基准测试
+     * <p>
+     * 以合同当前版本为样本并行签名多份副本（使用生产签名私钥，签名结果写入临时文件后删除），
+     * 返回吞吐量、每核吞吐量和 P99 耗时，用于确定 seal.stamp.signing.threads
+     * </p>
+     *
+     * @param id        合同ID
+     * @param documents 签名份数（默认20，最多200）
+     * @param threads   并行线程数（默认0，即 CPU 核数）
+     * @return 测试结果
+     */
+    @PostMapping("/contracts/{id}/sign")
+    public ResponseEntity<ApiResponse<SigningBenchmarkResponse>> signBenchmark(
+            @PathVariable Long id,
+            @RequestParam(value = "documents", defaultValue = "20") Integer documents,
+            @RequestParam(value = "threads", defaultValue = "0") Integer threads) {
+
+        log.info("数字签名基准测试: contractId={}, documents={}, threads={}, operator={}",
+                id, documents, threads, UserContext.getCurrentUsername());
+        return runExclusive(() -> contractService.benchmarkSigning(id, documents, threads));
+    }
+
+    /**
+     * 校验管理员权限后独占执行基准测试
+     */
+    private <T> ResponseEntity<ApiResponse<T>> runExclusive(Supplier<T> benchmark) {
+        if (!UserContext.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("权限不足，仅管理员可以运行基准测试"));
+        }
+        if (!running.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(ApiResponse.error("已有基准测试正在运行，请稍后重试"));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(benchmark.get()));
+        } finally {
+            running.release();
+        }
+    }
+}
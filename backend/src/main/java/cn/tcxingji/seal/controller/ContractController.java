@@ -1,17 +1,33 @@
 package cn.tcxingji.seal.controller;
 
+import cn.tcxingji.seal.dto.request.BulkSealRequest;
+import cn.tcxingji.seal.dto.request.BulkSignRequest;
 import cn.tcxingji.seal.dto.request.ContractQueryRequest;
 import cn.tcxingji.seal.dto.request.ContractSealRequest;
 import cn.tcxingji.seal.dto.request.ContractUploadRequest;
+import cn.tcxingji.seal.dto.request.DigitalSignRequest;
 import cn.tcxingji.seal.dto.request.PerforationSealRequest;
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.dto.request.SealSpaceSuggestRequest;
+import cn.tcxingji.seal.dto.request.StampLayoutApplyRequest;
+import cn.tcxingji.seal.dto.request.StampPreviewRequest;
 import cn.tcxingji.seal.dto.response.ApiResponse;
 import cn.tcxingji.seal.dto.response.ContractPreviewResponse;
 import cn.tcxingji.seal.dto.response.ContractResponse;
 import cn.tcxingji.seal.dto.response.ContractSealResponse;
 import cn.tcxingji.seal.dto.response.PageResponse;
+import cn.tcxingji.seal.dto.response.SealPlacementResponse;
 import cn.tcxingji.seal.dto.response.SealRecordResponse;
+import cn.tcxingji.seal.dto.response.StampJobResponse;
+import cn.tcxingji.seal.dto.response.StampPreviewResponse;
+import cn.tcxingji.seal.dto.response.StampUndoResponse;
+import cn.tcxingji.seal.entity.StampJob;
+import cn.tcxingji.seal.idempotency.StampIdempotencyManager;
+import cn.tcxingji.seal.service.BulkStampService;
 import cn.tcxingji.seal.service.ContractService;
 import cn.tcxingji.seal.service.SealStampService;
+import cn.tcxingji.seal.service.StampJobService;
+import cn.tcxingji.seal.signing.SigningKeyStore;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,8 +38,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -43,8 +61,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ContractController {
 
+    /**
+     * 幂等键请求头：客户端重试时携带相同的值，服务端返回首次请求的结果而不重复盖章
+     */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final ContractService contractService;
     private final SealStampService sealStampService;
+    private final StampJobService stampJobService;
+    private final BulkStampService bulkStampService;
+    private final StampIdempotencyManager stampIdempotencyManager;
+    private final SigningKeyStore signingKeyStore;
 
     /**
      * 上传 PDF 合同文件
@@ -189,18 +216,21 @@ public class ContractController {
      * 在合同指定位置盖章
      * </p>
      *
-     * @param id      合同ID
-     * @param request 盖章请求
+     * @param id             合同ID
+     * @param request        盖章请求
+     * @param idempotencyKey 幂等键（可选）
      * @return 盖章响应
      */
     @PostMapping("/{id}/seal")
     public ApiResponse<ContractSealResponse> seal(
             @PathVariable Long id,
-            @Valid @RequestBody ContractSealRequest request) {
+            @Valid @RequestBody ContractSealRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         log.info("执行盖章: contractId={}, sealId={}, positions={}",
                 id, request.getSealId(), request.getPositions().size());
-        ContractSealResponse response = sealStampService.stamp(id, request);
+        ContractSealResponse response = stampIdempotencyManager.execute(idempotencyKey, id,
+                StampJob.JobType.STAMP, request, () -> sealStampService.stamp(id, request));
         return ApiResponse.success("盖章成功", response);
     }
 
@@ -210,20 +240,68 @@ public class ContractController {
      * 使用多个印章在多个位置盖章
      * </p>
      *
-     * @param id       合同ID
-     * @param requests 盖章请求列表
+     * @param id             合同ID
+     * @param requests       盖章请求列表
+     * @param idempotencyKey 幂等键（可选）
      * @return 盖章响应
      */
     @PostMapping("/{id}/seal/batch")
     public ApiResponse<ContractSealResponse> batchSeal(
             @PathVariable Long id,
-            @Valid @RequestBody List<ContractSealRequest> requests) {
+            @Valid @RequestBody List<ContractSealRequest> requests,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         log.info("批量盖章: contractId={}, 印章数={}", id, requests.size());
-        ContractSealResponse response = sealStampService.batchStamp(id, requests);
+        ContractSealResponse response = stampIdempotencyManager.execute(idempotencyKey, id,
+                StampJob.JobType.BATCH, requests, () -> sealStampService.batchStamp(id, requests));
         return ApiResponse.success("批量盖章成功", response);
     }
 
+    /**
+     * 按盖章版式盖章
+     * <p>
+     * 盖章位置取自已保存的版式，请求只需指定版式和签章角色绑定
+     * </p>
+     *
+     * @param id             合同ID
+     * @param request        版式盖章请求
+     * @param idempotencyKey 幂等键（可选）
+     * @return 盖章响应
+     */
+    @PostMapping("/{id}/seal/layout")
+    public ApiResponse<ContractSealResponse> layoutSeal(
+            @PathVariable Long id,
+            @Valid @RequestBody StampLayoutApplyRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+
+        log.info("版式盖章: contractId={}, layoutId={}, roles={}",
+                id, request.getLayoutId(), request.getBindings().size());
+        ContractSealResponse response = stampIdempotencyManager.execute(idempotencyKey, id,
+                StampJob.JobType.LAYOUT, request, () -> sealStampService.applyLayout(id, request));
+        return ApiResponse.success("版式盖章成功", response);
+    }
+
+    /**
+     * 盖章预览
+     * <p>
+     * 在页面预览图上合成印章，返回盖章区域的图块；不生成签章文件、不记录签章
+     * </p>
+     *
+     * @param id      合同ID
+     * @param request 盖章预览请求
+     * @return 预览响应
+     */
+    @PostMapping("/{id}/seal/preview")
+    public ApiResponse<StampPreviewResponse> previewSeal(
+            @PathVariable Long id,
+            @Valid @RequestBody StampPreviewRequest request) {
+
+        log.debug("盖章预览: contractId={}, sealId={}, signatureId={}, positions={}",
+                id, request.getSealId(), request.getSignatureId(), request.getPositions().size());
+        StampPreviewResponse response = sealStampService.previewStamp(id, request);
+        return ApiResponse.success(response);
+    }
+
     /**
      * 获取合同的签章记录
      *
@@ -237,26 +315,216 @@ public class ContractController {
         return ApiResponse.success(response);
     }
 
+    /**
+     * 获取页面上的已盖章位置（页面叠加层）
+     * <p>
+     * 从服务端已盖章位置索引读取指定页的有效签章；同时指定 x/y/width/height 时只返回与该区域相交的签章
+     * </p>
+     *
+     * @param id         合同ID
+     * @param pageNumber 页码
+     * @param x          区域左下角 X（可选）
+     * @param y          区域左下角 Y（可选）
+     * @param width      区域宽度（可选）
+     * @param height     区域高度（可选）
+     * @return 签章位置列表
+     */
+    @GetMapping("/{id}/seal/placements")
+    public ApiResponse<List<SealPlacementResponse>> getSealPlacements(
+            @PathVariable Long id,
+            @RequestParam("page") Integer pageNumber,
+            @RequestParam(value = "x", required = false) BigDecimal x,
+            @RequestParam(value = "y", required = false) BigDecimal y,
+            @RequestParam(value = "width", required = false) BigDecimal width,
+            @RequestParam(value = "height", required = false) BigDecimal height) {
+
+        log.debug("获取页面签章位置: contractId={}, page={}", id, pageNumber);
+        SealPositionRequest region = x != null && y != null && width != null && height != null
+                ? SealPositionRequest.builder().x(x).y(y).width(width).height(height).build()
+                : null;
+        List<SealPlacementResponse> response = sealStampService.getPlacements(id, pageNumber, region);
+        return ApiResponse.success(response);
+    }
+
+    /**
+     * 获取页面空位建议
+     * <p>
+     * 返回可放下指定尺寸印章且不与已有签章相交的位置，按与期望位置（默认右下角）的距离由近到远排列
+     * </p>
+     *
+     * @param id      合同ID
+     * @param request 空位建议请求
+     * @return 建议位置列表
+     */
+    @GetMapping("/{id}/seal/placements/suggest")
+    public ApiResponse<List<SealPlacementResponse>> suggestSealPlacements(
+            @PathVariable Long id,
+            SealSpaceSuggestRequest request) {
+
+        log.debug("获取盖章空位建议: contractId={}, page={}, size={}x{}",
+                id, request.getPageNumber(), request.getWidth(), request.getHeight());
+        List<SealPlacementResponse> response = sealStampService.suggestPlacements(id, request);
+        return ApiResponse.success(response);
+    }
+
+    /**
+     * 撤销最近一次盖章
+     * <p>
+     * 增量更新的盖章直接截断签章后文件，不重新盖之前的章；该次盖章的签章记录标记为已撤销
+     * </p>
+     *
+     * @param id       合同ID
+     * @param revision 预期撤销的修订序号（可选，防止重复提交撤销多次）
+     * @return 撤销结果
+     */
+    @PostMapping("/{id}/seal/undo")
+    public ApiResponse<StampUndoResponse> undoSeal(
+            @PathVariable Long id,
+            @RequestParam(value = "revision", required = false) Integer revision) {
+
+        log.info("撤销盖章: contractId={}, revision={}", id, revision);
+        StampUndoResponse response = sealStampService.undoLastStamp(id, revision);
+        return ApiResponse.success("撤销盖章成功", response);
+    }
+
     /**
      * 添加骑缝章
      * <p>
      * 将印章按页数分割，每页右边缘显示一部分，合并后形成完整印章
      * </p>
      *
-     * @param id      合同ID
-     * @param request 骑缝章请求
+     * @param id             合同ID
+     * @param request        骑缝章请求
+     * @param idempotencyKey 幂等键（可选）
      * @return 盖章响应
      */
     @PostMapping("/{id}/seal/perforation")
     public ApiResponse<ContractSealResponse> perforationSeal(
             @PathVariable Long id,
-            @Valid @RequestBody PerforationSealRequest request) {
+            @Valid @RequestBody PerforationSealRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         log.info("添加骑缝章: contractId={}, sealId={}", id, request.getSealId());
-        ContractSealResponse response = sealStampService.perforationStamp(id, request);
+        ContractSealResponse response = stampIdempotencyManager.execute(idempotencyKey, id,
+                StampJob.JobType.PERFORATION, request, () -> sealStampService.perforationStamp(id, request));
         return ApiResponse.success("骑缝章添加成功", response);
     }
 
+    /**
+     * 多合同批量盖章
+     * <p>
+     * 使用同一印章、同一组位置（或同一盖章版式）为多份合同盖章，并行处理并以 SSE 逐份返回结果：
+     * 每份合同完成推送 item 事件，全部完成推送 done 事件
+     * </p>
+     *
+     * @param request 批量盖章请求
+     * @return SSE 事件流
+     */
+    @PostMapping(value = "/seal/bulk", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bulkSeal(@Valid @RequestBody BulkSealRequest request) {
+        log.info("多合同批量盖章: contractIds={}, ownerId={}, status={}",
+                request.getContractIds() != null ? request.getContractIds().size() : null,
+                request.getOwnerId(), request.getStatus());
+        return bulkStampService.bulkStamp(request);
+    }
+
+    // ==================== 异步盖章接口 ====================
+
+    /**
+     * 异步盖章
+     * <p>
+     * 写入任务队列后立即返回任务ID，通过 /api/stamp-jobs/{jobId} 查询或订阅结果
+     * </p>
+     *
+     * @param id      合同ID
+     * @param request 盖章请求
+     * @return 任务响应
+     */
+    @PostMapping("/{id}/seal/async")
+    public ApiResponse<StampJobResponse> sealAsync(
+            @PathVariable Long id,
+            @Valid @RequestBody ContractSealRequest request) {
+
+        log.info("提交异步盖章: contractId={}, sealId={}, positions={}",
+                id, request.getSealId(), request.getPositions().size());
+        StampJobResponse response = stampJobService.submitStamp(id, request);
+        return ApiResponse.success("盖章任务已提交", response);
+    }
+
+    /**
+     * 异步批量盖章
+     *
+     * @param id       合同ID
+     * @param requests 盖章请求列表
+     * @return 任务响应
+     */
+    @PostMapping("/{id}/seal/batch/async")
+    public ApiResponse<StampJobResponse> batchSealAsync(
+            @PathVariable Long id,
+            @Valid @RequestBody List<ContractSealRequest> requests) {
+
+        log.info("提交异步批量盖章: contractId={}, 印章数={}", id, requests.size());
+        StampJobResponse response = stampJobService.submitBatch(id, requests);
+        return ApiResponse.success("批量盖章任务已提交", response);
+    }
+
+    /**
+     * 异步添加骑缝章
+     *
+     * @param id      合同ID
+     * @param request 骑缝章请求
+     * @return 任务响应
+     */
+    @PostMapping("/{id}/seal/perforation/async")
+    public ApiResponse<StampJobResponse> perforationSealAsync(
+            @PathVariable Long id,
+            @Valid @RequestBody PerforationSealRequest request) {
+
+        log.info("提交异步骑缝章: contractId={}, sealId={}", id, request.getSealId());
+        StampJobResponse response = stampJobService.submitPerforation(id, request);
+        return ApiResponse.success("骑缝章任务已提交", response);
+    }
+
+    // ==================== 数字签名接口 ====================
+
+    /**
+     * 数字签名
+     * <p>
+     * 对合同当前版本追加 PAdES-B 数字签名（私钥来自本地 PKCS#12 密钥库），可通过撤销盖章接口撤销
+     * </p>
+     *
+     * @param id      合同ID
+     * @param request 签名请求（可选）
+     * @return 签名响应
+     */
+    @PostMapping("/{id}/sign")
+    public ApiResponse<ContractSealResponse> digitalSign(
+            @PathVariable Long id,
+            @RequestBody(required = false) DigitalSignRequest request) {
+
+        String signerName = request != null ? request.getSignerName() : null;
+        log.info("数字签名: contractId={}, signer={}", id, signerName);
+        ContractSealResponse response = sealStampService.digitalSign(id, signingKeyStore.unlock(), signerName);
+        return ApiResponse.success("数字签名成功", response);
+    }
+
+    /**
+     * 多合同批量数字签名
+     * <p>
+     * 私钥只解锁一次，各合同并行签名并以 SSE 逐份返回结果：每完成一份推送 item 事件，全部完成推送 done 事件
+     * </p>
+     *
+     * @param request 批量签名请求
+     * @return SSE 事件流
+     */
+    @PostMapping(value = "/sign/bulk", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bulkSign(@RequestBody BulkSignRequest request) {
+        log.info("多合同批量签名: contractIds={}, ownerId={}, status={}",
+                request.getContractIds() != null ? request.getContractIds().size() : null,
+                request.getOwnerId(), request.getStatus());
+        return bulkStampService.bulkSign(request);
+    }
+
     // ==================== 下载接口 ====================
 
     /**
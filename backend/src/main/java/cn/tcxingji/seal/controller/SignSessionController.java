@@ -0,0 +1,97 @@
+package cn.tcxingji.seal.controller;
+
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.SignSessionCreateRequest;
+import cn.tcxingji.seal.dto.response.ApiResponse;
+import cn.tcxingji.seal.dto.response.SignSessionResponse;
+import cn.tcxingji.seal.service.SignSessionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 多方签署会话控制器
+ * <p>
+ * 各签署方分别提交签章，全部就绪后服务端在一次合同锁内合并为一个增量更新
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sign-sessions")
+@RequiredArgsConstructor
+public class SignSessionController {
+
+    private final SignSessionService signSessionService;
+
+    /**
+     * 创建签署会话
+     *
+     * @param request 创建请求
+     * @return 会话响应
+     */
+    @PostMapping
+    public ApiResponse<SignSessionResponse> create(@Valid @RequestBody SignSessionCreateRequest request) {
+        log.info("创建签署会话请求: contractId={}, expectedSigners={}",
+                request.getContractId(), request.getExpectedSigners());
+        return ApiResponse.success("签署会话已创建", signSessionService.create(request));
+    }
+
+    /**
+     * 查询签署会话
+     *
+     * @param id 会话ID
+     * @return 会话响应
+     */
+    @GetMapping("/{id}")
+    public ApiResponse<SignSessionResponse> getSession(@PathVariable Long id) {
+        return ApiResponse.success(signSessionService.getSession(id));
+    }
+
+    /**
+     * 查询合同的签署会话
+     *
+     * @param contractId 合同ID
+     * @return 会话列表
+     */
+    @GetMapping("/contract/{contractId}")
+    public ApiResponse<List<SignSessionResponse>> getSessionsByContract(@PathVariable Long contractId) {
+        return ApiResponse.success(signSessionService.getSessionsByContract(contractId));
+    }
+
+    /**
+     * 提交签署方签章
+     * <p>
+     * 最后一个预期签署方提交后自动合并
+     * </p>
+     *
+     * @param id      会话ID
+     * @param request 盖章请求
+     * @return 会话响应
+     */
+    @PostMapping("/{id}/signers")
+    public ApiResponse<SignSessionResponse> addSigner(
+            @PathVariable Long id,
+            @Valid @RequestBody ContractSealRequest request) {
+
+        log.info("提交签署方: sessionId={}, sealId={}, signatureId={}, positions={}",
+                id, request.getSealId(), request.getSignatureId(), request.getPositions().size());
+        return ApiResponse.success("签署方已提交", signSessionService.addSigner(id, request));
+    }
+
+    /**
+     * 以已提交的签署方完成会话
+     *
+     * @param id 会话ID
+     * @return 会话响应
+     */
+    @PostMapping("/{id}/complete")
+    public ApiResponse<SignSessionResponse> complete(@PathVariable Long id) {
+        log.info("完成签署会话: sessionId={}", id);
+        return ApiResponse.success(signSessionService.complete(id));
+    }
+}
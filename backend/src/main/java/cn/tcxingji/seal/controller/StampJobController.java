@@ -0,0 +1,67 @@
+package cn.tcxingji.seal.controller;
+
+import cn.tcxingji.seal.dto.response.ApiResponse;
+import cn.tcxingji.seal.dto.response.StampJobResponse;
+import cn.tcxingji.seal.service.StampJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * 异步盖章任务控制器
+ * <p>
+ * 提供盖章任务的状态查询和 SSE 订阅接口，任务由
+ * {@code /api/contracts/{id}/seal/async} 等接口提交
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stamp-jobs")
+@RequiredArgsConstructor
+public class StampJobController {
+
+    private final StampJobService stampJobService;
+
+    /**
+     * 查询任务状态
+     *
+     * @param jobId 任务ID
+     * @return 任务响应
+     */
+    @GetMapping("/{jobId}")
+    public ApiResponse<StampJobResponse> getJob(@PathVariable Long jobId) {
+        return ApiResponse.success(stampJobService.getJob(jobId));
+    }
+
+    /**
+     * 查询合同的任务列表
+     *
+     * @param contractId 合同ID
+     * @return 任务列表
+     */
+    @GetMapping("/contract/{contractId}")
+    public ApiResponse<List<StampJobResponse>> getJobsByContract(@PathVariable Long contractId) {
+        return ApiResponse.success(stampJobService.getJobsByContract(contractId));
+    }
+
+    /**
+     * 订阅任务状态（SSE）
+     * <p>
+     * 事件名为 job，数据为 {@link StampJobResponse}；任务结束后服务端关闭连接
+     * </p>
+     *
+     * @param jobId 任务ID
+     * @return SSE 事件流
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long jobId) {
+        log.debug("订阅盖章任务: jobId={}", jobId);
+        return stampJobService.subscribe(jobId);
+    }
+}
@@ -0,0 +1,104 @@
+package cn.tcxingji.seal.controller;
+
+import cn.tcxingji.seal.dto.request.StampLayoutRequest;
+import cn.tcxingji.seal.dto.response.ApiResponse;
+import cn.tcxingji.seal.dto.response.StampLayoutResponse;
+import cn.tcxingji.seal.service.StampLayoutService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 盖章版式控制器
+ * <p>
+ * 提供盖章版式的增删改查接口，按版式盖章由 {@code /api/contracts/{id}/seal/layout} 等接口完成
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stamp-layouts")
+@RequiredArgsConstructor
+public class StampLayoutController {
+
+    private final StampLayoutService stampLayoutService;
+
+    /**
+     * 创建版式
+     *
+     * @param request 创建请求
+     * @return 版式响应
+     */
+    @PostMapping
+    public ApiResponse<StampLayoutResponse> create(@Valid @RequestBody StampLayoutRequest request) {
+        log.info("创建盖章版式请求: {}", request.getLayoutName());
+        return ApiResponse.success("版式创建成功", stampLayoutService.create(request));
+    }
+
+    /**
+     * 获取版式详情
+     *
+     * @param id 版式ID
+     * @return 版式响应
+     */
+    @GetMapping("/{id}")
+    public ApiResponse<StampLayoutResponse> getById(@PathVariable Long id) {
+        return ApiResponse.success(stampLayoutService.getById(id));
+    }
+
+    /**
+     * 更新版式（整体替换条目）
+     *
+     * @param id      版式ID
+     * @param request 更新请求
+     * @return 版式响应
+     */
+    @PutMapping("/{id}")
+    public ApiResponse<StampLayoutResponse> update(@PathVariable Long id,
+                                                   @Valid @RequestBody StampLayoutRequest request) {
+        log.info("更新盖章版式请求: id={}", id);
+        return ApiResponse.success("版式更新成功", stampLayoutService.update(id, request));
+    }
+
+    /**
+     * 更新版式状态（启用/禁用）
+     *
+     * @param id     版式ID
+     * @param status 新状态（0-禁用 1-启用）
+     * @return 版式响应
+     */
+    @PutMapping("/{id}/status")
+    public ApiResponse<StampLayoutResponse> updateStatus(@PathVariable Long id,
+                                                         @RequestParam Integer status) {
+        log.info("更新盖章版式状态请求: id={}, status={}", id, status);
+        return ApiResponse.success("状态更新成功", stampLayoutService.updateStatus(id, status));
+    }
+
+    /**
+     * 删除版式
+     *
+     * @param id 版式ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> delete(@PathVariable Long id) {
+        log.info("删除盖章版式请求: id={}", id);
+        stampLayoutService.delete(id);
+        return ApiResponse.success("版式删除成功", null);
+    }
+
+    /**
+     * 获取所有者的版式列表
+     *
+     * @param ownerId 所有者ID
+     * @return 版式列表
+     */
+    @GetMapping("/owner/{ownerId}")
+    public ApiResponse<List<StampLayoutResponse>> listByOwner(@PathVariable Long ownerId) {
+        return ApiResponse.success(stampLayoutService.listByOwner(ownerId));
+    }
+}
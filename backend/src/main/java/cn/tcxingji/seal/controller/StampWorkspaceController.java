@@ -0,0 +1,95 @@
+package cn.tcxingji.seal.controller;
+
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.StampWorkspaceOpenRequest;
+import cn.tcxingji.seal.dto.response.ApiResponse;
+import cn.tcxingji.seal.dto.response.StampWorkspaceResponse;
+import cn.tcxingji.seal.service.StampWorkspaceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 盖章工作区控制器
+ * <p>
+ * 打开工作区后逐个放置印章/签名，每次只修改服务端内存中的文档，提交时一次生成签章后文件。
+ * 工作区保存在处理打开请求的实例上，同一工作区的后续请求需路由到同一实例
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stamp-workspaces")
+@RequiredArgsConstructor
+public class StampWorkspaceController {
+
+    private final StampWorkspaceService stampWorkspaceService;
+
+    /**
+     * 打开工作区
+     *
+     * @param request 打开请求
+     * @return 工作区响应
+     */
+    @PostMapping
+    public ApiResponse<StampWorkspaceResponse> open(@Valid @RequestBody StampWorkspaceOpenRequest request) {
+        log.info("打开盖章工作区请求: contractId={}, sealOwnerId={}, signatureUserId={}",
+                request.getContractId(), request.getSealOwnerId(), request.getSignatureUserId());
+        return ApiResponse.success("工作区已打开", stampWorkspaceService.open(request));
+    }
+
+    /**
+     * 查询工作区
+     *
+     * @param id 工作区ID
+     * @return 工作区响应
+     */
+    @GetMapping("/{id}")
+    public ApiResponse<StampWorkspaceResponse> getWorkspace(@PathVariable String id) {
+        return ApiResponse.success(stampWorkspaceService.getWorkspace(id));
+    }
+
+    /**
+     * 在工作区内盖章
+     *
+     * @param id      工作区ID
+     * @param request 盖章请求
+     * @return 工作区响应（含本次盖章的位置）
+     */
+    @PostMapping("/{id}/placements")
+    public ApiResponse<StampWorkspaceResponse> place(
+            @PathVariable String id,
+            @Valid @RequestBody ContractSealRequest request) {
+
+        log.debug("工作区盖章: workspaceId={}, sealId={}, signatureId={}, positions={}",
+                id, request.getSealId(), request.getSignatureId(), request.getPositions().size());
+        return ApiResponse.success(stampWorkspaceService.place(id, request));
+    }
+
+    /**
+     * 提交工作区
+     *
+     * @param id 工作区ID
+     * @return 工作区响应（含提交结果）
+     */
+    @PostMapping("/{id}/commit")
+    public ApiResponse<StampWorkspaceResponse> commit(@PathVariable String id) {
+        log.info("提交盖章工作区: workspaceId={}", id);
+        return ApiResponse.success("盖章成功", stampWorkspaceService.commit(id));
+    }
+
+    /**
+     * 丢弃工作区
+     *
+     * @param id 工作区ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> discard(@PathVariable String id) {
+        log.info("丢弃盖章工作区: workspaceId={}", id);
+        stampWorkspaceService.discard(id);
+        return ApiResponse.success("工作区已丢弃", null);
+    }
+}
@@ -0,0 +1,54 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 多合同批量盖章请求 DTO
+ * <p>
+ * 使用同一印章、同一组位置为多份合同盖章。合同范围二选一：
+ * 1. 指定 contractIds
+ * 2. 指定 ownerId（+ status，默认待签章）按条件查询
+ * 盖章方式二选一：sealRequest（印章 + 位置）或 layoutRequest（盖章版式 + 角色绑定）
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSealRequest {
+
+    /**
+     * 合同ID列表（优先使用）
+     */
+    private List<Long> contractIds;
+
+    /**
+     * 所有者ID（未指定 contractIds 时必填）
+     */
+    private Long ownerId;
+
+    /**
+     * 合同状态（按条件查询时使用，默认 0-待签章）
+     */
+    private Integer status;
+
+    /**
+     * 盖章请求（所有合同共用，与 layoutRequest 二选一）
+     */
+    @Valid
+    private ContractSealRequest sealRequest;
+
+    /**
+     * 版式盖章请求（所有合同共用，与 sealRequest 二选一）
+     */
+    @Valid
+    private StampLayoutApplyRequest layoutRequest;
+}
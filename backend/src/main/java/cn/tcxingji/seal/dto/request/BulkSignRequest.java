@@ -0,0 +1,45 @@
+package cn.tcxingji.seal.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 多合同批量数字签名请求 DTO
+ * <p>
+ * 合同范围二选一：
+ * 1. 指定 contractIds
+ * 2. 指定 ownerId（+ status，默认已签章）按条件查询
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSignRequest {
+
+    /**
+     * 合同ID列表（优先使用）
+     */
+    private List<Long> contractIds;
+
+    /**
+     * 所有者ID（未指定 contractIds 时必填）
+     */
+    private Long ownerId;
+
+    /**
+     * 合同状态（按条件查询时使用，默认 2-已签章）
+     */
+    private Integer status;
+
+    /**
+     * 签名人名称（为空时使用证书主题）
+     */
+    private String signerName;
+}
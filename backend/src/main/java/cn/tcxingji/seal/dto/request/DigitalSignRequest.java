@@ -0,0 +1,23 @@
+package cn.tcxingji.seal.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 数字签名请求 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DigitalSignRequest {
+
+    /**
+     * 签名人名称（为空时使用证书主题）
+     */
+    private String signerName;
+}
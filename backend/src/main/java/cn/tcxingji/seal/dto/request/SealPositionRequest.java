@@ -1,7 +1,6 @@
 package cn.tcxingji.seal.dto.request;
 
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,7 +11,9 @@ import java.math.BigDecimal;
 /**
  * 印章位置请求 DTO
  * <p>
- * 定义印章在 PDF 页面上的位置和大小
+ * 定义印章在 PDF 页面上的位置和大小。可直接指定页码和坐标，
+ * 也可指定锚点文本（如"甲方（盖章）"），由服务端按合同文本位置索引定位，
+ * 印章中心对齐锚点文本中心再加上偏移量
  * </p>
  *
  * @author TC System
@@ -24,22 +25,19 @@ import java.math.BigDecimal;
 public class SealPositionRequest {
 
     /**
-     * 页码（从1开始）
+     * 页码（从1开始；指定锚点时可选，用于限定查找页）
      */
-    @NotNull(message = "页码不能为空")
     @Min(value = 1, message = "页码必须大于0")
     private Integer pageNumber;
 
     /**
-     * X坐标（距左边距离，单位：pt/点）
+     * X坐标（距左边距离，单位：pt/点；未指定锚点时必填）
      */
-    @NotNull(message = "X坐标不能为空")
     private BigDecimal x;
 
     /**
-     * Y坐标（距下边距离，单位：pt/点，PDF坐标系原点在左下角）
+     * Y坐标（距下边距离，单位：pt/点，PDF坐标系原点在左下角；未指定锚点时必填）
      */
-    @NotNull(message = "Y坐标不能为空")
     private BigDecimal y;
 
     /**
@@ -53,4 +51,25 @@ public class SealPositionRequest {
      */
     @Builder.Default
     private BigDecimal height = new BigDecimal("120");
+
+    /**
+     * 锚点文本（可选，指定后按文本位置定位，忽略 x/y）
+     */
+    private String anchorText;
+
+    /**
+     * 锚点第几次出现（从1开始，默认1）
+     */
+    @Min(value = 1, message = "锚点出现次序必须大于0")
+    private Integer anchorOccurrence;
+
+    /**
+     * 相对锚点中心的水平偏移（pt，向右为正）
+     */
+    private BigDecimal anchorOffsetX;
+
+    /**
+     * 相对锚点中心的垂直偏移（pt，向上为正）
+     */
+    private BigDecimal anchorOffsetY;
 }
@@ -0,0 +1,68 @@
+package cn.tcxingji.seal.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 盖章空位建议请求 DTO
+ * <p>
+ * 坐标和尺寸单位为 pt，PDF 坐标系原点在左下角
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SealSpaceSuggestRequest {
+
+    /**
+     * 页码（从1开始）
+     */
+    private Integer pageNumber;
+
+    /**
+     * 印章宽度
+     */
+    @Builder.Default
+    private BigDecimal width = new BigDecimal("120");
+
+    /**
+     * 印章高度
+     */
+    @Builder.Default
+    private BigDecimal height = new BigDecimal("120");
+
+    /**
+     * 页面宽度（默认 A4）
+     */
+    @Builder.Default
+    private BigDecimal pageWidth = new BigDecimal("595");
+
+    /**
+     * 页面高度（默认 A4）
+     */
+    @Builder.Default
+    private BigDecimal pageHeight = new BigDecimal("842");
+
+    /**
+     * 期望位置左下角 X（可选，默认靠右下角）
+     */
+    private BigDecimal nearX;
+
+    /**
+     * 期望位置左下角 Y（可选，默认靠右下角）
+     */
+    private BigDecimal nearY;
+
+    /**
+     * 最多返回建议数
+     */
+    @Builder.Default
+    private Integer limit = 5;
+}
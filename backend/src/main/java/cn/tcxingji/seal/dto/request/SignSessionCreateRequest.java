@@ -0,0 +1,44 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 创建多方签署会话请求 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignSessionCreateRequest {
+
+    /**
+     * 合同ID
+     */
+    @NotNull(message = "合同ID不能为空")
+    private Long contractId;
+
+    /**
+     * 预期签署方数量（全部提交后自动合并）
+     */
+    @NotNull(message = "签署方数量不能为空")
+    @Min(value = 1, message = "签署方数量必须大于0")
+    private Integer expectedSigners;
+
+    /**
+     * 发起人ID
+     */
+    @NotNull(message = "操作人ID不能为空")
+    private Long operatorId;
+
+    /**
+     * 发起人姓名
+     */
+    private String operatorName;
+}
@@ -0,0 +1,50 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 按盖章版式盖章请求 DTO
+ * <p>
+ * 只需指定版式和角色绑定，盖章位置由版式给出；可只绑定部分角色（如甲方先盖、乙方后盖）
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampLayoutApplyRequest {
+
+    /**
+     * 版式ID
+     */
+    @NotNull(message = "版式ID不能为空")
+    private Long layoutId;
+
+    /**
+     * 角色绑定
+     */
+    @NotEmpty(message = "角色绑定不能为空")
+    @Valid
+    private List<StampLayoutBindingRequest> bindings;
+
+    /**
+     * 操作人ID
+     */
+    @NotNull(message = "操作人ID不能为空")
+    private Long operatorId;
+
+    /**
+     * 操作人姓名
+     */
+    private String operatorName;
+}
@@ -0,0 +1,44 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 盖章版式角色绑定 DTO
+ * <p>
+ * 为版式中的签章角色指定印章（sealType=1,2）或个人签名（sealType=3）
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampLayoutBindingRequest {
+
+    /**
+     * 签章角色
+     */
+    @NotBlank(message = "签章角色不能为空")
+    private String sealRole;
+
+    /**
+     * 印章ID（sealType=1,2 时必填）
+     */
+    private Long sealId;
+
+    /**
+     * 个人签名ID（sealType=3 时必填）
+     */
+    private Long signatureId;
+
+    /**
+     * 签章类型（1-普通章 2-骑缝章 3-个人签名）
+     */
+    @Builder.Default
+    private Integer sealType = 1;
+}
@@ -0,0 +1,70 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 盖章版式条目 DTO
+ * <p>
+ * 页码选择支持：单页（3）、范围（2-4）、首页（first）、末页（last）、
+ * 到末页的范围（2-last）、全部页（all），多项用英文逗号分隔（如 1,last）
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampLayoutItemRequest {
+
+    /**
+     * 页码选择
+     */
+    @NotBlank(message = "页码选择不能为空")
+    @Size(max = 100, message = "页码选择不能超过100个字符")
+    private String pageSelector;
+
+    /**
+     * X坐标（距左边距离，单位：pt）
+     */
+    @NotNull(message = "X坐标不能为空")
+    @DecimalMin(value = "0", message = "X坐标不能为负数")
+    private BigDecimal x;
+
+    /**
+     * Y坐标（距下边距离，单位：pt）
+     */
+    @NotNull(message = "Y坐标不能为空")
+    @DecimalMin(value = "0", message = "Y坐标不能为负数")
+    private BigDecimal y;
+
+    /**
+     * 印章宽度（pt）
+     */
+    @Builder.Default
+    @DecimalMin(value = "0", inclusive = false, message = "印章宽度必须大于0")
+    private BigDecimal width = new BigDecimal("120");
+
+    /**
+     * 印章高度（pt）
+     */
+    @Builder.Default
+    @DecimalMin(value = "0", inclusive = false, message = "印章高度必须大于0")
+    private BigDecimal height = new BigDecimal("120");
+
+    /**
+     * 签章角色（如 partyA、partyB，盖章时绑定具体的印章或个人签名）
+     */
+    @NotBlank(message = "签章角色不能为空")
+    @Size(max = 50, message = "签章角色不能超过50个字符")
+    private String sealRole;
+}
@@ -0,0 +1,70 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 盖章版式创建/更新请求 DTO
+ * <p>
+ * 更新时整体替换版式条目
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampLayoutRequest {
+
+    /**
+     * 版式名称
+     */
+    @NotBlank(message = "版式名称不能为空")
+    @Size(max = 100, message = "版式名称不能超过100个字符")
+    private String layoutName;
+
+    /**
+     * 所有者ID
+     */
+    @NotNull(message = "所有者ID不能为空")
+    private Long ownerId;
+
+    /**
+     * 参考页面宽度（pt，默认 A4）
+     */
+    @Builder.Default
+    @DecimalMin(value = "0", inclusive = false, message = "参考页面宽度必须大于0")
+    private BigDecimal pageWidth = new BigDecimal("595");
+
+    /**
+     * 参考页面高度（pt，默认 A4）
+     */
+    @Builder.Default
+    @DecimalMin(value = "0", inclusive = false, message = "参考页面高度必须大于0")
+    private BigDecimal pageHeight = new BigDecimal("842");
+
+    /**
+     * 版式条目
+     */
+    @NotEmpty(message = "版式条目不能为空")
+    @Valid
+    private List<StampLayoutItemRequest> items;
+
+    /**
+     * 操作人
+     */
+    @Size(max = 50, message = "操作人不能超过50个字符")
+    private String operatorName;
+}
@@ -0,0 +1,48 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 盖章预览请求 DTO
+ * <p>
+ * 与盖章请求使用相同的印章/签名和位置参数，但只生成预览，不写文件、不记录签章
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampPreviewRequest {
+
+    /**
+     * 印章ID（sealType=1,2 时必填）
+     */
+    private Long sealId;
+
+    /**
+     * 个人签名ID（sealType=3 时必填）
+     */
+    private Long signatureId;
+
+    /**
+     * 盖章位置列表
+     */
+    @NotEmpty(message = "盖章位置不能为空")
+    @Valid
+    private List<SealPositionRequest> positions;
+
+    /**
+     * 签章类型（1-普通章 2-骑缝章 3-个人签名）
+     */
+    @Builder.Default
+    private Integer sealType = 1;
+}
@@ -0,0 +1,55 @@
+package cn.tcxingji.seal.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 打开盖章工作区请求 DTO
+ * <p>
+ * 印章所有者和签名用户至少指定一个；工作区内只能使用其名下已启用的印章/签名
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampWorkspaceOpenRequest {
+
+    /**
+     * 合同ID
+     */
+    @NotNull(message = "合同ID不能为空")
+    private Long contractId;
+
+    /**
+     * 印章所有者ID
+     */
+    private Long sealOwnerId;
+
+    /**
+     * 印章所有者类型（1-企业 2-个人）
+     */
+    @Builder.Default
+    private Integer sealOwnerType = 1;
+
+    /**
+     * 个人签名所属用户ID
+     */
+    private Long signatureUserId;
+
+    /**
+     * 操作人ID
+     */
+    @NotNull(message = "操作人ID不能为空")
+    private Long operatorId;
+
+    /**
+     * 操作人姓名
+     */
+    private String operatorName;
+}
@@ -0,0 +1,53 @@
+package cn.tcxingji.seal.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 多合同批量盖章单项结果 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSealItemResponse {
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 是否成功
+     */
+    private Boolean success;
+
+    /**
+     * 盖章结果（成功时返回）
+     */
+    private ContractSealResponse result;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Long costMs;
+
+    /**
+     * 已完成数量（含本项）
+     */
+    private Integer completed;
+
+    /**
+     * 总数量
+     */
+    private Integer total;
+}
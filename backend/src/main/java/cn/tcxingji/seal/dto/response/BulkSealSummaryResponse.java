@@ -0,0 +1,45 @@
+package cn.tcxingji.seal.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 多合同批量盖章汇总 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSealSummaryResponse {
+
+    /**
+     * 总数量
+     */
+    private Integer total;
+
+    /**
+     * 成功数量
+     */
+    private Integer successCount;
+
+    /**
+     * 失败数量
+     */
+    private Integer failedCount;
+
+    /**
+     * 失败的合同ID列表
+     */
+    private List<Long> failedContractIds;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private Long costMs;
+}
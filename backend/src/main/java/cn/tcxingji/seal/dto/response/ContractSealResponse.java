@@ -47,4 +47,9 @@ public class ContractSealResponse {
      * 处理消息
      */
     private String message;
+
+    /**
+     * 重叠提示（盖章位置与已有签章重叠且策略为 WARN 时）
+     */
+    private List<String> warnings;
 }
@@ -0,0 +1,113 @@
+package cn.tcxingji.seal.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 保存方案基准测试响应 DTO
+ * <p>
+ * 以合同当前版本（已签章时为签章后文件）为样本，对比各保存方案的输出大小和写出耗时
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaveBenchmarkResponse {
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 源文件字节数
+     */
+    private Long sourceSize;
+
+    /**
+     * 页数
+     */
+    private Integer pageCount;
+
+    /**
+     * 源文件是否包含数字签名（包含时所有方案都按增量更新写出）
+     */
+    private Boolean signed;
+
+    /**
+     * 每个方案的测量次数
+     */
+    private Integer iterations;
+
+    /**
+     * 各方案结果
+     */
+    private List<ProfileResult> profiles;
+
+    /**
+     * 单个保存方案的结果
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProfileResult {
+
+        /**
+         * 方案名称
+         */
+        private String name;
+
+        /**
+         * 保存模式（INCREMENTAL / FULL）
+         */
+        private String saveMode;
+
+        /**
+         * 是否使用对象流和交叉引用流
+         */
+        private Boolean objectStreams;
+
+        /**
+         * 是否移除未引用的 XObject
+         */
+        private Boolean pruneUnused;
+
+        /**
+         * 是否与当前配置相同
+         */
+        private Boolean configured;
+
+        /**
+         * 输出文件字节数
+         */
+        private Long outputSize;
+
+        /**
+         * 输出大小与源文件大小之比
+         */
+        private Double sizeRatio;
+
+        /**
+         * 写出耗时中位数（毫秒）
+         */
+        private Double medianMs;
+
+        /**
+         * 最短写出耗时（毫秒）
+         */
+        private Double minMs;
+
+        /**
+         * 最长写出耗时（毫秒）
+         */
+        private Double maxMs;
+    }
+}
@@ -0,0 +1,83 @@
+package cn.tcxingji.seal.dto.response;
+
+import cn.tcxingji.seal.placement.PlacedSeal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 页面签章位置响应 DTO
+ * <p>
+ * 用于页面叠加层（已盖章位置）和空位建议，坐标为 PDF 坐标系左下角，单位 pt
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SealPlacementResponse {
+
+    /**
+     * 签章记录ID（空位建议为空）
+     */
+    private Long recordId;
+
+    /**
+     * 印章ID或签名ID（空位建议为空）
+     */
+    private Long sealId;
+
+    /**
+     * 签章类型：1-普通章 2-骑缝章 3-个人签名（空位建议为空）
+     */
+    private Integer sealType;
+
+    /**
+     * 页码
+     */
+    private Integer pageNumber;
+
+    /**
+     * X坐标
+     */
+    private BigDecimal x;
+
+    /**
+     * Y坐标
+     */
+    private BigDecimal y;
+
+    /**
+     * 宽度
+     */
+    private BigDecimal width;
+
+    /**
+     * 高度
+     */
+    private BigDecimal height;
+
+    /**
+     * 从签章矩形转换
+     *
+     * @param seal 签章矩形
+     * @return 响应 DTO
+     */
+    public static SealPlacementResponse fromPlaced(PlacedSeal seal) {
+        return SealPlacementResponse.builder()
+                .recordId(seal.recordId())
+                .sealId(seal.sealId())
+                .sealType(seal.sealType())
+                .pageNumber(seal.pageNumber())
+                .x(BigDecimal.valueOf(seal.x()))
+                .y(BigDecimal.valueOf(seal.y()))
+                .width(BigDecimal.valueOf(seal.width()))
+                .height(BigDecimal.valueOf(seal.height()))
+                .build();
+    }
+}
@@ -80,6 +80,16 @@ public class SealRecordResponse {
      */
     private String operatorName;
 
+    /**
+     * 所属盖章修订ID
+     */
+    private Long revisionId;
+
+    /**
+     * 状态：0-有效 1-已撤销
+     */
+    private Integer status;
+
     /**
      * 签章时间
      */
@@ -102,6 +112,8 @@ public class SealRecordResponse {
                 .sealTypeText(getSealTypeText(entity.getSealType()))
                 .operatorId(entity.getOperatorId())
                 .operatorName(entity.getOperatorName())
+                .revisionId(entity.getRevisionId())
+                .status(entity.getStatus())
                 .sealTime(entity.getSealTime())
                 .build();
     }
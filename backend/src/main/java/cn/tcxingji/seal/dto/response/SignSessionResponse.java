@@ -0,0 +1,118 @@
+package cn.tcxingji.seal.dto.response;
+
+import cn.tcxingji.seal.entity.SignSession;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 多方签署会话响应 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignSessionResponse {
+
+    /**
+     * 会话ID
+     */
+    private Long sessionId;
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 基准合同版本号
+     */
+    private Long baseVersion;
+
+    /**
+     * 预期签署方数量
+     */
+    private Integer expectedSigners;
+
+    /**
+     * 已提交签署方数量
+     */
+    private Integer signerCount;
+
+    /**
+     * 状态（0-签署中 1-合并中 2-已完成 3-合并失败）
+     */
+    private Integer status;
+
+    /**
+     * 状态描述
+     */
+    private String statusText;
+
+    /**
+     * 合并结果（完成时返回）
+     */
+    private ContractSealResponse result;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 过期时间
+     */
+    private LocalDateTime expireTime;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 完成时间
+     */
+    private LocalDateTime finishTime;
+
+    /**
+     * 从实体转换（不含结果和签署方数量）
+     *
+     * @param entity 会话实体
+     * @return 响应 DTO
+     */
+    public static SignSessionResponse fromEntity(SignSession entity) {
+        return SignSessionResponse.builder()
+                .sessionId(entity.getId())
+                .contractId(entity.getContractId())
+                .baseVersion(entity.getBaseVersion())
+                .expectedSigners(entity.getExpectedSigners())
+                .status(entity.getStatus())
+                .statusText(getStatusText(entity.getStatus()))
+                .errorMessage(entity.getErrorMessage())
+                .expireTime(entity.getExpireTime())
+                .createTime(entity.getCreateTime())
+                .finishTime(entity.getFinishTime())
+                .build();
+    }
+
+    /**
+     * 获取状态描述
+     */
+    private static String getStatusText(Integer status) {
+        if (status == null) {
+            return "未知";
+        }
+        return switch (status) {
+            case SignSession.Status.OPEN -> "签署中";
+            case SignSession.Status.MERGING -> "合并中";
+            case SignSession.Status.COMPLETED -> "已完成";
+            case SignSession.Status.FAILED -> "合并失败";
+            default -> "未知";
+        };
+    }
+}
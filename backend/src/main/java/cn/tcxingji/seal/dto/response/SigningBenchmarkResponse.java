@@ -0,0 +1,76 @@
+package cn.tcxingji.seal.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 数字签名基准测试响应 DTO
+ * <p>
+ * 以合同当前版本为样本，在指定线程数下并行签名多份副本，不修改合同文件
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SigningBenchmarkResponse {
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 源文件字节数
+     */
+    private Long sourceSize;
+
+    /**
+     * 签名份数
+     */
+    private Integer documents;
+
+    /**
+     * 并行线程数
+     */
+    private Integer threads;
+
+    /**
+     * 签名算法
+     */
+    private String signatureAlgorithm;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private Double totalMs;
+
+    /**
+     * 吞吐量（份/秒）
+     */
+    private Double throughput;
+
+    /**
+     * 每核吞吐量（份/CPU 秒；JVM 不支持线程 CPU 计时时为空）
+     */
+    private Double throughputPerCore;
+
+    /**
+     * 单份签名耗时中位数（毫秒）
+     */
+    private Double p50Ms;
+
+    /**
+     * 单份签名耗时 P99（毫秒）
+     */
+    private Double p99Ms;
+
+    /**
+     * 单份签名最长耗时（毫秒）
+     */
+    private Double maxMs;
+}
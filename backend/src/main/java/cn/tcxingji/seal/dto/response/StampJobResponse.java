@@ -0,0 +1,107 @@
+package cn.tcxingji.seal.dto.response;
+
+import cn.tcxingji.seal.entity.StampJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步盖章任务响应 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampJobResponse {
+
+    /**
+     * 任务ID
+     */
+    private Long jobId;
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 任务类型（1-普通盖章 2-批量盖章 3-骑缝章）
+     */
+    private Integer jobType;
+
+    /**
+     * 状态（0-排队中 1-执行中 2-成功 3-失败）
+     */
+    private Integer status;
+
+    /**
+     * 状态描述
+     */
+    private String statusText;
+
+    /**
+     * 已尝试次数
+     */
+    private Integer attempts;
+
+    /**
+     * 盖章结果（成功时返回）
+     */
+    private ContractSealResponse result;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 完成时间
+     */
+    private LocalDateTime finishTime;
+
+    /**
+     * 从实体转换（不含结果）
+     *
+     * @param entity 任务实体
+     * @return 响应 DTO
+     */
+    public static StampJobResponse fromEntity(StampJob entity) {
+        return StampJobResponse.builder()
+                .jobId(entity.getId())
+                .contractId(entity.getContractId())
+                .jobType(entity.getJobType())
+                .status(entity.getStatus())
+                .statusText(getStatusText(entity.getStatus()))
+                .attempts(entity.getAttempts())
+                .errorMessage(entity.getErrorMessage())
+                .createTime(entity.getCreateTime())
+                .finishTime(entity.getFinishTime())
+                .build();
+    }
+
+    /**
+     * 获取状态描述
+     */
+    private static String getStatusText(Integer status) {
+        if (status == null) {
+            return "未知";
+        }
+        return switch (status) {
+            case StampJob.Status.PENDING -> "排队中";
+            case StampJob.Status.RUNNING -> "执行中";
+            case StampJob.Status.SUCCESS -> "成功";
+            case StampJob.Status.FAILED -> "失败";
+            default -> "未知";
+        };
+    }
+}
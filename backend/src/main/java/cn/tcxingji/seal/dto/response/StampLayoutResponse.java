@@ -0,0 +1,98 @@
+package cn.tcxingji.seal.dto.response;
+
+import cn.tcxingji.seal.dto.request.StampLayoutItemRequest;
+import cn.tcxingji.seal.entity.StampLayout;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 盖章版式响应 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+public class StampLayoutResponse {
+
+    /**
+     * 版式ID
+     */
+    private Long id;
+
+    /**
+     * 版式名称
+     */
+    private String layoutName;
+
+    /**
+     * 所有者ID
+     */
+    private Long ownerId;
+
+    /**
+     * 参考页面宽度（pt）
+     */
+    private BigDecimal pageWidth;
+
+    /**
+     * 参考页面高度（pt）
+     */
+    private BigDecimal pageHeight;
+
+    /**
+     * 版式条目
+     */
+    private List<StampLayoutItemRequest> items;
+
+    /**
+     * 签章角色列表（按条目出现顺序去重）
+     */
+    private List<String> sealRoles;
+
+    /**
+     * 状态
+     */
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+
+    /**
+     * 创建人
+     */
+    private String createBy;
+
+    /**
+     * 从实体转换为响应 DTO
+     *
+     * @param layout 版式实体
+     * @param items  已解析的版式条目
+     * @return 版式响应 DTO
+     */
+    public static StampLayoutResponse fromEntity(StampLayout layout, List<StampLayoutItemRequest> items) {
+        return StampLayoutResponse.builder()
+                .id(layout.getId())
+                .layoutName(layout.getLayoutName())
+                .ownerId(layout.getOwnerId())
+                .pageWidth(layout.getPageWidth())
+                .pageHeight(layout.getPageHeight())
+                .items(items)
+                .sealRoles(items.stream().map(StampLayoutItemRequest::getSealRole).distinct().toList())
+                .status(layout.getStatus())
+                .createTime(layout.getCreateTime())
+                .updateTime(layout.getUpdateTime())
+                .createBy(layout.getCreateBy())
+                .build();
+    }
+}
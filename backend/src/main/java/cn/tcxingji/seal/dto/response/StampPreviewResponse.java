@@ -0,0 +1,109 @@
+package cn.tcxingji.seal.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 盖章预览响应 DTO
+ * <p>
+ * 只包含盖章区域的合成图块：客户端在 baseImageUrl 对应的页面预览图上，
+ * 按图块的像素坐标叠加 imageData 即得到盖章效果
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampPreviewResponse {
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 有盖章位置的页面
+     */
+    private List<PagePreview> pages;
+
+    /**
+     * 合成耗时（毫秒）
+     */
+    private Long costMs;
+
+    /**
+     * 单页预览
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PagePreview {
+
+        /**
+         * 页码
+         */
+        private Integer pageNumber;
+
+        /**
+         * 页面预览图URL
+         */
+        private String baseImageUrl;
+
+        /**
+         * 页面预览图宽度（像素）
+         */
+        private Integer width;
+
+        /**
+         * 页面预览图高度（像素）
+         */
+        private Integer height;
+
+        /**
+         * 合成图块
+         */
+        private List<TilePreview> tiles;
+    }
+
+    /**
+     * 合成图块（像素坐标，原点在左上角）
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TilePreview {
+
+        /**
+         * 左边界
+         */
+        private Integer x;
+
+        /**
+         * 上边界
+         */
+        private Integer y;
+
+        /**
+         * 宽度
+         */
+        private Integer width;
+
+        /**
+         * 高度
+         */
+        private Integer height;
+
+        /**
+         * 图块图片（data:image/png;base64,...）
+         */
+        private String imageData;
+    }
+}
@@ -0,0 +1,65 @@
+package cn.tcxingji.seal.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 撤销盖章响应 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampUndoResponse {
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 已撤销的修订ID
+     */
+    private Long revisionId;
+
+    /**
+     * 已撤销的修订序号
+     */
+    private Integer revisionNo;
+
+    /**
+     * 恢复方式：TRUNCATE-截断增量更新 PREVIOUS-指回盖章前的签章后文件 ORIGINAL-恢复为未签章
+     */
+    private String restoreMode;
+
+    /**
+     * 撤销后的签章后文件URL（恢复为未签章时为空）
+     */
+    private String signedFileUrl;
+
+    /**
+     * 撤销后的合同状态
+     */
+    private Integer contractStatus;
+
+    /**
+     * 重新生成预览图的页码
+     */
+    private List<Integer> affectedPages;
+
+    /**
+     * 已撤销的签章记录
+     */
+    private List<SealRecordResponse> revokedRecords;
+
+    /**
+     * 已撤销的签章记录数
+     */
+    private Integer revokedCount;
+}
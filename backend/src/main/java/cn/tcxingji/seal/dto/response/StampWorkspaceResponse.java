@@ -0,0 +1,131 @@
+package cn.tcxingji.seal.dto.response;
+
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.workspace.StampWorkspace;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 盖章工作区响应 DTO
+ *
+ * @author TC System
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampWorkspaceResponse {
+
+    /**
+     * 工作区ID
+     */
+    private String workspaceId;
+
+    /**
+     * 合同ID
+     */
+    private Long contractId;
+
+    /**
+     * 打开时的合同版本
+     */
+    private Long baseVersion;
+
+    /**
+     * 页数
+     */
+    private Integer pageCount;
+
+    /**
+     * 可用的印章/签名
+     */
+    private List<WorkspaceImage> images;
+
+    /**
+     * 已盖章次数
+     */
+    private Integer placementCount;
+
+    /**
+     * 已盖章位置总数
+     */
+    private Integer positionCount;
+
+    /**
+     * 本次盖章的位置（锚点已解析为坐标，仅盖章操作返回）
+     */
+    private List<SealPositionRequest> placedPositions;
+
+    /**
+     * 重叠提示（本工作区所有盖章，按盖章顺序）
+     */
+    private List<String> warnings;
+
+    /**
+     * 提交结果（仅提交操作返回）
+     */
+    private ContractSealResponse result;
+
+    /**
+     * 过期时间
+     */
+    private LocalDateTime expireTime;
+
+    /**
+     * 打开时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 从工作区转换
+     *
+     * @param workspace 工作区
+     * @return 响应 DTO
+     */
+    public static StampWorkspaceResponse fromWorkspace(StampWorkspace workspace) {
+        return StampWorkspaceResponse.builder()
+                .workspaceId(workspace.getId())
+                .contractId(workspace.getContractId())
+                .baseVersion(workspace.getContract().getVersion())
+                .pageCount(workspace.getContract().getPageCount())
+                .images(workspace.getImages().stream()
+                        .map(image -> new WorkspaceImage(image.kind().name(), image.id(), image.name()))
+                        .toList())
+                .placementCount(workspace.getPlacements().size())
+                .positionCount(workspace.getPositionCount())
+                .warnings(workspace.getWarnings())
+                .expireTime(workspace.getExpireTime())
+                .createTime(workspace.getCreateTime())
+                .build();
+    }
+
+    /**
+     * 可用的印章/签名
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WorkspaceImage {
+
+        /**
+         * 来源类型（SEAL-印章 SIGNATURE-个人签名）
+         */
+        private String kind;
+
+        /**
+         * 印章ID或签名ID
+         */
+        private Long id;
+
+        /**
+         * 名称
+         */
+        private String name;
+    }
+}
@@ -61,6 +61,12 @@ public class ContractFile {
     @Column(name = "signed_path", length = 500)
     private String signedPath;
 
+    /**
+     * 文本位置索引文件路径（上传时生成，用于锚点定位）
+     */
+    @Column(name = "text_index_path", length = 500)
+    private String textIndexPath;
+
     /**
      * 文件大小（字节）
      */
@@ -107,6 +113,17 @@ public class ContractFile {
     @Column(name = "remark", length = 500)
     private String remark;
 
+    /**
+     * 乐观锁版本号
+     * <p>
+     * 并发修改同一合同时，后提交的一方更新失败，避免签章结果被静默覆盖
+     * </p>
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
     /**
      * 创建时间
      */
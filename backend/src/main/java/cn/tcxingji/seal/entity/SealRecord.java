@@ -25,6 +25,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Table(name = "seal_record", indexes = {
         @Index(name = "idx_contract", columnList = "contract_id"),
+        @Index(name = "idx_revision", columnList = "revision_id"),
         @Index(name = "idx_seal", columnList = "seal_id"),
         @Index(name = "idx_operator", columnList = "operator_id"),
         @Index(name = "idx_seal_time", columnList = "seal_time")
@@ -33,9 +34,15 @@ public class SealRecord {
 
     /**
      * 主键ID
+     * <p>
+     * 使用号段表预分配（每次 50 个），使 Hibernate 可以批量 INSERT；IDENTITY 会强制逐条插入
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "seal_record_id")
+    @TableGenerator(name = "seal_record_id", table = "id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "seal_record", allocationSize = 50)
     private Long id;
 
     /**
@@ -44,6 +51,12 @@ public class SealRecord {
     @Column(name = "contract_id", nullable = false)
     private Long contractId;
 
+    /**
+     * 所属盖章修订ID
+     */
+    @Column(name = "revision_id")
+    private Long revisionId;
+
     /**
      * 印章ID
      */
@@ -99,6 +112,14 @@ public class SealRecord {
     @Column(name = "operator_name", length = 50)
     private String operatorName;
 
+    /**
+     * 状态
+     * 0-有效 1-已撤销
+     */
+    @Column(name = "status", nullable = false, columnDefinition = "TINYINT")
+    @Builder.Default
+    private Integer status = Status.VALID;
+
     /**
      * 签章时间
      */
@@ -150,4 +171,14 @@ public class SealRecord {
         /** 个人签名 - 手写签名 */
         public static final int PERSONAL_SIGNATURE = 3;
     }
+
+    /**
+     * 签章记录状态枚举
+     */
+    public static class Status {
+        /** 有效 */
+        public static final int VALID = 0;
+        /** 已撤销（所属盖章修订已撤销） */
+        public static final int REVOKED = 1;
+    }
 }
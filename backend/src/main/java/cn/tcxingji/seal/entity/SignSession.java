@@ -0,0 +1,157 @@
+package cn.tcxingji.seal.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 多方签署会话实体类
+ * <p>
+ * 多个签署方对同一合同签署时，各自基于创建会话时的合同版本独立准备签章（不加载 PDF、不加合同锁），
+ * 全部签署方就绪后在一次合同锁内按提交顺序合并，每个签署方生成一个增量更新
+ * </p>
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "sign_session", indexes = {
+        @Index(name = "idx_contract", columnList = "contract_id"),
+        @Index(name = "idx_status", columnList = "status")
+})
+public class SignSession {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 合同文件ID
+     */
+    @Column(name = "contract_id", nullable = false)
+    private Long contractId;
+
+    /**
+     * 创建会话时的合同版本号
+     */
+    @Column(name = "base_version", nullable = false)
+    private Long baseVersion;
+
+    /**
+     * 预期签署方数量
+     */
+    @Column(name = "expected_signers", nullable = false)
+    private Integer expectedSigners;
+
+    /**
+     * 状态
+     * 0-签署中 1-合并中 2-已完成 3-合并失败
+     */
+    @Column(name = "status", nullable = false, columnDefinition = "TINYINT")
+    @Builder.Default
+    private Integer status = Status.OPEN;
+
+    /**
+     * 合并结果（JSON）
+     */
+    @Column(name = "result", columnDefinition = "MEDIUMTEXT")
+    private String result;
+
+    /**
+     * 失败原因
+     */
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    /**
+     * 发起人ID
+     */
+    @Column(name = "operator_id")
+    private Long operatorId;
+
+    /**
+     * 发起人姓名
+     */
+    @Column(name = "operator_name", length = 50)
+    private String operatorName;
+
+    /**
+     * 过期时间
+     */
+    @Column(name = "expire_time", nullable = false)
+    private LocalDateTime expireTime;
+
+    /**
+     * 合并租约截止时间（合并中有效，超过后可重新合并）
+     */
+    @Column(name = "merge_deadline")
+    private LocalDateTime mergeDeadline;
+
+    /**
+     * 合并持有者标识（每次开始合并唯一，结束合并和续期租约时校验）
+     */
+    @Column(name = "merge_owner", length = 64)
+    private String mergeOwner;
+
+    /**
+     * 合并完成时间
+     */
+    @Column(name = "finish_time")
+    private LocalDateTime finishTime;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "create_time", updatable = false)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+
+    /**
+     * 插入前自动设置时间
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createTime = LocalDateTime.now();
+        this.updateTime = LocalDateTime.now();
+    }
+
+    /**
+     * 更新前自动设置更新时间
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.updateTime = LocalDateTime.now();
+    }
+
+    // ==================== 枚举常量 ====================
+
+    /**
+     * 会话状态枚举
+     */
+    public static class Status {
+        /** 签署中（接受签署方提交） */
+        public static final int OPEN = 0;
+        /** 合并中（超过合并租约截止时间视为合并中断，可重新合并） */
+        public static final int MERGING = 1;
+        /** 已完成 */
+        public static final int COMPLETED = 2;
+        /** 合并失败（可重新合并） */
+        public static final int FAILED = 3;
+    }
+}
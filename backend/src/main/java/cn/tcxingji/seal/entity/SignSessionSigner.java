@@ -0,0 +1,74 @@
+package cn.tcxingji.seal.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 签署会话签署方实体类
+ * <p>
+ * 保存已准备好的盖章请求（印章/签名已校验、锚点已解析为坐标），合并时按主键顺序生成增量更新
+ * </p>
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "sign_session_signer", indexes = {
+        @Index(name = "idx_session", columnList = "session_id")
+})
+public class SignSessionSigner {
+
+    /**
+     * 主键ID（同时决定合并顺序）
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 签署会话ID
+     */
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    /**
+     * 已准备的盖章请求（JSON）
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    /**
+     * 签署人ID
+     */
+    @Column(name = "operator_id")
+    private Long operatorId;
+
+    /**
+     * 签署人姓名
+     */
+    @Column(name = "operator_name", length = 50)
+    private String operatorName;
+
+    /**
+     * 提交时间
+     */
+    @Column(name = "create_time", updatable = false)
+    private LocalDateTime createTime;
+
+    /**
+     * 插入前自动设置时间
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createTime = LocalDateTime.now();
+    }
+}
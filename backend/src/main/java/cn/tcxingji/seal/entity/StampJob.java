@@ -0,0 +1,201 @@
+package cn.tcxingji.seal.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步盖章任务实体类
+ * <p>
+ * 盖章请求以任务形式持久化，由各实例的工作线程通过 SKIP LOCKED 竞争领取执行，
+ * 支持失败重试和可见性超时
+ * </p>
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stamp_job", indexes = {
+        @Index(name = "idx_status_next_run", columnList = "status, next_run_time"),
+        @Index(name = "idx_status_locked_until", columnList = "status, locked_until"),
+        @Index(name = "idx_contract", columnList = "contract_id")
+})
+public class StampJob {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 合同文件ID
+     */
+    @Column(name = "contract_id", nullable = false)
+    private Long contractId;
+
+    /**
+     * 任务类型
+     * 1-普通盖章 2-批量盖章 3-骑缝章
+     */
+    @Column(name = "job_type", nullable = false, columnDefinition = "TINYINT")
+    private Integer jobType;
+
+    /**
+     * 盖章请求（JSON）
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    /**
+     * 状态
+     * 0-排队中 1-执行中 2-成功 3-失败
+     */
+    @Column(name = "status", nullable = false, columnDefinition = "TINYINT")
+    @Builder.Default
+    private Integer status = Status.PENDING;
+
+    /**
+     * 已尝试次数
+     */
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /**
+     * 最大尝试次数
+     */
+    @Column(name = "max_attempts", nullable = false)
+    private Integer maxAttempts;
+
+    /**
+     * 最早可执行时间（重试退避）
+     */
+    @Column(name = "next_run_time", nullable = false)
+    private LocalDateTime nextRunTime;
+
+    /**
+     * 领取任务的工作节点
+     */
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    /**
+     * 租约到期时间（数据库时钟）
+     */
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    /**
+     * 盖章结果（JSON）
+     */
+    @Column(name = "result", columnDefinition = "MEDIUMTEXT")
+    private String result;
+
+    /**
+     * 失败原因
+     */
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    /**
+     * 最近一次开始执行时间
+     */
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    /**
+     * 完成时间
+     */
+    @Column(name = "finish_time")
+    private LocalDateTime finishTime;
+
+    /**
+     * 操作人ID
+     */
+    @Column(name = "operator_id")
+    private Long operatorId;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "create_time", updatable = false)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+
+    /**
+     * 插入前自动设置时间
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createTime = LocalDateTime.now();
+        this.updateTime = LocalDateTime.now();
+        if (this.nextRunTime == null) {
+            this.nextRunTime = this.createTime;
+        }
+    }
+
+    /**
+     * 更新前自动设置更新时间
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.updateTime = LocalDateTime.now();
+    }
+
+    // ==================== 枚举常量 ====================
+
+    /**
+     * 任务类型枚举
+     */
+    public static class JobType {
+        /** 普通盖章（印章或个人签名） */
+        public static final int STAMP = 1;
+        /** 批量盖章 */
+        public static final int BATCH = 2;
+        /** 骑缝章 */
+        public static final int PERFORATION = 3;
+        /** 版式盖章（仅作为幂等操作类型，不提交异步任务） */
+        public static final int LAYOUT = 4;
+    }
+
+    /**
+     * 任务状态枚举
+     */
+    public static class Status {
+        /** 排队中 */
+        public static final int PENDING = 0;
+        /** 执行中 */
+        public static final int RUNNING = 1;
+        /** 成功 */
+        public static final int SUCCESS = 2;
+        /** 失败 */
+        public static final int FAILED = 3;
+    }
+
+    // ==================== 业务方法 ====================
+
+    /**
+     * 判断任务是否已结束（成功或最终失败）
+     *
+     * @return 是否已结束
+     */
+    public boolean isFinished() {
+        return this.status != null
+                && (this.status == Status.SUCCESS || this.status == Status.FAILED);
+    }
+}
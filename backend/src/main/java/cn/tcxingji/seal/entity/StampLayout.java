@@ -0,0 +1,129 @@
+package cn.tcxingji.seal.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 盖章版式实体类
+ * <p>
+ * 可复用的一组盖章位置（页码选择、坐标、尺寸、签章角色），条目以 JSON 保存在 items 字段。
+ * 保存时按参考页面尺寸校验，盖章时只按合同页数展开页码
+ * </p>
+ *
+ * @author TC System
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stamp_layout", indexes = {
+        @Index(name = "uk_owner_name", columnList = "owner_id, layout_name", unique = true),
+        @Index(name = "idx_status", columnList = "status")
+})
+public class StampLayout {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 版式名称
+     */
+    @Column(name = "layout_name", nullable = false, length = 100)
+    private String layoutName;
+
+    /**
+     * 所有者ID
+     */
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    /**
+     * 参考页面宽度（pt）
+     */
+    @Column(name = "page_width", nullable = false, precision = 10, scale = 2)
+    private BigDecimal pageWidth;
+
+    /**
+     * 参考页面高度（pt）
+     */
+    @Column(name = "page_height", nullable = false, precision = 10, scale = 2)
+    private BigDecimal pageHeight;
+
+    /**
+     * 版式条目（JSON）
+     */
+    @Column(name = "items", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String items;
+
+    /**
+     * 状态
+     * 0-禁用 1-启用
+     */
+    @Column(name = "status", columnDefinition = "TINYINT")
+    @Builder.Default
+    private Integer status = 1;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "create_time", updatable = false)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+
+    /**
+     * 创建人
+     */
+    @Column(name = "create_by", length = 50)
+    private String createBy;
+
+    /**
+     * 更新人
+     */
+    @Column(name = "update_by", length = 50)
+    private String updateBy;
+
+    /**
+     * 插入前自动设置创建时间
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createTime = LocalDateTime.now();
+        this.updateTime = LocalDateTime.now();
+    }
+
+    /**
+     * 更新前自动设置更新时间
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.updateTime = LocalDateTime.now();
+    }
+
+    // ==================== 枚举常量 ====================
+
+    /**
+     * 状态枚举
+     */
+    public static class Status {
+        /** 禁用 */
+        public static final int DISABLED = 0;
+        /** 启用 */
+        public static final int ENABLED = 1;
+    }
+}
@@ -0,0 +1,165 @@
+package cn.tcxingji.seal.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 盖章修订实体类
+ * <p>
+ * 每次盖章提交（单次、批量、版式、骑缝章、多方合并、工作区提交）记录一个修订。
+ * 签章后文件由源文件追加增量更新得到时，源文件的字节长度就是上一个修订的结束位置，
+ * 撤销本修订只需把签章后文件截断到该位置
+ * </p>
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stamp_revision", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_contract_revision", columnNames = {"contract_id", "revision_no"})
+})
+public class StampRevision {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 合同文件ID
+     */
+    @Column(name = "contract_id", nullable = false)
+    private Long contractId;
+
+    /**
+     * 合同内的修订序号（从1开始）
+     */
+    @Column(name = "revision_no", nullable = false)
+    private Integer revisionNo;
+
+    /**
+     * 盖章前的签章后文件路径（为空表示盖章前未签章）
+     */
+    @Column(name = "previous_signed_path", length = 500)
+    private String previousSignedPath;
+
+    /**
+     * 本次盖章的源文件路径
+     */
+    @Column(name = "base_path", nullable = false, length = 500)
+    private String basePath;
+
+    /**
+     * 源文件字节数
+     */
+    @Column(name = "base_size", nullable = false)
+    private Long baseSize;
+
+    /**
+     * 签章后文件路径
+     */
+    @Column(name = "signed_path", nullable = false, length = 500)
+    private String signedPath;
+
+    /**
+     * 签章后文件字节数
+     */
+    @Column(name = "signed_size", nullable = false)
+    private Long signedSize;
+
+    /**
+     * 签章后文件是否为源文件加增量更新
+     * 0-否 1-是
+     */
+    @Column(name = "incremental", nullable = false, columnDefinition = "TINYINT")
+    @Builder.Default
+    private Integer incremental = 0;
+
+    /**
+     * 签章记录数
+     */
+    @Column(name = "seal_count", nullable = false)
+    @Builder.Default
+    private Integer sealCount = 0;
+
+    /**
+     * 状态
+     * 0-有效 1-已撤销
+     */
+    @Column(name = "status", nullable = false, columnDefinition = "TINYINT")
+    @Builder.Default
+    private Integer status = Status.VALID;
+
+    /**
+     * 撤销时间
+     */
+    @Column(name = "revoke_time")
+    private LocalDateTime revokeTime;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "create_time", updatable = false)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+
+    /**
+     * 插入前自动设置时间
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createTime = LocalDateTime.now();
+        this.updateTime = LocalDateTime.now();
+    }
+
+    /**
+     * 更新前自动设置更新时间
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.updateTime = LocalDateTime.now();
+    }
+
+    // ==================== 枚举常量 ====================
+
+    /**
+     * 修订状态枚举
+     */
+    public static class Status {
+        /** 有效 */
+        public static final int VALID = 0;
+        /** 已撤销 */
+        public static final int REVOKED = 1;
+    }
+
+    // ==================== 业务方法 ====================
+
+    /**
+     * 判断签章后文件是否可截断回源文件
+     * <p>
+     * 仅当签章后文件由盖章前的签章后文件追加增量更新得到时成立；首次盖章和骑缝章以原始文件为源，不满足
+     * </p>
+     *
+     * @return 是否可截断
+     */
+    public boolean isTruncatable() {
+        return this.incremental != null && this.incremental == 1
+                && this.previousSignedPath != null && this.previousSignedPath.equals(this.basePath);
+    }
+}
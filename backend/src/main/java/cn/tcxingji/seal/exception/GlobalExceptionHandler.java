@@ -2,6 +2,7 @@ package cn.tcxingji.seal.exception;
 
 import cn.tcxingji.seal.dto.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
@@ -83,6 +84,19 @@ public class GlobalExceptionHandler {
         return ApiResponse.badRequest(e.getMessage());
     }
 
+    /**
+     * 处理乐观锁冲突（数据已被其他请求修改）
+     *
+     * @param e 乐观锁异常
+     * @return ApiResponse
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiResponse<Void> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        log.warn("并发修改冲突: {}", e.getMessage());
+        return ApiResponse.error(409, "数据已被其他操作修改，请刷新后重试");
+    }
+
     /**
      * 处理其他未知异常
      *
@@ -0,0 +1,334 @@
+package cn.tcxingji.seal.idempotency;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.context.UserContext;
+import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.lock.LeaseHeartbeat;
+import cn.tcxingji.seal.repository.StampIdempotencyRepository;
+import cn.tcxingji.seal.repository.StampIdempotencyRepository.StoredRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 盖章接口幂等控制
+ * <p>
+ * 按客户端 Idempotency-Key 去重：幂等键按调用用户隔离，不同用户使用相同的键互不影响，也读不到对方的结果。
+ * 已完成的请求直接返回 stamp_idempotency 表中保存的结果；
+ * 同一实例内并发的重试共享原请求的 Future，其他实例上正在处理的请求则轮询数据库等待其完成。
+ * 处理期间定期续期处理中租约（按数据库时钟计算），耗时超过租约时长的请求不会被重试接管而重复执行；
+ * 每次处理带唯一的持有者标识，租约被接管后原处理者不能再续期、保存结果或删除记录。
+ * 处理失败时删除记录，客户端可用同一幂等键重试
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class StampIdempotencyManager {
+
+    /**
+     * 幂等键最大长度（表字段 128，预留调用用户前缀）
+     */
+    private static final int MAX_KEY_LENGTH = 100;
+
+    /**
+     * 幂等键与请求不匹配的错误码
+     */
+    private static final int UNPROCESSABLE = 422;
+
+    /**
+     * 原请求仍在处理中的错误码
+     */
+    private static final int CONFLICT = 409;
+
+    private final StampIdempotencyRepository repository;
+    private final StampConfig stampConfig;
+    private final ObjectMapper objectMapper;
+    private final LeaseHeartbeat leaseHeartbeat;
+
+    /**
+     * 本实例正在处理的请求（幂等键 -> 请求摘要及结果）
+     */
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter executedCounter;
+    private final Counter replayedCounter;
+    private final Counter joinedCounter;
+
+    public StampIdempotencyManager(StampIdempotencyRepository repository,
+                                   StampConfig stampConfig,
+                                   ObjectMapper objectMapper,
+                                   LeaseHeartbeat leaseHeartbeat,
+                                   MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.stampConfig = stampConfig;
+        this.objectMapper = objectMapper;
+        this.leaseHeartbeat = leaseHeartbeat;
+        this.executedCounter = Counter.builder("seal.stamp.idempotency.requests")
+                .description("携带幂等键的盖章请求数")
+                .tag("result", "executed").register(meterRegistry);
+        this.replayedCounter = Counter.builder("seal.stamp.idempotency.requests")
+                .description("携带幂等键的盖章请求数")
+                .tag("result", "replayed").register(meterRegistry);
+        this.joinedCounter = Counter.builder("seal.stamp.idempotency.requests")
+                .description("携带幂等键的盖章请求数")
+                .tag("result", "joined").register(meterRegistry);
+    }
+
+    /**
+     * 按幂等键执行盖章操作（须在请求线程中调用，幂等键按 {@link UserContext} 中的当前用户隔离）
+     *
+     * @param key        幂等键（为空时直接执行）
+     * @param contractId 合同ID
+     * @param operation  操作类型（见 StampJob.JobType）
+     * @param request    请求体（用于校验重试请求与原请求一致）
+     * @param action     盖章操作
+     * @return 盖章结果（重试时为原请求的结果）
+     * @throws BusinessException 幂等键已用于其他请求（422）或等待原请求超时（409）
+     */
+    public ContractSealResponse execute(String key, Long contractId, int operation, Object request,
+                                        Supplier<ContractSealResponse> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key 长度不能超过 " + MAX_KEY_LENGTH);
+        }
+        return executeOnce(scoped(key), contractId, operation, request, action);
+    }
+
+    /**
+     * 按任务ID执行异步盖章任务
+     * <p>
+     * 任务被重新领取（节点宕机、提交后未能记录任务结果）时，已完成的盖章直接返回保存的结果，不再重复盖章
+     * </p>
+     *
+     * @param jobId      任务ID
+     * @param contractId 合同ID
+     * @param operation  操作类型（见 StampJob.JobType）
+     * @param request    任务请求体
+     * @param action     盖章操作
+     * @return 盖章结果（重新执行时为首次执行的结果）
+     * @throws BusinessException 其他实例仍在执行该任务（409）
+     */
+    public ContractSealResponse executeJob(Long jobId, Long contractId, int operation, Object request,
+                                           Supplier<ContractSealResponse> action) {
+        return executeOnce("job:" + jobId, contractId, operation, request, action);
+    }
+
+    /**
+     * 按已隔离的幂等键执行
+     */
+    private ContractSealResponse executeOnce(String key, Long contractId, int operation, Object request,
+                                             Supplier<ContractSealResponse> action) {
+        String requestHash = fingerprint(contractId, operation, request);
+        long deadline = System.nanoTime() + stampConfig.getIdempotency().getWaitTimeout().toNanos();
+
+        // 本实例已有同键请求在处理：等待并共享其结果
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            requireSameRequest(running.requestHash(), requestHash);
+            joinedCounter.increment();
+            log.info("幂等请求等待原请求完成: key={}, contractId={}", key, contractId);
+            return await(running.result(), deadline);
+        }
+
+        try {
+            ContractSealResponse response = claimAndRun(key, contractId, operation, requestHash, deadline, action);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 定期清理过期的幂等记录
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    public void purgeExpired() {
+        try {
+            int deleted = repository.deleteExpired();
+            if (deleted > 0) {
+                log.info("清理过期幂等记录: {}", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("清理过期幂等记录失败", e);
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 在数据库中登记或接管幂等键后执行；键已完成时返回保存的结果，其他实例处理中时轮询等待
+     */
+    private ContractSealResponse claimAndRun(String key, Long contractId, int operation, String requestHash,
+                                             long deadline, Supplier<ContractSealResponse> action) {
+        StampConfig.Idempotency config = stampConfig.getIdempotency();
+        boolean waiting = false;
+        // 本次处理的持有者标识，续期、完成和删除只作用于自己登记或接管的记录
+        String owner = UUID.randomUUID().toString();
+        while (true) {
+            Optional<StoredRequest> stored = repository.find(key);
+            if (stored.isEmpty()) {
+                if (repository.tryStart(key, owner, contractId, operation, requestHash,
+                        config.getProcessingLease(), config.getRetention())) {
+                    return run(key, owner, action);
+                }
+                // 其他实例抢先登记，重新读取
+                continue;
+            }
+
+            StoredRequest record = stored.get();
+            if (!Objects.equals(record.contractId(), contractId) || record.operation() != operation) {
+                throw new BusinessException(UNPROCESSABLE, "Idempotency-Key 已用于其他请求");
+            }
+            requireSameRequest(record.requestHash(), requestHash);
+
+            if (record.status() == StampIdempotencyRepository.STATUS_COMPLETED) {
+                replayedCounter.increment();
+                log.info("幂等请求返回已保存结果: key={}, contractId={}", key, contractId);
+                return readResponse(record.response());
+            }
+            if (record.leaseExpired()) {
+                // 原处理实例租约已过期（可能已宕机），接管后重新执行
+                if (repository.takeOver(key, owner, config.getProcessingLease())) {
+                    log.warn("接管超时未完成的幂等请求: key={}, contractId={}", key, contractId);
+                    return run(key, owner, action);
+                }
+                continue;
+            }
+
+            // 其他实例处理中
+            if (!waiting) {
+                waiting = true;
+                joinedCounter.increment();
+                log.info("幂等请求在其他实例处理中，等待: key={}, contractId={}", key, contractId);
+            }
+            if (System.nanoTime() >= deadline) {
+                throw inProgress();
+            }
+            try {
+                Thread.sleep(config.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("等待幂等请求被中断");
+            }
+        }
+    }
+
+    /**
+     * 执行盖章并保存结果，执行期间定期续期处理中租约；失败时删除处理中记录
+     */
+    private ContractSealResponse run(String key, String owner, Supplier<ContractSealResponse> action) {
+        Duration lease = stampConfig.getIdempotency().getProcessingLease();
+        ContractSealResponse response;
+        try (LeaseHeartbeat.Renewal ignored = leaseHeartbeat.start(lease, "idempotency:" + key,
+                () -> repository.renew(key, owner, lease))) {
+            response = action.get();
+        } catch (RuntimeException e) {
+            try {
+                repository.abandon(key, owner);
+            } catch (RuntimeException cleanup) {
+                log.warn("删除失败的幂等记录失败，将在租约到期后被接管: key={}", key, cleanup);
+            }
+            throw e;
+        }
+        executedCounter.increment();
+
+        try {
+            if (!repository.complete(key, owner, objectMapper.writeValueAsString(response))) {
+                log.warn("幂等记录已被其他请求接管，未保存本次结果: key={}", key);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // 盖章已成功，不影响本次响应；重试将在租约到期后重新执行
+            log.error("保存幂等结果失败: key={}", key, e);
+        }
+        return response;
+    }
+
+    private ContractSealResponse await(CompletableFuture<ContractSealResponse> result, long deadline) {
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("盖章处理失败: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("等待幂等请求被中断");
+        }
+    }
+
+    private ContractSealResponse readResponse(String json) {
+        try {
+            return objectMapper.readValue(json, ContractSealResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("读取已保存的盖章结果失败: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * 按调用用户隔离的幂等键（用户ID:客户端幂等键）
+     */
+    private static String scoped(String key) {
+        return Objects.toString(UserContext.getCurrentUserId(), "anonymous") + ":" + key;
+    }
+
+    private void requireSameRequest(String expectedHash, String actualHash) {
+        if (!expectedHash.equals(actualHash)) {
+            throw new BusinessException(UNPROCESSABLE, "Idempotency-Key 已用于其他请求");
+        }
+    }
+
+    private static BusinessException inProgress() {
+        return new BusinessException(CONFLICT, "相同 Idempotency-Key 的请求仍在处理中，请稍后重试");
+    }
+
+    /**
+     * 请求摘要：合同ID + 操作类型 + 请求体 JSON 的 SHA-256
+     */
+    private String fingerprint(Long contractId, int operation, Object request) {
+        try {
+            String body = contractId + ":" + operation + ":" + objectMapper.writeValueAsString(request);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("计算请求摘要失败", e);
+        }
+    }
+
+    /**
+     * 本实例处理中的请求
+     */
+    private record InFlight(String requestHash, CompletableFuture<ContractSealResponse> result) {
+    }
+}
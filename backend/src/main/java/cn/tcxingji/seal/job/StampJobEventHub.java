@@ -0,0 +1,136 @@
+package cn.tcxingji.seal.job;
+
+import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.dto.response.StampJobResponse;
+import cn.tcxingji.seal.entity.StampJob;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 盖章任务事件中心
+ * <p>
+ * 管理本实例上的 SSE 订阅。任务在本实例完成时立即推送；
+ * 在其他实例完成的任务由工作线程轮询数据库后推送
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StampJobEventHub {
+
+    /**
+     * SSE 事件名
+     */
+    private static final String EVENT_NAME = "job";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 任务ID -> 订阅者列表
+     */
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 订阅任务状态
+     *
+     * @param job       当前任务
+     * @param timeoutMs 订阅超时时长（毫秒）
+     * @return SSE 发射器
+     */
+    public SseEmitter subscribe(StampJob job, long timeoutMs) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Long jobId = job.getId();
+
+        // 先发送当前状态，已结束的任务直接关闭
+        if (!send(emitter, toResponse(job)) || job.isFinished()) {
+            emitter.complete();
+            return emitter;
+        }
+
+        subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        Runnable remove = () -> removeSubscriber(jobId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    /**
+     * 推送任务状态，任务已结束时关闭所有订阅
+     *
+     * @param job 任务
+     */
+    public void publish(StampJob job) {
+        List<SseEmitter> emitters = subscribers.get(job.getId());
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        StampJobResponse response = toResponse(job);
+        for (SseEmitter emitter : emitters) {
+            boolean sent = send(emitter, response);
+            if (!sent || job.isFinished()) {
+                emitter.complete();
+            }
+        }
+        if (job.isFinished()) {
+            subscribers.remove(job.getId());
+        }
+    }
+
+    /**
+     * 当前有订阅者的任务ID
+     *
+     * @return 任务ID集合
+     */
+    public Set<Long> subscribedJobIds() {
+        return Set.copyOf(subscribers.keySet());
+    }
+
+    /**
+     * 将任务实体转换为响应（解析结果 JSON）
+     *
+     * @param job 任务
+     * @return 响应 DTO
+     */
+    public StampJobResponse toResponse(StampJob job) {
+        StampJobResponse response = StampJobResponse.fromEntity(job);
+        if (job.getResult() != null) {
+            try {
+                response.setResult(objectMapper.readValue(job.getResult(), ContractSealResponse.class));
+            } catch (JsonProcessingException e) {
+                log.warn("解析盖章任务结果失败: jobId={}", job.getId(), e);
+            }
+        }
+        return response;
+    }
+
+    private boolean send(SseEmitter emitter, StampJobResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(response));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("推送盖章任务状态失败（客户端可能已断开）: jobId={}", response.getJobId());
+            return false;
+        }
+    }
+
+    private void removeSubscriber(Long jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
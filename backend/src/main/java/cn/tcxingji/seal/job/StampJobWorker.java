@@ -0,0 +1,377 @@
+package cn.tcxingji.seal.job;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.PerforationSealRequest;
+import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.entity.StampJob;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.idempotency.StampIdempotencyManager;
+import cn.tcxingji.seal.lock.LeaseHeartbeat;
+import cn.tcxingji.seal.repository.StampJobRepository;
+import cn.tcxingji.seal.service.SealStampService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 盖章任务工作线程
+ * <p>
+ * 定时从 stamp_job 表领取任务（FOR UPDATE SKIP LOCKED），在本地线程池中复用
+ * {@link SealStampService} 执行盖章；失败按指数退避重试。
+ * 执行期间定期续期任务租约（租约按数据库时钟计算），节点宕机后租约过期的任务可被任意实例重新领取；
+ * 盖章按任务ID做幂等控制，重新领取已完成盖章的任务时直接返回首次执行的结果，不会重复盖章
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class StampJobWorker {
+
+    /**
+     * 失败原因最大长度（与表字段一致）
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * 资源暂时不足的业务错误码，此类失败可重试
+     */
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    /**
+     * 合同正被其他操作处理（获取合同锁超时），此类失败可重试
+     */
+    private static final int CONFLICT = 409;
+
+    private final StampJobRepository stampJobRepository;
+    private final SealStampService sealStampService;
+    private final StampJobEventHub eventHub;
+    private final StampIdempotencyManager stampIdempotencyManager;
+    private final LeaseHeartbeat leaseHeartbeat;
+    private final StampConfig stampConfig;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 当前实例标识（主机名 + 随机后缀）
+     */
+    private final String workerId;
+
+    /**
+     * 空闲执行槽位，保证领取数量不超过线程数
+     */
+    private final Semaphore slots;
+
+    private final ExecutorService executor;
+
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong runningDepth = new AtomicLong();
+
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter retryCounter;
+
+    public StampJobWorker(StampJobRepository stampJobRepository,
+                          SealStampService sealStampService,
+                          StampJobEventHub eventHub,
+                          StampIdempotencyManager stampIdempotencyManager,
+                          LeaseHeartbeat leaseHeartbeat,
+                          StampConfig stampConfig,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.stampJobRepository = stampJobRepository;
+        this.sealStampService = sealStampService;
+        this.eventHub = eventHub;
+        this.stampIdempotencyManager = stampIdempotencyManager;
+        this.leaseHeartbeat = leaseHeartbeat;
+        this.stampConfig = stampConfig;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workerId = resolveHostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+        int threads = Math.max(1, stampConfig.getJob().getWorkerThreads());
+        this.slots = new Semaphore(threads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "stamp-job-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.successCounter = Counter.builder("seal.stamp.job.completed")
+                .tag("result", "success").register(meterRegistry);
+        this.failureCounter = Counter.builder("seal.stamp.job.completed")
+                .tag("result", "failed").register(meterRegistry);
+        this.retryCounter = Counter.builder("seal.stamp.job.retries").register(meterRegistry);
+        Gauge.builder("seal.stamp.job.queue.depth", pendingDepth, AtomicLong::get)
+                .description("排队中的盖章任务数")
+                .tag("status", "pending").register(meterRegistry);
+        Gauge.builder("seal.stamp.job.queue.depth", runningDepth, AtomicLong::get)
+                .description("执行中的盖章任务数")
+                .tag("status", "running").register(meterRegistry);
+    }
+
+    /**
+     * 轮询任务队列
+     */
+    @Scheduled(fixedDelayString = "${seal.stamp.job.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            refreshQueueDepth();
+            publishRemoteCompletions();
+
+            if (!stampConfig.getJob().isWorkerEnabled()) {
+                return;
+            }
+            int free = slots.availablePermits();
+            if (free == 0) {
+                return;
+            }
+
+            List<StampJob> claimed = transactionTemplate.execute(status -> claim(free));
+            if (claimed == null) {
+                return;
+            }
+            for (StampJob job : claimed) {
+                slots.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        run(job);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.error("轮询盖章任务失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("盖章任务线程池未能在 30 秒内结束，未完成任务将在租约过期后由其他实例重新领取");
+            executor.shutdownNow();
+        }
+    }
+
+    // ==================== 任务领取与执行 ====================
+
+    /**
+     * 在事务中锁定并领取任务
+     */
+    private List<StampJob> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StampJob> locked = stampJobRepository.lockClaimable(limit);
+        List<StampJob> runnable = new ArrayList<>();
+
+        for (StampJob job : locked) {
+            if (job.getAttempts() >= job.getMaxAttempts()) {
+                // 最后一次执行租约过期仍未完成（如实例宕机），不再重试
+                job.setStatus(StampJob.Status.FAILED);
+                job.setErrorMessage("执行超时，已达到最大尝试次数");
+                job.setFinishTime(now);
+                job.setLockedUntil(null);
+                failureCounter.increment();
+                eventHub.publish(job);
+                continue;
+            }
+            runnable.add(job);
+        }
+        stampJobRepository.saveAll(locked);
+        if (runnable.isEmpty()) {
+            return runnable;
+        }
+
+        // 租约到期时间按数据库时钟写入；此后持久化上下文已清空，下面只更新内存中的任务状态
+        stampJobRepository.claim(runnable.stream().map(StampJob::getId).toList(), workerId,
+                toMicros(stampConfig.getJob().getVisibilityTimeout()));
+        for (StampJob job : runnable) {
+            job.setStatus(StampJob.Status.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(workerId);
+            job.setStartTime(now);
+        }
+        log.info("领取盖章任务: worker={}, jobs={}", workerId, runnable.stream().map(StampJob::getId).toList());
+        return runnable;
+    }
+
+    /**
+     * 执行单个任务并记录结果，执行期间定期续期任务租约
+     */
+    private void run(StampJob job) {
+        eventHub.publish(job);
+        Duration lease = stampConfig.getJob().getVisibilityTimeout();
+        ContractSealResponse response;
+        try (LeaseHeartbeat.Renewal ignored = leaseHeartbeat.start(lease, "stamp-job:" + job.getId(),
+                () -> renew(job, lease))) {
+            response = execute(job);
+        } catch (BusinessException e) {
+            boolean transientFailure = e.getCode() == SERVICE_UNAVAILABLE || e.getCode() == CONFLICT;
+            if (transientFailure && job.getAttempts() < job.getMaxAttempts()) {
+                // 资源暂时不足（PDF 内存预算已满、合同锁被占用），稍后重试
+                requeue(job, e.getMessage());
+                retryCounter.increment();
+                return;
+            }
+            // 业务校验失败（合同作废、印章禁用等）重试也不会成功
+            finish(job, StampJob.Status.FAILED, null, e.getMessage());
+            failureCounter.increment();
+            log.warn("盖章任务失败: jobId={}, reason={}", job.getId(), e.getMessage());
+            return;
+        } catch (Exception e) {
+            log.error("盖章任务异常: jobId={}, attempt={}/{}", job.getId(), job.getAttempts(), job.getMaxAttempts(), e);
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            if (job.getAttempts() < job.getMaxAttempts()) {
+                requeue(job, error);
+                retryCounter.increment();
+            } else {
+                finish(job, StampJob.Status.FAILED, null, error);
+                failureCounter.increment();
+            }
+            return;
+        }
+
+        // 盖章已提交，此后的异常不再重新排队
+        try {
+            finish(job, StampJob.Status.SUCCESS, objectMapper.writeValueAsString(response), null);
+            successCounter.increment();
+            log.info("盖章任务完成: jobId={}, contractId={}", job.getId(), job.getContractId());
+        } catch (Exception e) {
+            log.error("记录盖章任务结果失败，任务租约过期后重新领取时将返回已保存的盖章结果: jobId={}", job.getId(), e);
+        }
+    }
+
+    /**
+     * 按任务类型调用盖章服务（按任务ID做幂等控制）
+     */
+    private ContractSealResponse execute(StampJob job) throws Exception {
+        Long contractId = job.getContractId();
+        Supplier<ContractSealResponse> action = switch (job.getJobType()) {
+            case StampJob.JobType.STAMP -> {
+                ContractSealRequest request = objectMapper.readValue(job.getPayload(), ContractSealRequest.class);
+                yield () -> sealStampService.stamp(contractId, request);
+            }
+            case StampJob.JobType.BATCH -> {
+                List<ContractSealRequest> requests = objectMapper.readValue(job.getPayload(),
+                        new TypeReference<List<ContractSealRequest>>() {
+                        });
+                yield () -> sealStampService.batchStamp(contractId, requests);
+            }
+            case StampJob.JobType.PERFORATION -> {
+                PerforationSealRequest request = objectMapper.readValue(job.getPayload(),
+                        PerforationSealRequest.class);
+                yield () -> sealStampService.perforationStamp(contractId, request);
+            }
+            default -> throw new BusinessException("未知的任务类型: " + job.getJobType());
+        };
+        return stampIdempotencyManager.executeJob(job.getId(), contractId, job.getJobType(), job.getPayload(),
+                action);
+    }
+
+    /**
+     * 续期任务租约，返回任务是否仍由本节点持有
+     */
+    private boolean renew(StampJob job, Duration lease) {
+        Integer updated = transactionTemplate.execute(tx ->
+                stampJobRepository.renew(job.getId(), workerId, toMicros(lease)));
+        return updated != null && updated > 0;
+    }
+
+    private void finish(StampJob job, int status, String result, String error) {
+        String message = truncate(error);
+        Integer updated = transactionTemplate.execute(tx ->
+                stampJobRepository.finish(job.getId(), workerId, status, result, message));
+        if (updated == null || updated == 0) {
+            log.warn("盖章任务已被其他实例重新领取，忽略本次结果: jobId={}", job.getId());
+            return;
+        }
+        job.setStatus(status);
+        job.setResult(result);
+        job.setErrorMessage(message);
+        job.setFinishTime(LocalDateTime.now());
+        eventHub.publish(job);
+    }
+
+    private void requeue(StampJob job, String error) {
+        Duration backoff = stampConfig.getJob().getRetryBackoff()
+                .multipliedBy(1L << Math.min(job.getAttempts() - 1, 10));
+        String message = truncate(error);
+        Integer updated = transactionTemplate.execute(tx ->
+                stampJobRepository.requeue(job.getId(), workerId, message, toMicros(backoff)));
+        if (updated != null && updated > 0) {
+            job.setStatus(StampJob.Status.PENDING);
+            job.setErrorMessage(message);
+            eventHub.publish(job);
+            log.info("盖章任务重新排队: jobId={}, backoff={}", job.getId(), backoff);
+        }
+    }
+
+    // ==================== 监控与通知 ====================
+
+    private void refreshQueueDepth() {
+        pendingDepth.set(stampJobRepository.countByStatus(StampJob.Status.PENDING));
+        runningDepth.set(stampJobRepository.countByStatus(StampJob.Status.RUNNING));
+    }
+
+    /**
+     * 推送由其他实例完成、但在本实例有订阅者的任务
+     */
+    private void publishRemoteCompletions() {
+        Set<Long> jobIds = eventHub.subscribedJobIds();
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        for (StampJob job : stampJobRepository.findAllById(jobIds)) {
+            if (job.isFinished()) {
+                eventHub.publish(job);
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static long toMicros(Duration duration) {
+        return TimeUnit.NANOSECONDS.toMicros(duration.toNanos());
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package cn.tcxingji.seal.layout;
+
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.dto.request.StampLayoutItemRequest;
+import cn.tcxingji.seal.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已校验的盖章版式
+ * <p>
+ * 编译时解析页码选择并按参考页面尺寸校验每个条目，之后按合同页数展开的盖章位置按页数缓存，
+ * 同一版式用于大量页数相同的合同时不再重复展开。返回的位置列表不可修改且在线程间共享，调用方不得修改其中的对象
+ * </p>
+ *
+ * @author TC System
+ */
+public final class CompiledLayout {
+
+    /**
+     * 按页数缓存的展开结果上限（页数种类超过后不再缓存新的页数）
+     */
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final Long id;
+    private final String name;
+    private final Map<String, List<Item>> itemsByRole;
+    private final long loadedAt = System.nanoTime();
+    private final ConcurrentHashMap<Integer, Map<String, List<SealPositionRequest>>> expansions =
+            new ConcurrentHashMap<>();
+
+    private CompiledLayout(Long id, String name, Map<String, List<Item>> itemsByRole) {
+        this.id = id;
+        this.name = name;
+        this.itemsByRole = itemsByRole;
+    }
+
+    /**
+     * 校验并编译版式
+     *
+     * @param id         版式ID（新建校验时可为空）
+     * @param name       版式名称
+     * @param pageWidth  参考页面宽度（pt）
+     * @param pageHeight 参考页面高度（pt）
+     * @param items      版式条目
+     * @return 编译后的版式
+     * @throws BusinessException 页码选择格式错误或条目超出参考页面
+     */
+    public static CompiledLayout compile(Long id, String name, BigDecimal pageWidth, BigDecimal pageHeight,
+                                         List<StampLayoutItemRequest> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BusinessException("版式条目不能为空");
+        }
+        Map<String, List<Item>> itemsByRole = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            StampLayoutItemRequest item = items.get(i);
+            String role = item.getSealRole() != null ? item.getSealRole().trim() : "";
+            if (role.isEmpty()) {
+                throw new BusinessException(String.format("第 %d 个条目缺少签章角色", i + 1));
+            }
+            if (item.getX() == null || item.getY() == null || item.getWidth() == null || item.getHeight() == null) {
+                throw new BusinessException(String.format("第 %d 个条目缺少坐标或尺寸", i + 1));
+            }
+            if (item.getX().signum() < 0 || item.getY().signum() < 0
+                    || item.getWidth().signum() <= 0 || item.getHeight().signum() <= 0) {
+                throw new BusinessException(String.format("第 %d 个条目坐标或尺寸无效", i + 1));
+            }
+            if (item.getX().add(item.getWidth()).compareTo(pageWidth) > 0
+                    || item.getY().add(item.getHeight()).compareTo(pageHeight) > 0) {
+                throw new BusinessException(String.format("第 %d 个条目超出参考页面范围 (%s x %s)",
+                        i + 1, pageWidth.stripTrailingZeros().toPlainString(),
+                        pageHeight.stripTrailingZeros().toPlainString()));
+            }
+            itemsByRole.computeIfAbsent(role, key -> new ArrayList<>())
+                    .add(new Item(PageSelector.parse(item.getPageSelector()),
+                            item.getX(), item.getY(), item.getWidth(), item.getHeight()));
+        }
+        return new CompiledLayout(id, name, itemsByRole);
+    }
+
+    /**
+     * 版式ID
+     */
+    public Long id() {
+        return id;
+    }
+
+    /**
+     * 版式名称
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 签章角色（按条目出现顺序）
+     */
+    public Set<String> roles() {
+        return Collections.unmodifiableSet(itemsByRole.keySet());
+    }
+
+    /**
+     * 编译时间（System.nanoTime）
+     */
+    long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * 按合同页数展开角色的盖章位置
+     *
+     * @param role      签章角色
+     * @param pageCount 合同页数
+     * @return 盖章位置（不可修改）
+     * @throws BusinessException 角色不存在或版式页码超出合同页数
+     */
+    public List<SealPositionRequest> positions(String role, int pageCount) {
+        Map<String, List<SealPositionRequest>> expanded = expansions.get(pageCount);
+        if (expanded == null) {
+            expanded = expand(pageCount);
+            if (expansions.size() < MAX_EXPANSIONS) {
+                expansions.putIfAbsent(pageCount, expanded);
+            }
+        }
+        List<SealPositionRequest> positions = expanded.get(requireRole(role));
+        if (positions.isEmpty()) {
+            throw new BusinessException(String.format("版式角色 %s 在 %d 页的合同上没有盖章位置", role, pageCount));
+        }
+        return positions;
+    }
+
+    /**
+     * 角色的盖章区域（未展开页码，仅用于按尺寸预加载图片）
+     *
+     * @param role 签章角色
+     * @return 盖章区域（页码为空）
+     */
+    public List<SealPositionRequest> boxes(String role) {
+        return itemsByRole.get(requireRole(role)).stream()
+                .map(item -> item.toPosition(null))
+                .toList();
+    }
+
+    private String requireRole(String role) {
+        if (role == null || !itemsByRole.containsKey(role.trim())) {
+            throw new BusinessException(String.format("版式 %s 中不存在签章角色: %s", name, role));
+        }
+        return role.trim();
+    }
+
+    private Map<String, List<SealPositionRequest>> expand(int pageCount) {
+        Map<String, List<SealPositionRequest>> expanded = new LinkedHashMap<>();
+        itemsByRole.forEach((role, items) -> {
+            List<SealPositionRequest> positions = new ArrayList<>();
+            for (Item item : items) {
+                for (int page : item.pages().resolve(pageCount)) {
+                    positions.add(item.toPosition(page));
+                }
+            }
+            expanded.put(role, List.copyOf(positions));
+        });
+        return expanded;
+    }
+
+    /**
+     * 版式条目
+     */
+    private record Item(PageSelector pages, BigDecimal x, BigDecimal y, BigDecimal width, BigDecimal height) {
+
+        SealPositionRequest toPosition(Integer pageNumber) {
+            return SealPositionRequest.builder()
+                    .pageNumber(pageNumber)
+                    .x(x)
+                    .y(y)
+                    .width(width)
+                    .height(height)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cn.tcxingji.seal.layout;
+
+import cn.tcxingji.seal.exception.BusinessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 版式页码选择
+ * <p>
+ * 支持单页（3）、范围（2-4）、首页（first）、末页（last）、到末页的范围（2-last）和全部页（all），
+ * 多项用英文逗号分隔。解析在版式保存/加载时完成一次，盖章时只按合同页数展开
+ * </p>
+ *
+ * @author TC System
+ */
+public final class PageSelector {
+
+    /**
+     * 末页占位（展开时替换为合同页数）
+     */
+    private static final int LAST = -1;
+
+    private final String expression;
+
+    /**
+     * 页码范围（起始页、结束页，均可为 {@link #LAST}）
+     */
+    private final int[][] ranges;
+
+    private PageSelector(String expression, int[][] ranges) {
+        this.expression = expression;
+        this.ranges = ranges;
+    }
+
+    /**
+     * 解析页码选择表达式
+     *
+     * @param expression 表达式
+     * @return 页码选择
+     * @throws BusinessException 表达式格式错误
+     */
+    public static PageSelector parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new BusinessException("页码选择不能为空");
+        }
+        List<int[]> ranges = new ArrayList<>();
+        for (String term : expression.split(",")) {
+            String value = term.trim().toLowerCase(Locale.ROOT);
+            if (value.equals("all")) {
+                ranges.add(new int[]{1, LAST});
+                continue;
+            }
+            int dash = value.indexOf('-');
+            int start = parseBound(dash < 0 ? value : value.substring(0, dash), expression);
+            int end = dash < 0 ? start : parseBound(value.substring(dash + 1), expression);
+            if (start == LAST && end != LAST || end != LAST && start > end) {
+                throw new BusinessException("页码范围无效: " + term.trim());
+            }
+            ranges.add(new int[]{start, end});
+        }
+        return new PageSelector(expression.trim(), ranges.toArray(new int[0][]));
+    }
+
+    /**
+     * 按合同页数展开为页码列表（升序、去重）
+     *
+     * @param pageCount 合同页数
+     * @return 页码列表（从1开始）
+     * @throws BusinessException 指定的页码超出合同页数
+     */
+    public int[] resolve(int pageCount) {
+        boolean[] selected = new boolean[pageCount + 1];
+        int count = 0;
+        for (int[] range : ranges) {
+            int start = range[0] == LAST ? pageCount : range[0];
+            int end = range[1] == LAST ? pageCount : range[1];
+            if (start > pageCount || end > pageCount) {
+                throw new BusinessException(String.format("版式页码超出范围: %s (总页数: %d)",
+                        expression, pageCount));
+            }
+            for (int page = start; page <= end; page++) {
+                if (!selected[page]) {
+                    selected[page] = true;
+                    count++;
+                }
+            }
+        }
+        int[] pages = new int[count];
+        int index = 0;
+        for (int page = 1; page <= pageCount; page++) {
+            if (selected[page]) {
+                pages[index++] = page;
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * 原始表达式
+     */
+    public String expression() {
+        return expression;
+    }
+
+    private static int parseBound(String value, String expression) {
+        String bound = value.trim();
+        if (bound.equals("first")) {
+            return 1;
+        }
+        if (bound.equals("last")) {
+            return LAST;
+        }
+        try {
+            int page = Integer.parseInt(bound);
+            if (page < 1) {
+                throw new BusinessException("页码必须大于0: " + expression);
+            }
+            return page;
+        } catch (NumberFormatException e) {
+            throw new BusinessException("页码选择格式错误: " + expression);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package cn.tcxingji.seal.layout;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.StampLayoutItemRequest;
+import cn.tcxingji.seal.entity.StampLayout;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.repository.StampLayoutRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 盖章版式缓存
+ * <p>
+ * 缓存已校验编译的版式，按版式ID索引。本实例修改或删除版式时立即失效，
+ * 其他实例上的修改在缓存有效期（seal.stamp.layout.cache-ttl）后生效
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class StampLayoutCache {
+
+    private static final TypeReference<List<StampLayoutItemRequest>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final StampLayoutRepository stampLayoutRepository;
+    private final StampConfig stampConfig;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<Long, CompiledLayout> layouts = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public StampLayoutCache(StampLayoutRepository stampLayoutRepository,
+                            StampConfig stampConfig,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.stampLayoutRepository = stampLayoutRepository;
+        this.stampConfig = stampConfig;
+        this.objectMapper = objectMapper;
+        this.hitCounter = Counter.builder("seal.layout.cache.requests")
+                .description("盖章版式缓存请求次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("seal.layout.cache.requests")
+                .description("盖章版式缓存请求次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("seal.layout.cache.size", layouts, ConcurrentHashMap::size)
+                .description("盖章版式缓存条目数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取启用状态的版式（未命中或已过期时从数据库加载并编译）
+     *
+     * @param layoutId 版式ID
+     * @return 编译后的版式
+     * @throws BusinessException 版式不存在或已禁用
+     */
+    public CompiledLayout get(Long layoutId) {
+        CompiledLayout cached = layouts.get(layoutId);
+        long ttl = stampConfig.getLayout().getCacheTtl().toNanos();
+        if (cached != null && System.nanoTime() - cached.loadedAt() < ttl) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        missCounter.increment();
+        StampLayout layout = stampLayoutRepository.findById(layoutId)
+                .orElseThrow(() -> new BusinessException("盖章版式不存在: " + layoutId));
+        if (layout.getStatus() != StampLayout.Status.ENABLED) {
+            layouts.remove(layoutId);
+            throw new BusinessException("盖章版式已禁用: " + layout.getLayoutName());
+        }
+        CompiledLayout compiled = CompiledLayout.compile(layout.getId(), layout.getLayoutName(),
+                layout.getPageWidth(), layout.getPageHeight(), readItems(layout));
+        layouts.put(layoutId, compiled);
+        log.debug("加载盖章版式: id={}, name={}, roles={}", layoutId, layout.getLayoutName(), compiled.roles());
+        return compiled;
+    }
+
+    /**
+     * 使版式缓存失效（修改、禁用或删除版式后调用）
+     *
+     * @param layoutId 版式ID
+     */
+    public void invalidate(Long layoutId) {
+        if (layouts.remove(layoutId) != null) {
+            log.debug("清除盖章版式缓存: id={}", layoutId);
+        }
+    }
+
+    /**
+     * 解析版式条目 JSON
+     *
+     * @param layout 版式实体
+     * @return 版式条目
+     */
+    public List<StampLayoutItemRequest> readItems(StampLayout layout) {
+        try {
+            return objectMapper.readValue(layout.getItems(), ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("盖章版式数据格式错误: " + layout.getId());
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package cn.tcxingji.seal.lock;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.repository.ContractLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 合同级互斥锁管理器
+ * <p>
+ * 两级加锁：先获取进程内按合同ID的锁（引用计数，无人使用时移除，不同合同不会因哈希冲突互相阻塞），
+ * 再获取 contract_lock 表上的租约锁，保证同一合同在所有实例上串行盖章；
+ * 持有期间由 {@link LeaseHeartbeat} 定期续期，租约到期时间按数据库时钟计算。
+ * 不同合同使用不同的锁对象和锁行，可完全并行。
+ * 进程内锁使同一实例内的竞争在内存中排队，不会反复轮询数据库
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class ContractLockManager {
+
+    private final StampConfig stampConfig;
+    private final ContractLockRepository contractLockRepository;
+    private final LeaseHeartbeat leaseHeartbeat;
+
+    /**
+     * 进程内合同锁（合同ID -> 锁及引用计数），仅保留正在使用的合同
+     */
+    private final ConcurrentHashMap<Long, LockEntry> locks = new ConcurrentHashMap<>();
+
+    /**
+     * 当前实例标识
+     */
+    private final String instanceId;
+
+    private final AtomicInteger heldLocks = new AtomicInteger();
+
+    private final Timer localWaitTimer;
+    private final Timer clusterWaitTimer;
+    private final Counter localContentionCounter;
+    private final Counter clusterContentionCounter;
+    private final Counter timeoutCounter;
+    private final Counter leaseLostCounter;
+
+    public ContractLockManager(StampConfig stampConfig,
+                               ContractLockRepository contractLockRepository,
+                               LeaseHeartbeat leaseHeartbeat,
+                               MeterRegistry meterRegistry) {
+        this.stampConfig = stampConfig;
+        this.contractLockRepository = contractLockRepository;
+        this.leaseHeartbeat = leaseHeartbeat;
+
+        this.instanceId = resolveHostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+        this.localWaitTimer = Timer.builder("seal.contract.lock.wait")
+                .description("获取合同锁的等待时间")
+                .tag("scope", "local")
+                .register(meterRegistry);
+        this.clusterWaitTimer = Timer.builder("seal.contract.lock.wait")
+                .description("获取合同锁的等待时间")
+                .tag("scope", "cluster")
+                .register(meterRegistry);
+        this.localContentionCounter = Counter.builder("seal.contract.lock.contention")
+                .description("获取合同锁时需要等待的次数")
+                .tag("scope", "local")
+                .register(meterRegistry);
+        this.clusterContentionCounter = Counter.builder("seal.contract.lock.contention")
+                .description("获取合同锁时需要等待的次数")
+                .tag("scope", "cluster")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("seal.contract.lock.timeouts")
+                .description("获取合同锁超时次数")
+                .register(meterRegistry);
+        this.leaseLostCounter = Counter.builder("seal.contract.lock.lease.lost")
+                .description("释放时发现租约已被其他实例接管的次数")
+                .register(meterRegistry);
+        Gauge.builder("seal.contract.lock.held", heldLocks, AtomicInteger::get)
+                .description("当前持有的合同锁数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在合同锁内执行操作
+     *
+     * @param contractId 合同ID
+     * @param action     操作（通常包含完整的事务）
+     * @return 操作结果
+     * @throws BusinessException 等待超时（错误码 409）
+     */
+    public <T> T withLock(Long contractId, Supplier<T> action) {
+        StampConfig.Lock config = stampConfig.getLock();
+        long deadline = System.nanoTime() + config.getWaitTimeout().toNanos();
+
+        LockEntry entry = retain(contractId);
+        try {
+            acquireLocal(entry.lock, contractId, deadline);
+        } catch (RuntimeException e) {
+            release(contractId);
+            throw e;
+        }
+        try {
+            String owner = null;
+            if (config.isClusterEnabled()) {
+                owner = instanceId + ":" + Thread.currentThread().getId();
+                acquireCluster(contractId, owner, deadline);
+            }
+            heldLocks.incrementAndGet();
+            try (LeaseHeartbeat.Renewal ignored = renewCluster(contractId, owner)) {
+                return action.get();
+            } finally {
+                heldLocks.decrementAndGet();
+                if (owner != null) {
+                    releaseCluster(contractId, owner);
+                }
+            }
+        } finally {
+            entry.lock.unlock();
+            release(contractId);
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 获取合同的锁对象并增加引用计数
+     */
+    private LockEntry retain(Long contractId) {
+        return locks.compute(contractId, (id, entry) -> {
+            LockEntry current = entry != null ? entry : new LockEntry();
+            current.references++;
+            return current;
+        });
+    }
+
+    /**
+     * 减少引用计数，无人使用时移除锁对象
+     */
+    private void release(Long contractId) {
+        locks.computeIfPresent(contractId, (id, entry) -> --entry.references == 0 ? null : entry);
+    }
+
+    private void acquireLocal(ReentrantLock lock, Long contractId, long deadline) {
+        if (lock.tryLock()) {
+            return;
+        }
+        localContentionCounter.increment();
+        long start = System.nanoTime();
+        try {
+            if (!lock.tryLock(Math.max(0, deadline - start), TimeUnit.NANOSECONDS)) {
+                throw lockTimeout(contractId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("获取合同锁被中断");
+        } finally {
+            localWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void acquireCluster(Long contractId, String owner, long deadline) {
+        StampConfig.Lock config = stampConfig.getLock();
+        long start = System.nanoTime();
+        boolean contended = false;
+        try {
+            while (true) {
+                if (contractLockRepository.tryAcquire(contractId, owner, config.getLeaseDuration())) {
+                    return;
+                }
+                if (!contended) {
+                    contended = true;
+                    clusterContentionCounter.increment();
+                    log.debug("合同锁被其他实例持有，等待: contractId={}", contractId);
+                }
+                if (System.nanoTime() >= deadline) {
+                    throw lockTimeout(contractId);
+                }
+                Thread.sleep(config.getRetryInterval().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("获取合同锁被中断");
+        } finally {
+            clusterWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 持有期间定期续期租约锁（未启用跨实例锁时不续期）
+     */
+    private LeaseHeartbeat.Renewal renewCluster(Long contractId, String owner) {
+        if (owner == null) {
+            return null;
+        }
+        Duration lease = stampConfig.getLock().getLeaseDuration();
+        return leaseHeartbeat.start(lease, "contract-lock:" + contractId,
+                () -> contractLockRepository.renew(contractId, owner, lease));
+    }
+
+    private void releaseCluster(Long contractId, String owner) {
+        try {
+            if (!contractLockRepository.release(contractId, owner)) {
+                leaseLostCounter.increment();
+                log.warn("合同租约锁已过期并被接管，请检查续期是否失败（如数据库不可用）: contractId={}", contractId);
+            }
+        } catch (Exception e) {
+            // 释放失败时依赖租约到期自动失效
+            log.error("释放合同租约锁失败: contractId={}", contractId, e);
+        }
+    }
+
+    private BusinessException lockTimeout(Long contractId) {
+        timeoutCounter.increment();
+        log.warn("获取合同锁超时: contractId={}", contractId);
+        return new BusinessException(409, "合同正在被其他操作处理，请稍后重试");
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * 进程内合同锁（公平锁，避免同一合同的请求饥饿）
+     * <p>
+     * 引用计数仅在 ConcurrentHashMap 的 compute 中修改，由其按键加锁保证原子性
+     * </p>
+     */
+    private static final class LockEntry {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int references;
+    }
+}
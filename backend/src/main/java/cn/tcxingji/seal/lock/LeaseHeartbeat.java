@@ -0,0 +1,89 @@
+package cn.tcxingji.seal.lock;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 数据库租约续期
+ * <p>
+ * 持有租约（合同锁、幂等键处理中记录）期间按租约时长的三分之一定期续期，
+ * 处理耗时超过租约时长时不会被其他实例误判为已宕机而接管。
+ * 续期只是单条更新语句，所有租约共用一个后台线程
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class LeaseHeartbeat {
+
+    /**
+     * 最小续期间隔
+     */
+    private static final long MIN_INTERVAL_MILLIS = 1_000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 开始定期续期，直到返回的句柄关闭
+     * <p>
+     * 续期抛出异常时记录日志并在下一周期重试；续期返回 false（租约已被接管或已释放）时停止续期
+     * </p>
+     *
+     * @param lease 租约时长
+     * @param name  租约名称（用于日志）
+     * @param renew 续期操作，返回租约是否仍由自己持有
+     * @return 续期句柄（在 finally 或 try-with-resources 中关闭）
+     */
+    public Renewal start(Duration lease, String name, BooleanSupplier renew) {
+        long interval = Math.max(MIN_INTERVAL_MILLIS, lease.toMillis() / 3);
+        Renewal renewal = new Renewal();
+        renewal.future = scheduler.scheduleAtFixedRate(() -> {
+            try {
+                if (!renew.getAsBoolean()) {
+                    log.warn("租约已不再由本实例持有，停止续期: {}", name);
+                    renewal.close();
+                }
+            } catch (RuntimeException e) {
+                log.warn("租约续期失败，下一周期重试: {}", name, e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return renewal;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 续期句柄
+     */
+    public static final class Renewal implements AutoCloseable {
+
+        private volatile ScheduledFuture<?> future;
+
+        /**
+         * 停止续期（不等待正在执行的续期完成）
+         */
+        @Override
+        public void close() {
+            ScheduledFuture<?> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package cn.tcxingji.seal.lock;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.exception.BusinessException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * 合同级盖章信箱
+ * <p>
+ * 同一合同的盖章请求按到达顺序排队：空闲时第一个请求直接处理；处理期间到达的请求排队，
+ * 当前批次完成后由队首请求的线程把已排队的请求（最多 max-batch 个）合并为一批，
+ * 只加载、绘制和保存一次文档。每个请求处理完自己所在的批次后即返回，并把处理权交给下一个排队的请求，
+ * 不会因持续到达的新请求而一直等待。信箱只合并本实例内的请求，跨实例仍由合同锁串行
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class StampMailbox {
+
+    private final StampConfig stampConfig;
+
+    /**
+     * 合同ID -> 信箱，仅保留有请求在处理或排队的合同；状态只在 compute 中修改
+     */
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final DistributionSummary batchSizeSummary;
+
+    public StampMailbox(StampConfig stampConfig, MeterRegistry meterRegistry) {
+        this.stampConfig = stampConfig;
+        this.batchSizeSummary = DistributionSummary.builder("seal.stamp.mailbox.batch")
+                .description("合并为一次文档写出的盖章请求数")
+                .baseUnit("requests")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交盖章请求并等待结果
+     *
+     * @param contractId 合同ID
+     * @param request    盖章请求
+     * @param handler    批次处理（在合同锁内为批次中的每个请求设置结果；未设置结果的请求按失败处理）
+     * @return 本请求的盖章响应
+     */
+    public ContractSealResponse submit(Long contractId, ContractSealRequest request, Consumer<List<Pending>> handler) {
+        Pending mine = new Pending(request);
+        boolean[] leader = new boolean[1];
+        mailboxes.compute(contractId, (id, box) -> {
+            Mailbox current = box != null ? box : new Mailbox();
+            current.queue.addLast(mine);
+            if (!current.draining) {
+                current.draining = true;
+                leader[0] = true;
+            }
+            return current;
+        });
+
+        // 只有信箱的首个请求或被交接处理权的请求才能取批次和交接，其余请求只等待结果
+        if (leader[0] || awaitTurn(contractId, mine)) {
+            // 轮到本请求处理：本请求位于队首，必在本批次中
+            List<Pending> batch = takeBatch(contractId);
+            try {
+                run(batch, handler);
+            } finally {
+                handOff(contractId);
+            }
+        }
+        return mine.join();
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 等待本请求被其他线程处理完成，或轮到本请求处理
+     *
+     * @return 是否轮到本请求处理（为 false 时本请求已有结果）
+     */
+    private boolean awaitTurn(Long contractId, Pending mine) {
+        long timeoutMs = stampConfig.getMailbox().getWaitTimeout().toMillis();
+        try {
+            CompletableFuture.anyOf(mine.result, mine.turn).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return mine.turn.isDone() && !mine.result.isDone();
+        } catch (TimeoutException e) {
+            boolean[] removed = new boolean[1];
+            mailboxes.computeIfPresent(contractId, (id, box) -> {
+                removed[0] = box.queue.remove(mine);
+                return box;
+            });
+            if (removed[0]) {
+                if (mine.turn.isDone()) {
+                    // 超时的同时被选为下一个处理者，把处理权继续交给后面的请求
+                    handOff(contractId);
+                }
+                throw new BusinessException(409, "合同正在被其他操作处理，请稍后重试");
+            }
+            // 已被取入正在处理的批次：只等待该批次完成，不能再取批次或交接处理权
+            mine.result.handle((response, error) -> null).join();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("等待盖章被中断");
+        } catch (ExecutionException e) {
+            // 结果由 join 统一抛出
+            return false;
+        }
+    }
+
+    /**
+     * 取出队首最多 max-batch 个请求
+     */
+    private List<Pending> takeBatch(Long contractId) {
+        int maxBatch = Math.max(1, stampConfig.getMailbox().getMaxBatch());
+        List<Pending> batch = new ArrayList<>();
+        mailboxes.computeIfPresent(contractId, (id, box) -> {
+            while (batch.size() < maxBatch && !box.queue.isEmpty()) {
+                batch.add(box.queue.pollFirst());
+            }
+            return box;
+        });
+        return batch;
+    }
+
+    /**
+     * 执行批次；处理失败时批次中尚无结果的请求都以该异常失败
+     */
+    private void run(List<Pending> batch, Consumer<List<Pending>> handler) {
+        if (batch.isEmpty()) {
+            log.warn("盖章信箱取到空批次，跳过处理");
+            return;
+        }
+        batchSizeSummary.record(batch.size());
+        if (batch.size() > 1) {
+            log.debug("合并盖章请求: size={}", batch.size());
+        }
+        RuntimeException failure = null;
+        try {
+            handler.accept(batch);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (Pending pending : batch) {
+            if (!pending.result.isDone()) {
+                pending.fail(failure != null ? failure : new BusinessException("盖章请求未被处理"));
+            }
+        }
+    }
+
+    /**
+     * 把处理权交给下一个排队的请求；队列为空时移除信箱
+     */
+    private void handOff(Long contractId) {
+        mailboxes.computeIfPresent(contractId, (id, box) -> {
+            Pending next = box.queue.peekFirst();
+            if (next == null) {
+                return null;
+            }
+            next.turn.complete(null);
+            return box;
+        });
+    }
+
+    /**
+     * 单个合同的信箱
+     */
+    private static final class Mailbox {
+        private final Deque<Pending> queue = new ArrayDeque<>();
+        /**
+         * 是否有线程正在处理（或已被选为下一个处理者）
+         */
+        private boolean draining;
+    }
+
+    /**
+     * 排队中的盖章请求
+     */
+    public static final class Pending {
+
+        private final ContractSealRequest request;
+        private final CompletableFuture<ContractSealResponse> result = new CompletableFuture<>();
+
+        /**
+         * 轮到本请求的线程处理下一批次
+         */
+        private final CompletableFuture<Void> turn = new CompletableFuture<>();
+
+        private Pending(ContractSealRequest request) {
+            this.request = request;
+        }
+
+        public ContractSealRequest request() {
+            return request;
+        }
+
+        public void complete(ContractSealResponse response) {
+            result.complete(response);
+        }
+
+        public void fail(RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+
+        private ContractSealResponse join() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package cn.tcxingji.seal.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 盖章流水线指标
+ * <p>
+ * 每次盖章操作结束后记录：
+ * seal.stamp.duration（总耗时，含合同锁等待）、seal.stamp.stage.duration（各阶段耗时），
+ * 均发布 p50/p95/p99，按操作类型和签章类型打标签；
+ * 以及源文档字节数、页数、位置数、新嵌入图片字节数和输出字节数的分布。
+ * 同时向 {@code seal.stamp.metrics} 日志输出一行 key=value 格式的结构化日志。
+ * 合同锁等待另见 seal.contract.lock.wait，PDF 内存额度等待另见 seal.pdf.memory.wait
+ * </p>
+ *
+ * @author TC System
+ */
+@Component
+public class StampMetrics {
+
+    /**
+     * 结构化日志（独立 logger，便于单独采集）
+     */
+    private static final Logger METRICS_LOG = LoggerFactory.getLogger("seal.stamp.metrics");
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    public StampMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 开始一次盖章操作
+     *
+     * @param operation  操作类型（stamp、batch、layout、perforation、merge）
+     * @param contractId 合同ID
+     * @return 计时对象
+     */
+    public StampTrace start(String operation, Long contractId) {
+        return new StampTrace(operation, contractId);
+    }
+
+    /**
+     * 结束一次盖章操作，记录指标并输出结构化日志
+     *
+     * @param trace   计时对象
+     * @param success 是否成功
+     */
+    public void finish(StampTrace trace, boolean success) {
+        long totalNanos = trace.elapsedNanos();
+        String outcome = success ? "success" : "failure";
+
+        Timer.builder("seal.stamp.duration")
+                .description("盖章操作总耗时（含合同锁等待）")
+                .tag("operation", trace.getOperation())
+                .tag("sealType", trace.getSealType())
+                .tag("outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+
+        for (Map.Entry<StampTrace.Stage, Long> entry : trace.getStageNanos().entrySet()) {
+            Timer.builder("seal.stamp.stage.duration")
+                    .description("盖章各阶段耗时")
+                    .tag("operation", trace.getOperation())
+                    .tag("sealType", trace.getSealType())
+                    .tag("stage", entry.getKey().tag())
+                    .publishPercentiles(PERCENTILES)
+                    .register(meterRegistry)
+                    .record(entry.getValue(), TimeUnit.NANOSECONDS);
+        }
+
+        if (success) {
+            // 不加载或不写出文档的操作（如工作区内的单次盖章）不记录文档大小
+            if (trace.getPageCount() > 0) {
+                summary("seal.stamp.document.size", "源文档大小", "bytes", trace).record(trace.getDocumentBytes());
+                summary("seal.stamp.document.pages", "源文档页数", "pages", trace).record(trace.getPageCount());
+            }
+            summary("seal.stamp.positions", "盖章位置数", "positions", trace).record(trace.getPositions());
+            summary("seal.stamp.image.embedded", "新嵌入的图片大小", "bytes", trace).record(trace.getImageBytes());
+            if (trace.getOutputBytes() > 0) {
+                summary("seal.stamp.output.size", "输出文档大小", "bytes", trace).record(trace.getOutputBytes());
+            }
+        }
+
+        if (METRICS_LOG.isInfoEnabled()) {
+            StringJoiner stages = new StringJoiner(" ");
+            trace.getStageNanos().forEach((stage, nanos) ->
+                    stages.add(stage.tag() + "Ms=" + TimeUnit.NANOSECONDS.toMillis(nanos)));
+            METRICS_LOG.info("operation={} contractId={} sealType={} outcome={} totalMs={} {} "
+                            + "documentBytes={} pages={} positions={} imageBytes={} outputBytes={}",
+                    trace.getOperation(), trace.getContractId(), trace.getSealType(), outcome,
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos), stages,
+                    trace.getDocumentBytes(), trace.getPageCount(), trace.getPositions(),
+                    trace.getImageBytes(), trace.getOutputBytes());
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String unit, StampTrace trace) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(unit)
+                .tag("operation", trace.getOperation())
+                .tag("sealType", trace.getSealType())
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,147 @@
+package cn.tcxingji.seal.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 单次盖章操作的分阶段计时和规模统计
+ * <p>
+ * 由 {@link StampMetrics#start} 创建，在盖章服务和盖章引擎之间传递（同一线程内使用，非线程安全），
+ * 操作结束后由 {@link StampMetrics#finish} 汇总为指标并输出结构化日志
+ * </p>
+ *
+ * @author TC System
+ */
+@Getter
+public final class StampTrace {
+
+    /**
+     * 盖章阶段
+     */
+    public enum Stage {
+        /** 只读事务：读取合同、印章并校验 */
+        VALIDATE("validate"),
+        /** 锚点定位 */
+        ANCHOR("anchor"),
+        /** 获取预编码图片（缓存未命中时解码和编码） */
+        IMAGE("image"),
+        /** 加载 PDF */
+        LOAD("load"),
+        /** 嵌入图片 XObject */
+        EMBED("embed"),
+        /** 绘制内容流 */
+        DRAW("draw"),
+        /** 写出 PDF */
+        SAVE("save"),
+        /** 数字签名：计算文档摘要并生成 CMS 签名 */
+        SIGN("sign"),
+        /** 写事务：保存签章记录并更新合同 */
+        COMMIT("commit"),
+        /** 刷新签章预览图缓存 */
+        PREVIEW("preview");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final String operation;
+    private final Long contractId;
+    @Getter(AccessLevel.NONE)
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * 各阶段累计耗时（纳秒），只包含实际执行过的阶段
+     */
+    private final Map<Stage, Long> stageNanos = new EnumMap<>(Stage.class);
+
+    @Setter
+    private String sealType = "unknown";
+    private long documentBytes;
+    private int pageCount;
+    private int positions;
+    private long imageBytes;
+    private long outputBytes;
+
+    StampTrace(String operation, Long contractId) {
+        this.operation = operation;
+        this.contractId = contractId;
+    }
+
+    /**
+     * 开始计时一个阶段，关闭返回的 {@link Span} 时累加耗时（同一阶段可多次计时）
+     *
+     * @param stage 阶段
+     * @return 计时区间
+     */
+    public Span stage(Stage stage) {
+        return new Span(stage, System.nanoTime());
+    }
+
+    /**
+     * 记录源文档规模（多次加载时保留第一次，即本次盖章的基准文档）
+     *
+     * @param bytes 文件字节数
+     * @param pages 页数
+     */
+    public void document(long bytes, int pages) {
+        if (documentBytes == 0) {
+            this.documentBytes = bytes;
+            this.pageCount = pages;
+        }
+    }
+
+    /**
+     * 累加盖章位置数量
+     */
+    public void addPositions(int count) {
+        this.positions += count;
+    }
+
+    /**
+     * 累加新嵌入的图片字节数（复用已嵌入的图片不计入）
+     */
+    public void addImageBytes(long bytes) {
+        this.imageBytes += bytes;
+    }
+
+    /**
+     * 记录输出文件字节数
+     */
+    public void output(long bytes) {
+        this.outputBytes = bytes;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 阶段计时区间
+     */
+    public final class Span implements AutoCloseable {
+
+        private final Stage stage;
+        private final long start;
+
+        private Span(Stage stage, long start) {
+            this.stage = stage;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            stageNanos.merge(stage, System.nanoTime() - start, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package cn.tcxingji.seal.pdf;
+
+import lombok.Getter;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编码图片 XObject
+ * <p>
+ * 保存已压缩的图片流字节、SMask 流和尺寸等字典参数，与具体文档无关，可被多个线程共享；
+ * 嵌入目标文档时只做一次字节拷贝，不再重新解码和压缩图片
+ * </p>
+ *
+ * @author TC System
+ */
+@Getter
+public final class EncodedImage {
+
+    /**
+     * 嵌入时写入图片流字典的内容摘要键，用于在同一文档的后续盖章中识别并复用已嵌入的图片
+     */
+    public static final COSName CONTENT_HASH = COSName.getPDFName("TCContentHash");
+
+    /**
+     * 不复制到目标文档的流字典键（由嵌入过程重新生成）
+     */
+    private static final Set<COSName> SKIPPED_KEYS = Set.of(
+            COSName.LENGTH, COSName.SMASK, EncodedImage.CONTENT_HASH);
+
+    /**
+     * 图片流字典参数（仅包含直接对象）
+     */
+    private final COSDictionary parameters;
+
+    /**
+     * 已压缩的图片流字节
+     */
+    private final byte[] data;
+
+    /**
+     * 透明通道（SMask），可为空
+     */
+    private final EncodedImage smask;
+
+    /**
+     * 内容摘要（图片流、SMask 和尺寸的 SHA-256）
+     */
+    private final String contentHash;
+
+    /**
+     * 图片宽度（像素）
+     */
+    private final int width;
+
+    /**
+     * 图片高度（像素）
+     */
+    private final int height;
+
+    private EncodedImage(COSDictionary parameters, byte[] data, EncodedImage smask) {
+        this.parameters = parameters;
+        this.data = data;
+        this.smask = smask;
+        this.width = parameters.getInt(COSName.WIDTH);
+        this.height = parameters.getInt(COSName.HEIGHT);
+        this.contentHash = computeHash(data, smask, width, height);
+    }
+
+    /**
+     * 从图片文件编码
+     * <p>
+     * 优先使用 PDFBox 按扩展名的原生转换（PNG/JPEG 直接嵌入），
+     * 若结果引用了无法脱离文档的间接对象（如 ICC 颜色配置流），则回退为无损重新编码
+     * </p>
+     *
+     * @param imagePath 图片文件路径
+     * @return 预编码图片
+     */
+    public static EncodedImage fromFile(Path imagePath) throws IOException {
+        try (PDDocument scratch = new PDDocument()) {
+            PDImageXObject image = PDImageXObject.createFromFile(imagePath.toString(), scratch);
+            try {
+                return detach(image.getCOSObject());
+            } catch (IllegalArgumentException e) {
+                BufferedImage bufferedImage = ImageIO.read(imagePath.toFile());
+                if (bufferedImage == null) {
+                    throw new IOException("无法解析图片: " + imagePath);
+                }
+                return fromImage(bufferedImage);
+            }
+        }
+    }
+
+    /**
+     * 将内存图片无损编码（Flate）
+     *
+     * @param image 图片
+     * @return 预编码图片
+     */
+    public static EncodedImage fromImage(BufferedImage image) throws IOException {
+        try (PDDocument scratch = new PDDocument()) {
+            return detach(LosslessFactory.createFromImage(scratch, image).getCOSObject());
+        }
+    }
+
+    /**
+     * 从已有图片 XObject 流复制出与文档无关的预编码图片
+     *
+     * @param stream 图片流
+     * @return 预编码图片
+     */
+    public static EncodedImage detach(COSStream stream) throws IOException {
+        COSDictionary parameters = new COSDictionary();
+        for (Map.Entry<COSName, COSBase> entry : stream.entrySet()) {
+            if (!SKIPPED_KEYS.contains(entry.getKey())) {
+                parameters.setItem(entry.getKey(), copyDirect(entry.getValue()));
+            }
+        }
+
+        byte[] data;
+        try (InputStream in = stream.createRawInputStream()) {
+            data = in.readAllBytes();
+        }
+
+        EncodedImage smask = null;
+        COSBase smaskBase = stream.getDictionaryObject(COSName.SMASK);
+        if (smaskBase instanceof COSStream smaskStream) {
+            smask = detach(smaskStream);
+        }
+        return new EncodedImage(parameters, data, smask);
+    }
+
+    /**
+     * 嵌入目标文档，生成新的图片 XObject
+     *
+     * @param document 目标文档
+     * @return 图片 XObject
+     */
+    public PDImageXObject embed(PDDocument document) throws IOException {
+        COSStream stream = document.getDocument().createCOSStream();
+        for (Map.Entry<COSName, COSBase> entry : parameters.entrySet()) {
+            stream.setItem(entry.getKey(), copyDirect(entry.getValue()));
+        }
+        try (OutputStream out = stream.createRawOutputStream()) {
+            out.write(data);
+        }
+        if (smask != null) {
+            stream.setItem(COSName.SMASK, smask.embed(document));
+        }
+        stream.setString(CONTENT_HASH, contentHash);
+        return new PDImageXObject(new PDStream(stream), null);
+    }
+
+    /**
+     * 估算占用内存（字节）
+     *
+     * @return 字节数
+     */
+    public long getEncodedSize() {
+        return data.length + (smask != null ? smask.getEncodedSize() : 0);
+    }
+
+    private static String computeHash(byte[] data, EncodedImage smask, int width, int height) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data);
+            if (smask != null) {
+                digest.update(smask.contentHash.getBytes(StandardCharsets.US_ASCII));
+            }
+            digest.update((width + "x" + height).getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 深拷贝直接对象；遇到间接对象或流时抛出 IllegalArgumentException
+     */
+    private static COSBase copyDirect(COSBase base) {
+        if (base instanceof COSObject || base instanceof COSStream) {
+            throw new IllegalArgumentException("图片参数包含间接对象，无法脱离文档缓存");
+        }
+        if (base instanceof COSDictionary dictionary) {
+            COSDictionary copy = new COSDictionary();
+            for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet()) {
+                copy.setItem(entry.getKey(), copyDirect(entry.getValue()));
+            }
+            return copy;
+        }
+        if (base instanceof COSArray array) {
+            COSArray copy = new COSArray();
+            for (int i = 0; i < array.size(); i++) {
+                copy.add(copyDirect(array.get(i)));
+            }
+            return copy;
+        }
+        if (base instanceof COSString string) {
+            return new COSString(string.getBytes());
+        }
+        // COSName、COSNumber、COSBoolean、COSNull 均为不可变对象，可直接共享
+        return base;
+    }
+}
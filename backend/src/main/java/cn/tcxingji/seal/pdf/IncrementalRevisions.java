@@ -0,0 +1,100 @@
+package cn.tcxingji.seal.pdf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * PDF 增量修订工具
+ * <p>
+ * 增量更新只在文件末尾追加变更对象、交叉引用和 trailer，之前的字节保持不变，
+ * 因此每个修订的结束位置（%%EOF 之后）截断即得到该修订时的完整文件
+ * </p>
+ *
+ * @author TC System
+ */
+public final class IncrementalRevisions {
+
+    private static final byte[] EOF_MARKER = "%%EOF".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 检查修订结束标记时读取的末尾字节数（%%EOF 后可能有换行等空白）
+     */
+    private static final int TAIL_BYTES = 32;
+
+    private IncrementalRevisions() {
+    }
+
+    /**
+     * 判断文件是否由基准文件追加增量更新得到（基准文件是其严格前缀）
+     *
+     * @param base    基准文件
+     * @param updated 更新后的文件
+     * @return 是否为增量更新
+     */
+    public static boolean isIncrementalUpdate(Path base, Path updated) throws IOException {
+        long baseSize = Files.size(base);
+        return Files.size(updated) > baseSize && Files.mismatch(base, updated) == baseSize;
+    }
+
+    /**
+     * 将文件的前 length 字节复制到目标文件
+     * <p>
+     * 截断位置必须是一个修订的结束位置（其前的内容以 %%EOF 结尾），否则拒绝复制
+     * </p>
+     *
+     * @param source 源文件
+     * @param length 截断位置
+     * @param target 目标文件
+     * @throws IOException 读写失败或截断位置不是修订结束位置
+     */
+    public static void truncate(Path source, long length, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (length <= 0 || length > in.size()) {
+                throw new IOException("截断位置超出文件范围: length=" + length + ", size=" + in.size());
+            }
+            if (!endsWithEofMarker(in, length)) {
+                throw new IOException("截断位置不是修订结束位置: length=" + length);
+            }
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long position = 0;
+                while (position < length) {
+                    position += in.transferTo(position, length - position, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * 判断前 length 字节是否以 %%EOF（及可选的空白）结尾
+     */
+    private static boolean endsWithEofMarker(FileChannel channel, long length) throws IOException {
+        int tailSize = (int) Math.min(TAIL_BYTES, length);
+        ByteBuffer tail = ByteBuffer.allocate(tailSize);
+        long offset = length - tailSize;
+        while (tail.hasRemaining()) {
+            if (channel.read(tail, offset + tail.position()) < 0) {
+                return false;
+            }
+        }
+        byte[] bytes = tail.array();
+        int end = bytes.length;
+        while (end > 0 && Character.isWhitespace(bytes[end - 1])) {
+            end--;
+        }
+        if (end < EOF_MARKER.length) {
+            return false;
+        }
+        for (int i = 0; i < EOF_MARKER.length; i++) {
+            if (bytes[end - EOF_MARKER.length + i] != EOF_MARKER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+package cn.tcxingji.seal.pdf;
+
+import lombok.Getter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PDF 文档租约
+ * <p>
+ * 持有一个已打开的 {@link PDDocument} 及其在 {@link PdfMemoryGovernor} 中预留的内存额度，
+ * 关闭时先关闭文档再归还额度（多次关闭只归还一次）
+ * </p>
+ *
+ * @author TC System
+ */
+public final class PdfDocumentLease implements AutoCloseable {
+
+    /**
+     * 已打开的文档
+     */
+    @Getter
+    private final PDDocument document;
+
+    /**
+     * 预留的内存额度（字节）
+     */
+    @Getter
+    private final long reservedBytes;
+
+    private final PdfMemoryGovernor governor;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    PdfDocumentLease(PDDocument document, long reservedBytes, PdfMemoryGovernor governor) {
+        this.document = document;
+        this.reservedBytes = reservedBytes;
+        this.governor = governor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            document.close();
+        } finally {
+            governor.release(reservedBytes);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PDF 内存管理器
+ * <p>
+ * 为进程内所有打开的 {@link PDDocument} 分配统一的堆内存预算：每个文档按文件大小预留额度
+ * （不超过单文档上限），文档内部的流缓存只在该额度内使用堆内存，超出部分写入临时目录；
+ * 全局预算不足时等待其他文档释放，等待超时则拒绝请求
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class PdfMemoryGovernor {
+
+    /**
+     * 额度计量单位（KB），使信号量许可数不超过 int 范围
+     */
+    private static final long UNIT = 1024;
+
+    /**
+     * 单文档最小预留额度（解析对象树本身即占用堆内存）
+     */
+    private static final long MIN_RESERVATION = 1024 * 1024;
+
+    /**
+     * 文件大小到堆内存占用的估算系数
+     */
+    private static final int SIZE_FACTOR = 2;
+
+    private final StampConfig stampConfig;
+
+    /**
+     * 全局额度（单位 KB）
+     */
+    private final Semaphore budget;
+
+    private final int totalUnits;
+
+    /**
+     * 流缓存临时目录
+     */
+    private final Path scratchDir;
+
+    private final AtomicInteger openDocuments = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejectionCounter;
+    private final Counter spillCounter;
+
+    public PdfMemoryGovernor(StampConfig stampConfig, MeterRegistry meterRegistry) throws IOException {
+        this.stampConfig = stampConfig;
+        StampConfig.Memory memory = stampConfig.getMemory();
+        this.totalUnits = (int) Math.max(1, memory.getTotalBudget() / UNIT);
+        this.budget = new Semaphore(totalUnits, true);
+
+        String dir = memory.getScratchDir();
+        this.scratchDir = (dir == null || dir.isBlank())
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "seal-pdf-scratch")
+                : Paths.get(dir);
+        Files.createDirectories(scratchDir);
+
+        this.waitTimer = Timer.builder("seal.pdf.memory.wait")
+                .description("等待 PDF 内存额度的时间")
+                .register(meterRegistry);
+        this.rejectionCounter = Counter.builder("seal.pdf.memory.rejections")
+                .description("因内存预算不足被拒绝的 PDF 打开请求")
+                .register(meterRegistry);
+        this.spillCounter = Counter.builder("seal.pdf.memory.spills")
+                .description("预估占用超过单文档额度、流缓存会写入临时文件的文档数")
+                .register(meterRegistry);
+        Gauge.builder("seal.pdf.memory.budget.used", this, PdfMemoryGovernor::usedBytes)
+                .description("已预留的 PDF 堆内存额度")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("seal.pdf.memory.budget.total", this, PdfMemoryGovernor::totalBytes)
+                .description("PDF 堆内存总预算")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("seal.pdf.memory.documents", openDocuments, AtomicInteger::get)
+                .description("当前打开的 PDF 文档数")
+                .register(meterRegistry);
+
+        log.info("PDF 内存管理器初始化: totalBudget={}MB, perDocument={}MB, scratchDir={}",
+                memory.getTotalBudget() / UNIT / UNIT, memory.getPerDocumentBudget() / UNIT / UNIT, scratchDir);
+    }
+
+    /**
+     * 在内存预算内打开 PDF 文件
+     *
+     * @param pdfPath PDF 文件路径
+     * @return 文档租约（调用方负责关闭）
+     * @throws BusinessException 等待超时仍无可用额度时抛出（错误码 503）
+     */
+    public PdfDocumentLease open(Path pdfPath) throws IOException {
+        long fileSize = Files.size(pdfPath);
+        long reservation = reservationFor(fileSize);
+        int units = acquire(reservation, pdfPath);
+        openDocuments.incrementAndGet();
+
+        try {
+            MemoryUsageSetting setting = MemoryUsageSetting.setupMixed(reservation)
+                    .setTempDir(scratchDir.toFile());
+            PDDocument document = Loader.loadPDF(pdfPath.toFile(), setting.streamCache);
+            if (fileSize * SIZE_FACTOR > reservation) {
+                spillCounter.increment();
+                log.debug("PDF 超出单文档额度，流缓存将溢出到临时文件: path={}, size={}", pdfPath, fileSize);
+            }
+            return new PdfDocumentLease(document, units * UNIT, this);
+        } catch (IOException | RuntimeException e) {
+            release(units * UNIT);
+            throw e;
+        }
+    }
+
+    /**
+     * 当前已预留额度（字节）
+     */
+    public long usedBytes() {
+        return (long) (totalUnits - budget.availablePermits()) * UNIT;
+    }
+
+    /**
+     * 总预算（字节）
+     */
+    public long totalBytes() {
+        return (long) totalUnits * UNIT;
+    }
+
+    /**
+     * 归还额度（由租约关闭时调用）
+     */
+    void release(long reservedBytes) {
+        budget.release((int) (reservedBytes / UNIT));
+        openDocuments.decrementAndGet();
+    }
+
+    /**
+     * 按文件大小估算预留额度，限制在 [最小额度, 单文档上限] 内
+     */
+    private long reservationFor(long fileSize) {
+        long perDocument = Math.max(MIN_RESERVATION, stampConfig.getMemory().getPerDocumentBudget());
+        long estimate = Math.max(MIN_RESERVATION, fileSize * SIZE_FACTOR);
+        return Math.min(Math.min(estimate, perDocument), totalBytes());
+    }
+
+    private int acquire(long reservation, Path pdfPath) {
+        int units = (int) Math.max(1, reservation / UNIT);
+        long timeoutMs = stampConfig.getMemory().getAcquireTimeout().toMillis();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = budget.tryAcquire(units, timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "PDF 处理被中断");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejectionCounter.increment();
+            log.warn("PDF 内存预算不足，拒绝打开: path={}, reservation={}KB, used={}KB",
+                    pdfPath, units, usedBytes() / UNIT);
+            throw new BusinessException(503, "系统繁忙，PDF 处理内存不足，请稍后重试");
+        }
+        return units;
+    }
+}
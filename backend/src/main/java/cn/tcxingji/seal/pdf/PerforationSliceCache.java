@@ -0,0 +1,217 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 骑缝章切片缓存
+ * <p>
+ * 按 印章图片内容哈希 + 页数 缓存已编码的切片列表（切片几何完全由图片尺寸和页数决定）；
+ * 未命中时在线程池中并行编码各切片，盖章时只需把预编码切片依次嵌入文档
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class PerforationSliceCache {
+
+    private final StampConfig stampConfig;
+
+    /**
+     * 切片编码线程池（CPU 密集，线程数等于核数）
+     */
+    private final ExecutorService encoder;
+
+    /**
+     * LRU 缓存（访问顺序），所有访问均在 this 上同步
+     */
+    private final LinkedHashMap<SliceKey, Slices> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 当前缓存的编码字节总数
+     */
+    private long totalBytes;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer encodeTimer;
+
+    public PerforationSliceCache(StampConfig stampConfig, MeterRegistry meterRegistry) {
+        this.stampConfig = stampConfig;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.encoder = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "slice-encoder-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.hitCounter = Counter.builder("seal.perforation.cache.requests")
+                .description("骑缝章切片缓存请求次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("seal.perforation.cache.requests")
+                .description("骑缝章切片缓存请求次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("seal.perforation.slice.encode")
+                .description("骑缝章切片并行编码耗时")
+                .register(meterRegistry);
+        Gauge.builder("seal.perforation.cache.bytes", this, PerforationSliceCache::bytes)
+                .description("骑缝章切片缓存编码字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取印章按页数切分后的预编码切片
+     *
+     * @param sealImagePath 印章图片路径
+     * @param pageCount     页数（切片数）
+     * @return 切片列表，第 i 个对应第 i+1 页
+     */
+    public List<EncodedImage> get(Path sealImagePath, int pageCount) throws IOException {
+        byte[] imageBytes = Files.readAllBytes(sealImagePath);
+        SliceKey key = new SliceKey(sha256(imageBytes), pageCount);
+
+        synchronized (this) {
+            Slices cached = entries.get(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached.images();
+            }
+        }
+
+        missCounter.increment();
+        BufferedImage sealImage = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (sealImage == null) {
+            throw new BusinessException("无法解析印章图片");
+        }
+        long start = System.nanoTime();
+        List<EncodedImage> images = encodeSlices(sealImage, pageCount);
+        encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        long bytes = images.stream().mapToLong(EncodedImage::getEncodedSize).sum();
+        log.debug("骑缝章切片编码完成: pages={}, image={}x{}, bytes={}",
+                pageCount, sealImage.getWidth(), sealImage.getHeight(), bytes);
+
+        synchronized (this) {
+            Slices previous = entries.put(key, new Slices(images, bytes));
+            if (previous != null) {
+                totalBytes -= previous.bytes();
+            }
+            totalBytes += bytes;
+            evictIfNecessary();
+        }
+        return images;
+    }
+
+    /**
+     * 当前缓存编码字节数
+     */
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        encoder.shutdownNow();
+    }
+
+    /**
+     * 并行编码所有切片
+     * <p>
+     * 切片按整数像素高度等分（余数部分不使用，与原有切分方式一致）
+     * </p>
+     */
+    private List<EncodedImage> encodeSlices(BufferedImage sealImage, int pageCount) {
+        int sliceHeight = sealImage.getHeight() / pageCount;
+        if (sliceHeight < 1) {
+            throw new BusinessException(String.format("印章图片高度不足以切分为 %d 页（图片高度 %d 像素）",
+                    pageCount, sealImage.getHeight()));
+        }
+
+        List<CompletableFuture<EncodedImage>> futures = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            int srcY = i * sliceHeight;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return EncodedImage.fromImage(
+                            sealImage.getSubimage(0, srcY, sealImage.getWidth(), sliceHeight));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, encoder));
+        }
+
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause() instanceof UncheckedIOException io ? io.getCause() : e.getCause();
+            throw new BusinessException("骑缝章切片编码失败: " + cause.getMessage());
+        }
+    }
+
+    /**
+     * 超出条目数或字节上限时淘汰最久未使用的条目（至少保留刚放入的条目）
+     */
+    private void evictIfNecessary() {
+        StampConfig.PerforationCache limits = stampConfig.getPerforationCache();
+        Iterator<Map.Entry<SliceKey, Slices>> iterator = entries.entrySet().iterator();
+        while (entries.size() > 1
+                && (entries.size() > limits.getMaxEntries() || totalBytes > limits.getMaxBytes())) {
+            Map.Entry<SliceKey, Slices> eldest = iterator.next();
+            totalBytes -= eldest.getValue().bytes();
+            iterator.remove();
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存键：印章图片内容哈希 + 页数
+     */
+    private record SliceKey(String imageHash, int pageCount) {
+    }
+
+    /**
+     * 缓存值：切片列表及其编码字节数
+     */
+    private record Slices(List<EncodedImage> images, long bytes) {
+    }
+}
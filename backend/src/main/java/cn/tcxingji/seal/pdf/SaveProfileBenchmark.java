@@ -0,0 +1,149 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 保存方案基准测试
+ * <p>
+ * 对同一份 PDF 依次用各候选保存方案写出：每次重新打开文档、在第一页追加一个内容流模拟一次盖章，
+ * 只计量写出耗时；每个方案先预热一次，再取多次的中位数。用于按部署环境的实际合同选择保存方案
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SaveProfileBenchmark {
+
+    /**
+     * 单个方案最多测量次数
+     */
+    public static final int MAX_ITERATIONS = 10;
+
+    private final StampConfig stampConfig;
+    private final PdfMemoryGovernor pdfMemoryGovernor;
+    private final SignedPdfWriter signedPdfWriter;
+
+    /**
+     * 执行基准测试
+     *
+     * @param source     源 PDF
+     * @param iterations 每个方案的测量次数（1 ~ {@link #MAX_ITERATIONS}）
+     * @return 测试报告
+     */
+    public Report run(Path source, int iterations) throws IOException {
+        int rounds = Math.min(Math.max(1, iterations), MAX_ITERATIONS);
+        long sourceSize = Files.size(source);
+        int pageCount;
+        boolean signed;
+        try (PdfDocumentLease lease = pdfMemoryGovernor.open(source)) {
+            pageCount = lease.getDocument().getNumberOfPages();
+            signed = !lease.getDocument().getSignatureDictionaries().isEmpty();
+        }
+
+        SignedPdfWriter.SaveProfile configured = SignedPdfWriter.SaveProfile.configured(stampConfig);
+        List<SignedPdfWriter.SaveProfile> profiles = candidates(configured);
+        List<ProfileResult> results = new ArrayList<>(profiles.size());
+        Path output = Files.createTempFile("seal-save-benchmark", ".pdf");
+        try {
+            for (SignedPdfWriter.SaveProfile profile : profiles) {
+                measure(source, profile, output);  // 预热
+                long[] nanos = new long[rounds];
+                long outputSize = 0;
+                for (int i = 0; i < rounds; i++) {
+                    nanos[i] = measure(source, profile, output);
+                    outputSize = Files.size(output);
+                }
+                Arrays.sort(nanos);
+                results.add(new ProfileResult(profile, profile.sameBehavior(configured), outputSize,
+                        nanos[rounds / 2], nanos[0], nanos[rounds - 1]));
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+
+        log.info("保存方案基准测试完成: source={}, size={}, pages={}, signed={}, rounds={}",
+                source.getFileName(), sourceSize, pageCount, signed, rounds);
+        return new Report(sourceSize, pageCount, signed, rounds, results);
+    }
+
+    /**
+     * 候选方案：增量更新、不压缩的完整重写、对象流压缩、对象流压缩并移除未引用对象；
+     * 当前配置与所有候选都不同时追加当前配置
+     */
+    private List<SignedPdfWriter.SaveProfile> candidates(SignedPdfWriter.SaveProfile configured) {
+        int objectStreamSize = configured.objectStreamSize();
+        List<SignedPdfWriter.SaveProfile> profiles = new ArrayList<>(List.of(
+                new SignedPdfWriter.SaveProfile("incremental", StampConfig.SaveMode.INCREMENTAL,
+                        false, objectStreamSize, false),
+                new SignedPdfWriter.SaveProfile("full", StampConfig.SaveMode.FULL,
+                        false, objectStreamSize, false),
+                new SignedPdfWriter.SaveProfile("full-compressed", StampConfig.SaveMode.FULL,
+                        true, objectStreamSize, false),
+                new SignedPdfWriter.SaveProfile("full-compressed-pruned", StampConfig.SaveMode.FULL,
+                        true, objectStreamSize, true)));
+        if (profiles.stream().noneMatch(profile -> profile.sameBehavior(configured))) {
+            profiles.add(configured);
+        }
+        return profiles;
+    }
+
+    /**
+     * 打开文档、模拟一次盖章后按指定方案写出
+     *
+     * @return 写出耗时（纳秒）
+     */
+    private long measure(Path source, SignedPdfWriter.SaveProfile profile, Path output) throws IOException {
+        try (PdfDocumentLease lease = pdfMemoryGovernor.open(source)) {
+            PDDocument document = lease.getDocument();
+            try (PDPageContentStream contentStream = new PDPageContentStream(
+                    document, document.getPage(0), PDPageContentStream.AppendMode.APPEND, true, true)) {
+                contentStream.saveGraphicsState();
+                contentStream.restoreGraphicsState();
+            }
+            long start = System.nanoTime();
+            signedPdfWriter.save(document, output, profile);
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 单个方案的测试结果
+     *
+     * @param profile      保存方案
+     * @param configured   是否与当前配置的写出行为相同
+     * @param outputSize   输出文件字节数
+     * @param medianNanos  写出耗时中位数（纳秒）
+     * @param minNanos     最短写出耗时（纳秒）
+     * @param maxNanos     最长写出耗时（纳秒）
+     */
+    public record ProfileResult(SignedPdfWriter.SaveProfile profile, boolean configured, long outputSize,
+                                long medianNanos, long minNanos, long maxNanos) {
+    }
+
+    /**
+     * 测试报告
+     *
+     * @param sourceSize 源文件字节数
+     * @param pageCount  页数
+     * @param signed     源文件是否包含数字签名（包含时所有方案都按增量更新写出）
+     * @param iterations 每个方案的测量次数
+     * @param results    各方案结果
+     */
+    public record Report(long sourceSize, int pageCount, boolean signed, int iterations,
+                         List<ProfileResult> results) {
+    }
+}
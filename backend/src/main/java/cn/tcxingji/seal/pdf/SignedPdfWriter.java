@@ -0,0 +1,185 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.contentstream.operator.OperatorName;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 签章后 PDF 写出器
+ * <p>
+ * 按保存方案写出文档：增量更新只追加变更对象；完整重写时可使用对象流和交叉引用流压缩，
+ * 并可先移除页面资源中未被引用的 XObject（完整重写只写出从 trailer 可达的对象，
+ * 旧修订中被替换的对象和移除后不可达的图片流都不再写出）
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignedPdfWriter {
+
+    private final StampConfig stampConfig;
+
+    /**
+     * 按配置的保存方案写出文档
+     *
+     * @param document   PDF 文档
+     * @param targetPath 目标文件路径
+     */
+    public void save(PDDocument document, Path targetPath) throws IOException {
+        save(document, targetPath, SaveProfile.configured(stampConfig));
+    }
+
+    /**
+     * 按指定保存方案写出文档
+     * <p>
+     * 文档已包含数字签名时始终增量保存（完整重写会改变已签名的字节范围），无法增量保存时直接失败；
+     * 未签名文档不支持增量保存时回退为完整重写
+     * </p>
+     *
+     * @param document   PDF 文档
+     * @param targetPath 目标文件路径
+     * @param profile    保存方案
+     */
+    public void save(PDDocument document, Path targetPath, SaveProfile profile) throws IOException {
+        boolean signed = !document.getSignatureDictionaries().isEmpty();
+        if (profile.mode() == StampConfig.SaveMode.INCREMENTAL || signed) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(targetPath))) {
+                document.saveIncremental(out);
+                return;
+            } catch (IllegalStateException e) {
+                if (signed) {
+                    throw new IOException("已签名文档无法增量保存，完整重写会使已有数字签名失效: " + e.getMessage(), e);
+                }
+                log.warn("文档不支持增量保存，回退为完整保存: {}", e.getMessage());
+            }
+        }
+
+        if (profile.pruneUnused() && !signed) {
+            int removed = pruneUnusedXObjects(document);
+            if (removed > 0) {
+                log.debug("移除未引用的 XObject: count={}", removed);
+            }
+        }
+        CompressParameters compression = profile.objectStreams()
+                ? new CompressParameters(profile.objectStreamSize())
+                : CompressParameters.NO_COMPRESSION;
+        document.save(targetPath.toFile(), compression);
+    }
+
+    /**
+     * 移除页面资源中未被任何使用该资源字典的页面内容流引用的 XObject
+     * <p>
+     * 多页共享同一资源字典时，按所有共享页面引用的名称并集判断；只在全部页面解析成功后才移除
+     * </p>
+     *
+     * @param document PDF 文档
+     * @return 移除的条目数
+     */
+    private int pruneUnusedXObjects(PDDocument document) {
+        Map<COSDictionary, Set<COSName>> referenced = new IdentityHashMap<>();
+        try {
+            for (PDPage page : document.getPages()) {
+                PDResources resources = page.getResources();
+                if (resources == null) {
+                    continue;
+                }
+                COSDictionary xObjects = resources.getCOSObject().getCOSDictionary(COSName.XOBJECT);
+                if (xObjects != null) {
+                    referenced.computeIfAbsent(xObjects, dict -> new HashSet<>())
+                            .addAll(referencedXObjects(page));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("解析页面内容流失败，跳过未引用对象清理: {}", e.getMessage());
+            return 0;
+        }
+
+        int removed = 0;
+        for (Map.Entry<COSDictionary, Set<COSName>> entry : referenced.entrySet()) {
+            for (COSName name : new ArrayList<>(entry.getKey().keySet())) {
+                if (!entry.getValue().contains(name)) {
+                    entry.getKey().removeItem(name);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 页面内容流中 Do 操作引用的 XObject 名称
+     */
+    private Set<COSName> referencedXObjects(PDPage page) throws IOException {
+        Set<COSName> names = new HashSet<>();
+        PDFStreamParser parser = new PDFStreamParser(page);
+        Object previous = null;
+        for (Object token = parser.parseNextToken(); token != null; token = parser.parseNextToken()) {
+            if (token instanceof Operator operator
+                    && OperatorName.DRAW_OBJECT.equals(operator.getName())
+                    && previous instanceof COSName name) {
+                names.add(name);
+            }
+            previous = token;
+        }
+        return names;
+    }
+
+    /**
+     * 保存方案
+     *
+     * @param name             方案名称
+     * @param mode             保存模式
+     * @param objectStreams    完整重写时是否使用对象流和交叉引用流
+     * @param objectStreamSize 每个对象流最多包含的对象数
+     * @param pruneUnused      完整重写前是否移除未引用的 XObject
+     */
+    public record SaveProfile(String name, StampConfig.SaveMode mode, boolean objectStreams,
+                              int objectStreamSize, boolean pruneUnused) {
+
+        /**
+         * 当前配置的保存方案
+         */
+        public static SaveProfile configured(StampConfig stampConfig) {
+            StampConfig.Compression compression = stampConfig.getCompression();
+            return new SaveProfile("configured", stampConfig.getSaveMode(), compression.isObjectStreams(),
+                    compression.getObjectStreamSize(), compression.isPruneUnused());
+        }
+
+        /**
+         * 与另一方案的写出行为是否相同（忽略名称；增量模式下压缩参数不生效）
+         */
+        public boolean sameBehavior(SaveProfile other) {
+            if (mode != other.mode) {
+                return false;
+            }
+            if (mode == StampConfig.SaveMode.INCREMENTAL) {
+                return true;
+            }
+            return objectStreams == other.objectStreams && pruneUnused == other.pruneUnused
+                    && (!objectStreams || objectStreamSize == other.objectStreamSize);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.PerforationSealRequest;
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.metrics.StampTrace;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * PDF 盖章引擎
+ * <p>
+ * 只负责 PDF 的读取、绘制和写出，不访问数据库；调用方在事务外执行，
+ * 避免 PDF 处理期间占用数据库连接
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StampEngine {
+
+    private final StampConfig stampConfig;
+    private final PdfMemoryGovernor pdfMemoryGovernor;
+    private final PerforationSliceCache perforationSliceCache;
+    private final SignedPdfWriter signedPdfWriter;
+
+    /**
+     * 在指定位置绘制图片（印章或签名）并写出到目标文件
+     *
+     * @param source      源 PDF
+     * @param sealedPages 源 PDF 中已有签章的页码（在这些页上查找可复用的已嵌入图片）
+     * @param placements  图片及其盖章位置
+     * @param target      目标文件
+     * @param trace       分阶段计时
+     */
+    public void stampImages(Path source, Set<Integer> sealedPages, List<ImagePlacement> placements, Path target,
+                            StampTrace trace) throws IOException {
+        try (WorkingDocument working = open(source, sealedPages, trace)) {
+            draw(working, placements, trace);
+            save(working, target, trace);
+        }
+    }
+
+    /**
+     * 在内存预算内打开工作文档，可多次 {@link #draw} 后一次 {@link #save}
+     * <p>
+     * 已嵌入图片只在已有签章的页和之后绘制的页上查找（每页只查找一次），不扫描整个文档
+     * </p>
+     *
+     * @param source      源 PDF
+     * @param sealedPages 源 PDF 中已有签章的页码
+     * @param trace       分阶段计时
+     * @return 工作文档（调用方负责关闭）
+     */
+    public WorkingDocument open(Path source, Set<Integer> sealedPages, StampTrace trace) throws IOException {
+        WorkingDocument working = new WorkingDocument(load(source, trace));
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.EMBED)) {
+            indexEmbeddedImages(working, sealedPages);
+            return working;
+        } catch (IOException | RuntimeException e) {
+            working.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 在工作文档上绘制图片
+     * <p>
+     * 先嵌入所有图片（工作文档中已嵌入的相同图片直接引用），再按页归并位置，每页只追加一个内容流
+     * </p>
+     *
+     * @param working    工作文档
+     * @param placements 图片及其盖章位置
+     * @param trace      分阶段计时
+     */
+    public void draw(WorkingDocument working, List<ImagePlacement> placements, StampTrace trace)
+            throws IOException {
+        PDDocument document = working.getDocument();
+        Map<Integer, List<PageDraw>> drawsByPage = new TreeMap<>();
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.EMBED)) {
+            indexEmbeddedImages(working, placements.stream()
+                    .flatMap(placement -> placement.positions().stream())
+                    .map(SealPositionRequest::getPageNumber)
+                    .collect(Collectors.toSet()));
+            for (ImagePlacement placement : placements) {
+                PDImageXObject image = embedOrReuse(document, working.getEmbedded(), placement.image(), trace);
+                for (SealPositionRequest position : placement.positions()) {
+                    drawsByPage.computeIfAbsent(position.getPageNumber(), page -> new ArrayList<>())
+                            .add(new PageDraw(image, position));
+                }
+            }
+        }
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.DRAW)) {
+            for (Map.Entry<Integer, List<PageDraw>> entry : drawsByPage.entrySet()) {
+                drawPage(document, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 写出工作文档
+     *
+     * @param working 工作文档
+     * @param target  目标文件
+     * @param trace   分阶段计时
+     */
+    public void save(WorkingDocument working, Path target, StampTrace trace) throws IOException {
+        writeDocument(working.getDocument(), target, trace);
+    }
+
+    /**
+     * 绘制骑缝章并写出到目标文件
+     *
+     * @param source        源 PDF
+     * @param sealImagePath 印章图片路径
+     * @param request       骑缝章请求
+     * @param target        目标文件
+     * @param trace         分阶段计时
+     * @return 每页切片的实际位置
+     */
+    public List<SliceGeometry> perforate(Path source, Path sealImagePath, PerforationSealRequest request,
+                                         Path target, StampTrace trace) throws IOException {
+        try (PdfDocumentLease lease = load(source, trace)) {
+            PDDocument document = lease.getDocument();
+            int totalPages = document.getNumberOfPages();
+            if (totalPages < 2) {
+                throw new BusinessException("骑缝章需要至少2页的PDF文档");
+            }
+
+            // 获取预编码切片（命中缓存或并行编码），之后只做顺序嵌入
+            List<EncodedImage> slices;
+            try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.IMAGE)) {
+                slices = perforationSliceCache.get(sealImagePath, totalPages);
+            }
+            // 骑缝章在每页绘制切片，需要查找所有页上已嵌入的切片
+            Map<String, PDImageXObject> embedded = new HashMap<>();
+            try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.EMBED)) {
+                for (PDPage page : document.getPages()) {
+                    indexPage(page, embedded);
+                }
+            }
+
+            // 计算每页印章切片高度
+            float sealWidth = request.getSealWidth().floatValue();
+            float sealHeight = request.getSealHeight().floatValue();
+            float sliceHeight = sealHeight / totalPages;
+
+            List<SliceGeometry> geometries = new ArrayList<>(totalPages);
+            for (int i = 0; i < totalPages; i++) {
+                PDPage page = document.getPage(i);
+                PDRectangle mediaBox = page.getMediaBox();
+
+                // 嵌入预编码切片（文档中已有相同切片时直接引用）
+                PDImageXObject pdSlice;
+                try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.EMBED)) {
+                    pdSlice = embedOrReuse(document, embedded, slices.get(i), trace);
+                }
+
+                // 计算位置：右边缘居中
+                float edgeMargin = request.getEdgeMargin() != null
+                        ? request.getEdgeMargin().floatValue()
+                        : sealWidth / 2;  // 默认一半在页面内
+                float x = mediaBox.getWidth() - edgeMargin;
+                float yOffset = request.getYOffset().floatValue();
+                // 居中位置 + 偏移
+                float y = (mediaBox.getHeight() - sliceHeight) / 2 + yOffset;
+
+                // 绘制印章切片
+                try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.DRAW);
+                     PDPageContentStream contentStream = new PDPageContentStream(
+                             document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                    contentStream.drawImage(pdSlice, x, y, sealWidth, sliceHeight);
+                }
+
+                log.debug("绘制骑缝章切片: page={}, x={}, y={}, slice={}/{}",
+                        i + 1, x, y, i + 1, totalPages);
+                geometries.add(new SliceGeometry(i + 1, x, y, sliceHeight));
+            }
+
+            trace.addPositions(geometries.size());
+            writeDocument(document, target, trace);
+            return geometries;
+        }
+    }
+
+    /**
+     * 在一页上绘制该页的所有图片（单个 APPEND 内容流）
+     *
+     * @param document   PDF 文档
+     * @param pageNumber 页码（从1开始）
+     * @param draws      该页的绘制操作
+     */
+    private void drawPage(PDDocument document, int pageNumber, List<PageDraw> draws) throws IOException {
+        PDPage page = document.getPage(pageNumber - 1);  // 转为0索引
+
+        // 使用 APPEND 模式添加内容，保留原有内容
+        try (PDPageContentStream contentStream = new PDPageContentStream(
+                document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+            for (PageDraw draw : draws) {
+                SealPositionRequest position = draw.position();
+                float x = position.getX().floatValue();
+                float y = position.getY().floatValue();
+                float width = position.getWidth().floatValue();
+                float height = position.getHeight().floatValue();
+
+                contentStream.drawImage(draw.image(), x, y, width, height);
+
+                log.debug("绘制图片: page={}, x={}, y={}, w={}, h={}", pageNumber, x, y, width, height);
+            }
+        }
+    }
+
+    /**
+     * 嵌入图片；文档中已有相同内容的图片 XObject 时直接引用，不再重复嵌入
+     *
+     * @param document 目标文档
+     * @param embedded 文档中已嵌入的图片（内容摘要 -> XObject），新嵌入的图片会加入其中
+     * @param image    预编码图片
+     * @param trace    分阶段计时（记录新嵌入的图片字节数）
+     * @return 图片 XObject
+     */
+    private PDImageXObject embedOrReuse(PDDocument document, Map<String, PDImageXObject> embedded,
+                                        EncodedImage image, StampTrace trace) throws IOException {
+        PDImageXObject existing = embedded.get(image.getContentHash());
+        if (existing != null) {
+            log.debug("复用已嵌入的图片: hash={}", image.getContentHash());
+            return existing;
+        }
+        PDImageXObject created = image.embed(document);
+        embedded.put(image.getContentHash(), created);
+        trace.addImageBytes(image.getEncodedSize());
+        return created;
+    }
+
+    /**
+     * 在工作文档的指定页上收集已嵌入的图片（已查找过的页跳过）
+     *
+     * @param working     工作文档
+     * @param pageNumbers 页码（从1开始，超出范围的忽略）
+     */
+    private void indexEmbeddedImages(WorkingDocument working, Collection<Integer> pageNumbers) throws IOException {
+        PDDocument document = working.getDocument();
+        int pageCount = document.getNumberOfPages();
+        for (Integer pageNumber : pageNumbers) {
+            if (pageNumber != null && pageNumber >= 1 && pageNumber <= pageCount
+                    && working.markIndexed(pageNumber)) {
+                indexPage(document.getPage(pageNumber - 1), working.getEmbedded());
+            }
+        }
+    }
+
+    /**
+     * 收集页面资源中带内容摘要的图片 XObject（即先前盖章时嵌入的印章、签名和切片）
+     * <p>
+     * 只读取资源字典，不解码图片数据
+     * </p>
+     *
+     * @param page     页面
+     * @param embedded 内容摘要 -> 图片 XObject（已存在的摘要不覆盖）
+     */
+    private void indexPage(PDPage page, Map<String, PDImageXObject> embedded) throws IOException {
+        PDResources resources = page.getResources();
+        if (resources == null) {
+            return;
+        }
+        COSDictionary xObjects = resources.getCOSObject().getCOSDictionary(COSName.XOBJECT);
+        if (xObjects == null) {
+            return;
+        }
+        for (COSName name : xObjects.keySet()) {
+            if (xObjects.getDictionaryObject(name) instanceof COSStream stream
+                    && COSName.IMAGE.equals(stream.getCOSName(COSName.SUBTYPE))) {
+                String hash = stream.getString(EncodedImage.CONTENT_HASH);
+                if (hash != null && !embedded.containsKey(hash)) {
+                    embedded.put(hash, new PDImageXObject(new PDStream(stream), null));
+                    // 包装时会重设 Type/Subtype（值不变），清除更新标记，避免增量保存重写已有图片
+                    stream.setNeedToBeUpdated(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按配置的保存方案写出文档
+     * <p>
+     * 增量模式下原文件字节原样保留，只追加变更的页面内容流、新的图片 XObject 和新的 xref 段，
+     * 写入量只与印章数量相关，与文档大小无关；完整重写的压缩方式见 {@link SignedPdfWriter}
+     * </p>
+     *
+     * @param document   PDF 文档
+     * @param targetPath 目标文件路径
+     * @param trace      分阶段计时
+     */
+    private void writeDocument(PDDocument document, Path targetPath, StampTrace trace) throws IOException {
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.SAVE)) {
+            signedPdfWriter.save(document, targetPath);
+        }
+        trace.output(Files.size(targetPath));
+    }
+
+    /**
+     * 在内存预算内加载 PDF，并记录源文档大小和页数
+     */
+    private PdfDocumentLease load(Path source, StampTrace trace) throws IOException {
+        long bytes = Files.size(source);
+        PdfDocumentLease lease;
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.LOAD)) {
+            lease = pdfMemoryGovernor.open(source);
+        }
+        trace.document(bytes, lease.getDocument().getNumberOfPages());
+        return lease;
+    }
+
+    /**
+     * 图片及其盖章位置
+     *
+     * @param image     预编码图片
+     * @param positions 盖章位置列表
+     */
+    public record ImagePlacement(EncodedImage image, List<SealPositionRequest> positions) {
+    }
+
+    /**
+     * 单次绘制（已嵌入的图片及其位置）
+     */
+    private record PageDraw(PDImageXObject image, SealPositionRequest position) {
+    }
+
+    /**
+     * 骑缝章切片的实际位置
+     *
+     * @param pageNumber  页码（从1开始）
+     * @param x           X坐标
+     * @param y           Y坐标
+     * @param sliceHeight 切片高度
+     */
+    public record SliceGeometry(int pageNumber, float x, float y, float sliceHeight) {
+    }
+}
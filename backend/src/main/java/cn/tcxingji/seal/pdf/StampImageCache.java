@@ -0,0 +1,270 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 印章/签名图片预编码缓存
+ * <p>
+ * 跨请求缓存已编码的图片 XObject（图片流、SMask 流和尺寸），
+ * 缓存键为 印章/签名 ID + 图片文件路径 + 修改时间 + 文件大小 + 目标像素尺寸，
+ * 图片文件被替换后自动失效；按条目数和总字节数做 LRU 淘汰。
+ * 指定盖章尺寸时由 {@link StampImageOptimizer} 按有效 DPI 降采样并按图片属性选择编码
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class StampImageCache {
+
+    /**
+     * 每英寸点数（PDF 用户空间单位）
+     */
+    private static final float POINTS_PER_INCH = 72f;
+
+    /**
+     * 盖章区域像素尺寸的分桶粒度
+     */
+    private static final int BOX_BUCKET_PIXELS = 16;
+
+    private final StampConfig stampConfig;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * LRU 缓存（访问顺序），所有访问均在 this 上同步
+     */
+    private final LinkedHashMap<ImageKey, EncodedImage> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * 当前缓存的编码字节总数
+     */
+    private long totalBytes;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+    private final Counter originalBytes;
+    private final Counter optimizedBytes;
+
+    public StampImageCache(StampConfig stampConfig, MeterRegistry meterRegistry) {
+        this.stampConfig = stampConfig;
+        this.meterRegistry = meterRegistry;
+        this.hitCounter = Counter.builder("seal.image.cache.requests")
+                .description("印章图片缓存请求次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("seal.image.cache.requests")
+                .description("印章图片缓存请求次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("seal.image.cache.evictions")
+                .description("印章图片缓存淘汰次数")
+                .register(meterRegistry);
+        this.originalBytes = Counter.builder("seal.image.optimizer.bytes")
+                .description("印章图片原文件与优化后的编码字节数")
+                .baseUnit("bytes")
+                .tag("stage", "original")
+                .register(meterRegistry);
+        this.optimizedBytes = Counter.builder("seal.image.optimizer.bytes")
+                .description("印章图片原文件与优化后的编码字节数")
+                .baseUnit("bytes")
+                .tag("stage", "optimized")
+                .register(meterRegistry);
+        Gauge.builder("seal.image.cache.size", this, StampImageCache::size)
+                .description("印章图片缓存条目数")
+                .register(meterRegistry);
+        Gauge.builder("seal.image.cache.bytes", this, StampImageCache::bytes)
+                .description("印章图片缓存编码字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取按原图编码的预编码图片，未命中时从磁盘读取并编码
+     *
+     * @param kind      图片来源类型
+     * @param ownerId   印章ID或签名ID
+     * @param imagePath 图片文件路径
+     * @return 预编码图片
+     */
+    public EncodedImage get(ImageKind kind, Long ownerId, Path imagePath) throws IOException {
+        return get(kind, ownerId, imagePath, 0, 0);
+    }
+
+    /**
+     * 获取与盖章尺寸匹配的预编码图片
+     * <p>
+     * 按有效 DPI 将盖章区域换算为像素（向上取整到 {@value #BOX_BUCKET_PIXELS} 像素的倍数，
+     * 相近尺寸共享缓存条目），原图更大时降采样并按图片属性编码；优化关闭时等同于按原图编码
+     * </p>
+     *
+     * @param kind      图片来源类型
+     * @param ownerId   印章ID或签名ID
+     * @param imagePath 图片文件路径
+     * @param widthPt   盖章区域宽度（pt），不大于 0 表示不限制
+     * @param heightPt  盖章区域高度（pt），不大于 0 表示不限制
+     * @return 预编码图片
+     */
+    public EncodedImage get(ImageKind kind, Long ownerId, Path imagePath, float widthPt, float heightPt)
+            throws IOException {
+        if (!Files.exists(imagePath)) {
+            throw new BusinessException("图片文件不存在: " + imagePath);
+        }
+        StampConfig.ImageOptimizer optimizer = stampConfig.getImageOptimizer();
+        int boxWidth = 0;
+        int boxHeight = 0;
+        if (optimizer.isEnabled() && widthPt > 0 && heightPt > 0) {
+            boxWidth = toBucketPixels(widthPt, optimizer.getEffectiveDpi());
+            boxHeight = toBucketPixels(heightPt, optimizer.getEffectiveDpi());
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(imagePath, BasicFileAttributes.class);
+        ImageKey key = new ImageKey(kind, ownerId, imagePath.toAbsolutePath().normalize().toString(),
+                attributes.lastModifiedTime().toMillis(), attributes.size(), boxWidth, boxHeight);
+
+        synchronized (this) {
+            EncodedImage cached = entries.get(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+
+        // 编码在锁外进行，并发未命中时最多重复编码一次，不阻塞其他印章
+        missCounter.increment();
+        EncodedImage encoded = boxWidth > 0
+                ? optimize(imagePath, boxWidth, boxHeight, optimizer.getJpegQuality())
+                : EncodedImage.fromFile(imagePath);
+        log.debug("印章图片编码完成: kind={}, id={}, box={}x{}, size={}x{}, bytes={}", kind, ownerId,
+                boxWidth, boxHeight, encoded.getWidth(), encoded.getHeight(), encoded.getEncodedSize());
+
+        synchronized (this) {
+            EncodedImage previous = entries.put(key, encoded);
+            if (previous != null) {
+                totalBytes -= previous.getEncodedSize();
+            }
+            totalBytes += encoded.getEncodedSize();
+            evictIfNecessary();
+        }
+        return encoded;
+    }
+
+    /**
+     * 使某个印章或签名的所有缓存条目失效
+     *
+     * @param kind    图片来源类型
+     * @param ownerId 印章ID或签名ID
+     */
+    public synchronized void invalidate(ImageKind kind, Long ownerId) {
+        Iterator<Map.Entry<ImageKey, EncodedImage>> iterator = entries.entrySet().iterator();
+        int removed = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<ImageKey, EncodedImage> entry = iterator.next();
+            if (entry.getKey().kind() == kind && entry.getKey().ownerId().equals(ownerId)) {
+                totalBytes -= entry.getValue().getEncodedSize();
+                iterator.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("印章图片缓存失效: kind={}, id={}, entries={}", kind, ownerId, removed);
+        }
+    }
+
+    /**
+     * 当前缓存条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 当前缓存编码字节数
+     */
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 降采样并按图片属性编码，记录原图文件与优化后的编码字节数
+     */
+    private EncodedImage optimize(Path imagePath, int boxWidth, int boxHeight, float jpegQuality)
+            throws IOException {
+        BufferedImage source = ImageIO.read(imagePath.toFile());
+        if (source == null) {
+            throw new IOException("无法解析图片: " + imagePath);
+        }
+        long originalSize = Files.size(imagePath);
+        int[] size = StampImageOptimizer.targetSize(source.getWidth(), source.getHeight(), boxWidth, boxHeight);
+        StampImageOptimizer.Result result =
+                StampImageOptimizer.optimize(source, size[0], size[1], jpegQuality, imagePath);
+
+        Counter.builder("seal.image.optimizer.encodings")
+                .description("印章图片优化选用的编码方式")
+                .tag("encoding", result.encoding().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        originalBytes.increment(originalSize);
+        optimizedBytes.increment(result.image().getEncodedSize());
+        log.info("印章图片优化: path={}, {}x{} -> {}x{}, encoding={}, bytes {} -> {}",
+                imagePath.getFileName(), source.getWidth(), source.getHeight(), size[0], size[1],
+                result.encoding(), originalSize, result.image().getEncodedSize());
+        return result.image();
+    }
+
+    /**
+     * 将 pt 尺寸按 DPI 换算为像素，并向上取整到分桶粒度
+     */
+    private static int toBucketPixels(float points, int dpi) {
+        int pixels = (int) Math.ceil(points / POINTS_PER_INCH * dpi);
+        return Math.max(BOX_BUCKET_PIXELS, (pixels + BOX_BUCKET_PIXELS - 1) / BOX_BUCKET_PIXELS * BOX_BUCKET_PIXELS);
+    }
+
+    /**
+     * 超出条目数或字节上限时淘汰最久未使用的条目（至少保留刚放入的条目）
+     */
+    private void evictIfNecessary() {
+        StampConfig.ImageCache limits = stampConfig.getImageCache();
+        Iterator<Map.Entry<ImageKey, EncodedImage>> iterator = entries.entrySet().iterator();
+        while (entries.size() > 1
+                && (entries.size() > limits.getMaxEntries() || totalBytes > limits.getMaxBytes())) {
+            Map.Entry<ImageKey, EncodedImage> eldest = iterator.next();
+            totalBytes -= eldest.getValue().getEncodedSize();
+            iterator.remove();
+            evictionCounter.increment();
+        }
+    }
+
+    /**
+     * 图片来源类型
+     */
+    public enum ImageKind {
+        /** 印章 */
+        SEAL,
+        /** 个人签名 */
+        SIGNATURE
+    }
+
+    /**
+     * 缓存键
+     */
+    private record ImageKey(ImageKind kind, Long ownerId, String path, long lastModified, long size,
+                            int boxWidth, int boxHeight) {
+    }
+}
@@ -0,0 +1,356 @@
+package cn.tcxingji.seal.pdf;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 印章图片嵌入优化器
+ * <p>
+ * 按目标像素尺寸降采样，并按图片属性直接选定一种编码（每张图片只编码一次，不逐个试编码比较）：
+ * 颜色数不超过 256 的平涂印章使用索引色（1/2/4/8 位）Flate 编码；
+ * 扫描件等照片类图片未降采样且原文件为 JPEG 时直接嵌入原文件，否则使用 JPEG；
+ * 透明通道始终以 Flate 灰度 SMask 保存
+ * </p>
+ *
+ * @author TC System
+ */
+public final class StampImageOptimizer {
+
+    /**
+     * 索引色调色板最大颜色数
+     */
+    private static final int MAX_PALETTE_SIZE = 256;
+
+    /**
+     * 半透明边缘像素归并到调色板颜色的单通道容差
+     */
+    private static final int EDGE_COLOR_TOLERANCE = 32;
+
+    private StampImageOptimizer() {
+    }
+
+    /**
+     * 编码方式
+     */
+    public enum Encoding {
+        /** 原始文件直接嵌入 */
+        ORIGINAL,
+        /** 索引色 Flate */
+        INDEXED,
+        /** JPEG + Flate SMask */
+        JPEG
+    }
+
+    /**
+     * 优化结果
+     *
+     * @param image    预编码图片
+     * @param encoding 选用的编码方式
+     */
+    public record Result(EncodedImage image, Encoding encoding) {
+    }
+
+    /**
+     * 计算目标像素尺寸（保持宽高比，只缩小不放大）
+     *
+     * @param sourceWidth  原图宽度（像素）
+     * @param sourceHeight 原图高度（像素）
+     * @param boxWidth     盖章区域宽度对应的像素数
+     * @param boxHeight    盖章区域高度对应的像素数
+     * @return [宽, 高]；无需缩小时返回原尺寸
+     */
+    public static int[] targetSize(int sourceWidth, int sourceHeight, int boxWidth, int boxHeight) {
+        double scale = Math.max((double) boxWidth / sourceWidth, (double) boxHeight / sourceHeight);
+        if (scale >= 1.0) {
+            return new int[]{sourceWidth, sourceHeight};
+        }
+        int width = Math.max(1, (int) Math.ceil(sourceWidth * scale));
+        int height = Math.max(1, (int) Math.ceil(sourceHeight * scale));
+        return new int[]{width, height};
+    }
+
+    /**
+     * 降采样并按图片属性选择编码
+     * <p>
+     * 颜色数（不透明像素，半透明边缘按容差归并）是唯一需要扫描像素的判断，提取调色板时超过 256 色即停止
+     * </p>
+     *
+     * @param source       原图
+     * @param width        目标宽度（像素）
+     * @param height       目标高度（像素）
+     * @param jpegQuality  JPEG 压缩质量（0~1）
+     * @param originalFile 原始文件（未降采样的 JPEG 原文件直接嵌入，可为空）
+     * @return 优化结果
+     */
+    public static Result optimize(BufferedImage source, int width, int height, float jpegQuality,
+                                  Path originalFile) throws IOException {
+        boolean resized = width != source.getWidth() || height != source.getHeight();
+        BufferedImage image = resized ? resize(source, width, height) : toArgb(source);
+
+        int[] palette = extractPalette(image);
+        if (palette == null && !resized && isJpeg(originalFile)) {
+            // 照片类原图已是 JPEG：直接嵌入，避免重新压缩的体积和画质损失
+            return new Result(EncodedImage.fromFile(originalFile), Encoding.ORIGINAL);
+        }
+        try (PDDocument scratch = new PDDocument()) {
+            if (palette != null) {
+                // 平涂印章：索引色足以无损表示
+                return new Result(encodeIndexed(scratch, image, palette), Encoding.INDEXED);
+            }
+            // 照片类图片：连续色调下 JPEG 明显小于无损编码
+            return new Result(encodeJpeg(scratch, image, jpegQuality), Encoding.JPEG);
+        }
+    }
+
+    private static boolean isJpeg(Path file) {
+        if (file == null) {
+            return false;
+        }
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg");
+    }
+
+    // ==================== 降采样 ====================
+
+    /**
+     * 高质量缩小：先逐级减半（双线性），最后一步双三次插值；在预乘透明度空间中进行，避免边缘发黑
+     *
+     * @param source 原图
+     * @param width  目标宽度（像素）
+     * @param height 目标高度（像素）
+     * @return TYPE_INT_ARGB 图片
+     */
+    public static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage current = copy(source, source.getWidth(), source.getHeight(),
+                BufferedImage.TYPE_INT_ARGB_PRE, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = copy(current, current.getWidth() / 2, current.getHeight() / 2,
+                    BufferedImage.TYPE_INT_ARGB_PRE, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        if (current.getWidth() != width || current.getHeight() != height) {
+            current = copy(current, width, height,
+                    BufferedImage.TYPE_INT_ARGB_PRE, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        }
+        return toArgb(current);
+    }
+
+    private static BufferedImage toArgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_ARGB) {
+            return source;
+        }
+        return copy(source, source.getWidth(), source.getHeight(),
+                BufferedImage.TYPE_INT_ARGB, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    }
+
+    private static BufferedImage copy(BufferedImage source, int width, int height, int type, Object interpolation) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // ==================== 索引色编码 ====================
+
+    /**
+     * 提取调色板，颜色数超过 256 时返回空
+     * <p>
+     * 调色板取自不透明像素；半透明边缘（抗锯齿或缩放产生）的颜色与调色板中某色足够接近时视为同色，
+     * 其过渡效果由 SMask 表达，全透明像素的颜色忽略
+     * </p>
+     */
+    private static int[] extractPalette(BufferedImage image) {
+        Set<Integer> colors = new LinkedHashSet<>();
+        Set<Integer> translucent = new LinkedHashSet<>();
+        int[] row = new int[image.getWidth()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, row.length, 1, row, 0, row.length);
+            for (int argb : row) {
+                int alpha = argb >>> 24;
+                if (alpha == 0) {
+                    continue;
+                }
+                if (alpha < 0xFF) {
+                    translucent.add(argb & 0xFFFFFF);
+                    continue;
+                }
+                if (colors.add(argb & 0xFFFFFF) && colors.size() > MAX_PALETTE_SIZE) {
+                    return null;
+                }
+            }
+        }
+
+        int[] palette = colors.stream().mapToInt(Integer::intValue).toArray();
+        for (int rgb : translucent) {
+            if (nearest(palette, rgb) < 0) {
+                if (colors.add(rgb) && colors.size() > MAX_PALETTE_SIZE) {
+                    return null;
+                }
+                palette = colors.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        if (palette.length == 0) {
+            // 全透明图片
+            return new int[]{0xFFFFFF};
+        }
+        return palette;
+    }
+
+    /**
+     * 查找与给定颜色各通道差值均不超过容差的调色板颜色，找不到时返回 -1
+     */
+    private static int nearest(int[] palette, int rgb) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < palette.length; i++) {
+            int dr = Math.abs(((palette[i] >> 16) & 0xFF) - ((rgb >> 16) & 0xFF));
+            int dg = Math.abs(((palette[i] >> 8) & 0xFF) - ((rgb >> 8) & 0xFF));
+            int db = Math.abs((palette[i] & 0xFF) - (rgb & 0xFF));
+            int distance = Math.max(dr, Math.max(dg, db));
+            if (distance <= EDGE_COLOR_TOLERANCE && distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 索引色 Flate 编码：按调色板大小选择 1/2/4/8 位，每行按字节对齐
+     */
+    private static EncodedImage encodeIndexed(PDDocument scratch, BufferedImage image, int[] palette)
+            throws IOException {
+        int bits = palette.length <= 2 ? 1 : palette.length <= 4 ? 2 : palette.length <= 16 ? 4 : 8;
+        Map<Integer, Integer> indexOf = new HashMap<>(palette.length * 2);
+        byte[] lookup = new byte[palette.length * 3];
+        for (int i = 0; i < palette.length; i++) {
+            indexOf.put(palette[i], i);
+            lookup[i * 3] = (byte) (palette[i] >> 16);
+            lookup[i * 3 + 1] = (byte) (palette[i] >> 8);
+            lookup[i * 3 + 2] = (byte) palette[i];
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int rowBytes = (width * bits + 7) / 8;
+        byte[] indices = new byte[rowBytes * height];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int offset = y * rowBytes;
+            for (int x = 0; x < width; x++) {
+                int argb = row[x];
+                int index = (argb >>> 24) == 0 ? 0 : indexOf.computeIfAbsent(argb & 0xFFFFFF,
+                        rgb -> nearest(palette, rgb));
+                int bitPos = x * bits;
+                indices[offset + bitPos / 8] |= (byte) (index << (8 - bits - bitPos % 8));
+            }
+        }
+
+        COSArray colorSpace = new COSArray();
+        colorSpace.add(COSName.INDEXED);
+        colorSpace.add(COSName.DEVICERGB);
+        colorSpace.add(COSInteger.get(palette.length - 1));
+        colorSpace.add(new COSString(lookup));
+
+        COSStream stream = scratch.getDocument().createCOSStream();
+        stream.setItem(COSName.TYPE, COSName.XOBJECT);
+        stream.setItem(COSName.SUBTYPE, COSName.IMAGE);
+        stream.setInt(COSName.WIDTH, width);
+        stream.setInt(COSName.HEIGHT, height);
+        stream.setInt(COSName.BITS_PER_COMPONENT, bits);
+        stream.setItem(COSName.COLORSPACE, colorSpace);
+        try (OutputStream out = stream.createOutputStream(COSName.FLATE_DECODE)) {
+            out.write(indices);
+        }
+        attachAlphaMask(scratch, stream, image);
+        return EncodedImage.detach(stream);
+    }
+
+    // ==================== JPEG 编码 ====================
+
+    /**
+     * JPEG 编码颜色，透明通道另存为 Flate SMask（全透明像素填白，减少振铃）
+     */
+    private static EncodedImage encodeJpeg(PDDocument scratch, BufferedImage image, float quality)
+            throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage rgb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                if ((row[x] >>> 24) == 0) {
+                    row[x] = 0xFFFFFF;
+                }
+            }
+            rgb.setRGB(0, y, width, 1, row, 0, width);
+        }
+
+        PDImageXObject jpeg = JPEGFactory.createFromImage(scratch, rgb, quality);
+        attachAlphaMask(scratch, jpeg.getCOSObject(), image);
+        return EncodedImage.detach(jpeg.getCOSObject());
+    }
+
+    // ==================== 透明通道 ====================
+
+    /**
+     * 图片含透明像素时附加 8 位灰度 Flate SMask
+     */
+    private static void attachAlphaMask(PDDocument scratch, COSStream stream, BufferedImage image)
+            throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteArrayOutputStream alpha = new ByteArrayOutputStream(width * height);
+        boolean translucent = false;
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                int a = argb >>> 24;
+                translucent |= a != 0xFF;
+                alpha.write(a);
+            }
+        }
+        if (!translucent) {
+            return;
+        }
+
+        COSStream mask = scratch.getDocument().createCOSStream();
+        mask.setItem(COSName.TYPE, COSName.XOBJECT);
+        mask.setItem(COSName.SUBTYPE, COSName.IMAGE);
+        mask.setInt(COSName.WIDTH, width);
+        mask.setInt(COSName.HEIGHT, height);
+        mask.setInt(COSName.BITS_PER_COMPONENT, 8);
+        mask.setItem(COSName.COLORSPACE, COSName.DEVICEGRAY);
+        try (OutputStream out = mask.createOutputStream(COSName.FLATE_DECODE)) {
+            alpha.writeTo(out);
+        }
+        stream.setItem(COSName.SMASK, mask);
+    }
+}
@@ -0,0 +1,279 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 盖章预览合成器
+ * <p>
+ * 将缩放后的印章图片合成到已缓存的页面预览图上，不加载 PDF、不写文件。
+ * 只返回印章覆盖区域的图块（页面对应区域 + 印章），客户端叠加到已显示的页面预览图上，
+ * 避免整页 PNG 编码（整页编码耗时是合成本身的数十倍）。
+ * 解码后的页面预览图和缩放后的印章图片都缓存在内存中
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class StampPreviewCompositor {
+
+    private static final float POINTS_PER_INCH = 72f;
+
+    private final StampConfig stampConfig;
+
+    /**
+     * 解码后的页面预览图（访问顺序），所有访问均在 pages 上同步
+     */
+    private final LinkedHashMap<ImageKey, BufferedImage> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long pageBytes;
+
+    /**
+     * 缩放后的印章图片（访问顺序），所有访问均在 stamps 上同步
+     */
+    private final LinkedHashMap<StampKey, BufferedImage> stamps = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter pageHitCounter;
+    private final Counter pageMissCounter;
+
+    public StampPreviewCompositor(StampConfig stampConfig, MeterRegistry meterRegistry) {
+        this.stampConfig = stampConfig;
+        this.pageHitCounter = Counter.builder("seal.preview.page.cache.requests")
+                .description("盖章预览页面图缓存请求次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.pageMissCounter = Counter.builder("seal.preview.page.cache.requests")
+                .description("盖章预览页面图缓存请求次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("seal.preview.page.cache.bytes", this, StampPreviewCompositor::cachedPageBytes)
+                .description("盖章预览页面图缓存字节数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在一页上合成印章
+     * <p>
+     * 相互重叠的印章合并为一个图块，保证叠加顺序与盖章一致
+     * </p>
+     *
+     * @param pageImage 页面预览图路径
+     * @param overlays  该页的印章（PDF 坐标）
+     * @return 页面尺寸及合成后的图块
+     */
+    public PageComposite compose(Path pageImage, List<Overlay> overlays) throws IOException {
+        BufferedImage page = loadPage(pageImage);
+        // 页面预览图与页面预览生成使用同一 DPI 配置
+        float scale = stampConfig.getPreview().getDpi() / POINTS_PER_INCH;
+        Rectangle bounds = new Rectangle(0, 0, page.getWidth(), page.getHeight());
+
+        // 1. PDF 坐标（左下角原点，pt）换算为预览图像素（左上角原点）
+        List<Rectangle> areas = new ArrayList<>(overlays.size());
+        for (Overlay overlay : overlays) {
+            int x = Math.round(overlay.x() * scale);
+            int width = Math.max(1, Math.round(overlay.width() * scale));
+            int height = Math.max(1, Math.round(overlay.height() * scale));
+            int y = page.getHeight() - Math.round(overlay.y() * scale) - height;
+            areas.add(new Rectangle(x, y, width, height));
+        }
+
+        // 2. 合并重叠区域
+        List<Rectangle> tiles = new ArrayList<>();
+        for (Rectangle area : areas) {
+            Rectangle clipped = area.intersection(bounds);
+            if (!clipped.isEmpty()) {
+                tiles.add(clipped);
+            }
+        }
+        mergeOverlapping(tiles);
+
+        // 3. 每个图块：复制页面对应区域，按顺序绘制落在其中的印章
+        List<Tile> result = new ArrayList<>(tiles.size());
+        for (Rectangle tile : tiles) {
+            BufferedImage canvas = new BufferedImage(tile.width, tile.height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = canvas.createGraphics();
+            try {
+                g.drawImage(page.getSubimage(tile.x, tile.y, tile.width, tile.height), 0, 0, null);
+                for (int i = 0; i < overlays.size(); i++) {
+                    Rectangle area = areas.get(i);
+                    if (area.intersects(tile)) {
+                        BufferedImage stamp = loadStamp(overlays.get(i).image(), area.width, area.height);
+                        g.drawImage(stamp, area.x - tile.x, area.y - tile.y, null);
+                    }
+                }
+            } finally {
+                g.dispose();
+            }
+            result.add(new Tile(tile.x, tile.y, tile.width, tile.height, toPng(canvas)));
+        }
+        return new PageComposite(page.getWidth(), page.getHeight(), result);
+    }
+
+    /**
+     * 当前缓存的页面预览图字节数
+     */
+    public long cachedPageBytes() {
+        synchronized (pages) {
+            return pageBytes;
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    private BufferedImage loadPage(Path path) throws IOException {
+        ImageKey key = ImageKey.of(path);
+        synchronized (pages) {
+            BufferedImage cached = pages.get(key);
+            if (cached != null) {
+                pageHitCounter.increment();
+                return cached;
+            }
+        }
+
+        // 解码在锁外进行
+        pageMissCounter.increment();
+        BufferedImage image = ImageIO.read(path.toFile());
+        if (image == null) {
+            throw new IOException("无法解析预览图: " + path);
+        }
+        long maxBytes = stampConfig.getPreview().getPageCacheMaxBytes();
+        synchronized (pages) {
+            BufferedImage previous = pages.put(key, image);
+            if (previous != null) {
+                pageBytes -= sizeOf(previous);
+            }
+            pageBytes += sizeOf(image);
+            Iterator<Map.Entry<ImageKey, BufferedImage>> iterator = pages.entrySet().iterator();
+            while (pages.size() > 1 && pageBytes > maxBytes) {
+                pageBytes -= sizeOf(iterator.next().getValue());
+                iterator.remove();
+            }
+        }
+        return image;
+    }
+
+    private BufferedImage loadStamp(Path path, int width, int height) throws IOException {
+        StampKey key = new StampKey(ImageKey.of(path), width, height);
+        synchronized (stamps) {
+            BufferedImage cached = stamps.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        BufferedImage source = ImageIO.read(path.toFile());
+        if (source == null) {
+            throw new IOException("无法解析印章图片: " + path);
+        }
+        BufferedImage scaled = StampImageOptimizer.resize(source, width, height);
+        int maxEntries = Math.max(1, stampConfig.getPreview().getStampCacheMaxEntries());
+        synchronized (stamps) {
+            stamps.put(key, scaled);
+            Iterator<StampKey> iterator = stamps.keySet().iterator();
+            while (stamps.size() > maxEntries) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return scaled;
+    }
+
+    /**
+     * 反复合并相交的矩形，直到两两不相交
+     */
+    private static void mergeOverlapping(List<Rectangle> tiles) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < tiles.size() && !merged; i++) {
+                for (int j = i + 1; j < tiles.size(); j++) {
+                    if (tiles.get(i).intersects(tiles.get(j))) {
+                        tiles.set(i, tiles.get(i).union(tiles.remove(j)));
+                        merged = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        return out.toByteArray();
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight()
+                * Math.max(1, image.getColorModel().getPixelSize() / 8);
+    }
+
+    /**
+     * 印章（PDF 坐标系，原点在左下角，单位 pt）
+     *
+     * @param image  印章图片路径
+     * @param x      左边界
+     * @param y      下边界
+     * @param width  宽度
+     * @param height 高度
+     */
+    public record Overlay(Path image, float x, float y, float width, float height) {
+    }
+
+    /**
+     * 合成后的图块（预览图像素坐标，原点在左上角）
+     *
+     * @param x      左边界
+     * @param y      上边界
+     * @param width  宽度
+     * @param height 高度
+     * @param png    PNG 数据
+     */
+    public record Tile(int x, int y, int width, int height, byte[] png) {
+    }
+
+    /**
+     * 单页合成结果
+     *
+     * @param width  页面预览图宽度（像素）
+     * @param height 页面预览图高度（像素）
+     * @param tiles  图块
+     */
+    public record PageComposite(int width, int height, List<Tile> tiles) {
+    }
+
+    /**
+     * 图片缓存键（路径 + 修改时间，文件重新生成后自动失效）
+     */
+    private record ImageKey(String path, long lastModified) {
+
+        static ImageKey of(Path path) throws IOException {
+            return new ImageKey(path.toAbsolutePath().normalize().toString(),
+                    Files.getLastModifiedTime(path).toMillis());
+        }
+    }
+
+    /**
+     * 缩放后印章的缓存键
+     */
+    private record StampKey(ImageKey image, int width, int height) {
+    }
+}
@@ -0,0 +1,112 @@
+package cn.tcxingji.seal.pdf;
+
+import cn.tcxingji.seal.config.StampConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 文本位置索引缓存
+ * <p>
+ * 按索引文件路径 + 修改时间缓存已反序列化的 {@link TextPositionIndex}，按条目数做 LRU 淘汰
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class TextIndexCache {
+
+    private final StampConfig stampConfig;
+
+    /**
+     * LRU 缓存（访问顺序），所有访问均在 this 上同步
+     */
+    private final LinkedHashMap<IndexKey, TextPositionIndex> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public TextIndexCache(StampConfig stampConfig, MeterRegistry meterRegistry) {
+        this.stampConfig = stampConfig;
+        this.hitCounter = Counter.builder("seal.text.index.cache.requests")
+                .description("文本位置索引缓存请求次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("seal.text.index.cache.requests")
+                .description("文本位置索引缓存请求次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("seal.text.index.cache.size", this, TextIndexCache::size)
+                .description("文本位置索引缓存条目数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 读取索引（命中缓存时不读取文件）
+     *
+     * @param indexPath 索引文件路径
+     * @return 索引
+     */
+    public TextPositionIndex get(Path indexPath) throws IOException {
+        IndexKey key = new IndexKey(indexPath.toAbsolutePath().normalize().toString(),
+                Files.getLastModifiedTime(indexPath).toMillis());
+        synchronized (this) {
+            TextPositionIndex cached = entries.get(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+
+        missCounter.increment();
+        TextPositionIndex index = TextPositionIndex.read(indexPath);
+        log.debug("加载文本位置索引: path={}, chars={}", indexPath, index.size());
+        put(key, index);
+        return index;
+    }
+
+    /**
+     * 放入新构建的索引（上传或补建索引后调用，避免再次读取文件）
+     *
+     * @param indexPath 索引文件路径
+     * @param index     索引
+     */
+    public void put(Path indexPath, TextPositionIndex index) throws IOException {
+        put(new IndexKey(indexPath.toAbsolutePath().normalize().toString(),
+                Files.getLastModifiedTime(indexPath).toMillis()), index);
+    }
+
+    /**
+     * 当前缓存条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void put(IndexKey key, TextPositionIndex index) {
+        entries.put(key, index);
+        int maxEntries = Math.max(1, stampConfig.getTextIndex().getCacheMaxEntries());
+        Iterator<Map.Entry<IndexKey, TextPositionIndex>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries) {
+            Map.Entry<IndexKey, TextPositionIndex> eldest = iterator.next();
+            iterator.remove();
+            log.debug("淘汰文本位置索引缓存: {}", eldest.getKey().path());
+        }
+    }
+
+    /**
+     * 缓存键
+     */
+    private record IndexKey(String path, long lastModified) {
+    }
+}
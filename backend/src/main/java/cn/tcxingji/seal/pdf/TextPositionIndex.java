@@ -0,0 +1,284 @@
+package cn.tcxingji.seal.pdf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 合同文本位置索引
+ * <p>
+ * 上传时用 {@link PDFTextStripper} 提取一次每页字符及其位置，序列化为 gzip 压缩的 JSON 保存在合同文件旁；
+ * 盖章时按锚点文本查找位置，不再解析 PDF。
+ * 索引文本按 NFKC 规范化并去除空白（部分 PDF 用康熙部首等兼容字符输出汉字，全角标点统一为半角），
+ * 查找时对锚点做相同处理
+ * </p>
+ *
+ * @author TC System
+ */
+public final class TextPositionIndex {
+
+    /**
+     * 索引文件后缀（与合同文件同目录）
+     */
+    public static final String FILE_SUFFIX = ".text.json.gz";
+
+    /**
+     * 每个字符占用的坐标数（x, y, width, height）
+     */
+    private static final int BOX_SIZE = 4;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<PageText> pages;
+
+    private TextPositionIndex(List<PageText> pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * 从文档提取文本位置索引
+     *
+     * @param document PDF 文档
+     * @return 索引
+     */
+    public static TextPositionIndex build(PDDocument document) throws IOException {
+        Collector collector = new Collector();
+        collector.setSortByPosition(true);
+        collector.writeText(document, Writer.nullWriter());
+        return new TextPositionIndex(collector.pages);
+    }
+
+    /**
+     * 从索引文件读取
+     *
+     * @param path 索引文件路径
+     * @return 索引
+     */
+    public static TextPositionIndex read(Path path) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            return new TextPositionIndex(List.of(MAPPER.readValue(in, PageText[].class)));
+        }
+    }
+
+    /**
+     * 写入索引文件（先写临时文件再重命名）
+     *
+     * @param path 索引文件路径
+     */
+    public void write(Path path) throws IOException {
+        Path part = path.resolveSibling(path.getFileName() + ".part");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(part))) {
+            MAPPER.writeValue(out, pages);
+        }
+        Files.move(part, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 合同文件对应的索引文件路径
+     *
+     * @param pdfPath 合同文件路径
+     * @return 索引文件路径
+     */
+    public static Path pathFor(Path pdfPath) {
+        return pdfPath.resolveSibling(pdfPath.getFileName() + FILE_SUFFIX);
+    }
+
+    /**
+     * 查找锚点文本
+     *
+     * @param anchor     锚点文本
+     * @param pageNumber 限定页码（为空时按页序查找全文）
+     * @param occurrence 第几次出现（从1开始）
+     * @return 锚点位置
+     */
+    public Optional<AnchorMatch> find(String anchor, Integer pageNumber, int occurrence) {
+        String needle = normalize(anchor);
+        if (needle.isEmpty()) {
+            return Optional.empty();
+        }
+        int remaining = occurrence;
+        for (PageText page : pages) {
+            if (pageNumber != null && page.pageNumber() != pageNumber) {
+                continue;
+            }
+            int from = 0;
+            int index;
+            while ((index = page.text().indexOf(needle, from)) >= 0) {
+                if (--remaining == 0) {
+                    return Optional.of(bounds(page, index, needle.length()));
+                }
+                from = index + 1;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 索引字符总数
+     */
+    public int size() {
+        return pages.stream().mapToInt(page -> page.text().length()).sum();
+    }
+
+    /**
+     * 计算匹配字符的外接矩形
+     */
+    private static AnchorMatch bounds(PageText page, int start, int length) {
+        float[] boxes = page.boxes();
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int i = start; i < start + length; i++) {
+            int offset = i * BOX_SIZE;
+            minX = Math.min(minX, boxes[offset]);
+            minY = Math.min(minY, boxes[offset + 1]);
+            maxX = Math.max(maxX, boxes[offset] + boxes[offset + 2]);
+            maxY = Math.max(maxY, boxes[offset + 1] + boxes[offset + 3]);
+        }
+        return new AnchorMatch(page.pageNumber(), minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * 规范化：NFKC（康熙部首、全角字符等兼容字符转为标准形式），去除空白
+     */
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder builder = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 锚点位置（PDF 坐标系，原点在左下角，单位 pt）
+     *
+     * @param pageNumber 页码（从1开始）
+     * @param x          左边界
+     * @param y          下边界（基线）
+     * @param width      宽度
+     * @param height     高度
+     */
+    public record AnchorMatch(int pageNumber, float x, float y, float width, float height) {
+
+        /**
+         * 中心点 X
+         */
+        public float centerX() {
+            return x + width / 2;
+        }
+
+        /**
+         * 中心点 Y
+         */
+        public float centerY() {
+            return y + height / 2;
+        }
+    }
+
+    /**
+     * 单页文本及字符位置
+     *
+     * @param pageNumber 页码（从1开始）
+     * @param text       规范化后的文本
+     * @param boxes      每个字符的 x, y, width, height
+     */
+    public record PageText(int pageNumber, String text, float[] boxes) {
+    }
+
+    /**
+     * 收集字符位置的文本提取器
+     */
+    private static final class Collector extends PDFTextStripper {
+
+        private final List<PageText> pages = new ArrayList<>();
+        private StringBuilder text;
+        private FloatList boxes;
+        private PDRectangle cropBox;
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            super.startPage(page);
+            text = new StringBuilder();
+            boxes = new FloatList();
+            cropBox = page.getCropBox();
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            pages.add(new PageText(getCurrentPageNo(), text.toString(), boxes.toArray()));
+            super.endPage(page);
+        }
+
+        @Override
+        protected void writeString(String string, List<TextPosition> textPositions) {
+            for (TextPosition position : textPositions) {
+                if (position.getUnicode() == null) {
+                    continue;
+                }
+                String unicode = Normalizer.normalize(position.getUnicode(), Normalizer.Form.NFKC);
+                if (unicode.isEmpty()) {
+                    continue;
+                }
+                // 字形坐标以页面左上角为原点、基线为 Y，转换为左下角原点
+                float x = cropBox.getLowerLeftX() + position.getXDirAdj();
+                float y = cropBox.getLowerLeftY() + cropBox.getHeight() - position.getYDirAdj();
+                float width = position.getWidthDirAdj() / unicode.length();
+                float height = position.getHeightDir();
+                for (int i = 0; i < unicode.length(); i++) {
+                    char c = unicode.charAt(i);
+                    if (Character.isWhitespace(c)) {
+                        continue;
+                    }
+                    text.append(c);
+                    boxes.add(x + width * i, y, width, height);
+                }
+            }
+        }
+    }
+
+    /**
+     * 简单的 float 动态数组
+     */
+    private static final class FloatList {
+
+        private float[] values = new float[256];
+        private int size;
+
+        void add(float x, float y, float width, float height) {
+            if (size + BOX_SIZE > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = x;
+            values[size++] = y;
+            values[size++] = width;
+            values[size++] = height;
+        }
+
+        float[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
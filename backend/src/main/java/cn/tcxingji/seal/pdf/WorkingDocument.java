@@ -0,0 +1,73 @@
+package cn.tcxingji.seal.pdf;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 盖章工作文档
+ * <p>
+ * 由 {@link StampEngine#open} 打开，持有文档租约和文档中已嵌入图片的索引（按页逐步收集），
+ * 多次绘制时同一图片只嵌入一次；非线程安全，调用方需串行访问
+ * </p>
+ *
+ * @author TC System
+ */
+public final class WorkingDocument implements AutoCloseable {
+
+    private final PdfDocumentLease lease;
+
+    /**
+     * 文档中已嵌入的图片（内容摘要 -> XObject）
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Map<String, PDImageXObject> embedded = new HashMap<>();
+
+    /**
+     * 已收集过嵌入图片的页码
+     */
+    private final Set<Integer> indexedPages = new HashSet<>();
+
+    WorkingDocument(PdfDocumentLease lease) {
+        this.lease = lease;
+    }
+
+    /**
+     * 标记页面已收集嵌入图片
+     *
+     * @return 该页此前是否未收集
+     */
+    boolean markIndexed(int pageNumber) {
+        return indexedPages.add(pageNumber);
+    }
+
+    PDDocument getDocument() {
+        return lease.getDocument();
+    }
+
+    /**
+     * 页数
+     */
+    public int getPageCount() {
+        return lease.getDocument().getNumberOfPages();
+    }
+
+    /**
+     * 预留的内存额度（字节）
+     */
+    public long getReservedBytes() {
+        return lease.getReservedBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lease.close();
+    }
+}
@@ -0,0 +1,218 @@
+package cn.tcxingji.seal.placement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 单份合同已盖章位置的索引（不可变）
+ * <p>
+ * 按页维护 {@link PageSealGrid}，并记录构建时的合同版本号：合同每次盖章、撤销都会递增版本号，
+ * 版本号不一致即说明索引已过期。追加签章返回新实例，原实例仍可被并发读取
+ * </p>
+ *
+ * @author TC System
+ */
+public final class ContractSealIndex {
+
+    /**
+     * 空位扫描每个方向的最大坐标数
+     */
+    private static final int MAX_AXIS_STEPS = 200;
+
+    private final long version;
+    private final float cellSize;
+    private final Map<Integer, PageSealGrid> pages;
+
+    private ContractSealIndex(long version, float cellSize, Map<Integer, PageSealGrid> pages) {
+        this.version = version;
+        this.cellSize = cellSize;
+        this.pages = pages;
+    }
+
+    /**
+     * 构建索引
+     *
+     * @param version  合同版本号
+     * @param cellSize 网格单元边长（pt）
+     * @param seals    有效签章
+     * @return 索引
+     */
+    public static ContractSealIndex build(long version, float cellSize, Collection<PlacedSeal> seals) {
+        return new ContractSealIndex(version, cellSize, Map.of()).with(version, seals);
+    }
+
+    /**
+     * 构建时的合同版本号
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 追加签章后的新索引
+     *
+     * @param newVersion 追加后的合同版本号
+     * @param added      新增签章
+     * @return 新索引
+     */
+    public ContractSealIndex with(long newVersion, Collection<PlacedSeal> added) {
+        Map<Integer, PageSealGrid> merged = new HashMap<>(pages);
+        Map<Integer, List<PlacedSeal>> byPage = added.stream()
+                .collect(Collectors.groupingBy(PlacedSeal::pageNumber));
+        byPage.forEach((page, seals) -> merged.merge(page, new PageSealGrid(cellSize, seals),
+                (existing, ignored) -> existing.with(seals)));
+        return new ContractSealIndex(newVersion, cellSize, merged);
+    }
+
+    /**
+     * 有签章的页码
+     */
+    public Set<Integer> sealedPages() {
+        return Set.copyOf(pages.keySet());
+    }
+
+    /**
+     * 指定页的全部签章
+     */
+    public List<PlacedSeal> page(int pageNumber) {
+        PageSealGrid grid = pages.get(pageNumber);
+        return grid != null ? grid.seals() : List.of();
+    }
+
+    /**
+     * 指定页中与区域相交的签章
+     */
+    public List<PlacedSeal> intersecting(PlacedSeal region) {
+        PageSealGrid grid = pages.get(region.pageNumber());
+        return grid != null ? grid.intersecting(region) : List.of();
+    }
+
+    /**
+     * 与候选位置重叠（相交面积占较小一方面积的比例不低于阈值）的签章
+     *
+     * @param candidate 候选位置
+     * @param threshold 重叠阈值
+     * @return 重叠列表（按重叠比例降序）
+     */
+    public List<Overlap> overlaps(PlacedSeal candidate, double threshold) {
+        List<Overlap> overlaps = new ArrayList<>();
+        for (PlacedSeal seal : intersecting(candidate)) {
+            double ratio = candidate.overlapRatio(seal);
+            if (ratio >= threshold) {
+                overlaps.add(new Overlap(candidate, seal, ratio));
+            }
+        }
+        overlaps.sort(Comparator.comparingDouble(Overlap::ratio).reversed());
+        return overlaps;
+    }
+
+    /**
+     * 查找页面空位
+     * <p>
+     * 按步长扫描页面内所有可放下指定尺寸的位置（另加上期望位置本身），排除与已有签章相交的位置，
+     * 按与期望位置的距离由近到远选取，选中的建议之间互不相交。
+     * 页面尺寸超过 {@link PlacedSeal#MAX_PAGE_SIZE} 时按上限计算，每个方向最多扫描 {@value #MAX_AXIS_STEPS} 个坐标
+     * </p>
+     *
+     * @param query  查询条件
+     * @param step   扫描步长（pt）
+     * @param margin 与页面边缘的最小距离（pt）
+     * @return 建议位置（左下角坐标）
+     */
+    public List<PlacedSeal> freeSpots(FreeSpaceQuery query, float step, float margin) {
+        float maxX = Math.min(query.pageWidth(), PlacedSeal.MAX_PAGE_SIZE) - margin - query.width();
+        float maxY = Math.min(query.pageHeight(), PlacedSeal.MAX_PAGE_SIZE) - margin - query.height();
+        // 取反比较同时排除 NaN
+        if (!(maxX >= margin && maxY >= margin) || query.limit() <= 0) {
+            return List.of();
+        }
+
+        List<PlacedSeal> candidates = new ArrayList<>();
+        candidates.add(spot(query, clamp(query.preferX(), margin, maxX), clamp(query.preferY(), margin, maxY)));
+        for (float x : axis(margin, maxX, step)) {
+            for (float y : axis(margin, maxY, step)) {
+                candidates.add(spot(query, x, y));
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(spot -> distanceSquared(spot, query)));
+
+        List<PlacedSeal> chosen = new ArrayList<>(query.limit());
+        for (PlacedSeal candidate : candidates) {
+            if (!intersecting(candidate).isEmpty()
+                    || chosen.stream().anyMatch(picked -> picked.intersectionArea(candidate) > 0)) {
+                continue;
+            }
+            chosen.add(candidate);
+            if (chosen.size() >= query.limit()) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    private static PlacedSeal spot(FreeSpaceQuery query, float x, float y) {
+        return new PlacedSeal(null, null, null, query.pageNumber(), x, y, query.width(), query.height());
+    }
+
+    /**
+     * 扫描坐标：从 min 起按步长递增，最后一个坐标对齐 max
+     * <p>
+     * 按整数序号计算坐标，避免浮点累加在大数值下不再前进；范围过大时放大步长，坐标数不超过上限
+     * </p>
+     */
+    private static List<Float> axis(float min, float max, float step) {
+        float stride = Math.max(Math.max(step, 1f), (max - min) / MAX_AXIS_STEPS);
+        List<Float> values = new ArrayList<>();
+        for (int i = 0; i < MAX_AXIS_STEPS; i++) {
+            float value = min + i * stride;
+            if (value >= max) {
+                break;
+            }
+            values.add(value);
+        }
+        values.add(max);
+        return values;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.min(Math.max(value, min), max);
+    }
+
+    private static double distanceSquared(PlacedSeal spot, FreeSpaceQuery query) {
+        double dx = spot.x() - query.preferX();
+        double dy = spot.y() - query.preferY();
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * 一处重叠
+     *
+     * @param candidate 候选位置
+     * @param existing  已有签章
+     * @param ratio     相交面积占较小一方面积的比例
+     */
+    public record Overlap(PlacedSeal candidate, PlacedSeal existing, double ratio) {
+    }
+
+    /**
+     * 空位查询条件（单位 pt）
+     *
+     * @param pageNumber 页码
+     * @param pageWidth  页面宽度
+     * @param pageHeight 页面高度
+     * @param width      印章宽度
+     * @param height     印章高度
+     * @param preferX    期望位置左下角 X
+     * @param preferY    期望位置左下角 Y
+     * @param limit      最多返回建议数
+     */
+    public record FreeSpaceQuery(int pageNumber, float pageWidth, float pageHeight, float width, float height,
+                                 float preferX, float preferY, int limit) {
+    }
+}
@@ -0,0 +1,103 @@
+package cn.tcxingji.seal.placement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * 单页签章矩形的均匀网格索引
+ * <p>
+ * 页面按固定边长划分网格，每个矩形登记到它覆盖的所有单元；区域查询只检查区域覆盖单元中的矩形。
+ * 划分网格时坐标限制在 [0, {@link PlacedSeal#MAX_PAGE_SIZE}] 内（相交判断仍使用原始坐标），
+ * 任意大小的矩形覆盖的单元数都有上限。
+ * 发布到 {@link ContractSealIndex} 的网格不再修改，追加时整页重建，读取无需加锁；
+ * {@link #add} 只用于重叠检测自己持有、尚未发布的草稿网格
+ * </p>
+ *
+ * @author TC System
+ */
+final class PageSealGrid {
+
+    /**
+     * 网格单元边长下限（pt），避免配置过小时一个矩形覆盖过多单元
+     */
+    private static final float MIN_CELL_SIZE = 18f;
+
+    private final float cellSize;
+    private final List<PlacedSeal> seals = new ArrayList<>();
+    private final Map<Long, List<PlacedSeal>> cells = new HashMap<>();
+
+    PageSealGrid(float cellSize) {
+        this.cellSize = Math.max(cellSize, MIN_CELL_SIZE);
+    }
+
+    PageSealGrid(float cellSize, Collection<PlacedSeal> seals) {
+        this(cellSize);
+        seals.forEach(this::add);
+    }
+
+    /**
+     * 本页全部签章（按登记顺序）
+     */
+    List<PlacedSeal> seals() {
+        return Collections.unmodifiableList(seals);
+    }
+
+    /**
+     * 追加签章后的新索引（本索引不变）
+     */
+    PageSealGrid with(Collection<PlacedSeal> added) {
+        PageSealGrid merged = new PageSealGrid(cellSize, seals);
+        added.forEach(merged::add);
+        return merged;
+    }
+
+    /**
+     * 就地登记一个签章（仅用于尚未发布的草稿网格）
+     */
+    void add(PlacedSeal seal) {
+        seals.add(seal);
+        forEachCell(seal, key -> cells.computeIfAbsent(key, k -> new ArrayList<>(2)).add(seal));
+    }
+
+    /**
+     * 与指定区域相交（相交面积大于 0）的签章
+     */
+    List<PlacedSeal> intersecting(PlacedSeal region) {
+        Set<PlacedSeal> found = new LinkedHashSet<>();
+        forEachCell(region, key -> {
+            List<PlacedSeal> cell = cells.get(key);
+            if (cell != null) {
+                for (PlacedSeal seal : cell) {
+                    if (seal.intersectionArea(region) > 0) {
+                        found.add(seal);
+                    }
+                }
+            }
+        });
+        return new ArrayList<>(found);
+    }
+
+    private void forEachCell(PlacedSeal rect, LongConsumer visitor) {
+        int minX = cell(rect.x());
+        int maxX = cell(rect.right());
+        int minY = cell(rect.y());
+        int maxY = cell(rect.top());
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                visitor.accept(((long) cx << 32) | (cy & 0xFFFFFFFFL));
+            }
+        }
+    }
+
+    private int cell(float coordinate) {
+        float bounded = Math.min(Math.max(coordinate, 0f), PlacedSeal.MAX_PAGE_SIZE);
+        return (int) Math.floor(bounded / cellSize);
+    }
+}
@@ -0,0 +1,81 @@
+package cn.tcxingji.seal.placement;
+
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.entity.SealRecord;
+
+/**
+ * 页面上的一个签章矩形（PDF 坐标系，原点在左下角，单位 pt）
+ * <p>
+ * 已盖章的矩形来自签章记录；待盖章的候选位置没有记录ID
+ * </p>
+ *
+ * @param recordId   签章记录ID（候选位置为空）
+ * @param sealId     印章ID或签名ID
+ * @param sealType   签章类型
+ * @param pageNumber 页码（从1开始）
+ * @param x          左下角 X
+ * @param y          左下角 Y
+ * @param width      宽度
+ * @param height     高度
+ * @author TC System
+ */
+public record PlacedSeal(Long recordId, Long sealId, Integer sealType, int pageNumber,
+                         float x, float y, float width, float height) {
+
+    /**
+     * 页面尺寸上限（pt，PDF 规范允许的最大页面边长 200 英寸）；
+     * 盖章位置的坐标和尺寸不应超过该值，位置索引也只在该范围内划分网格
+     */
+    public static final float MAX_PAGE_SIZE = 14400f;
+
+    /**
+     * 由签章记录构建（缺少页码或坐标时返回 null）
+     */
+    public static PlacedSeal of(SealRecord record) {
+        if (record.getPageNumber() == null || record.getPositionX() == null || record.getPositionY() == null
+                || record.getSealWidth() == null || record.getSealHeight() == null) {
+            return null;
+        }
+        return new PlacedSeal(record.getId(), record.getSealId(), record.getSealType(), record.getPageNumber(),
+                record.getPositionX().floatValue(), record.getPositionY().floatValue(),
+                record.getSealWidth().floatValue(), record.getSealHeight().floatValue());
+    }
+
+    /**
+     * 由已解析的盖章位置构建候选矩形
+     */
+    public static PlacedSeal candidate(SealPositionRequest position, Integer sealType) {
+        return new PlacedSeal(null, null, sealType, position.getPageNumber(),
+                position.getX().floatValue(), position.getY().floatValue(),
+                position.getWidth().floatValue(), position.getHeight().floatValue());
+    }
+
+    public float right() {
+        return x + width;
+    }
+
+    public float top() {
+        return y + height;
+    }
+
+    public float area() {
+        return width * height;
+    }
+
+    /**
+     * 与另一矩形的相交面积（不相交时为 0）
+     */
+    public float intersectionArea(PlacedSeal other) {
+        float w = Math.min(right(), other.right()) - Math.max(x, other.x);
+        float h = Math.min(top(), other.top()) - Math.max(y, other.y);
+        return w > 0 && h > 0 ? w * h : 0f;
+    }
+
+    /**
+     * 相交面积占较小一方面积的比例
+     */
+    public double overlapRatio(PlacedSeal other) {
+        float smaller = Math.min(area(), other.area());
+        return smaller > 0 ? intersectionArea(other) / smaller : 0d;
+    }
+}
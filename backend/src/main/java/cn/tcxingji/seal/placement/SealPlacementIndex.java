@@ -0,0 +1,246 @@
+package cn.tcxingji.seal.placement;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.entity.ContractFile;
+import cn.tcxingji.seal.entity.SealRecord;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.repository.SealRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 已盖章位置索引
+ * <p>
+ * 按合同缓存 {@link ContractSealIndex}，首次使用时从有效签章记录构建，按条目数做 LRU 淘汰。
+ * 缓存的索引带合同版本号，调用方传入的合同版本号不一致时重新构建，
+ * 因此撤销盖章和其他实例上的盖章无需通知本实例；本实例盖章提交后直接追加新签章，不再读库
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class SealPlacementIndex {
+
+    private final SealRecordRepository sealRecordRepository;
+    private final StampConfig stampConfig;
+
+    /**
+     * LRU 缓存（访问顺序），所有访问均在 this 上同步
+     */
+    private final LinkedHashMap<Long, ContractSealIndex> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public SealPlacementIndex(SealRecordRepository sealRecordRepository,
+                              StampConfig stampConfig,
+                              MeterRegistry meterRegistry) {
+        this.sealRecordRepository = sealRecordRepository;
+        this.stampConfig = stampConfig;
+        this.hitCounter = Counter.builder("seal.placement.index.requests")
+                .description("已盖章位置索引请求次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("seal.placement.index.requests")
+                .description("已盖章位置索引请求次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("seal.placement.index.size", this, SealPlacementIndex::size)
+                .description("已盖章位置索引缓存合同数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取合同当前版本的索引（未命中或版本不一致时从签章记录构建）
+     *
+     * @param contract 合同（使用其ID和版本号）
+     * @return 索引
+     */
+    public ContractSealIndex get(ContractFile contract) {
+        long version = contract.getVersion();
+        synchronized (this) {
+            ContractSealIndex cached = entries.get(contract.getId());
+            if (cached != null && cached.version() == version) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+
+        missCounter.increment();
+        List<PlacedSeal> seals = toPlaced(
+                sealRecordRepository.findByContractIdAndStatus(contract.getId(), SealRecord.Status.VALID));
+        ContractSealIndex index = ContractSealIndex.build(version,
+                stampConfig.getPlacement().getGridCellSize(), seals);
+        log.debug("构建已盖章位置索引: contractId={}, version={}, seals={}", contract.getId(), version, seals.size());
+        synchronized (this) {
+            ContractSealIndex current = entries.get(contract.getId());
+            if (current == null || current.version() < version) {
+                put(contract.getId(), index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 盖章提交后追加新签章
+     * <p>
+     * 缓存中是提交前版本的索引时直接追加并升级版本号，否则丢弃（下次使用时重新构建）
+     * </p>
+     *
+     * @param before  提交前的合同快照
+     * @param after   提交后的合同
+     * @param records 本次保存的签章记录
+     */
+    public void advance(ContractFile before, ContractFile after, Collection<SealRecord> records) {
+        synchronized (this) {
+            ContractSealIndex cached = entries.get(before.getId());
+            if (cached == null) {
+                return;
+            }
+            if (cached.version() == before.getVersion() && after.getVersion() != null) {
+                put(before.getId(), cached.with(after.getVersion(), toPlaced(records)));
+            } else {
+                entries.remove(before.getId());
+            }
+        }
+    }
+
+    /**
+     * 开始一次盖章的重叠检测
+     *
+     * @param contract      合同
+     * @param includePlaced 是否与已有签章比较（基于原始文件重新盖章时只比较本次的位置）
+     * @return 检测器
+     */
+    public OverlapCheck check(ContractFile contract, boolean includePlaced) {
+        StampConfig.Placement config = stampConfig.getPlacement();
+        ContractSealIndex base = includePlaced && config.getOverlapPolicy() != StampConfig.OverlapPolicy.IGNORE
+                ? get(contract)
+                : ContractSealIndex.build(contract.getVersion(), config.getGridCellSize(), List.of());
+        return new OverlapCheck(base, config);
+    }
+
+    /**
+     * 当前缓存合同数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void put(Long contractId, ContractSealIndex index) {
+        entries.put(contractId, index);
+        int maxEntries = Math.max(1, stampConfig.getPlacement().getCacheMaxEntries());
+        Iterator<Map.Entry<Long, ContractSealIndex>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static List<PlacedSeal> toPlaced(Collection<SealRecord> records) {
+        return records.stream()
+                .map(PlacedSeal::of)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * 一次盖章操作的重叠检测
+     * <p>
+     * 依次检测每个请求的位置：与已有签章或本次先前请求的位置重叠时，
+     * REJECT 策略抛出异常（该请求的位置不计入后续检测），WARN 策略返回提示；
+     * 骑缝章不检测，但其位置计入后续检测。
+     * 本次已接受的位置登记在检测器自己持有的可变网格中，不复制已有签章的索引
+     * </p>
+     */
+    public static final class OverlapCheck {
+
+        private final StampConfig.Placement config;
+        private final ContractSealIndex base;
+        private final Map<Integer, PageSealGrid> accepted = new HashMap<>();
+
+        private OverlapCheck(ContractSealIndex base, StampConfig.Placement config) {
+            this.base = base;
+            this.config = config;
+        }
+
+        /**
+         * 检测一个请求的位置，并将其计入后续检测
+         *
+         * @param positions 已解析的盖章位置
+         * @param sealType  签章类型
+         * @return 重叠提示（无重叠或不检测时为空列表）
+         * @throws BusinessException REJECT 策略下存在重叠
+         */
+        public List<String> accept(List<SealPositionRequest> positions, Integer sealType) {
+            List<PlacedSeal> candidates = positions.stream()
+                    .map(position -> PlacedSeal.candidate(position, sealType))
+                    .toList();
+            List<String> warnings = new ArrayList<>();
+            if (config.getOverlapPolicy() != StampConfig.OverlapPolicy.IGNORE
+                    && !Objects.equals(sealType, SealRecord.SealType.PERFORATION)) {
+                // 同一请求内的多个位置也不应互相重叠
+                Map<Integer, PageSealGrid> current = new HashMap<>();
+                for (PlacedSeal candidate : candidates) {
+                    worstOverlap(candidate, current)
+                            .map(OverlapCheck::describe)
+                            .ifPresent(warnings::add);
+                    gridOf(current, candidate.pageNumber()).add(candidate);
+                }
+                if (!warnings.isEmpty() && config.getOverlapPolicy() == StampConfig.OverlapPolicy.REJECT) {
+                    throw new BusinessException("盖章位置与已有签章重叠: " + String.join("；", warnings));
+                }
+            }
+            candidates.forEach(candidate -> gridOf(accepted, candidate.pageNumber()).add(candidate));
+            return warnings;
+        }
+
+        /**
+         * 候选位置与已有签章、本次已接受位置、本请求先前位置中重叠比例最高的一处
+         */
+        private Optional<ContractSealIndex.Overlap> worstOverlap(PlacedSeal candidate,
+                                                                 Map<Integer, PageSealGrid> current) {
+            List<PlacedSeal> nearby = new ArrayList<>(base.intersecting(candidate));
+            for (Map<Integer, PageSealGrid> grids : List.of(accepted, current)) {
+                PageSealGrid grid = grids.get(candidate.pageNumber());
+                if (grid != null) {
+                    nearby.addAll(grid.intersecting(candidate));
+                }
+            }
+            return nearby.stream()
+                    .map(seal -> new ContractSealIndex.Overlap(candidate, seal, candidate.overlapRatio(seal)))
+                    .filter(overlap -> overlap.ratio() >= config.getOverlapThreshold())
+                    .max(Comparator.comparingDouble(ContractSealIndex.Overlap::ratio));
+        }
+
+        private PageSealGrid gridOf(Map<Integer, PageSealGrid> grids, int pageNumber) {
+            return grids.computeIfAbsent(pageNumber, page -> new PageSealGrid(config.getGridCellSize()));
+        }
+
+        private static String describe(ContractSealIndex.Overlap overlap) {
+            PlacedSeal candidate = overlap.candidate();
+            PlacedSeal existing = overlap.existing();
+            String target = Optional.ofNullable(existing.recordId())
+                    .map(id -> "签章记录#" + id)
+                    .orElse("本次其他位置");
+            return String.format("第%d页(%.0f, %.0f)与%s重叠%.0f%%",
+                    candidate.pageNumber(), candidate.x(), candidate.y(), target, overlap.ratio() * 100);
+        }
+    }
+}
@@ -163,7 +163,7 @@ public interface ContractFileRepository extends JpaRepository<ContractFile, Long
      * @return 更新记录数
      */
     @Modifying
-    @Query("UPDATE ContractFile c SET c.status = :status, c.updateTime = CURRENT_TIMESTAMP WHERE c.id = :id")
+    @Query("UPDATE ContractFile c SET c.status = :status, c.version = c.version + 1, c.updateTime = CURRENT_TIMESTAMP WHERE c.id = :id")
     int updateStatus(@Param("id") Long id, @Param("status") Integer status);
 
     /**
@@ -174,9 +174,24 @@ public interface ContractFileRepository extends JpaRepository<ContractFile, Long
      * @return 更新记录数
      */
     @Modifying
-    @Query("UPDATE ContractFile c SET c.signedPath = :signedPath, c.status = 2, c.updateTime = CURRENT_TIMESTAMP WHERE c.id = :id")
+    @Query("UPDATE ContractFile c SET c.signedPath = :signedPath, c.status = 2, c.version = c.version + 1, " +
+            "c.updateTime = CURRENT_TIMESTAMP WHERE c.id = :id")
     int updateSignedPath(@Param("id") Long id, @Param("signedPath") String signedPath);
 
+    /**
+     * 更新文本位置索引文件路径
+     * <p>
+     * 索引由原始文件派生，不属于业务修改，不递增版本号（不影响进行中的盖章）
+     * </p>
+     *
+     * @param id            合同文件ID
+     * @param textIndexPath 索引文件路径
+     * @return 更新记录数
+     */
+    @Modifying
+    @Query("UPDATE ContractFile c SET c.textIndexPath = :textIndexPath WHERE c.id = :id")
+    int updateTextIndexPath(@Param("id") Long id, @Param("textIndexPath") String textIndexPath);
+
     /**
      * 根据时间范围查询合同文件
      *
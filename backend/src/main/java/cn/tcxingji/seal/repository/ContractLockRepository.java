@@ -0,0 +1,85 @@
+package cn.tcxingji.seal.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合同租约锁 Repository
+ * <p>
+ * 基于 contract_lock 表实现跨实例的合同互斥。每个操作都是单条语句、自动提交，
+ * 不依赖数据库连接会话（与连接池兼容，不使用 GET_LOCK）。
+ * 租约到期时间统一按数据库时钟（NOW(3)）计算和比较，各实例之间的时钟偏差不影响互斥
+ * </p>
+ *
+ * @author TC System
+ */
+@Repository
+public class ContractLockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ContractLockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 尝试获取租约锁
+     * <p>
+     * 锁不存在时插入；锁已过期或已由同一持有者持有时接管
+     * </p>
+     *
+     * @param contractId 合同ID
+     * @param owner      持有者
+     * @param lease      租约时长
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(Long contractId, String owner, Duration lease) {
+        long leaseMicros = toMicros(lease);
+        int inserted = jdbcTemplate.update(
+                "INSERT IGNORE INTO contract_lock (contract_id, owner, locked_until) " +
+                        "VALUES (?, ?, TIMESTAMPADD(MICROSECOND, ?, NOW(3)))",
+                contractId, owner, leaseMicros);
+        if (inserted > 0) {
+            return true;
+        }
+        int taken = jdbcTemplate.update(
+                "UPDATE contract_lock SET owner = ?, locked_until = TIMESTAMPADD(MICROSECOND, ?, NOW(3)) " +
+                        "WHERE contract_id = ? AND (locked_until < NOW(3) OR owner = ?)",
+                owner, leaseMicros, contractId, owner);
+        return taken > 0;
+    }
+
+    /**
+     * 续期租约锁（仅续期自己持有的锁）
+     *
+     * @param contractId 合同ID
+     * @param owner      持有者
+     * @param lease      租约时长（从当前数据库时间起算）
+     * @return 是否续期成功（false 表示锁已过期并被其他实例接管）
+     */
+    public boolean renew(Long contractId, String owner, Duration lease) {
+        return jdbcTemplate.update(
+                "UPDATE contract_lock SET locked_until = TIMESTAMPADD(MICROSECOND, ?, NOW(3)) " +
+                        "WHERE contract_id = ? AND owner = ?",
+                toMicros(lease), contractId, owner) > 0;
+    }
+
+    /**
+     * 释放租约锁（仅释放自己持有的锁）
+     *
+     * @param contractId 合同ID
+     * @param owner      持有者
+     * @return 是否释放成功（false 表示锁已过期并被其他实例接管）
+     */
+    public boolean release(Long contractId, String owner) {
+        return jdbcTemplate.update("DELETE FROM contract_lock WHERE contract_id = ? AND owner = ?",
+                contractId, owner) > 0;
+    }
+
+    private static long toMicros(Duration duration) {
+        return TimeUnit.NANOSECONDS.toMicros(duration.toNanos());
+    }
+}
@@ -32,6 +32,23 @@ public interface SealRecordRepository extends JpaRepository<SealRecord, Long>, J
      */
     List<SealRecord> findByContractId(Long contractId);
 
+    /**
+     * 根据盖章修订ID查询签章记录列表
+     *
+     * @param revisionId 盖章修订ID
+     * @return 签章记录列表
+     */
+    List<SealRecord> findByRevisionId(Long revisionId);
+
+    /**
+     * 查询合同指定状态的签章记录
+     *
+     * @param contractId 合同文件ID
+     * @param status     状态
+     * @return 签章记录列表
+     */
+    List<SealRecord> findByContractIdAndStatus(Long contractId, Integer status);
+
     /**
      * 根据合同ID分页查询签章记录
      *
@@ -0,0 +1,106 @@
+package cn.tcxingji.seal.repository;
+
+import cn.tcxingji.seal.entity.SignSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 多方签署会话 Repository 接口
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Repository
+public interface SignSessionRepository extends JpaRepository<SignSession, Long> {
+
+    /**
+     * 锁定会话行（签署方提交与开始合并互斥，只持有到事务结束）。必须在事务中调用
+     *
+     * @param id 会话ID
+     * @return 已加锁的会话
+     */
+    @Query(value = "SELECT * FROM sign_session WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<SignSession> lockById(@Param("id") Long id);
+
+    /**
+     * 查询合同的签署会话
+     *
+     * @param contractId 合同ID
+     * @return 会话列表
+     */
+    List<SignSession> findByContractIdOrderByIdDesc(Long contractId);
+
+    /**
+     * 开始合并：切换为合并中，登记本次合并的持有者并设置合并租约（从当前数据库时间起算）。
+     * 须在会话行锁内调用；执行前先刷新、执行后清空持久化上下文
+     *
+     * @param id          会话ID
+     * @param owner       本次合并的持有者标识
+     * @param leaseMicros 租约时长（微秒）
+     * @return 更新记录数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE sign_session SET status = 1, merge_owner = :owner, " +
+            "merge_deadline = TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(3)) WHERE id = :id", nativeQuery = true)
+    int startMerge(@Param("id") Long id, @Param("owner") String owner, @Param("leaseMicros") long leaseMicros);
+
+    /**
+     * 统计合并租约已过期（按数据库时钟）的合并中会话，用于判断能否重新合并
+     *
+     * @param id 会话ID
+     * @return 1 表示合并租约已过期，否则为 0
+     */
+    @Query(value = "SELECT COUNT(*) FROM sign_session WHERE id = :id AND status = 1 AND merge_deadline < NOW(3)",
+            nativeQuery = true)
+    long countStalledMerge(@Param("id") Long id);
+
+    /**
+     * 续期合并租约（仅当会话仍处于本次合并中时生效）
+     *
+     * @param id          会话ID
+     * @param owner       本次合并的持有者标识
+     * @param leaseMicros 租约时长（微秒，从当前数据库时间起算）
+     * @return 更新记录数（0 表示合并已结束或已被接管）
+     */
+    @Modifying
+    @Query(value = "UPDATE sign_session SET merge_deadline = TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(3)) " +
+            "WHERE id = :id AND status = 1 AND merge_owner = :owner", nativeQuery = true)
+    int renewMerge(@Param("id") Long id, @Param("owner") String owner, @Param("leaseMicros") long leaseMicros);
+
+    /**
+     * 结束合并（仅当会话仍处于本次合并中时生效：合并已被其他请求接管时不覆盖）
+     * <p>
+     * 合并成功时在保存签章记录的同一事务中调用，签章提交与会话完成同时生效
+     * </p>
+     *
+     * @param id     会话ID
+     * @param owner  本次合并的持有者标识
+     * @param status 最终状态
+     * @param error  失败原因
+     * @return 更新记录数
+     */
+    @Modifying
+    @Query(value = "UPDATE sign_session SET status = :status, error_message = :error, finish_time = NOW() " +
+            "WHERE id = :id AND status = 1 AND merge_owner = :owner", nativeQuery = true)
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") Integer status,
+               @Param("error") String error);
+
+    /**
+     * 写回合并结果（会话已由本次合并完成）
+     *
+     * @param id     会话ID
+     * @param owner  本次合并的持有者标识
+     * @param result 结果 JSON
+     * @return 更新记录数
+     */
+    @Modifying
+    @Query(value = "UPDATE sign_session SET result = :result WHERE id = :id AND status = 2 AND merge_owner = :owner",
+            nativeQuery = true)
+    int saveResult(@Param("id") Long id, @Param("owner") String owner, @Param("result") String result);
+}
@@ -0,0 +1,33 @@
+package cn.tcxingji.seal.repository;
+
+import cn.tcxingji.seal.entity.SignSessionSigner;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 签署会话签署方 Repository 接口
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Repository
+public interface SignSessionSignerRepository extends JpaRepository<SignSessionSigner, Long> {
+
+    /**
+     * 按提交顺序查询会话的签署方
+     *
+     * @param sessionId 会话ID
+     * @return 签署方列表
+     */
+    List<SignSessionSigner> findBySessionIdOrderByIdAsc(Long sessionId);
+
+    /**
+     * 统计会话的签署方数量
+     *
+     * @param sessionId 会话ID
+     * @return 签署方数量
+     */
+    long countBySessionId(Long sessionId);
+}
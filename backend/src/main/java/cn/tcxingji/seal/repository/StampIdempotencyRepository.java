@@ -0,0 +1,171 @@
+package cn.tcxingji.seal.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 盖章幂等键 Repository
+ * <p>
+ * 基于 stamp_idempotency 表保存幂等键的处理状态和结果。与 {@link ContractLockRepository} 相同，
+ * 每个操作都是单条自动提交语句，可在 PDF 处理期间不持有数据库连接。
+ * 处理中记录带处理者标识，续期、完成和删除只作用于自己持有的记录；租约到期时间按数据库时钟计算和比较
+ * </p>
+ *
+ * @author TC System
+ */
+@Repository
+public class StampIdempotencyRepository {
+
+    /**
+     * 处理中
+     */
+    public static final int STATUS_PROCESSING = 0;
+
+    /**
+     * 已完成
+     */
+    public static final int STATUS_COMPLETED = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StampIdempotencyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 查询幂等键记录
+     *
+     * @param key 幂等键
+     * @return 记录
+     */
+    public Optional<StoredRequest> find(String key) {
+        List<StoredRequest> rows = jdbcTemplate.query(
+                "SELECT idempotency_key, contract_id, operation, request_hash, status, response, " +
+                        "locked_until < NOW(3) AS lease_expired " +
+                        "FROM stamp_idempotency WHERE idempotency_key = ?",
+                (rs, rowNum) -> new StoredRequest(
+                        rs.getString("idempotency_key"),
+                        rs.getLong("contract_id"),
+                        rs.getInt("operation"),
+                        rs.getString("request_hash"),
+                        rs.getInt("status"),
+                        rs.getBoolean("lease_expired"),
+                        rs.getString("response")),
+                key);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * 登记处理中的请求（幂等键已存在时不做任何修改）
+     *
+     * @param key         幂等键
+     * @param owner       处理者标识（本次处理唯一）
+     * @param contractId  合同ID
+     * @param operation   操作类型
+     * @param requestHash 请求体摘要
+     * @param lease       处理租约时长
+     * @param retention   记录保留时长
+     * @return 是否登记成功（false 表示幂等键已被使用）
+     */
+    public boolean tryStart(String key, String owner, Long contractId, int operation, String requestHash,
+                            Duration lease, Duration retention) {
+        return jdbcTemplate.update(
+                "INSERT IGNORE INTO stamp_idempotency " +
+                        "(idempotency_key, owner, contract_id, operation, request_hash, status, " +
+                        "locked_until, expire_time) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, TIMESTAMPADD(MICROSECOND, ?, NOW(3)), " +
+                        "TIMESTAMPADD(MICROSECOND, ?, NOW(3)))",
+                key, owner, contractId, operation, requestHash, STATUS_PROCESSING,
+                toMicros(lease), toMicros(retention)) > 0;
+    }
+
+    /**
+     * 接管租约已过期的处理中请求（原处理实例可能已宕机）
+     *
+     * @param key   幂等键
+     * @param owner 新的处理者标识
+     * @param lease 处理租约时长
+     * @return 是否接管成功
+     */
+    public boolean takeOver(String key, String owner, Duration lease) {
+        return jdbcTemplate.update(
+                "UPDATE stamp_idempotency SET owner = ?, locked_until = TIMESTAMPADD(MICROSECOND, ?, NOW(3)) " +
+                        "WHERE idempotency_key = ? AND status = ? AND locked_until < NOW(3)",
+                owner, toMicros(lease), key, STATUS_PROCESSING) > 0;
+    }
+
+    /**
+     * 续期处理中请求的租约（仅续期自己持有的记录）
+     *
+     * @param key   幂等键
+     * @param owner 处理者标识
+     * @param lease 处理租约时长（从当前数据库时间起算）
+     * @return 是否续期成功（false 表示记录已被接管、已完成或已删除）
+     */
+    public boolean renew(String key, String owner, Duration lease) {
+        return jdbcTemplate.update(
+                "UPDATE stamp_idempotency SET locked_until = TIMESTAMPADD(MICROSECOND, ?, NOW(3)) " +
+                        "WHERE idempotency_key = ? AND owner = ? AND status = ?",
+                toMicros(lease), key, owner, STATUS_PROCESSING) > 0;
+    }
+
+    /**
+     * 保存处理结果（仅当记录仍由自己持有时生效）
+     *
+     * @param key      幂等键
+     * @param owner    处理者标识
+     * @param response 结果 JSON
+     * @return 是否保存成功（false 表示记录已被接管）
+     */
+    public boolean complete(String key, String owner, String response) {
+        return jdbcTemplate.update(
+                "UPDATE stamp_idempotency SET status = ?, response = ?, locked_until = NULL " +
+                        "WHERE idempotency_key = ? AND owner = ? AND status = ?",
+                STATUS_COMPLETED, response, key, owner, STATUS_PROCESSING) > 0;
+    }
+
+    /**
+     * 处理失败时删除自己持有的处理中记录，客户端可使用同一幂等键重试
+     *
+     * @param key   幂等键
+     * @param owner 处理者标识
+     */
+    public void abandon(String key, String owner) {
+        jdbcTemplate.update(
+                "DELETE FROM stamp_idempotency WHERE idempotency_key = ? AND owner = ? AND status = ?",
+                key, owner, STATUS_PROCESSING);
+    }
+
+    /**
+     * 删除已过期的记录
+     *
+     * @return 删除记录数
+     */
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM stamp_idempotency WHERE expire_time < NOW(3)");
+    }
+
+    private static long toMicros(Duration duration) {
+        return TimeUnit.NANOSECONDS.toMicros(duration.toNanos());
+    }
+
+    /**
+     * 幂等键记录
+     *
+     * @param key          幂等键
+     * @param contractId   合同ID
+     * @param operation    操作类型
+     * @param requestHash  请求体摘要
+     * @param status       状态
+     * @param leaseExpired 处理租约是否已过期（按数据库时钟判断）
+     * @param response     结果 JSON
+     */
+    public record StoredRequest(String key, Long contractId, int operation, String requestHash,
+                                int status, boolean leaseExpired, String response) {
+    }
+}
@@ -0,0 +1,119 @@
+package cn.tcxingji.seal.repository;
+
+import cn.tcxingji.seal.entity.StampJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 异步盖章任务 Repository 接口
+ * <p>
+ * 提供盖章任务的领取、完成和统计操作
+ * </p>
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Repository
+public interface StampJobRepository extends JpaRepository<StampJob, Long> {
+
+    /**
+     * 锁定一批可执行的任务
+     * <p>
+     * 包括到期的排队任务和租约已过期的执行中任务；SKIP LOCKED 跳过其他实例已锁定的行，
+     * 多个实例并发领取互不阻塞。到期判断使用数据库时钟，必须在事务中调用
+     * </p>
+     *
+     * @param limit 最大领取数量
+     * @return 已加锁的任务列表
+     */
+    @Query(value = "SELECT * FROM stamp_job " +
+            "WHERE (status = 0 AND next_run_time <= NOW(3)) OR (status = 1 AND locked_until < NOW(3)) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StampJob> lockClaimable(@Param("limit") int limit);
+
+    /**
+     * 领取已锁定的任务：标记为执行中并设置租约（从当前数据库时间起算）
+     * <p>
+     * 执行前先刷新、执行后清空持久化上下文，调用方此后对任务实体的修改不会再写回数据库
+     * </p>
+     *
+     * @param ids         任务ID列表
+     * @param lockedBy    工作节点
+     * @param leaseMicros 租约时长（微秒）
+     * @return 更新记录数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE stamp_job SET status = 1, attempts = attempts + 1, locked_by = :lockedBy, " +
+            "locked_until = TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(3)), start_time = NOW(3) " +
+            "WHERE id IN (:ids)", nativeQuery = true)
+    int claim(@Param("ids") List<Long> ids, @Param("lockedBy") String lockedBy,
+              @Param("leaseMicros") long leaseMicros);
+
+    /**
+     * 续期执行中任务的租约（仅当任务仍由当前节点持有时生效）
+     *
+     * @param id          任务ID
+     * @param lockedBy    工作节点
+     * @param leaseMicros 租约时长（微秒，从当前数据库时间起算）
+     * @return 更新记录数（0 表示任务已被其他实例重新领取）
+     */
+    @Modifying
+    @Query(value = "UPDATE stamp_job SET locked_until = TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(3)) " +
+            "WHERE id = :id AND locked_by = :lockedBy AND status = 1", nativeQuery = true)
+    int renew(@Param("id") Long id, @Param("lockedBy") String lockedBy, @Param("leaseMicros") long leaseMicros);
+
+    /**
+     * 完成任务（仅当任务仍由当前节点持有时生效，完成时间取数据库时间）
+     *
+     * @param id       任务ID
+     * @param lockedBy 工作节点
+     * @param status   最终状态
+     * @param result   结果 JSON
+     * @param error    失败原因
+     * @return 更新记录数
+     */
+    @Modifying
+    @Query(value = "UPDATE stamp_job SET status = :status, result = :result, error_message = :error, " +
+            "finish_time = NOW(3), locked_until = NULL " +
+            "WHERE id = :id AND locked_by = :lockedBy AND status = 1", nativeQuery = true)
+    int finish(@Param("id") Long id, @Param("lockedBy") String lockedBy, @Param("status") Integer status,
+               @Param("result") String result, @Param("error") String error);
+
+    /**
+     * 任务失败后重新排队（仅当任务仍由当前节点持有时生效）
+     *
+     * @param id            任务ID
+     * @param lockedBy      工作节点
+     * @param error         失败原因
+     * @param backoffMicros 退避时长（微秒，从当前数据库时间起算）
+     * @return 更新记录数
+     */
+    @Modifying
+    @Query(value = "UPDATE stamp_job SET status = 0, error_message = :error, " +
+            "next_run_time = TIMESTAMPADD(MICROSECOND, :backoffMicros, NOW(3)), " +
+            "locked_by = NULL, locked_until = NULL " +
+            "WHERE id = :id AND locked_by = :lockedBy AND status = 1", nativeQuery = true)
+    int requeue(@Param("id") Long id, @Param("lockedBy") String lockedBy, @Param("error") String error,
+                @Param("backoffMicros") long backoffMicros);
+
+    /**
+     * 按状态统计任务数量
+     *
+     * @param status 状态
+     * @return 任务数量
+     */
+    long countByStatus(Integer status);
+
+    /**
+     * 查询合同的任务列表
+     *
+     * @param contractId 合同文件ID
+     * @return 任务列表
+     */
+    List<StampJob> findByContractIdOrderByIdDesc(Long contractId);
+}
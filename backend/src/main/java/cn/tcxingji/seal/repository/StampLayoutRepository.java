@@ -0,0 +1,43 @@
+package cn.tcxingji.seal.repository;
+
+import cn.tcxingji.seal.entity.StampLayout;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 盖章版式 Repository 接口
+ *
+ * @author TC System
+ */
+@Repository
+public interface StampLayoutRepository extends JpaRepository<StampLayout, Long> {
+
+    /**
+     * 查询所有者的版式列表
+     *
+     * @param ownerId 所有者ID
+     * @return 版式列表
+     */
+    List<StampLayout> findByOwnerIdOrderByIdDesc(Long ownerId);
+
+    /**
+     * 检查所有者内版式名称是否已存在
+     *
+     * @param ownerId    所有者ID
+     * @param layoutName 版式名称
+     * @return 是否存在
+     */
+    boolean existsByOwnerIdAndLayoutName(Long ownerId, String layoutName);
+
+    /**
+     * 检查所有者内版式名称是否被其他版式使用
+     *
+     * @param ownerId    所有者ID
+     * @param layoutName 版式名称
+     * @param id         排除的版式ID
+     * @return 是否存在
+     */
+    boolean existsByOwnerIdAndLayoutNameAndIdNot(Long ownerId, String layoutName, Long id);
+}
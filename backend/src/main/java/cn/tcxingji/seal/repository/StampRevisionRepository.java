@@ -0,0 +1,45 @@
+package cn.tcxingji.seal.repository;
+
+import cn.tcxingji.seal.entity.StampRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 盖章修订 Repository 接口
+ *
+ * @author TC System
+ * @since 2026-10-16
+ */
+@Repository
+public interface StampRevisionRepository extends JpaRepository<StampRevision, Long> {
+
+    /**
+     * 查询合同最新的修订（含已撤销，用于分配修订序号）
+     *
+     * @param contractId 合同ID
+     * @return 最新修订
+     */
+    Optional<StampRevision> findFirstByContractIdOrderByRevisionNoDesc(Long contractId);
+
+    /**
+     * 查询合同最新的指定状态修订
+     *
+     * @param contractId 合同ID
+     * @param status     状态
+     * @return 最新修订
+     */
+    Optional<StampRevision> findFirstByContractIdAndStatusOrderByRevisionNoDesc(Long contractId, Integer status);
+
+    /**
+     * 查询合同在指定序号之前最新的指定状态修订
+     *
+     * @param contractId 合同ID
+     * @param status     状态
+     * @param revisionNo 修订序号（不含）
+     * @return 修订
+     */
+    Optional<StampRevision> findFirstByContractIdAndStatusAndRevisionNoLessThanOrderByRevisionNoDesc(
+            Long contractId, Integer status, Integer revisionNo);
+}
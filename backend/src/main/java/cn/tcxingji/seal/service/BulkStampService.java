@@ -0,0 +1,40 @@
+package cn.tcxingji.seal.service;
+
+import cn.tcxingji.seal.dto.request.BulkSealRequest;
+import cn.tcxingji.seal.dto.request.BulkSignRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 多合同批量盖章服务接口
+ * <p>
+ * 使用同一印章为多份合同盖章，在有界线程池中并行处理，逐份推送结果
+ * </p>
+ *
+ * @author TC System
+ */
+public interface BulkStampService {
+
+    /**
+     * 多合同批量盖章
+     * <p>
+     * 合同范围和印章在返回前校验；之后每完成一份合同推送一个 item 事件，
+     * 全部完成后推送 done 事件并关闭连接。每份合同独立提交，单份失败不影响其他合同
+     * </p>
+     *
+     * @param request 批量盖章请求
+     * @return SSE 事件流
+     */
+    SseEmitter bulkStamp(BulkSealRequest request);
+
+    /**
+     * 多合同批量数字签名（PAdES-B）
+     * <p>
+     * 合同范围在返回前校验，私钥只解锁一次；各合同在签名线程池中并行计算摘要和签名，
+     * 事件格式与批量盖章相同。每份合同独立提交，单份失败不影响其他合同
+     * </p>
+     *
+     * @param request 批量签名请求
+     * @return SSE 事件流
+     */
+    SseEmitter bulkSign(BulkSignRequest request);
+}
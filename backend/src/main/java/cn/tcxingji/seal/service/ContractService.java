@@ -5,10 +5,14 @@ import cn.tcxingji.seal.dto.request.ContractUploadRequest;
 import cn.tcxingji.seal.dto.response.ContractPreviewResponse;
 import cn.tcxingji.seal.dto.response.ContractResponse;
 import cn.tcxingji.seal.dto.response.PageResponse;
+import cn.tcxingji.seal.dto.response.SaveBenchmarkResponse;
+import cn.tcxingji.seal.dto.response.SigningBenchmarkResponse;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 合同服务接口
@@ -71,6 +75,18 @@ public interface ContractService {
      */
     ContractPreviewResponse previewPage(Long id, int page);
 
+    /**
+     * 获取单页的页面预览图缓存文件
+     * <p>
+     * 已签章的合同返回签章后 PDF 的预览图；预览图尚未生成（或签章后已清理）时渲染一次后缓存
+     * </p>
+     *
+     * @param id   合同ID
+     * @param page 页码（从1开始）
+     * @return 预览图文件及访问 URL
+     */
+    PageImage previewPageImage(Long id, int page);
+
     /**
      * 删除合同
      *
@@ -95,4 +111,54 @@ public interface ContractService {
      * @return 文件资源
      */
     Resource download(Long id, boolean downloadSigned);
+
+    /**
+     * 保存方案基准测试
+     * <p>
+     * 以合同当前版本（已签章时为签章后文件）为样本，对比增量更新、完整重写及其压缩方案的输出大小和写出耗时，
+     * 不修改合同文件
+     * </p>
+     *
+     * @param id         合同ID
+     * @param iterations 每个方案的测量次数
+     * @return 测试结果
+     */
+    SaveBenchmarkResponse benchmarkSaveProfiles(Long id, int iterations);
+
+    /**
+     * 数字签名基准测试
+     * <p>
+     * 以合同当前版本为样本，在指定线程数下并行签名多份副本，统计吞吐量、每核吞吐量和 P99 耗时，
+     * 不修改合同文件
+     * </p>
+     *
+     * @param id        合同ID
+     * @param documents 签名份数
+     * @param threads   并行线程数（不大于 0 时为 CPU 核数）
+     * @return 测试结果
+     */
+    SigningBenchmarkResponse benchmarkSigning(Long id, int documents, int threads);
+
+    /**
+     * 签章后刷新签章预览图缓存
+     * <p>
+     * 只删除本次盖章涉及页面的签章预览图，并在后台重新渲染这些页面；未涉及的页面保留已有的签章预览图。
+     * 签章后 PDF 由原始 PDF 重新生成时（首次签章、批量盖章、骑缝章），先清空签章预览图，
+     * 再将未涉及页面硬链接到原始预览图，不重新渲染
+     * </p>
+     *
+     * @param id           合同ID
+     * @param touchedPages 本次盖章涉及的页码
+     * @param rebased      签章后 PDF 是否由原始 PDF 生成
+     */
+    void refreshSignedPreview(Long id, Set<Integer> touchedPages, boolean rebased);
+
+    /**
+     * 页面预览图
+     *
+     * @param path 缓存文件路径
+     * @param url  访问 URL
+     */
+    record PageImage(Path path, String url) {
+    }
 }
@@ -2,8 +2,18 @@ package cn.tcxingji.seal.service;
 
 import cn.tcxingji.seal.dto.request.ContractSealRequest;
 import cn.tcxingji.seal.dto.request.PerforationSealRequest;
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.dto.request.SealSpaceSuggestRequest;
+import cn.tcxingji.seal.dto.request.StampLayoutApplyRequest;
+import cn.tcxingji.seal.dto.request.StampPreviewRequest;
+import cn.tcxingji.seal.dto.request.StampWorkspaceOpenRequest;
 import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.dto.response.SealPlacementResponse;
 import cn.tcxingji.seal.dto.response.SealRecordResponse;
+import cn.tcxingji.seal.dto.response.StampPreviewResponse;
+import cn.tcxingji.seal.dto.response.StampUndoResponse;
+import cn.tcxingji.seal.signing.SigningKeyStore;
+import cn.tcxingji.seal.workspace.StampWorkspace;
 
 import java.util.List;
 
@@ -32,7 +42,7 @@ public interface SealStampService {
     /**
      * 批量盖章
      * <p>
-     * 使用多个印章在多个位置盖章
+     * 使用多个印章/个人签名（可混合）在多个位置盖章，所有请求校验通过后一次性写入 PDF
      * </p>
      *
      * @param contractId 合同ID
@@ -41,6 +51,32 @@ public interface SealStampService {
      */
     ContractSealResponse batchStamp(Long contractId, List<ContractSealRequest> requests);
 
+    /**
+     * 按盖章版式盖章
+     * <p>
+     * 盖章位置取自已校验并缓存的版式，按合同页数展开后直接绘制，不再逐个解析和校验位置参数；
+     * 在已签章的 PDF 上累加，所有绑定角色一次性写入
+     * </p>
+     *
+     * @param contractId 合同ID
+     * @param request    版式盖章请求
+     * @return 盖章响应
+     */
+    ContractSealResponse applyLayout(Long contractId, StampLayoutApplyRequest request);
+
+    /**
+     * 盖章预览
+     * <p>
+     * 将缩放后的印章/签名图片合成到已缓存的页面预览图上，只返回盖章区域的图块；
+     * 不加载 PDF、不写文件、不修改数据库
+     * </p>
+     *
+     * @param contractId 合同ID
+     * @param request    盖章预览请求
+     * @return 预览响应
+     */
+    StampPreviewResponse previewStamp(Long contractId, StampPreviewRequest request);
+
     /**
      * 获取合同的签章记录
      *
@@ -49,6 +85,56 @@ public interface SealStampService {
      */
     List<SealRecordResponse> getRecords(Long contractId);
 
+    /**
+     * 查询页面上的已盖章位置（用于页面叠加层）
+     * <p>
+     * 从已盖章位置索引读取有效签章，指定区域时只返回与区域相交的签章
+     * </p>
+     *
+     * @param contractId 合同ID
+     * @param pageNumber 页码
+     * @param region     查询区域（可选，使用其 x/y/width/height）
+     * @return 签章位置列表
+     */
+    List<SealPlacementResponse> getPlacements(Long contractId, Integer pageNumber, SealPositionRequest region);
+
+    /**
+     * 建议页面上可放下指定尺寸印章的空位
+     *
+     * @param contractId 合同ID
+     * @param request    空位建议请求
+     * @return 建议位置（按与期望位置的距离由近到远）
+     */
+    List<SealPlacementResponse> suggestPlacements(Long contractId, SealSpaceSuggestRequest request);
+
+    /**
+     * 对合同当前版本进行数字签名（PAdES-B）
+     * <p>
+     * 在合同锁内以增量更新追加签名，作为一个不含签章记录的修订提交（可撤销）；之后的盖章也只追加增量更新，
+     * 签名覆盖的字节保持不变
+     * </p>
+     *
+     * @param contractId 合同ID
+     * @param credential 已解锁的签名凭据
+     * @param signerName 签名人名称（为空时使用证书主题）
+     * @return 签名响应
+     */
+    ContractSealResponse digitalSign(Long contractId, SigningKeyStore.Credential credential, String signerName);
+
+    /**
+     * 撤销最近一次盖章
+     * <p>
+     * 最近一次盖章是在上一版签章后文件上追加的增量更新时，把签章后文件截断到上一版的字节长度；
+     * 否则指回盖章前的签章后文件（首次盖章则恢复为未签章）。该次盖章的签章记录标记为已撤销，
+     * 只重新生成受影响页面的预览图
+     * </p>
+     *
+     * @param contractId       合同ID
+     * @param expectedRevision 预期撤销的修订序号（可选；与最近一次有效修订不一致时拒绝，避免重复提交撤销多次）
+     * @return 撤销结果
+     */
+    StampUndoResponse undoLastStamp(Long contractId, Integer expectedRevision);
+
     /**
      * 添加骑缝章
      * <p>
@@ -60,4 +146,86 @@ public interface SealStampService {
      * @return 盖章响应
      */
     ContractSealResponse perforationStamp(Long contractId, PerforationSealRequest request);
+
+    /**
+     * 准备签署方的签章
+     * <p>
+     * 校验合同、位置和印章/签名，解析锚点并预编码图片；不加载 PDF、不加合同锁，多个签署方可并行准备
+     * </p>
+     *
+     * @param contractId 合同ID
+     * @param request    盖章请求
+     * @return 锚点已解析为坐标的盖章请求
+     */
+    ContractSealRequest prepareSigner(Long contractId, ContractSealRequest request);
+
+    /**
+     * 合并多个签署方的签章
+     * <p>
+     * 在一次合同锁内，以当前签章后 PDF（或原始 PDF）为基准，一次加载、一次保存写入所有签署方的签章
+     * （同属一个增量更新），所有签章记录一次写入
+     * </p>
+     *
+     * @param contractId 合同ID
+     * @param signers    已准备的盖章请求（按合并顺序）
+     * @param onCommit   在保存签章记录的同一事务中执行（可为空；抛出异常时本次合并回滚，不留下签章）
+     * @return 盖章响应
+     */
+    ContractSealResponse mergeSigners(Long contractId, List<ContractSealRequest> signers, Runnable onCommit);
+
+    /**
+     * 打开盖章工作区
+     * <p>
+     * 校验合同，加载印章所有者和签名用户名下已启用的印章/签名，并在内存预算内打开合同当前版本的文档
+     * </p>
+     *
+     * @param request 打开请求
+     * @return 工作区（调用方负责登记和关闭）
+     */
+    StampWorkspace openWorkspace(StampWorkspaceOpenRequest request);
+
+    /**
+     * 在工作区内盖章
+     * <p>
+     * 只在内存中的文档上绘制，不写文件、不访问数据库；绘制前与打开时的已有签章和本工作区先前的盖章做重叠检测；
+     * 须在 {@link StampWorkspace#execute} 内调用
+     * </p>
+     *
+     * @param workspace 工作区
+     * @param request   盖章请求
+     * @return 锚点已解析为坐标的盖章请求
+     */
+    ContractSealRequest placeInWorkspace(StampWorkspace workspace, ContractSealRequest request);
+
+    /**
+     * 提交工作区
+     * <p>
+     * 在合同锁内校验合同版本未变、印章/签名仍启用，将内存中的文档一次写出为签章后文件，并保存所有签章记录；
+     * 须在 {@link StampWorkspace#execute} 内调用
+     * </p>
+     *
+     * @param workspace 工作区
+     * @return 盖章响应
+     */
+    ContractSealResponse commitWorkspace(StampWorkspace workspace);
+
+    /**
+     * 预加载盖章图片
+     * <p>
+     * 校验印章/签名状态并将图片预编码到缓存，供批量处理多份合同前调用
+     * </p>
+     *
+     * @param request 盖章请求
+     */
+    void preloadStampImage(ContractSealRequest request);
+
+    /**
+     * 预加载版式盖章图片
+     * <p>
+     * 校验版式、角色绑定和印章/签名状态，并按版式中各角色的盖章尺寸预编码图片，供批量处理多份合同前调用
+     * </p>
+     *
+     * @param request 版式盖章请求
+     */
+    void preloadLayout(StampLayoutApplyRequest request);
 }
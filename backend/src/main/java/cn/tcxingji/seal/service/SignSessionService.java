@@ -0,0 +1,63 @@
+package cn.tcxingji.seal.service;
+
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.SignSessionCreateRequest;
+import cn.tcxingji.seal.dto.response.SignSessionResponse;
+
+import java.util.List;
+
+/**
+ * 多方签署会话服务接口
+ * <p>
+ * 多个签署方对同一合同签署时，各自提交的签章只做校验、锚点定位和图片预编码，互不等待；
+ * 全部签署方就绪（或手动完成）后，在一次合同锁内按提交顺序合并为一个增量更新
+ * </p>
+ *
+ * @author TC System
+ */
+public interface SignSessionService {
+
+    /**
+     * 创建签署会话
+     *
+     * @param request 创建请求
+     * @return 会话响应
+     */
+    SignSessionResponse create(SignSessionCreateRequest request);
+
+    /**
+     * 提交签署方签章
+     * <p>
+     * 最后一个预期签署方提交后自动合并，响应中返回合并结果
+     * </p>
+     *
+     * @param sessionId 会话ID
+     * @param request   盖章请求
+     * @return 会话响应
+     */
+    SignSessionResponse addSigner(Long sessionId, ContractSealRequest request);
+
+    /**
+     * 以已提交的签署方完成会话（合并失败后也可调用重试）
+     *
+     * @param sessionId 会话ID
+     * @return 会话响应
+     */
+    SignSessionResponse complete(Long sessionId);
+
+    /**
+     * 查询会话
+     *
+     * @param sessionId 会话ID
+     * @return 会话响应
+     */
+    SignSessionResponse getSession(Long sessionId);
+
+    /**
+     * 查询合同的签署会话
+     *
+     * @param contractId 合同ID
+     * @return 会话列表
+     */
+    List<SignSessionResponse> getSessionsByContract(Long contractId);
+}
@@ -0,0 +1,74 @@
+package cn.tcxingji.seal.service;
+
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.PerforationSealRequest;
+import cn.tcxingji.seal.dto.response.StampJobResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * 异步盖章任务服务接口
+ * <p>
+ * 盖章请求写入任务表后立即返回任务ID，由工作线程异步执行；
+ * 客户端可轮询任务状态或通过 SSE 订阅完成通知
+ * </p>
+ *
+ * @author TC System
+ */
+public interface StampJobService {
+
+    /**
+     * 提交普通盖章任务
+     *
+     * @param contractId 合同ID
+     * @param request    盖章请求
+     * @return 任务响应
+     */
+    StampJobResponse submitStamp(Long contractId, ContractSealRequest request);
+
+    /**
+     * 提交批量盖章任务
+     *
+     * @param contractId 合同ID
+     * @param requests   盖章请求列表
+     * @return 任务响应
+     */
+    StampJobResponse submitBatch(Long contractId, List<ContractSealRequest> requests);
+
+    /**
+     * 提交骑缝章任务
+     *
+     * @param contractId 合同ID
+     * @param request    骑缝章请求
+     * @return 任务响应
+     */
+    StampJobResponse submitPerforation(Long contractId, PerforationSealRequest request);
+
+    /**
+     * 查询任务状态
+     *
+     * @param jobId 任务ID
+     * @return 任务响应
+     */
+    StampJobResponse getJob(Long jobId);
+
+    /**
+     * 查询合同的任务列表
+     *
+     * @param contractId 合同ID
+     * @return 任务列表
+     */
+    List<StampJobResponse> getJobsByContract(Long contractId);
+
+    /**
+     * 订阅任务状态（SSE）
+     * <p>
+     * 订阅后立即推送当前状态，任务结束时推送最终状态并关闭连接
+     * </p>
+     *
+     * @param jobId 任务ID
+     * @return SSE 发射器
+     */
+    SseEmitter subscribe(Long jobId);
+}
@@ -0,0 +1,66 @@
+package cn.tcxingji.seal.service;
+
+import cn.tcxingji.seal.dto.request.StampLayoutRequest;
+import cn.tcxingji.seal.dto.response.StampLayoutResponse;
+
+import java.util.List;
+
+/**
+ * 盖章版式服务接口
+ * <p>
+ * 管理可复用的盖章版式，保存时按参考页面尺寸校验一次，盖章时直接使用缓存的编译结果
+ * </p>
+ *
+ * @author TC System
+ */
+public interface StampLayoutService {
+
+    /**
+     * 创建版式
+     *
+     * @param request 创建请求
+     * @return 版式响应
+     */
+    StampLayoutResponse create(StampLayoutRequest request);
+
+    /**
+     * 更新版式（整体替换条目）
+     *
+     * @param id      版式ID
+     * @param request 更新请求
+     * @return 版式响应
+     */
+    StampLayoutResponse update(Long id, StampLayoutRequest request);
+
+    /**
+     * 获取版式详情
+     *
+     * @param id 版式ID
+     * @return 版式响应
+     */
+    StampLayoutResponse getById(Long id);
+
+    /**
+     * 获取所有者的版式列表
+     *
+     * @param ownerId 所有者ID
+     * @return 版式列表
+     */
+    List<StampLayoutResponse> listByOwner(Long ownerId);
+
+    /**
+     * 更新版式状态（启用/禁用）
+     *
+     * @param id     版式ID
+     * @param status 新状态（0-禁用 1-启用）
+     * @return 版式响应
+     */
+    StampLayoutResponse updateStatus(Long id, Integer status);
+
+    /**
+     * 删除版式
+     *
+     * @param id 版式ID
+     */
+    void delete(Long id);
+}
@@ -0,0 +1,60 @@
+package cn.tcxingji.seal.service;
+
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.StampWorkspaceOpenRequest;
+import cn.tcxingji.seal.dto.response.StampWorkspaceResponse;
+
+/**
+ * 盖章工作区服务接口
+ * <p>
+ * 操作人逐个放置印章时，合同文档和可用印章/签名只在打开工作区时加载一次，
+ * 每次盖章只修改内存中的文档，提交时一次写出签章后文件并保存所有签章记录
+ * </p>
+ *
+ * @author TC System
+ */
+public interface StampWorkspaceService {
+
+    /**
+     * 打开工作区
+     *
+     * @param request 打开请求
+     * @return 工作区响应
+     */
+    StampWorkspaceResponse open(StampWorkspaceOpenRequest request);
+
+    /**
+     * 在工作区内盖章
+     *
+     * @param workspaceId 工作区ID
+     * @param request     盖章请求
+     * @return 工作区响应（含本次盖章的位置）
+     */
+    StampWorkspaceResponse place(String workspaceId, ContractSealRequest request);
+
+    /**
+     * 提交工作区
+     * <p>
+     * 成功后工作区关闭；合同已被修改或写出失败时工作区也会关闭，需要重新打开
+     * </p>
+     *
+     * @param workspaceId 工作区ID
+     * @return 工作区响应（含提交结果）
+     */
+    StampWorkspaceResponse commit(String workspaceId);
+
+    /**
+     * 丢弃工作区（不写文件、不保存签章记录）
+     *
+     * @param workspaceId 工作区ID
+     */
+    void discard(String workspaceId);
+
+    /**
+     * 查询工作区
+     *
+     * @param workspaceId 工作区ID
+     * @return 工作区响应
+     */
+    StampWorkspaceResponse getWorkspace(String workspaceId);
+}
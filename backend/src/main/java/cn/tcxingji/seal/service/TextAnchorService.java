@@ -0,0 +1,42 @@
+package cn.tcxingji.seal.service;
+
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.entity.ContractFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 文本锚点定位服务接口
+ * <p>
+ * 维护合同的文本位置索引，并将按锚点文本指定的盖章位置解析为页码和坐标
+ * </p>
+ *
+ * @author TC System
+ */
+public interface TextAnchorService {
+
+    /**
+     * 为合同文件构建文本位置索引并保存在文件旁
+     *
+     * @param pdfPath  合同文件路径
+     * @param document 已打开的合同文档
+     * @return 索引文件路径
+     */
+    Path buildIndex(Path pdfPath, PDDocument document) throws IOException;
+
+    /**
+     * 解析锚点定位
+     * <p>
+     * 返回新的位置列表：指定了锚点的位置替换为带页码和坐标的副本，其余位置原样返回；
+     * 不修改传入的请求对象（批量盖章时多份合同共享同一请求）
+     * </p>
+     *
+     * @param contract  合同
+     * @param positions 盖章位置
+     * @return 解析后的盖章位置
+     */
+    List<SealPositionRequest> resolveAnchors(ContractFile contract, List<SealPositionRequest> positions);
+}
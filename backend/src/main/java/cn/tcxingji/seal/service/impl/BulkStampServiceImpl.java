@@ -0,0 +1,269 @@
+package cn.tcxingji.seal.service.impl;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.BulkSealRequest;
+import cn.tcxingji.seal.dto.request.BulkSignRequest;
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.StampLayoutApplyRequest;
+import cn.tcxingji.seal.dto.response.BulkSealItemResponse;
+import cn.tcxingji.seal.dto.response.BulkSealSummaryResponse;
+import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.entity.ContractFile;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.repository.ContractFileRepository;
+import cn.tcxingji.seal.service.BulkStampService;
+import cn.tcxingji.seal.service.SealStampService;
+import cn.tcxingji.seal.signing.SigningKeyStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 多合同批量盖章服务实现类
+ * <p>
+ * 每份合同调用 {@link SealStampService#stamp}（或按版式调用 {@link SealStampService#applyLayout}）
+ * 在独立事务中完成；印章图片在开始前预编码，
+ * 所有合同复用同一份缓存图片。批量数字签名开始前解锁一次私钥，各合同在独立的签名线程池中并行计算摘要和签名
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Service
+public class BulkStampServiceImpl implements BulkStampService {
+
+    private final ContractFileRepository contractFileRepository;
+    private final SealStampService sealStampService;
+    private final StampConfig stampConfig;
+    private final SigningKeyStore signingKeyStore;
+
+    /**
+     * 批量盖章线程池（所有批量请求共享，限制并行度）
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 批量签名线程池（签名以摘要和私钥运算为主，默认按 CPU 核数并行）
+     */
+    private final ExecutorService signingExecutor;
+
+    public BulkStampServiceImpl(ContractFileRepository contractFileRepository,
+                                SealStampService sealStampService,
+                                StampConfig stampConfig,
+                                SigningKeyStore signingKeyStore) {
+        this.contractFileRepository = contractFileRepository;
+        this.sealStampService = sealStampService;
+        this.stampConfig = stampConfig;
+        this.signingKeyStore = signingKeyStore;
+
+        this.executor = newPool("bulk-stamp-", Math.max(1, stampConfig.getBulk().getThreads()));
+        int signingThreads = stampConfig.getSigning().getThreads();
+        this.signingExecutor = newPool("bulk-sign-",
+                signingThreads > 0 ? signingThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public SseEmitter bulkStamp(BulkSealRequest request) {
+        // 1. 确定合同范围
+        List<Long> contractIds = resolveContractIds(request);
+        if (contractIds.isEmpty()) {
+            throw new BusinessException("没有需要盖章的合同");
+        }
+        int maxContracts = stampConfig.getBulk().getMaxContracts();
+        if (contractIds.size() > maxContracts) {
+            throw new BusinessException(String.format("单次最多处理 %d 份合同，当前 %d 份",
+                    maxContracts, contractIds.size()));
+        }
+
+        // 2. 校验印章（或版式）并预编码图片，印章不可用时直接失败而不是逐份失败
+        ContractSealRequest sealRequest = request.getSealRequest();
+        StampLayoutApplyRequest layoutRequest = request.getLayoutRequest();
+        if ((sealRequest == null) == (layoutRequest == null)) {
+            throw new BusinessException("盖章请求和版式盖章请求必须且只能指定一个");
+        }
+        Function<Long, ContractSealResponse> action;
+        if (layoutRequest != null) {
+            sealStampService.preloadLayout(layoutRequest);
+            action = contractId -> sealStampService.applyLayout(contractId, layoutRequest);
+            log.info("开始多合同版式盖章: contracts={}, layoutId={}, roles={}",
+                    contractIds.size(), layoutRequest.getLayoutId(), layoutRequest.getBindings().size());
+        } else {
+            sealStampService.preloadStampImage(sealRequest);
+            action = contractId -> sealStampService.stamp(contractId, sealRequest);
+            log.info("开始多合同批量盖章: contracts={}, sealId={}, signatureId={}",
+                    contractIds.size(), sealRequest.getSealId(), sealRequest.getSignatureId());
+        }
+
+        // 3. 提交到线程池并逐份推送结果
+        SseEmitter emitter = new SseEmitter(stampConfig.getBulk().getSseTimeout().toMillis());
+        new BulkRun("批量盖章", executor, emitter, contractIds, action).start();
+        return emitter;
+    }
+
+    @Override
+    public SseEmitter bulkSign(BulkSignRequest request) {
+        // 1. 确定合同范围
+        List<Long> contractIds = resolveContractIds(request.getContractIds(), request.getOwnerId(),
+                request.getStatus() != null ? request.getStatus() : ContractFile.Status.SIGNED);
+        if (contractIds.isEmpty()) {
+            throw new BusinessException("没有需要签名的合同");
+        }
+        int maxContracts = stampConfig.getSigning().getMaxContracts();
+        if (contractIds.size() > maxContracts) {
+            throw new BusinessException(String.format("单次最多签名 %d 份合同，当前 %d 份",
+                    maxContracts, contractIds.size()));
+        }
+
+        // 2. 解锁一次私钥，所有合同共用；密钥库不可用时直接失败而不是逐份失败
+        SigningKeyStore.Credential credential = signingKeyStore.unlock();
+        log.info("开始多合同批量签名: contracts={}, algorithm={}", contractIds.size(), credential.signatureAlgorithm());
+
+        // 3. 提交到签名线程池并逐份推送结果
+        SseEmitter emitter = new SseEmitter(stampConfig.getBulk().getSseTimeout().toMillis());
+        new BulkRun("批量签名", signingExecutor, emitter, contractIds,
+                contractId -> sealStampService.digitalSign(contractId, credential, request.getSignerName())).start();
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        signingExecutor.shutdownNow();
+    }
+
+    private static ExecutorService newPool(String namePrefix, int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 解析合同ID列表（去重并保持顺序）
+     */
+    private List<Long> resolveContractIds(BulkSealRequest request) {
+        return resolveContractIds(request.getContractIds(), request.getOwnerId(),
+                request.getStatus() != null ? request.getStatus() : ContractFile.Status.PENDING);
+    }
+
+    private List<Long> resolveContractIds(List<Long> contractIds, Long ownerId, int status) {
+        if (contractIds != null && !contractIds.isEmpty()) {
+            return new ArrayList<>(new LinkedHashSet<>(contractIds));
+        }
+        if (ownerId == null) {
+            throw new BusinessException("合同ID列表和所有者ID不能同时为空");
+        }
+        return contractFileRepository.findByOwnerIdAndStatus(ownerId, status).stream()
+                .map(ContractFile::getId)
+                .toList();
+    }
+
+    /**
+     * 单次批量盖章的执行状态
+     */
+    private static class BulkRun {
+
+        private final String name;
+        private final ExecutorService executor;
+        private final SseEmitter emitter;
+        private final List<Long> contractIds;
+        private final Function<Long, ContractSealResponse> action;
+        private final long startTime = System.currentTimeMillis();
+
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger successCount = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Long> failedIds = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 客户端是否已断开（断开后继续盖章，仅停止推送）
+         */
+        private final AtomicBoolean disconnected = new AtomicBoolean();
+
+        BulkRun(String name, ExecutorService executor, SseEmitter emitter, List<Long> contractIds,
+                Function<Long, ContractSealResponse> action) {
+            this.name = name;
+            this.executor = executor;
+            this.emitter = emitter;
+            this.contractIds = contractIds;
+            this.action = action;
+            emitter.onTimeout(() -> disconnected.set(true));
+            emitter.onError(e -> disconnected.set(true));
+        }
+
+        void start() {
+            for (Long contractId : contractIds) {
+                executor.execute(() -> stampOne(contractId));
+            }
+        }
+
+        private void stampOne(Long contractId) {
+            long begin = System.currentTimeMillis();
+            BulkSealItemResponse.BulkSealItemResponseBuilder item = BulkSealItemResponse.builder()
+                    .contractId(contractId)
+                    .total(contractIds.size());
+            try {
+                ContractSealResponse result = action.apply(contractId);
+                successCount.incrementAndGet();
+                item.success(true).result(result);
+            } catch (BusinessException e) {
+                failedIds.add(contractId);
+                item.success(false).errorMessage(e.getMessage());
+                log.warn("{}单份失败: contractId={}, reason={}", name, contractId, e.getMessage());
+            } catch (Exception e) {
+                failedIds.add(contractId);
+                item.success(false).errorMessage(name + "失败: " + e.getMessage());
+                log.error("{}单份异常: contractId={}", name, contractId, e);
+            }
+
+            int done = completed.incrementAndGet();
+            send("item", item.costMs(System.currentTimeMillis() - begin).completed(done).build());
+            if (done == contractIds.size()) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            BulkSealSummaryResponse summary = BulkSealSummaryResponse.builder()
+                    .total(contractIds.size())
+                    .successCount(successCount.get())
+                    .failedCount(failedIds.size())
+                    .failedContractIds(new ArrayList<>(failedIds))
+                    .costMs(System.currentTimeMillis() - startTime)
+                    .build();
+            log.info("多合同{}完成: total={}, success={}, failed={}, costMs={}", name,
+                    summary.getTotal(), summary.getSuccessCount(), summary.getFailedCount(), summary.getCostMs());
+            send("done", summary);
+            if (!disconnected.get()) {
+                emitter.complete();
+            }
+        }
+
+        private void send(String event, Object data) {
+            if (disconnected.get()) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data));
+            } catch (IOException | IllegalStateException e) {
+                disconnected.set(true);
+                log.warn("{}客户端已断开，继续处理剩余合同: completed={}/{}",
+                        name, completed.get(), contractIds.size());
+            }
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package cn.tcxingji.seal.service.impl;
 
 import cn.tcxingji.seal.config.FileUploadConfig;
+import cn.tcxingji.seal.config.StampConfig;
 import cn.tcxingji.seal.dto.request.ContractQueryRequest;
 import cn.tcxingji.seal.dto.request.ContractUploadRequest;
 import cn.tcxingji.seal.dto.response.ContractPreviewResponse;
 import cn.tcxingji.seal.dto.response.ContractResponse;
 import cn.tcxingji.seal.dto.response.PageResponse;
+import cn.tcxingji.seal.dto.response.SaveBenchmarkResponse;
+import cn.tcxingji.seal.dto.response.SigningBenchmarkResponse;
 import cn.tcxingji.seal.entity.ContractFile;
 import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.pdf.PdfDocumentLease;
+import cn.tcxingji.seal.pdf.PdfMemoryGovernor;
+import cn.tcxingji.seal.pdf.SaveProfileBenchmark;
+import cn.tcxingji.seal.signing.SigningBenchmark;
 import cn.tcxingji.seal.repository.ContractFileRepository;
 import cn.tcxingji.seal.service.ContractService;
-import lombok.RequiredArgsConstructor;
+import cn.tcxingji.seal.service.TextAnchorService;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
@@ -35,6 +42,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
@@ -42,7 +50,15 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * 合同服务实现类
@@ -54,11 +70,20 @@ import java.util.UUID;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ContractServiceImpl implements ContractService {
 
     private final ContractFileRepository contractFileRepository;
     private final FileUploadConfig fileUploadConfig;
+    private final PdfMemoryGovernor pdfMemoryGovernor;
+    private final TextAnchorService textAnchorService;
+    private final SaveProfileBenchmark saveProfileBenchmark;
+    private final SigningBenchmark signingBenchmark;
+    private final StampConfig stampConfig;
+
+    /**
+     * 签章后预览图后台渲染线程池
+     */
+    private final ExecutorService previewRenderer;
 
     /**
      * 允许的文件类型
@@ -71,9 +96,9 @@ public class ContractServiceImpl implements ContractService {
     private static final long MAX_FILE_SIZE = 50 * 1024 * 1024;
 
     /**
-     * 预览图 DPI
+     * 预览图文件名（page_页码.png）
      */
-    private static final float PREVIEW_DPI = 150f;
+    private static final Pattern PREVIEW_IMAGE_NAME = Pattern.compile("page_(\\d+)\\.png");
 
     /**
      * 预览生成结果（内部类）
@@ -94,8 +119,36 @@ public class ContractServiceImpl implements ContractService {
         private int imageHeight;
     }
 
+    public ContractServiceImpl(ContractFileRepository contractFileRepository,
+                               FileUploadConfig fileUploadConfig,
+                               PdfMemoryGovernor pdfMemoryGovernor,
+                               TextAnchorService textAnchorService,
+                               SaveProfileBenchmark saveProfileBenchmark,
+                               SigningBenchmark signingBenchmark,
+                               StampConfig stampConfig) {
+        this.contractFileRepository = contractFileRepository;
+        this.fileUploadConfig = fileUploadConfig;
+        this.pdfMemoryGovernor = pdfMemoryGovernor;
+        this.textAnchorService = textAnchorService;
+        this.saveProfileBenchmark = saveProfileBenchmark;
+        this.signingBenchmark = signingBenchmark;
+        this.stampConfig = stampConfig;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.previewRenderer = Executors.newFixedThreadPool(
+                Math.max(1, stampConfig.getPreview().getRenderThreads()), runnable -> {
+                    Thread thread = new Thread(runnable, "preview-render-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        previewRenderer.shutdownNow();
+    }
+
     @Override
-    @Transactional
     public ContractResponse upload(MultipartFile file, ContractUploadRequest request) {
         // 1. 验证文件
         validateFile(file);
@@ -121,8 +174,9 @@ public class ContractServiceImpl implements ContractService {
         String originalName = file.getOriginalFilename();
         Path savedPath = saveFile(fileBytes);
 
-        // 6. 读取 PDF 页数
-        int pageCount = getPdfPageCount(savedPath);
+        // 6. 读取 PDF 页数并构建文本位置索引（锚点定位）
+        PdfInspection inspection = inspectPdf(savedPath);
+        int pageCount = inspection.pageCount();
 
         // 7. 创建数据库记录
         // 如果用户没有填写合同名称，则使用原始文件名（去掉扩展名）
@@ -138,6 +192,7 @@ public class ContractServiceImpl implements ContractService {
                 .contractName(contractName)
                 .fileName(originalName)
                 .originalPath(savedPath.toString())
+                .textIndexPath(inspection.textIndexPath())
                 .fileSize(file.getSize())
                 .pageCount(pageCount)
                 .fileHash(fileHash)
@@ -291,6 +346,20 @@ public class ContractServiceImpl implements ContractService {
                 .build();
     }
 
+    @Override
+    public PageImage previewPageImage(Long id, int page) {
+        ContractFile contractFile = findContractOrThrow(id);
+        boolean isSigned = contractFile.getSignedPath() != null && !contractFile.getSignedPath().isEmpty();
+        String subDir = isSigned ? "signed" : "original";
+        String imageName = previewImageName(page);
+        Path imagePath = previewDir(id, subDir).resolve(imageName);
+        if (!Files.exists(imagePath)) {
+            // 预览图尚未生成（或签章后已清理），渲染一次后缓存，后续直接复用
+            previewPage(id, page);
+        }
+        return new PageImage(imagePath, previewUrl(id, subDir, imageName));
+    }
+
     @Override
     @Transactional
     public void delete(Long id) {
@@ -298,6 +367,9 @@ public class ContractServiceImpl implements ContractService {
 
         // 删除物理文件
         deletePhysicalFile(contractFile.getOriginalPath());
+        if (contractFile.getTextIndexPath() != null) {
+            deletePhysicalFile(contractFile.getTextIndexPath());
+        }
         if (contractFile.getSignedPath() != null) {
             deletePhysicalFile(contractFile.getSignedPath());
         }
@@ -348,6 +420,108 @@ public class ContractServiceImpl implements ContractService {
         }
     }
 
+    @Override
+    public SaveBenchmarkResponse benchmarkSaveProfiles(Long id, int iterations) {
+        ContractFile contractFile = findContractOrThrow(id);
+        String pathToUse = (contractFile.getSignedPath() != null && !contractFile.getSignedPath().isEmpty())
+                ? contractFile.getSignedPath()
+                : contractFile.getOriginalPath();
+        Path filePath = Paths.get(pathToUse);
+        if (!Files.exists(filePath)) {
+            throw new BusinessException("文件不存在: " + pathToUse);
+        }
+
+        SaveProfileBenchmark.Report report;
+        try {
+            report = saveProfileBenchmark.run(filePath, iterations);
+        } catch (IOException e) {
+            log.error("保存方案基准测试失败: id={}", id, e);
+            throw new BusinessException("保存方案基准测试失败: " + e.getMessage());
+        }
+
+        List<SaveBenchmarkResponse.ProfileResult> profiles = report.results().stream()
+                .map(result -> SaveBenchmarkResponse.ProfileResult.builder()
+                        .name(result.profile().name())
+                        .saveMode(result.profile().mode().name())
+                        .objectStreams(result.profile().objectStreams())
+                        .pruneUnused(result.profile().pruneUnused())
+                        .configured(result.configured())
+                        .outputSize(result.outputSize())
+                        .sizeRatio(report.sourceSize() > 0
+                                ? (double) result.outputSize() / report.sourceSize() : null)
+                        .medianMs(result.medianNanos() / 1_000_000.0)
+                        .minMs(result.minNanos() / 1_000_000.0)
+                        .maxMs(result.maxNanos() / 1_000_000.0)
+                        .build())
+                .toList();
+        return SaveBenchmarkResponse.builder()
+                .contractId(id)
+                .sourceSize(report.sourceSize())
+                .pageCount(report.pageCount())
+                .signed(report.signed())
+                .iterations(report.iterations())
+                .profiles(profiles)
+                .build();
+    }
+
+    @Override
+    public SigningBenchmarkResponse benchmarkSigning(Long id, int documents, int threads) {
+        ContractFile contractFile = findContractOrThrow(id);
+        String pathToUse = (contractFile.getSignedPath() != null && !contractFile.getSignedPath().isEmpty())
+                ? contractFile.getSignedPath()
+                : contractFile.getOriginalPath();
+        Path filePath = Paths.get(pathToUse);
+        if (!Files.exists(filePath)) {
+            throw new BusinessException("文件不存在: " + pathToUse);
+        }
+
+        SigningBenchmark.Report report;
+        try {
+            report = signingBenchmark.run(filePath, documents, threads);
+        } catch (IOException e) {
+            log.error("数字签名基准测试失败: id={}", id, e);
+            throw new BusinessException("数字签名基准测试失败: " + e.getMessage());
+        }
+
+        return SigningBenchmarkResponse.builder()
+                .contractId(id)
+                .sourceSize(report.sourceSize())
+                .documents(report.documents())
+                .threads(report.threads())
+                .signatureAlgorithm(report.signatureAlgorithm())
+                .totalMs(report.wallNanos() / 1_000_000.0)
+                .throughput(report.throughput())
+                .throughputPerCore(report.throughputPerCore())
+                .p50Ms(report.p50Nanos() / 1_000_000.0)
+                .p99Ms(report.p99Nanos() / 1_000_000.0)
+                .maxMs(report.maxNanos() / 1_000_000.0)
+                .build();
+    }
+
+    @Override
+    public void refreshSignedPreview(Long id, Set<Integer> touchedPages, boolean rebased) {
+        Path signedDir = previewDir(id, "signed");
+        try {
+            if (rebased) {
+                // 签章后 PDF 由原始 PDF 生成：旧的签章预览图全部失效，未盖章页面与原始预览图一致
+                deletePreviewImages(signedDir);
+                linkOriginalPreviews(id, signedDir, touchedPages);
+            } else {
+                for (Integer page : touchedPages) {
+                    Files.deleteIfExists(signedDir.resolve(previewImageName(page)));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("刷新签章预览图缓存失败，清空后按需重新生成: contractId={}", id, e);
+            deletePreviewImages(signedDir);
+        }
+
+        if (!touchedPages.isEmpty()) {
+            Set<Integer> pages = new TreeSet<>(touchedPages);
+            previewRenderer.execute(() -> renderSignedPages(id, pages));
+        }
+    }
+
     // ==================== 私有方法 ====================
 
     /**
@@ -425,13 +599,24 @@ public class ContractServiceImpl implements ContractService {
     }
 
     /**
-     * 使用 PDFBox 3.x 读取 PDF 页数
+     * 使用 PDFBox 3.x 读取 PDF 页数，并在同一次打开中构建文本位置索引
+     * <p>
+     * 索引构建失败不影响上传，首次使用锚点定位时会补建
+     * </p>
      */
-    private int getPdfPageCount(Path pdfPath) {
-        try (PDDocument document = Loader.loadPDF(pdfPath.toFile())) {
+    private PdfInspection inspectPdf(Path pdfPath) {
+        try (PdfDocumentLease lease = pdfMemoryGovernor.open(pdfPath)) {
+            PDDocument document = lease.getDocument();
             int pageCount = document.getNumberOfPages();
             log.debug("PDF 页数: {}", pageCount);
-            return pageCount;
+
+            String textIndexPath = null;
+            try {
+                textIndexPath = textAnchorService.buildIndex(pdfPath, document).toString();
+            } catch (IOException | RuntimeException e) {
+                log.warn("构建文本位置索引失败，将在首次锚点定位时补建: {}", pdfPath, e);
+            }
+            return new PdfInspection(pageCount, textIndexPath);
         } catch (IOException e) {
             log.error("读取 PDF 页数失败: {}", pdfPath, e);
             throw new BusinessException("无法读取 PDF 文件，请确认文件格式正确");
@@ -456,16 +641,15 @@ public class ContractServiceImpl implements ContractService {
 
         // 预览图存储目录（签章后使用 signed 子目录）
         String subDir = isSigned ? "signed" : "original";
-        String previewDir = String.format("%s/preview/%d/%s",
-                fileUploadConfig.getContractPath(), contractFile.getId(), subDir);
 
         try {
-            Path previewPath = Paths.get(previewDir);
+            Path previewPath = previewDir(contractFile.getId(), subDir);
             if (!Files.exists(previewPath)) {
                 Files.createDirectories(previewPath);
             }
 
-            try (PDDocument document = Loader.loadPDF(pdfPath.toFile())) {
+            try (PdfDocumentLease lease = pdfMemoryGovernor.open(pdfPath)) {
+                PDDocument document = lease.getDocument();
                 PDFRenderer renderer = new PDFRenderer(document);
                 int pageCount = document.getNumberOfPages();
 
@@ -482,15 +666,17 @@ public class ContractServiceImpl implements ContractService {
                 }
 
                 for (int i = startPage; i < endPage; i++) {
-                    String imageName = String.format("page_%d.png", i + 1);
+                    String imageName = previewImageName(i + 1);
                     Path imagePath = previewPath.resolve(imageName);
 
-                    BufferedImage image;
-                    // 如果预览图已存在，读取它获取尺寸；否则生成新的
+                    BufferedImage image = null;
+                    // 如果预览图已存在，只在需要尺寸时（第一张）读取；否则生成新的
                     if (Files.exists(imagePath)) {
-                        image = ImageIO.read(imagePath.toFile());
+                        if (i == startPage) {
+                            image = ImageIO.read(imagePath.toFile());
+                        }
                     } else {
-                        image = renderer.renderImageWithDPI(i, PREVIEW_DPI, ImageType.RGB);
+                        image = renderer.renderImageWithDPI(i, stampConfig.getPreview().getDpi(), ImageType.RGB);
                         ImageIO.write(image, "PNG", imagePath.toFile());
                         log.debug("生成预览图: {}", imagePath);
                     }
@@ -502,9 +688,7 @@ public class ContractServiceImpl implements ContractService {
                         log.debug("预览图尺寸: width={} px, height={} px", imageWidth, imageHeight);
                     }
 
-                    String url = String.format("/uploads/contracts/preview/%d/%s/%s",
-                            contractFile.getId(), subDir, imageName);
-                    previewUrls.add(url);
+                    previewUrls.add(previewUrl(contractFile.getId(), subDir, imageName));
                 }
             }
 
@@ -516,6 +700,113 @@ public class ContractServiceImpl implements ContractService {
         return new PreviewResult(previewUrls, pdfWidth, pdfHeight, imageWidth, imageHeight);
     }
 
+    /**
+     * 后台渲染签章后 PDF 的指定页面
+     * <p>
+     * 已按需生成的页面跳过；渲染结果先写临时文件，确认合同未被再次签章后才替换为正式预览图
+     * </p>
+     */
+    private void renderSignedPages(Long id, Set<Integer> pages) {
+        String signedPath = contractFileRepository.findById(id)
+                .map(ContractFile::getSignedPath)
+                .orElse(null);
+        if (signedPath == null || signedPath.isEmpty() || !Files.exists(Paths.get(signedPath))) {
+            return;
+        }
+
+        Path signedDir = previewDir(id, "signed");
+        try (PdfDocumentLease lease = pdfMemoryGovernor.open(Paths.get(signedPath))) {
+            PDDocument document = lease.getDocument();
+            PDFRenderer renderer = new PDFRenderer(document);
+            Files.createDirectories(signedDir);
+            for (Integer page : pages) {
+                Path imagePath = signedDir.resolve(previewImageName(page));
+                if (page < 1 || page > document.getNumberOfPages() || Files.exists(imagePath)) {
+                    continue;
+                }
+                BufferedImage image = renderer.renderImageWithDPI(page - 1,
+                        stampConfig.getPreview().getDpi(), ImageType.RGB);
+                Path partPath = imagePath.resolveSibling(imagePath.getFileName() + "."
+                        + UUID.randomUUID().toString().replace("-", "").substring(0, 8) + ".part");
+                ImageIO.write(image, "PNG", partPath.toFile());
+
+                // 渲染期间合同被再次签章时丢弃结果
+                String current = contractFileRepository.findById(id).map(ContractFile::getSignedPath).orElse(null);
+                if (!signedPath.equals(current)) {
+                    Files.deleteIfExists(partPath);
+                    log.debug("合同已再次签章，放弃预览图渲染: contractId={}", id);
+                    return;
+                }
+                Files.move(partPath, imagePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.debug("重新渲染签章预览图: contractId={}, pages={}", id, pages);
+        } catch (IOException | RuntimeException e) {
+            log.warn("后台渲染签章预览图失败，将在预览时按需生成: contractId={}, pages={}", id, pages, e);
+        }
+    }
+
+    /**
+     * 将未盖章页面的原始预览图链接到签章预览目录（不支持硬链接时复制）
+     */
+    private void linkOriginalPreviews(Long id, Path signedDir, Set<Integer> touchedPages) throws IOException {
+        Path originalDir = previewDir(id, "original");
+        if (!Files.isDirectory(originalDir)) {
+            return;
+        }
+        Files.createDirectories(signedDir);
+        try (Stream<Path> files = Files.list(originalDir)) {
+            for (Path original : (Iterable<Path>) files::iterator) {
+                Matcher matcher = PREVIEW_IMAGE_NAME.matcher(original.getFileName().toString());
+                if (!matcher.matches() || touchedPages.contains(Integer.parseInt(matcher.group(1)))) {
+                    continue;
+                }
+                Path link = signedDir.resolve(original.getFileName());
+                try {
+                    Files.createLink(link, original);
+                } catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(original, link, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除预览目录下的所有预览图
+     */
+    private void deletePreviewImages(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(Files::isRegularFile).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("清理预览图缓存失败: {}", dir, e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除预览图失败: {}", path, e);
+        }
+    }
+
+    /**
+     * 预览图目录（original-原始 PDF，signed-签章后 PDF）
+     */
+    private Path previewDir(Long id, String subDir) {
+        return Paths.get(fileUploadConfig.getContractPath(), "preview", String.valueOf(id), subDir);
+    }
+
+    private static String previewImageName(int page) {
+        return String.format("page_%d.png", page);
+    }
+
+    private static String previewUrl(Long id, String subDir, String imageName) {
+        return String.format("/uploads/contracts/preview/%d/%s/%s", id, subDir, imageName);
+    }
+
     /**
      * 查找合同或抛出异常
      */
@@ -541,4 +832,13 @@ public class ContractServiceImpl implements ContractService {
             log.warn("删除文件失败: {}", path, e);
         }
     }
+
+    /**
+     * 上传时的 PDF 解析结果
+     *
+     * @param pageCount     页数
+     * @param textIndexPath 文本位置索引文件路径（构建失败时为空）
+     */
+    private record PdfInspection(int pageCount, String textIndexPath) {
+    }
 }
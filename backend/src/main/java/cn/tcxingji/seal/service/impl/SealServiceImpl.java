@@ -7,6 +7,7 @@ import cn.tcxingji.seal.dto.response.PageResponse;
 import cn.tcxingji.seal.dto.response.SealResponse;
 import cn.tcxingji.seal.entity.SealInfo;
 import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.pdf.StampImageCache;
 import cn.tcxingji.seal.repository.SealInfoRepository;
 import cn.tcxingji.seal.service.SealService;
 import jakarta.persistence.criteria.Predicate;
@@ -40,6 +41,7 @@ import java.util.stream.Collectors;
 public class SealServiceImpl implements SealService {
 
     private final SealInfoRepository sealInfoRepository;
+    private final StampImageCache stampImageCache;
 
     /**
      * 创建印章
@@ -117,7 +119,9 @@ public class SealServiceImpl implements SealService {
             sealInfo.setSealType(request.getSealType());
         }
 
+        boolean imageChanged = false;
         if (StringUtils.hasText(request.getSealImage())) {
+            imageChanged = !request.getSealImage().equals(sealInfo.getSealImage());
             sealInfo.setSealImage(request.getSealImage());
         }
 
@@ -130,6 +134,11 @@ public class SealServiceImpl implements SealService {
         SealInfo saved = sealInfoRepository.save(sealInfo);
         log.info("印章更新成功: id={}", saved.getId());
 
+        // 印章图片变更后清除预编码缓存
+        if (imageChanged) {
+            stampImageCache.invalidate(StampImageCache.ImageKind.SEAL, saved.getId());
+        }
+
         return SealResponse.fromEntity(saved);
     }
 
@@ -146,6 +155,7 @@ public class SealServiceImpl implements SealService {
         }
 
         sealInfoRepository.deleteById(id);
+        stampImageCache.invalidate(StampImageCache.ImageKind.SEAL, id);
         log.info("印章删除成功: id={}", id);
     }
 
@@ -1,51 +1,90 @@
 package cn.tcxingji.seal.service.impl;
 
 import cn.tcxingji.seal.config.FileUploadConfig;
+import cn.tcxingji.seal.config.StampConfig;
 import cn.tcxingji.seal.dto.request.ContractSealRequest;
 import cn.tcxingji.seal.dto.request.PerforationSealRequest;
 import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.dto.request.SealSpaceSuggestRequest;
+import cn.tcxingji.seal.dto.request.StampLayoutApplyRequest;
+import cn.tcxingji.seal.dto.request.StampLayoutBindingRequest;
+import cn.tcxingji.seal.dto.request.StampPreviewRequest;
+import cn.tcxingji.seal.dto.request.StampWorkspaceOpenRequest;
 import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.dto.response.SealPlacementResponse;
 import cn.tcxingji.seal.dto.response.SealRecordResponse;
+import cn.tcxingji.seal.dto.response.StampPreviewResponse;
+import cn.tcxingji.seal.dto.response.StampUndoResponse;
 import cn.tcxingji.seal.entity.ContractFile;
 import cn.tcxingji.seal.entity.PersonalSignature;
 import cn.tcxingji.seal.entity.SealInfo;
 import cn.tcxingji.seal.entity.SealRecord;
+import cn.tcxingji.seal.entity.StampRevision;
 import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.layout.CompiledLayout;
+import cn.tcxingji.seal.layout.StampLayoutCache;
+import cn.tcxingji.seal.lock.ContractLockManager;
+import cn.tcxingji.seal.lock.StampMailbox;
+import cn.tcxingji.seal.metrics.StampMetrics;
+import cn.tcxingji.seal.metrics.StampTrace;
+import cn.tcxingji.seal.pdf.EncodedImage;
+import cn.tcxingji.seal.pdf.IncrementalRevisions;
+import cn.tcxingji.seal.pdf.StampEngine;
+import cn.tcxingji.seal.pdf.StampImageCache;
+import cn.tcxingji.seal.pdf.StampPreviewCompositor;
+import cn.tcxingji.seal.pdf.WorkingDocument;
+import cn.tcxingji.seal.placement.ContractSealIndex;
+import cn.tcxingji.seal.placement.PlacedSeal;
+import cn.tcxingji.seal.placement.SealPlacementIndex;
 import cn.tcxingji.seal.repository.ContractFileRepository;
 import cn.tcxingji.seal.repository.PersonalSignatureRepository;
 import cn.tcxingji.seal.repository.SealInfoRepository;
 import cn.tcxingji.seal.repository.SealRecordRepository;
+import cn.tcxingji.seal.repository.StampRevisionRepository;
+import cn.tcxingji.seal.service.ContractService;
 import cn.tcxingji.seal.service.SealStampService;
+import cn.tcxingji.seal.service.TextAnchorService;
+import cn.tcxingji.seal.signing.PadesSigner;
+import cn.tcxingji.seal.signing.SigningKeyStore;
+import cn.tcxingji.seal.workspace.StampWorkspace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
-import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 盖章服务实现类
  * <p>
- * 使用 PDFBox 3.x 实现 PDF 盖章功能
+ * 使用 PDFBox 3.x 实现 PDF 盖章功能。每次盖章分三个阶段，PDF 处理期间不持有数据库连接：
+ * 1. 短只读事务：读取合同、印章等元数据并校验
+ * 2. 无事务：由 {@link StampEngine} 生成签章后 PDF 到临时文件，再原子重命名为正式文件
+ * 3. 短写事务：校验合同版本未变，写入签章记录并更新合同
+ * 各阶段耗时和文档规模由 {@link StampMetrics} 记录
  * </p>
  *
  * @author TC System
@@ -58,111 +97,326 @@ public class SealStampServiceImpl implements SealStampService {
     private final ContractFileRepository contractFileRepository;
     private final SealInfoRepository sealInfoRepository;
     private final SealRecordRepository sealRecordRepository;
+    private final StampRevisionRepository stampRevisionRepository;
     private final PersonalSignatureRepository personalSignatureRepository;
     private final FileUploadConfig fileUploadConfig;
+    private final StampConfig stampConfig;
+    private final StampImageCache stampImageCache;
+    private final StampEngine stampEngine;
+    private final ContractLockManager contractLockManager;
+    private final StampMailbox stampMailbox;
+    private final TransactionTemplate transactionTemplate;
+    private final TextAnchorService textAnchorService;
+    private final StampLayoutCache stampLayoutCache;
+    private final StampPreviewCompositor stampPreviewCompositor;
+    private final ContractService contractService;
+    private final StampMetrics stampMetrics;
+    private final PadesSigner padesSigner;
+    private final SealPlacementIndex sealPlacementIndex;
+
+    private static final Map<Integer, String> SEAL_TYPE_TAGS = Map.of(
+            SealRecord.SealType.NORMAL, "seal",
+            SealRecord.SealType.PERFORATION, "perforation",
+            SealRecord.SealType.PERSONAL_SIGNATURE, "signature");
+
+    private static final BigDecimal MAX_PAGE_SIZE = BigDecimal.valueOf(PlacedSeal.MAX_PAGE_SIZE);
 
+    /**
+     * 单次盖章
+     * <p>
+     * 经合同级信箱排队：同一合同处理期间到达的请求合并为一次加载、绘制和保存，各请求分别返回自己的签章记录
+     * </p>
+     */
     @Override
-    @Transactional
     public ContractSealResponse stamp(Long contractId, ContractSealRequest request) {
-        // 1. 验证合同
-        ContractFile contract = findContractOrThrow(contractId);
-        validateContractStatus(contract);
+        if (!stampConfig.getMailbox().isEnabled()) {
+            return stampSingle(contractId, request);
+        }
+        return stampMailbox.submit(contractId, request, batch -> {
+            if (batch.size() == 1) {
+                StampMailbox.Pending pending = batch.get(0);
+                pending.complete(stampSingle(contractId, pending.request()));
+                return;
+            }
+            traced("stamp-coalesced", contractId, trace -> contractLockManager.withLock(contractId, () -> {
+                stampCoalescedLocked(contractId, batch, trace);
+                return null;
+            }));
+        });
+    }
 
-        // 2. 验证位置参数
-        validatePositions(request.getPositions(), contract.getPageCount());
+    private ContractSealResponse stampSingle(Long contractId, ContractSealRequest request) {
+        return traced("stamp", contractId, trace ->
+                contractLockManager.withLock(contractId, () -> stampLocked(contractId, request, trace)));
+    }
 
-        // 3. 根据签章类型获取图片路径
-        Path imagePath;
-        Long recordSealId;
+    /**
+     * {@link #stamp} 的实现，在合同锁内执行
+     */
+    private ContractSealResponse stampLocked(Long contractId, ContractSealRequest request, StampTrace trace) {
+        trace.setSealType(sealTypeTag(List.of(request)));
+
+        // 1. 读取并校验合同、位置参数和印章/签名
+        StampContext context = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            validatePositions(request.getPositions(), contract.getPageCount());
+            return new StampContext(contract, List.of(resolveStampImage(request)));
+        }));
+        StampImage image = context.images().get(0);
         Integer sealType = request.getSealType() != null ? request.getSealType() : 1;
+        List<SealPositionRequest> positions = timed(trace, StampTrace.Stage.ANCHOR,
+                () -> textAnchorService.resolveAnchors(context.contract(), request.getPositions()));
+        List<String> warnings = timed(trace, StampTrace.Stage.VALIDATE,
+                () -> sealPlacementIndex.check(context.contract(), true).accept(positions, sealType));
+        trace.addPositions(positions.size());
+
+        // 2. 执行盖章（优先使用已签章的 PDF，支持多次签章累加）
+        Path sourcePath = requireSourceFile(currentSourcePath(context.contract()));
+        EncodedImage encoded = timed(trace, StampTrace.Stage.IMAGE, () -> loadImage(image, positions));
+        List<StampEngine.ImagePlacement> placements = List.of(new StampEngine.ImagePlacement(encoded, positions));
+        Set<Integer> sealedPages = sealedPages(context.contract(), sourcePath);
+        Path signedPath = writeSignedFile(contractId,
+                target -> stampEngine.stampImages(sourcePath, sealedPages, placements, target, trace));
+
+        // 3. 保存签章记录并更新合同状态
+        ContractSealResponse response = commit(context.contract(), sourcePath, signedPath,
+                buildRecords(contractId, image.id(), request, positions), trace);
+        response.setWarnings(warnings);
+
+        log.info("盖章成功: contractId={}, sealType={}, positions={}",
+                contractId, sealType, positions.size());
+        return response;
+    }
 
-        if (sealType == SealRecord.SealType.PERSONAL_SIGNATURE) {
-            // 个人签名模式
-            if (request.getSignatureId() == null) {
-                throw new BusinessException("个人签名ID不能为空");
+    /**
+     * 合并后的多个单次盖章，在合同锁内执行
+     * <p>
+     * 合同只读取和校验一次；每个请求单独校验位置和印章/签名，失败只影响该请求。
+     * 其余请求在同一文档上一次性绘制并保存，签章记录一次写入后按请求拆分为各自的响应
+     * </p>
+     */
+    private void stampCoalescedLocked(Long contractId, List<StampMailbox.Pending> batch, StampTrace trace) {
+        trace.setSealType(sealTypeTag(batch.stream().map(StampMailbox.Pending::request).toList()));
+
+        // 1. 读取并校验合同，逐个校验位置参数和印章/签名（同一个只读事务）
+        List<StampMailbox.Pending> accepted = new ArrayList<>();
+        List<StampImage> images = new ArrayList<>();
+        ContractFile contract = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile current = findContractOrThrow(contractId);
+            validateContractStatus(current);
+            for (StampMailbox.Pending pending : batch) {
+                try {
+                    validatePositions(pending.request().getPositions(), current.getPageCount());
+                    images.add(resolveStampImage(pending.request()));
+                    accepted.add(pending);
+                } catch (BusinessException e) {
+                    pending.fail(e);
+                }
             }
-            PersonalSignature signature = findSignatureOrThrow(request.getSignatureId());
-            validateSignatureStatus(signature);
-            imagePath = getSignatureImagePath(signature);
-            recordSealId = signature.getId();
-            log.info("使用个人签名: signatureId={}, name={}", signature.getId(), signature.getSignatureName());
-        } else {
-            // 印章模式（普通章或骑缝章）
-            if (request.getSealId() == null) {
-                throw new BusinessException("印章ID不能为空");
+            return current;
+        }));
+
+        // 2. 逐个解析锚点、检测重叠并加载图片，然后在已签章的 PDF 上一次性绘制（按页合并内容流）
+        SealPlacementIndex.OverlapCheck overlapCheck = timed(trace, StampTrace.Stage.VALIDATE,
+                () -> sealPlacementIndex.check(contract, true));
+        List<StampMailbox.Pending> drawn = new ArrayList<>();
+        List<StampEngine.ImagePlacement> placements = new ArrayList<>();
+        List<List<SealRecord>> recordsByRequest = new ArrayList<>();
+        List<List<String>> warningsByRequest = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            StampMailbox.Pending pending = accepted.get(i);
+            StampImage image = images.get(i);
+            try {
+                List<SealPositionRequest> positions = timed(trace, StampTrace.Stage.ANCHOR,
+                        () -> textAnchorService.resolveAnchors(contract, pending.request().getPositions()));
+                EncodedImage encoded = timed(trace, StampTrace.Stage.IMAGE, () -> loadImage(image, positions));
+                warningsByRequest.add(overlapCheck.accept(positions, sealTypeOf(pending.request())));
+                placements.add(new StampEngine.ImagePlacement(encoded, positions));
+                recordsByRequest.add(buildRecords(contractId, image.id(), pending.request(), positions));
+                drawn.add(pending);
+                trace.addPositions(positions.size());
+            } catch (BusinessException e) {
+                pending.fail(e);
             }
-            SealInfo sealInfo = findSealOrThrow(request.getSealId());
-            validateSealStatus(sealInfo);
-            imagePath = getSealImagePath(sealInfo);
-            recordSealId = sealInfo.getId();
-            log.info("使用印章: sealId={}, name={}", sealInfo.getId(), sealInfo.getSealName());
+        }
+        if (drawn.isEmpty()) {
+            return;
+        }
+        Path sourcePath = requireSourceFile(currentSourcePath(contract));
+        Set<Integer> sealedPages = sealedPages(contract, sourcePath);
+        Path signedPath = writeSignedFile(contractId,
+                target -> stampEngine.stampImages(sourcePath, sealedPages, placements, target, trace));
+
+        // 3. 一次保存所有签章记录，再按请求拆分响应
+        List<SealRecord> allRecords = recordsByRequest.stream().flatMap(List::stream).toList();
+        CommitResult result = commitRecords(contract, sourcePath, signedPath, allRecords, null, trace);
+        int offset = 0;
+        for (int i = 0; i < drawn.size(); i++) {
+            int count = recordsByRequest.get(i).size();
+            ContractSealResponse response = buildResponse(result.contract(), signedPath,
+                    result.records().subList(offset, offset + count));
+            response.setWarnings(warningsByRequest.get(i));
+            drawn.get(i).complete(response);
+            offset += count;
         }
 
-        // 4. 执行盖章
-        Path signedPath = doStampWithImage(contract, imagePath, request.getPositions());
-
-        // 5. 保存签章记录
-        List<SealRecord> records = saveSealRecordsWithType(contract, recordSealId, request);
-
-        // 6. 更新合同状态
-        updateContractSigned(contract, signedPath);
-
-        log.info("盖章成功: contractId={}, sealType={}, positions={}",
-                contractId, sealType, request.getPositions().size());
-
-        return buildResponse(contract, signedPath, records);
+        log.info("合并盖章成功: contractId={}, requests={}, 位置总数={}", contractId, drawn.size(), allRecords.size());
     }
 
     @Override
-    @Transactional
     public ContractSealResponse batchStamp(Long contractId, List<ContractSealRequest> requests) {
         if (requests == null || requests.isEmpty()) {
             throw new BusinessException("盖章请求不能为空");
         }
+        return traced("batch", contractId, trace ->
+                contractLockManager.withLock(contractId, () -> batchStampLocked(contractId, requests, trace)));
+    }
 
-        // 1. 验证合同
-        ContractFile contract = findContractOrThrow(contractId);
-        validateContractStatus(contract);
+    /**
+     * {@link #batchStamp} 的实现，在合同锁内执行
+     * <p>
+     * 印章和个人签名可混合出现；所有印章/签名一次批量查询，全部校验通过后才开始处理 PDF
+     * </p>
+     */
+    private ContractSealResponse batchStampLocked(Long contractId, List<ContractSealRequest> requests,
+                                                  StampTrace trace) {
+        trace.setSealType(sealTypeTag(requests));
+
+        // 1. 读取并校验合同、所有位置参数和印章/签名
+        StampContext context = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            for (ContractSealRequest request : requests) {
+                validatePositions(request.getPositions(), contract.getPageCount());
+            }
+            return new StampContext(contract, resolveStampImages(requests));
+        }));
 
-        // 2. 加载源 PDF
-        Path sourcePath = Paths.get(contract.getOriginalPath());
-        if (!Files.exists(sourcePath)) {
-            throw new BusinessException("合同文件不存在");
-        }
+        // 2. 解析锚点后在同一文档上一次性绘制（按页合并内容流），3. 保存签章记录并更新合同状态
+        //    基于原始文件重新盖章，重叠检测只比较本次的位置
+        Path sourcePath = requireSourceFile(Paths.get(context.contract().getOriginalPath()));
+        List<List<SealPositionRequest>> positions = timed(trace, StampTrace.Stage.ANCHOR, () -> requests.stream()
+                .map(request -> textAnchorService.resolveAnchors(context.contract(), request.getPositions()))
+                .toList());
+        ContractSealResponse response = drawAndCommit(context, sourcePath, requests, positions, false, trace);
 
-        List<SealRecord> allRecords = new ArrayList<>();
-        Path finalSignedPath = null;
+        log.info("批量盖章成功: contractId={}, 印章数={}, 位置总数={}",
+                contractId, requests.size(), response.getSealCount());
+        return response;
+    }
 
-        try (PDDocument document = Loader.loadPDF(sourcePath.toFile())) {
-            // 3. 依次处理每个盖章请求
-            for (ContractSealRequest request : requests) {
-                SealInfo sealInfo = findSealOrThrow(request.getSealId());
-                validateSealStatus(sealInfo);
-                validatePositions(request.getPositions(), contract.getPageCount());
+    @Override
+    public ContractSealResponse applyLayout(Long contractId, StampLayoutApplyRequest request) {
+        CompiledLayout layout = stampLayoutCache.get(request.getLayoutId());
+        List<ContractSealRequest> requests = toSealRequests(layout, request);
+        return traced("layout", contractId, trace -> contractLockManager.withLock(contractId,
+                () -> applyLayoutLocked(contractId, layout, request, requests, trace)));
+    }
+
+    /**
+     * {@link #applyLayout} 的实现，在合同锁内执行
+     * <p>
+     * 版式在保存时已校验，这里只按合同页数展开页码（同页数的展开结果由版式缓存），不做逐个位置校验和锚点解析
+     * </p>
+     */
+    private ContractSealResponse applyLayoutLocked(Long contractId, CompiledLayout layout,
+                                                   StampLayoutApplyRequest request,
+                                                   List<ContractSealRequest> requests,
+                                                   StampTrace trace) {
+        trace.setSealType(sealTypeTag(requests));
+
+        // 1. 读取并校验合同和印章/签名
+        StampContext context = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            return new StampContext(contract, resolveStampImages(requests));
+        }));
+        int pageCount = context.contract().getPageCount();
+        List<List<SealPositionRequest>> positions = request.getBindings().stream()
+                .map(binding -> layout.positions(binding.getSealRole(), pageCount))
+                .toList();
 
-                // 在文档上盖章
-                stampOnDocument(document, sealInfo, request.getPositions());
+        // 2. 在已签章的 PDF 上一次性绘制所有角色，3. 保存签章记录并更新合同状态
+        Path sourcePath = requireSourceFile(currentSourcePath(context.contract()));
+        ContractSealResponse response = drawAndCommit(context, sourcePath, requests, positions, true, trace);
 
-                // 保存签章记录
-                List<SealRecord> records = saveSealRecords(contract, sealInfo, request);
-                allRecords.addAll(records);
-            }
+        log.info("版式盖章成功: contractId={}, layoutId={}, roles={}, 位置总数={}",
+                contractId, layout.id(), requests.size(), response.getSealCount());
+        return response;
+    }
 
-            // 4. 保存签章后文件
-            finalSignedPath = saveSignedDocument(document, contract);
+    @Override
+    public StampPreviewResponse previewStamp(Long contractId, StampPreviewRequest request) {
+        long start = System.nanoTime();
+        ContractSealRequest sealRequest = ContractSealRequest.builder()
+                .sealId(request.getSealId())
+                .signatureId(request.getSignatureId())
+                .sealType(request.getSealType())
+                .positions(request.getPositions())
+                .build();
 
-        } catch (IOException e) {
-            log.error("批量盖章失败: contractId={}", contractId, e);
-            throw new BusinessException("盖章处理失败: " + e.getMessage());
+        // 1. 读取并校验合同、位置参数和印章/签名（只读，不加合同锁）
+        StampContext context = inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            validatePositions(sealRequest.getPositions(), contract.getPageCount());
+            return new StampContext(contract, List.of(resolveStampImage(sealRequest)));
+        });
+        StampImage image = context.images().get(0);
+        if (!Files.exists(image.path())) {
+            throw new BusinessException("盖章图片不存在: " + image.path().getFileName());
+        }
+        List<SealPositionRequest> positions = textAnchorService.resolveAnchors(context.contract(),
+                sealRequest.getPositions());
+
+        // 2. 按页分组，在页面预览图上合成（与页面预览一致：已签章的合同以签章后的预览图为底图）
+        Map<Integer, List<StampPreviewCompositor.Overlay>> overlaysByPage = new TreeMap<>();
+        for (SealPositionRequest position : positions) {
+            overlaysByPage.computeIfAbsent(position.getPageNumber(), page -> new ArrayList<>())
+                    .add(new StampPreviewCompositor.Overlay(image.path(),
+                            position.getX().floatValue(), position.getY().floatValue(),
+                            position.getWidth().floatValue(), position.getHeight().floatValue()));
         }
+        List<StampPreviewResponse.PagePreview> pages = new ArrayList<>(overlaysByPage.size());
+        for (Map.Entry<Integer, List<StampPreviewCompositor.Overlay>> entry : overlaysByPage.entrySet()) {
+            int pageNumber = entry.getKey();
+            ContractService.PageImage pageImage = contractService.previewPageImage(contractId, pageNumber);
 
-        // 5. 更新合同状态
-        updateContractSigned(contract, finalSignedPath);
+            StampPreviewCompositor.PageComposite composite;
+            try {
+                composite = stampPreviewCompositor.compose(pageImage.path(), entry.getValue());
+            } catch (IOException e) {
+                log.error("生成盖章预览失败: contractId={}, page={}", contractId, pageNumber, e);
+                throw new BusinessException("生成盖章预览失败: " + e.getMessage());
+            }
 
-        log.info("批量盖章成功: contractId={}, 印章数={}, 位置总数={}",
-                contractId, requests.size(), allRecords.size());
+            List<StampPreviewResponse.TilePreview> tiles = composite.tiles().stream()
+                    .map(tile -> StampPreviewResponse.TilePreview.builder()
+                            .x(tile.x())
+                            .y(tile.y())
+                            .width(tile.width())
+                            .height(tile.height())
+                            .imageData("data:image/png;base64," + Base64.getEncoder().encodeToString(tile.png()))
+                            .build())
+                    .toList();
+            pages.add(StampPreviewResponse.PagePreview.builder()
+                    .pageNumber(pageNumber)
+                    .baseImageUrl(pageImage.url())
+                    .width(composite.width())
+                    .height(composite.height())
+                    .tiles(tiles)
+                    .build());
+        }
 
-        return buildResponse(contract, finalSignedPath, allRecords);
+        long costMs = (System.nanoTime() - start) / 1_000_000;
+        log.debug("盖章预览: contractId={}, pages={}, positions={}, cost={}ms",
+                contractId, pages.size(), positions.size(), costMs);
+        return StampPreviewResponse.builder()
+                .contractId(contractId)
+                .pages(pages)
+                .costMs(costMs)
+                .build();
     }
 
     @Override
@@ -174,197 +428,841 @@ public class SealStampServiceImpl implements SealStampService {
     }
 
     @Override
-    @Transactional
-    public ContractSealResponse perforationStamp(Long contractId, PerforationSealRequest request) {
-        // 1. 验证合同
-        ContractFile contract = findContractOrThrow(contractId);
-        validateContractStatus(contract);
+    public List<SealPlacementResponse> getPlacements(Long contractId, Integer pageNumber,
+                                                     SealPositionRequest region) {
+        ContractSealIndex index = sealPlacementIndex.get(findPlacementContract(contractId, pageNumber));
+        List<PlacedSeal> seals;
+        if (region != null && region.getX() != null && region.getY() != null
+                && region.getWidth() != null && region.getHeight() != null) {
+            validateGeometry(region);
+            region.setPageNumber(pageNumber);
+            seals = index.intersecting(PlacedSeal.candidate(region, null));
+        } else {
+            seals = index.page(pageNumber);
+        }
+        return seals.stream()
+                .map(SealPlacementResponse::fromPlaced)
+                .toList();
+    }
 
-        // 2. 验证印章
-        SealInfo sealInfo = findSealOrThrow(request.getSealId());
-        validateSealStatus(sealInfo);
+    @Override
+    public List<SealPlacementResponse> suggestPlacements(Long contractId, SealSpaceSuggestRequest request) {
+        ContractSealIndex index = sealPlacementIndex.get(findPlacementContract(contractId, request.getPageNumber()));
+        StampConfig.Placement config = stampConfig.getPlacement();
+        if (request.getWidth() == null || request.getHeight() == null
+                || request.getPageWidth() == null || request.getPageHeight() == null) {
+            throw new BusinessException("印章尺寸和页面尺寸不能为空");
+        }
+        float width = request.getWidth().floatValue();
+        float height = request.getHeight().floatValue();
+        float pageWidth = request.getPageWidth().floatValue();
+        float pageHeight = request.getPageHeight().floatValue();
+        if (width <= 0 || height <= 0 || pageWidth <= 0 || pageHeight <= 0) {
+            throw new BusinessException("印章尺寸和页面尺寸必须大于0");
+        }
+        if (pageWidth > PlacedSeal.MAX_PAGE_SIZE || pageHeight > PlacedSeal.MAX_PAGE_SIZE
+                || width > pageWidth || height > pageHeight
+                || exceedsPageSize(request.getNearX()) || exceedsPageSize(request.getNearY())) {
+            throw new BusinessException(String.format("页面尺寸不能超过%.0f，印章尺寸不能超过页面尺寸，期望位置不能超出页面范围",
+                    PlacedSeal.MAX_PAGE_SIZE));
+        }
 
-        // 3. 加载源 PDF
-        Path sourcePath = Paths.get(contract.getOriginalPath());
-        if (!Files.exists(sourcePath)) {
-            throw new BusinessException("合同文件不存在");
+        // 未指定期望位置时靠右下角（落款处）
+        float margin = config.getSuggestionMargin();
+        float preferX = request.getNearX() != null ? request.getNearX().floatValue() : pageWidth - margin - width;
+        float preferY = request.getNearY() != null ? request.getNearY().floatValue() : margin;
+        int limit = request.getLimit() != null ? Math.min(Math.max(request.getLimit(), 1), 20) : 5;
+
+        ContractSealIndex.FreeSpaceQuery query = new ContractSealIndex.FreeSpaceQuery(request.getPageNumber(),
+                pageWidth, pageHeight, width, height, preferX, preferY, limit);
+        return index.freeSpots(query, config.getSuggestionStep(), margin).stream()
+                .map(SealPlacementResponse::fromPlaced)
+                .toList();
+    }
+
+    /**
+     * 读取合同并校验页码（用于位置索引查询）
+     */
+    private ContractFile findPlacementContract(Long contractId, Integer pageNumber) {
+        ContractFile contract = findContractOrThrow(contractId);
+        if (pageNumber == null || pageNumber < 1
+                || (contract.getPageCount() != null && pageNumber > contract.getPageCount())) {
+            throw new BusinessException(String.format("页码超出范围: %s (总页数: %s)",
+                    pageNumber, contract.getPageCount()));
         }
+        return contract;
+    }
 
-        List<SealRecord> records = new ArrayList<>();
-        Path signedPath;
+    @Override
+    public ContractSealResponse digitalSign(Long contractId, SigningKeyStore.Credential credential, String signerName) {
+        return traced("digital-sign", contractId, trace -> contractLockManager.withLock(contractId,
+                () -> digitalSignLocked(contractId, credential, signerName, trace)));
+    }
+
+    /**
+     * {@link #digitalSign} 的实现，在合同锁内执行
+     */
+    private ContractSealResponse digitalSignLocked(Long contractId, SigningKeyStore.Credential credential,
+                                                   String signerName, StampTrace trace) {
+        trace.setSealType("digital");
+
+        // 1. 读取并校验合同
+        ContractFile contract = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile current = findContractOrThrow(contractId);
+            validateContractStatus(current);
+            return current;
+        }));
+        Path sourcePath = requireSourceFile(currentSourcePath(contract));
+
+        // 2. 追加签名增量更新（摘要和 CMS 签名在当前线程计算）
+        Path signedPath = writeSignedFile(contractId, target -> {
+            try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.SIGN)) {
+                padesSigner.sign(sourcePath, target, credential, signerName);
+            }
+        });
+
+        // 3. 作为不含签章记录的修订提交
+        ContractSealResponse response = commit(contract, sourcePath, signedPath, List.of(), trace);
+        response.setMessage("数字签名成功");
+
+        log.info("数字签名成功: contractId={}, signer={}, algorithm={}",
+                contractId, signerName, credential.signatureAlgorithm());
+        return response;
+    }
 
-        try (PDDocument document = Loader.loadPDF(sourcePath.toFile())) {
-            int totalPages = document.getNumberOfPages();
-            if (totalPages < 2) {
-                throw new BusinessException("骑缝章需要至少2页的PDF文档");
+    @Override
+    public StampUndoResponse undoLastStamp(Long contractId, Integer expectedRevision) {
+        return traced("undo", contractId, trace -> contractLockManager.withLock(contractId,
+                () -> undoLastStampLocked(contractId, expectedRevision, trace)));
+    }
+
+    /**
+     * {@link #undoLastStamp} 的实现，在合同锁内执行
+     * <p>
+     * 截断只复制字节，不解析 PDF；截断结果与上一版签章后文件逐字节相同，因此上一版修订仍可继续撤销
+     * </p>
+     */
+    private StampUndoResponse undoLastStampLocked(Long contractId, Integer expectedRevision, StampTrace trace) {
+        // 1. 读取合同和最近一次有效修订
+        UndoContext context = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            if (contract.getStatus() == ContractFile.Status.CANCELLED) {
+                throw new BusinessException("合同已作废，无法撤销盖章");
             }
+            StampRevision revision = stampRevisionRepository
+                    .findFirstByContractIdAndStatusOrderByRevisionNoDesc(contractId, StampRevision.Status.VALID)
+                    .orElseThrow(() -> new BusinessException("合同没有可撤销的盖章"));
+            if (expectedRevision != null && !expectedRevision.equals(revision.getRevisionNo())) {
+                throw new BusinessException(409, "最近一次盖章已变化，请刷新后重试");
+            }
+            if (!revision.getSignedPath().equals(contract.getSignedPath())) {
+                throw new BusinessException("合同当前文件不是最近一次盖章的结果，无法撤销");
+            }
+            boolean restoresPrevious = revision.getPreviousSignedPath() != null && !revision.isTruncatable();
+            List<Integer> remainingPages = !restoresPrevious ? List.of()
+                    : sealRecordRepository.findByContractIdAndStatus(contractId, SealRecord.Status.VALID).stream()
+                    .filter(record -> !revision.getId().equals(record.getRevisionId()))
+                    .map(SealRecord::getPageNumber)
+                    .toList();
+            return new UndoContext(contract, revision, remainingPages);
+        }));
+        StampRevision revision = context.revision();
+
+        // 2. 确定撤销后的文件：截断增量更新 / 指回盖章前的文件 / 恢复为未签章
+        String restoreMode;
+        Path restoredPath;
+        Path truncatedPath = null;
+        if (revision.getPreviousSignedPath() == null) {
+            restoreMode = "ORIGINAL";
+            restoredPath = null;
+        } else if (revision.isTruncatable()) {
+            restoreMode = "TRUNCATE";
+            Path signedPath = requireSourceFile(Paths.get(revision.getSignedPath()));
+            truncatedPath = writeSignedFile(contractId,
+                    target -> IncrementalRevisions.truncate(signedPath, revision.getBaseSize(), target));
+            restoredPath = truncatedPath;
+        } else {
+            restoreMode = "PREVIOUS";
+            restoredPath = Paths.get(revision.getPreviousSignedPath());
+            if (!Files.exists(restoredPath)) {
+                throw new BusinessException("盖章前的签章后文件已不存在，无法撤销");
+            }
+        }
+
+        // 3. 撤销修订和签章记录，更新合同
+        CommitResult result;
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.COMMIT)) {
+            Path truncated = truncatedPath;
+            result = transactionTemplate.execute(status -> {
+                ContractFile contract = findContractOrThrow(contractId);
+                if (!Objects.equals(contract.getVersion(), context.contract().getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(ContractFile.class, contractId);
+                }
+                StampRevision current = stampRevisionRepository.findById(revision.getId())
+                        .orElseThrow(() -> new BusinessException("盖章修订不存在: " + revision.getId()));
+                current.setStatus(StampRevision.Status.REVOKED);
+                current.setRevokeTime(LocalDateTime.now());
+                stampRevisionRepository.save(current);
+
+                List<SealRecord> revoked = sealRecordRepository.findByRevisionId(revision.getId());
+                revoked.forEach(record -> record.setStatus(SealRecord.Status.REVOKED));
+                sealRecordRepository.saveAll(revoked);
+
+                // 截断结果替代上一版签章后文件，使上一版修订仍与合同当前文件对应
+                if (truncated != null) {
+                    stampRevisionRepository.findFirstByContractIdAndStatusAndRevisionNoLessThanOrderByRevisionNoDesc(
+                                    contractId, StampRevision.Status.VALID, revision.getRevisionNo())
+                            .filter(previous -> previous.getSignedPath().equals(revision.getPreviousSignedPath()))
+                            .ifPresent(previous -> {
+                                previous.setSignedPath(truncated.toString());
+                                stampRevisionRepository.save(previous);
+                            });
+                }
+
+                contract.setSignedPath(restoredPath != null ? restoredPath.toString() : null);
+                contract.setStatus(restoredPath != null ? ContractFile.Status.SIGNED : ContractFile.Status.PENDING);
+                return new CommitResult(contractFileRepository.save(contract), revoked);
+            });
+        } catch (RuntimeException e) {
+            deleteQuietly(truncatedPath);
+            throw e;
+        }
 
-            // 4. 加载印章图片
-            Path sealImagePath = getSealImagePath(sealInfo);
-            if (!Files.exists(sealImagePath)) {
-                throw new BusinessException("印章图片不存在: " + sealInfo.getSealName());
+        // 4. 只重新生成受影响页面的预览图：截断时为被撤销的页面；指回非增量的旧文件时还包括其余有效签章所在页面
+        Set<Integer> affectedPages = new TreeSet<>();
+        result.records().stream()
+                .map(SealRecord::getPageNumber)
+                .filter(Objects::nonNull)
+                .forEach(affectedPages::add);
+        affectedPages.addAll(context.remainingPages());
+        if (restoredPath != null) {
+            try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.PREVIEW)) {
+                contractService.refreshSignedPreview(contractId, affectedPages, false);
             }
-            BufferedImage sealImage = ImageIO.read(sealImagePath.toFile());
-
-            // 5. 计算每页印章切片高度
-            float sealWidth = request.getSealWidth().floatValue();
-            float sealHeight = request.getSealHeight().floatValue();
-            float sliceHeight = sealHeight / totalPages;
-
-            // 印章图片的每切片像素高度
-            int imgSliceHeight = sealImage.getHeight() / totalPages;
-
-            LocalDateTime now = LocalDateTime.now();
-
-            // 6. 为每页绘制印章切片
-            for (int i = 0; i < totalPages; i++) {
-                PDPage page = document.getPage(i);
-                PDRectangle mediaBox = page.getMediaBox();
-
-                // 切割印章图片
-                int srcY = i * imgSliceHeight;
-                int srcHeight = Math.min(imgSliceHeight, sealImage.getHeight() - srcY);
-                BufferedImage sliceImage = sealImage.getSubimage(
-                        0, srcY,
-                        sealImage.getWidth(), srcHeight
-                );
-
-                // 转换为 PDImageXObject
-                PDImageXObject pdSlice = LosslessFactory.createFromImage(document, sliceImage);
-
-                // 计算位置：右边缘居中
-                float edgeMargin = request.getEdgeMargin() != null
-                        ? request.getEdgeMargin().floatValue()
-                        : sealWidth / 2;  // 默认一半在页面内
-                float x = mediaBox.getWidth() - edgeMargin;
-                float yOffset = request.getYOffset().floatValue();
-                // 居中位置 + 偏移
-                float y = (mediaBox.getHeight() - sliceHeight) / 2 + yOffset;
-
-                // 绘制印章切片
-                try (PDPageContentStream contentStream = new PDPageContentStream(
-                        document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
-                    contentStream.drawImage(pdSlice, x, y, sealWidth, sliceHeight);
+        }
+
+        log.info("撤销盖章成功: contractId={}, revision={}, mode={}, records={}, pages={}",
+                contractId, revision.getRevisionNo(), restoreMode, result.records().size(), affectedPages);
+        return StampUndoResponse.builder()
+                .contractId(contractId)
+                .revisionId(revision.getId())
+                .revisionNo(revision.getRevisionNo())
+                .restoreMode(restoreMode)
+                .signedFileUrl(restoredPath != null
+                        ? "/uploads/contracts/signed/" + extractRelativePath(restoredPath) : null)
+                .contractStatus(result.contract().getStatus())
+                .affectedPages(List.copyOf(affectedPages))
+                .revokedRecords(result.records().stream().map(SealRecordResponse::fromEntity).toList())
+                .revokedCount(result.records().size())
+                .build();
+    }
+
+    @Override
+    public void preloadStampImage(ContractSealRequest request) {
+        StampImage image = inReadTransaction(() -> resolveStampImage(request));
+        loadImage(image, request.getPositions());
+    }
+
+    @Override
+    public void preloadLayout(StampLayoutApplyRequest request) {
+        CompiledLayout layout = stampLayoutCache.get(request.getLayoutId());
+        List<ContractSealRequest> requests = toSealRequests(layout, request);
+        List<StampImage> images = inReadTransaction(() -> resolveStampImages(requests));
+        for (int i = 0; i < images.size(); i++) {
+            loadImage(images.get(i), layout.boxes(request.getBindings().get(i).getSealRole()));
+        }
+    }
+
+    @Override
+    public ContractSealRequest prepareSigner(Long contractId, ContractSealRequest request) {
+        StampContext context = inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            validatePositions(request.getPositions(), contract.getPageCount());
+            return new StampContext(contract, List.of(resolveStampImage(request)));
+        });
+        List<SealPositionRequest> positions = textAnchorService.resolveAnchors(context.contract(),
+                request.getPositions());
+        loadImage(context.images().get(0), positions);
+
+        return ContractSealRequest.builder()
+                .sealId(request.getSealId())
+                .signatureId(request.getSignatureId())
+                .positions(positions)
+                .operatorId(request.getOperatorId())
+                .operatorName(request.getOperatorName())
+                .sealType(request.getSealType())
+                .build();
+    }
+
+    @Override
+    public ContractSealResponse mergeSigners(Long contractId, List<ContractSealRequest> signers, Runnable onCommit) {
+        if (signers == null || signers.isEmpty()) {
+            throw new BusinessException("签署方不能为空");
+        }
+        return traced("merge", contractId, trace -> contractLockManager.withLock(contractId,
+                () -> mergeSignersLocked(contractId, signers, onCommit, trace)));
+    }
+
+    /**
+     * {@link #mergeSigners} 的实现，在合同锁内执行
+     * <p>
+     * 位置已在准备阶段校验和解析、图片已预编码，这里只重新校验合同和印章/签名状态（一次批量查询）。
+     * 所有签署方在一次加载、一次保存中写入，同属一个增量更新：锁内只有一次 PDF 读写，
+     * 代价是 PDF 中不再按签署方区分修订，签署方的区分以签章记录为准
+     * </p>
+     */
+    private ContractSealResponse mergeSignersLocked(Long contractId, List<ContractSealRequest> signers,
+                                                    Runnable onCommit, StampTrace trace) {
+        trace.setSealType(sealTypeTag(signers));
+
+        // 1. 读取并校验合同和印章/签名
+        StampContext context = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            return new StampContext(contract, resolveStampImages(signers));
+        }));
+
+        // 2. 在当前版本上一次加载、一次保存写入所有签署方（图片已在准备阶段预编码，这里命中缓存）
+        List<String> warnings = timed(trace, StampTrace.Stage.VALIDATE, () -> checkOverlaps(context.contract(),
+                signers, signers.stream().map(ContractSealRequest::getPositions).toList(), true));
+        Path sourcePath = requireSourceFile(currentSourcePath(context.contract()));
+        List<StampEngine.ImagePlacement> placements = new ArrayList<>(signers.size());
+        List<SealRecord> allRecords = new ArrayList<>();
+        for (int i = 0; i < signers.size(); i++) {
+            StampImage image = context.images().get(i);
+            List<SealPositionRequest> positions = signers.get(i).getPositions();
+            EncodedImage encoded = timed(trace, StampTrace.Stage.IMAGE, () -> loadImage(image, positions));
+            placements.add(new StampEngine.ImagePlacement(encoded, positions));
+            allRecords.addAll(buildRecords(contractId, image.id(), signers.get(i), positions));
+            trace.addPositions(positions.size());
+        }
+        Set<Integer> sealedPages = sealedPages(context.contract(), sourcePath);
+        Path signedPath = writeSignedFile(contractId,
+                target -> stampEngine.stampImages(sourcePath, sealedPages, placements, target, trace));
+
+        // 3. 保存所有签署方的签章记录并更新合同状态
+        ContractSealResponse response = commit(context.contract(), sourcePath, signedPath, allRecords, onCommit,
+                trace);
+        response.setWarnings(warnings);
+
+        log.info("多方签署合并成功: contractId={}, signers={}, 位置总数={}",
+                contractId, signers.size(), response.getSealCount());
+        return response;
+    }
+
+    @Override
+    public StampWorkspace openWorkspace(StampWorkspaceOpenRequest request) {
+        if (request.getSealOwnerId() == null && request.getSignatureUserId() == null) {
+            throw new BusinessException("印章所有者和签名用户至少指定一个");
+        }
+        return traced("workspace-open", request.getContractId(), trace -> {
+            // 1. 读取合同和可用的印章/签名（一次查询，之后盖章不再访问数据库）
+            WorkspaceSnapshot snapshot = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+                ContractFile contract = findContractOrThrow(request.getContractId());
+                validateContractStatus(contract);
+                List<StampWorkspace.WorkspaceImage> images = new ArrayList<>();
+                if (request.getSealOwnerId() != null) {
+                    int ownerType = request.getSealOwnerType() != null
+                            ? request.getSealOwnerType() : SealInfo.OwnerType.ENTERPRISE;
+                    for (SealInfo seal : sealInfoRepository.findByOwnerIdAndOwnerTypeAndStatus(
+                            request.getSealOwnerId(), ownerType, SealInfo.Status.ENABLED)) {
+                        images.add(new StampWorkspace.WorkspaceImage(StampImageCache.ImageKind.SEAL,
+                                seal.getId(), seal.getSealName(), getSealImagePath(seal)));
+                    }
+                }
+                if (request.getSignatureUserId() != null) {
+                    for (PersonalSignature signature :
+                            personalSignatureRepository.findEnabledSignatures(request.getSignatureUserId())) {
+                        images.add(new StampWorkspace.WorkspaceImage(StampImageCache.ImageKind.SIGNATURE,
+                                signature.getId(), signature.getSignatureName(), getSignatureImagePath(signature)));
+                    }
                 }
+                return new WorkspaceSnapshot(contract, images);
+            }));
+            if (snapshot.images().isEmpty()) {
+                throw new BusinessException("没有可用的印章或签名");
+            }
+            // 工作区内的盖章只与打开时的已有签章比较，提交时合同版本未变即说明期间没有新签章
+            SealPlacementIndex.OverlapCheck overlapCheck = timed(trace, StampTrace.Stage.VALIDATE,
+                    () -> sealPlacementIndex.check(snapshot.contract(), true));
+
+            // 2. 在内存预算内打开合同当前版本（优先使用已签章的 PDF）
+            Path sourcePath = requireSourceFile(currentSourcePath(snapshot.contract()));
+            WorkingDocument document;
+            long sourceBytes;
+            try {
+                sourceBytes = Files.size(sourcePath);
+                document = stampEngine.open(sourcePath, sealedPages(snapshot.contract(), sourcePath), trace);
+            } catch (IOException e) {
+                log.error("打开盖章工作区失败: contractId={}", request.getContractId(), e);
+                throw new BusinessException("打开合同文件失败: " + e.getMessage());
+            }
 
-                log.debug("绘制骑缝章切片: page={}, x={}, y={}, slice={}/{}",
-                        i + 1, x, y, i + 1, totalPages);
+            StampWorkspace workspace = new StampWorkspace(UUID.randomUUID().toString().replace("-", ""),
+                    snapshot.contract(), sourcePath, sourceBytes, document, snapshot.images(), overlapCheck,
+                    request.getOperatorId(), request.getOperatorName(), stampConfig.getWorkspace().getTtl());
+            log.info("打开盖章工作区: workspaceId={}, contractId={}, version={}, images={}",
+                    workspace.getId(), workspace.getContractId(), snapshot.contract().getVersion(),
+                    snapshot.images().size());
+            return workspace;
+        });
+    }
 
-                // 保存签章记录
-                SealRecord record = SealRecord.builder()
-                        .contractId(contract.getId())
-                        .sealId(sealInfo.getId())
-                        .pageNumber(i + 1)
-                        .positionX(BigDecimal.valueOf(x))
-                        .positionY(BigDecimal.valueOf(y))
+    @Override
+    public ContractSealRequest placeInWorkspace(StampWorkspace workspace, ContractSealRequest request) {
+        return traced("workspace-place", workspace.getContractId(), trace -> {
+            trace.setSealType(sealTypeTag(List.of(request)));
+            int maxPlacements = stampConfig.getWorkspace().getMaxPlacements();
+            if (workspace.getPlacements().size() >= maxPlacements) {
+                throw new BusinessException(String.format("单个工作区最多盖章 %d 次", maxPlacements));
+            }
+
+            // 1. 校验位置并从工作区已加载的印章/签名中取图片
+            validatePositions(request.getPositions(), workspace.getDocument().getPageCount());
+            boolean signature = isSignature(request);
+            Long imageId = signature ? request.getSignatureId() : request.getSealId();
+            if (imageId == null) {
+                throw new BusinessException(signature ? "个人签名ID不能为空" : "印章ID不能为空");
+            }
+            StampWorkspace.WorkspaceImage image = workspace.getImage(
+                    signature ? StampImageCache.ImageKind.SIGNATURE : StampImageCache.ImageKind.SEAL, imageId);
+            if (image == null) {
+                throw new BusinessException((signature ? "个人签名" : "印章") + "不可用（未启用或不在工作区范围内）: " + imageId);
+            }
+            List<SealPositionRequest> positions = timed(trace, StampTrace.Stage.ANCHOR,
+                    () -> textAnchorService.resolveAnchors(workspace.getContract(), request.getPositions()));
+            trace.addPositions(positions.size());
+            timed(trace, StampTrace.Stage.VALIDATE,
+                    () -> workspace.checkOverlaps(positions, sealTypeOf(request)));
+
+            // 2. 在内存中的文档上绘制（文档中已嵌入的相同图片直接引用）
+            EncodedImage encoded = timed(trace, StampTrace.Stage.IMAGE,
+                    () -> loadImage(new StampImage(image.kind(), image.id(), image.path()), positions));
+            try {
+                stampEngine.draw(workspace.getDocument(),
+                        List.of(new StampEngine.ImagePlacement(encoded, positions)), trace);
+            } catch (IOException e) {
+                // 文档可能已部分修改，不能继续使用
+                workspace.close();
+                log.error("工作区盖章失败: workspaceId={}", workspace.getId(), e);
+                throw new BusinessException("盖章处理失败，工作区已关闭: " + e.getMessage());
+            }
+
+            ContractSealRequest placed = ContractSealRequest.builder()
+                    .sealId(request.getSealId())
+                    .signatureId(request.getSignatureId())
+                    .positions(positions)
+                    .operatorId(request.getOperatorId() != null ? request.getOperatorId() : workspace.getOperatorId())
+                    .operatorName(request.getOperatorName() != null
+                            ? request.getOperatorName() : workspace.getOperatorName())
+                    .sealType(request.getSealType())
+                    .build();
+            workspace.addPlacement(placed);
+            return placed;
+        });
+    }
+
+    @Override
+    public ContractSealResponse commitWorkspace(StampWorkspace workspace) {
+        List<ContractSealRequest> placements = workspace.getPlacements();
+        if (placements.isEmpty()) {
+            throw new BusinessException("工作区还没有盖章");
+        }
+        Long contractId = workspace.getContractId();
+        return traced("workspace-commit", contractId, trace -> contractLockManager.withLock(contractId,
+                () -> commitWorkspaceLocked(workspace, placements, trace)));
+    }
+
+    /**
+     * {@link #commitWorkspace} 的实现，在合同锁内执行
+     * <p>
+     * 工作区中的文档基于打开时的合同版本，合同在此期间被修改时无法合并，工作区关闭，只能重新打开
+     * </p>
+     */
+    private ContractSealResponse commitWorkspaceLocked(StampWorkspace workspace,
+                                                       List<ContractSealRequest> placements,
+                                                       StampTrace trace) {
+        Long contractId = workspace.getContractId();
+        trace.setSealType(sealTypeTag(placements));
+        trace.document(workspace.getSourceBytes(), workspace.getDocument().getPageCount());
+
+        // 1. 校验合同版本未变，并重新校验印章/签名状态（一次批量查询）
+        StampContext context = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            if (!Objects.equals(contract.getVersion(), workspace.getContract().getVersion())) {
+                workspace.close();
+                throw new BusinessException("合同在工作区打开后已被修改，请重新打开工作区");
+            }
+            return new StampContext(contract, resolveStampImages(placements));
+        }));
+
+        // 2. 一次写出内存中的文档
+        List<SealRecord> allRecords = new ArrayList<>();
+        for (int i = 0; i < placements.size(); i++) {
+            ContractSealRequest placement = placements.get(i);
+            allRecords.addAll(buildRecords(contractId, context.images().get(i).id(), placement,
+                    placement.getPositions()));
+            trace.addPositions(placement.getPositions().size());
+        }
+        // 2、3 失败时文档可能已部分写出，工作区不能再次提交；校验失败（如锁等待超时）时工作区保留，可重试
+        ContractSealResponse response;
+        try {
+            Path signedPath = writeSignedFile(contractId,
+                    target -> stampEngine.save(workspace.getDocument(), target, trace));
+
+            // 3. 保存所有签章记录并更新合同状态
+            response = commit(workspace.getContract(), workspace.getSourcePath(), signedPath, allRecords, trace);
+            response.setWarnings(workspace.getWarnings());
+        } catch (RuntimeException e) {
+            workspace.close();
+            throw e;
+        }
+
+        log.info("盖章工作区提交成功: workspaceId={}, contractId={}, placements={}, 位置总数={}",
+                workspace.getId(), contractId, placements.size(), response.getSealCount());
+        return response;
+    }
+
+    @Override
+    public ContractSealResponse perforationStamp(Long contractId, PerforationSealRequest request) {
+        return traced("perforation", contractId, trace ->
+                contractLockManager.withLock(contractId, () -> perforationStampLocked(contractId, request, trace)));
+    }
+
+    /**
+     * {@link #perforationStamp} 的实现，在合同锁内执行
+     */
+    private ContractSealResponse perforationStampLocked(Long contractId, PerforationSealRequest request,
+                                                        StampTrace trace) {
+        trace.setSealType(SEAL_TYPE_TAGS.get(SealRecord.SealType.PERFORATION));
+
+        // 1. 读取并校验合同和印章
+        StampContext context = timed(trace, StampTrace.Stage.VALIDATE, () -> inReadTransaction(() -> {
+            ContractFile contract = findContractOrThrow(contractId);
+            validateContractStatus(contract);
+            SealInfo sealInfo = findSealOrThrow(request.getSealId());
+            validateSealStatus(sealInfo);
+            return new StampContext(contract, List.of(new StampImage(StampImageCache.ImageKind.SEAL,
+                    sealInfo.getId(), getSealImagePath(sealInfo))));
+        }));
+        StampImage image = context.images().get(0);
+
+        Path sourcePath = requireSourceFile(Paths.get(context.contract().getOriginalPath()));
+        if (!Files.exists(image.path())) {
+            throw new BusinessException("印章图片不存在: " + image.path().getFileName());
+        }
+
+        // 2. 为每页绘制印章切片
+        List<StampEngine.SliceGeometry> geometries = new ArrayList<>();
+        Path signedPath = writeSignedFile(contractId,
+                target -> geometries.addAll(stampEngine.perforate(sourcePath, image.path(), request, target, trace)));
+
+        // 3. 保存签章记录并更新合同状态
+        LocalDateTime now = LocalDateTime.now();
+        List<SealRecord> records = geometries.stream()
+                .map(geometry -> SealRecord.builder()
+                        .contractId(contractId)
+                        .sealId(image.id())
+                        .pageNumber(geometry.pageNumber())
+                        .positionX(BigDecimal.valueOf(geometry.x()))
+                        .positionY(BigDecimal.valueOf(geometry.y()))
                         .sealWidth(request.getSealWidth())
-                        .sealHeight(BigDecimal.valueOf(sliceHeight))
+                        .sealHeight(BigDecimal.valueOf(geometry.sliceHeight()))
                         .sealType(SealRecord.SealType.PERFORATION)
                         .operatorId(request.getOperatorId())
                         .operatorName(request.getOperatorName())
                         .sealTime(now)
-                        .build();
-                records.add(sealRecordRepository.save(record));
-            }
+                        .build())
+                .toList();
+        ContractSealResponse response = commit(context.contract(), sourcePath, signedPath, records, trace);
 
-            // 7. 保存签章后文件
-            signedPath = saveSignedDocument(document, contract);
+        log.info("骑缝章盖章成功: contractId={}, sealId={}, pages={}",
+                contractId, request.getSealId(), records.size());
+        return response;
+    }
 
-        } catch (IOException e) {
-            log.error("骑缝章处理失败: contractId={}", contractId, e);
-            throw new BusinessException("骑缝章处理失败: " + e.getMessage());
-        }
+    // ==================== 阶段控制 ====================
 
-        // 8. 更新合同状态
-        updateContractSigned(contract, signedPath);
+    /**
+     * 记录一次盖章操作的总耗时、各阶段耗时和文档规模（合同锁等待由 {@link ContractLockManager} 单独记录）
+     */
+    private <T> T traced(String operation, Long contractId, Function<StampTrace, T> action) {
+        StampTrace trace = stampMetrics.start(operation, contractId);
+        boolean success = false;
+        try {
+            T response = action.apply(trace);
+            success = true;
+            return response;
+        } finally {
+            stampMetrics.finish(trace, success);
+        }
+    }
 
-        log.info("骑缝章盖章成功: contractId={}, sealId={}, pages={}",
-                contractId, request.getSealId(), records.size());
+    /**
+     * 在指定阶段内执行并累计耗时
+     */
+    private static <T> T timed(StampTrace trace, StampTrace.Stage stage, Supplier<T> action) {
+        try (StampTrace.Span ignored = trace.stage(stage)) {
+            return action.get();
+        }
+    }
 
-        return buildResponse(contract, signedPath, records);
+    /**
+     * 签章类型指标标签（类型不一致时为 mixed）
+     */
+    private static String sealTypeTag(Collection<ContractSealRequest> requests) {
+        Set<Integer> types = requests.stream()
+                .map(request -> request.getSealType() != null ? request.getSealType() : SealRecord.SealType.NORMAL)
+                .collect(Collectors.toSet());
+        return types.size() == 1 ? SEAL_TYPE_TAGS.getOrDefault(types.iterator().next(), "unknown") : "mixed";
     }
 
-    // ==================== 核心盖章逻辑 ====================
+    /**
+     * 在短只读事务中执行
+     */
+    private <T> T inReadTransaction(Supplier<T> action) {
+        TransactionTemplate readOnly = new TransactionTemplate(
+                Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> action.get());
+    }
 
     /**
-     * 执行单次盖章操作
+     * 生成签章后文件
+     * <p>
+     * 先写入同目录下的 .part 临时文件，成功后原子重命名为正式文件，失败时删除临时文件
+     * </p>
      *
-     * @param contract  合同文件
-     * @param sealInfo  印章信息
-     * @param positions 盖章位置列表
-     * @return 签章后文件路径
-     */
-    private Path doStamp(ContractFile contract, SealInfo sealInfo,
-                          List<SealPositionRequest> positions) {
-        // 优先使用已签章的 PDF，支持多次签章累加
-        String pathToUse = (contract.getSignedPath() != null && !contract.getSignedPath().isEmpty())
-                ? contract.getSignedPath()
-                : contract.getOriginalPath();
-        Path sourcePath = Paths.get(pathToUse);
-        if (!Files.exists(sourcePath)) {
-            throw new BusinessException("合同文件不存在");
+     * @param contractId 合同ID（用于日志）
+     * @param writer     PDF 写出操作
+     * @return 正式文件路径
+     */
+    private Path writeSignedFile(Long contractId, PdfWriter writer) {
+        Path signedPath;
+        Path partPath = null;
+        try {
+            signedPath = newSignedPath();
+            partPath = signedPath.resolveSibling(signedPath.getFileName() + ".part");
+            writer.write(partPath);
+            Files.move(partPath, signedPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(partPath);
+            log.error("盖章处理失败: contractId={}", contractId, e);
+            throw new BusinessException("盖章处理失败: " + e.getMessage());
+        } catch (RuntimeException e) {
+            deleteQuietly(partPath);
+            throw e;
         }
 
-        try (PDDocument document = Loader.loadPDF(sourcePath.toFile())) {
-            stampOnDocument(document, sealInfo, positions);
-            return saveSignedDocument(document, contract);
+        try {
+            log.info("保存签章后文件: {}, mode={}, size={}",
+                    signedPath, stampConfig.getSaveMode(), Files.size(signedPath));
         } catch (IOException e) {
-            log.error("盖章处理失败: contractId={}", contract.getId(), e);
-            throw new BusinessException("盖章处理失败: " + e.getMessage());
+            log.debug("读取签章后文件大小失败: {}", signedPath);
         }
+        return signedPath;
     }
 
     /**
-     * 在 PDF 文档上绘制印章
+     * 短写事务：校验合同在 PDF 处理期间未被修改，保存签章记录并更新合同
+     * <p>
+     * 事务失败时删除已生成的签章后文件；提交成功后只刷新签章记录涉及页面的预览图
+     * </p>
      *
-     * @param document  PDF 文档
-     * @param sealInfo  印章信息
-     * @param positions 盖章位置列表
+     * @param snapshot   阶段 1 读取的合同
+     * @param sourcePath 本次盖章的源文件
+     * @param signedPath 签章后文件路径
+     * @param records    待保存的签章记录
+     * @param trace      本次盖章的耗时记录
+     * @return 盖章响应
      */
-    private void stampOnDocument(PDDocument document, SealInfo sealInfo,
-                                  List<SealPositionRequest> positions) throws IOException {
-        // 获取印章图片路径
-        Path sealImagePath = getSealImagePath(sealInfo);
-        if (!Files.exists(sealImagePath)) {
-            throw new BusinessException("印章图片不存在: " + sealInfo.getSealName());
+    private ContractSealResponse commit(ContractFile snapshot, Path sourcePath, Path signedPath,
+                                        List<SealRecord> records, StampTrace trace) {
+        return commit(snapshot, sourcePath, signedPath, records, null, trace);
+    }
+
+    /**
+     * 同 {@link #commit(ContractFile, Path, Path, List, StampTrace)}，并在同一事务中执行 onCommit
+     * （抛出异常时本次盖章回滚）
+     */
+    private ContractSealResponse commit(ContractFile snapshot, Path sourcePath, Path signedPath,
+                                        List<SealRecord> records, Runnable onCommit, StampTrace trace) {
+        CommitResult result = commitRecords(snapshot, sourcePath, signedPath, records, onCommit, trace);
+        return buildResponse(result.contract(), signedPath, result.records());
+    }
+
+    /**
+     * {@link #commit} 的实现，返回更新后的合同和已保存的签章记录（顺序与传入的记录一致）
+     */
+    private CommitResult commitRecords(ContractFile snapshot, Path sourcePath, Path signedPath,
+                                       List<SealRecord> records, Runnable onCommit, StampTrace trace) {
+        CommitResult result;
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.COMMIT)) {
+            RevisionFiles files = inspectRevision(sourcePath, signedPath);
+            result = transactionTemplate.execute(status -> {
+                ContractFile contract = findContractOrThrow(snapshot.getId());
+                if (!Objects.equals(contract.getVersion(), snapshot.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(ContractFile.class, snapshot.getId());
+                }
+                validateContractStatus(contract);
+
+                // 记录本次盖章的修订，供撤销时截断或指回
+                StampRevision revision = stampRevisionRepository.save(StampRevision.builder()
+                        .contractId(contract.getId())
+                        .revisionNo(nextRevisionNo(contract.getId()))
+                        .previousSignedPath(hasSignedFile(contract) ? contract.getSignedPath() : null)
+                        .basePath(sourcePath.toString())
+                        .baseSize(files.baseSize())
+                        .signedPath(signedPath.toString())
+                        .signedSize(files.signedSize())
+                        .incremental(files.incremental() ? 1 : 0)
+                        .sealCount(records.size())
+                        .build());
+                records.forEach(record -> record.setRevisionId(revision.getId()));
+
+                // 批量写入（JDBC batch），避免逐条 INSERT 往返
+                List<SealRecord> saved = sealRecordRepository.saveAll(records);
+
+                contract.setSignedPath(signedPath.toString());
+                contract.setStatus(ContractFile.Status.SIGNED);
+                ContractFile updated = contractFileRepository.save(contract);
+                if (onCommit != null) {
+                    onCommit.run();
+                }
+                return new CommitResult(updated, saved);
+            });
+        } catch (RuntimeException e) {
+            deleteQuietly(signedPath);
+            throw e;
         }
+        sealPlacementIndex.advance(snapshot, result.contract(), result.records());
+
+        // 只重新渲染盖章涉及的页面，其余页面沿用已有预览图
+        Set<Integer> touchedPages = records.stream()
+                .map(SealRecord::getPageNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        boolean rebased = sourcePath.equals(Paths.get(snapshot.getOriginalPath()));
+        try (StampTrace.Span ignored = trace.stage(StampTrace.Stage.PREVIEW)) {
+            contractService.refreshSignedPreview(snapshot.getId(), touchedPages, rebased);
+        }
+        return result;
+    }
 
-        // 加载印章图片
-        PDImageXObject sealImage = PDImageXObject.createFromFile(
-                sealImagePath.toString(), document);
+    /**
+     * 阶段 2、3：在同一文档上一次性绘制所有请求（按页合并内容流），然后保存签章记录并更新合同
+     *
+     * @param context    阶段 1 读取的合同及与请求一一对应的图片
+     * @param sourcePath 源文件
+     * @param requests   盖章请求
+     * @param positions     与请求一一对应的已解析盖章位置
+     * @param includePlaced 重叠检测是否与已有签章比较
+     * @param trace         本次盖章的耗时记录
+     * @return 盖章响应
+     */
+    private ContractSealResponse drawAndCommit(StampContext context, Path sourcePath,
+                                               List<ContractSealRequest> requests,
+                                               List<List<SealPositionRequest>> positions,
+                                               boolean includePlaced,
+                                               StampTrace trace) {
+        Long contractId = context.contract().getId();
+        List<String> warnings = timed(trace, StampTrace.Stage.VALIDATE,
+                () -> checkOverlaps(context.contract(), requests, positions, includePlaced));
+        List<StampEngine.ImagePlacement> placements = new ArrayList<>();
+        List<SealRecord> allRecords = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            StampImage image = context.images().get(i);
+            List<SealPositionRequest> imagePositions = positions.get(i);
+            EncodedImage encoded = timed(trace, StampTrace.Stage.IMAGE, () -> loadImage(image, imagePositions));
+            placements.add(new StampEngine.ImagePlacement(encoded, imagePositions));
+            allRecords.addAll(buildRecords(contractId, image.id(), requests.get(i), imagePositions));
+            trace.addPositions(imagePositions.size());
+        }
+        Set<Integer> sealedPages = sealedPages(context.contract(), sourcePath);
+        Path signedPath = writeSignedFile(contractId,
+                target -> stampEngine.stampImages(sourcePath, sealedPages, placements, target, trace));
+        ContractSealResponse response = commit(context.contract(), sourcePath, signedPath, allRecords, trace);
+        response.setWarnings(warnings);
+        return response;
+    }
 
-        // 在每个位置绘制印章
-        for (SealPositionRequest position : positions) {
-            int pageIndex = position.getPageNumber() - 1;  // 转为0索引
-            PDPage page = document.getPage(pageIndex);
+    /**
+     * 依次检测各请求的盖章位置是否与已有签章或本次先前的位置重叠
+     *
+     * @return 重叠提示
+     * @throws BusinessException 重叠策略为 REJECT 且存在重叠
+     */
+    private List<String> checkOverlaps(ContractFile contract, List<ContractSealRequest> requests,
+                                       List<List<SealPositionRequest>> positions, boolean includePlaced) {
+        SealPlacementIndex.OverlapCheck overlapCheck = sealPlacementIndex.check(contract, includePlaced);
+        List<String> warnings = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            warnings.addAll(overlapCheck.accept(positions.get(i), sealTypeOf(requests.get(i))));
+        }
+        return warnings;
+    }
+
+    // ==================== 辅助方法 ====================
+
+    /**
+     * 当前用于盖章的源文件（优先使用已签章的 PDF）
+     */
+    private Path currentSourcePath(ContractFile contract) {
+        String pathToUse = (contract.getSignedPath() != null && !contract.getSignedPath().isEmpty())
+                ? contract.getSignedPath()
+                : contract.getOriginalPath();
+        return Paths.get(pathToUse);
+    }
 
-            // 使用 APPEND 模式添加内容，保留原有内容
-            try (PDPageContentStream contentStream = new PDPageContentStream(
-                    document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+    /**
+     * 源文件中已有签章的页码（盖章时只在这些页和本次盖章的页上查找可复用的已嵌入图片；基于原始文件盖章时为空）
+     */
+    private Set<Integer> sealedPages(ContractFile contract, Path sourcePath) {
+        if (!hasSignedFile(contract) || !sourcePath.equals(Paths.get(contract.getSignedPath()))) {
+            return Set.of();
+        }
+        return sealPlacementIndex.get(contract).sealedPages();
+    }
 
-                float x = position.getX().floatValue();
-                float y = position.getY().floatValue();
-                float width = position.getWidth().floatValue();
-                float height = position.getHeight().floatValue();
+    private boolean hasSignedFile(ContractFile contract) {
+        return contract.getSignedPath() != null && !contract.getSignedPath().isEmpty();
+    }
 
-                // 绘制印章图片
-                contentStream.drawImage(sealImage, x, y, width, height);
+    /**
+     * 合同下一个修订序号（须在写事务中、合同锁内调用）
+     */
+    private int nextRevisionNo(Long contractId) {
+        return stampRevisionRepository.findFirstByContractIdOrderByRevisionNoDesc(contractId)
+                .map(revision -> revision.getRevisionNo() + 1)
+                .orElse(1);
+    }
 
-                log.debug("绘制印章: page={}, x={}, y={}, w={}, h={}",
-                        position.getPageNumber(), x, y, width, height);
-            }
+    /**
+     * 读取修订的文件大小，并判断签章后文件是否为源文件加增量更新（逐字节比较源文件长度的前缀）
+     */
+    private RevisionFiles inspectRevision(Path sourcePath, Path signedPath) {
+        try {
+            return new RevisionFiles(Files.size(sourcePath), Files.size(signedPath),
+                    IncrementalRevisions.isIncrementalUpdate(sourcePath, signedPath));
+        } catch (IOException e) {
+            log.error("读取签章后文件失败: {}", signedPath, e);
+            throw new BusinessException("读取签章后文件失败: " + e.getMessage());
         }
     }
 
+    private Path requireSourceFile(Path sourcePath) {
+        if (!Files.exists(sourcePath)) {
+            throw new BusinessException("合同文件不存在");
+        }
+        return sourcePath;
+    }
+
     /**
-     * 保存签章后的文档
-     *
-     * @param document PDF 文档
-     * @param contract 合同文件
-     * @return 签章后文件路径
+     * 生成新的签章后文件路径
      */
-    private Path saveSignedDocument(PDDocument document, ContractFile contract)
-            throws IOException {
+    private Path newSignedPath() throws IOException {
         String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM"));
         String fileName = String.format("signed_%s_%s.pdf",
                 LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")),
@@ -374,15 +1272,33 @@ public class SealStampServiceImpl implements SealStampService {
         if (!Files.exists(targetDir)) {
             Files.createDirectories(targetDir);
         }
-
-        Path signedPath = targetDir.resolve(fileName);
-        document.save(signedPath.toFile());
-
-        log.info("保存签章后文件: {}", signedPath);
-        return signedPath;
+        return targetDir.resolve(fileName);
     }
 
-    // ==================== 辅助方法 ====================
+    /**
+     * 加载与盖章尺寸匹配的预编码图片（命中缓存时不做任何编码）
+     * <p>
+     * 同一图片在多个位置只嵌入一次，按最大的盖章区域确定目标分辨率
+     * </p>
+     */
+    private EncodedImage loadImage(StampImage image, List<SealPositionRequest> positions) {
+        float width = 0;
+        float height = 0;
+        if (positions != null) {
+            for (SealPositionRequest position : positions) {
+                if (position.getWidth() != null && position.getHeight() != null) {
+                    width = Math.max(width, position.getWidth().floatValue());
+                    height = Math.max(height, position.getHeight().floatValue());
+                }
+            }
+        }
+        try {
+            return stampImageCache.get(image.kind(), image.id(), image.path(), width, height);
+        } catch (IOException e) {
+            log.error("加载盖章图片失败: kind={}, id={}", image.kind(), image.id(), e);
+            throw new BusinessException("加载盖章图片失败: " + e.getMessage());
+        }
+    }
 
     /**
      * 获取印章图片绝对路径
@@ -399,17 +1315,19 @@ public class SealStampServiceImpl implements SealStampService {
     }
 
     /**
-     * 保存签章记录
+     * 构建签章记录（支持印章和签名）
+     *
+     * @param positions 已解析锚点的盖章位置
      */
-    private List<SealRecord> saveSealRecords(ContractFile contract, SealInfo sealInfo,
-                                              ContractSealRequest request) {
+    private List<SealRecord> buildRecords(Long contractId, Long sealOrSignatureId, ContractSealRequest request,
+                                          List<SealPositionRequest> positions) {
         List<SealRecord> records = new ArrayList<>();
         LocalDateTime now = LocalDateTime.now();
 
-        for (SealPositionRequest position : request.getPositions()) {
+        for (SealPositionRequest position : positions) {
             SealRecord record = SealRecord.builder()
-                    .contractId(contract.getId())
-                    .sealId(sealInfo.getId())
+                    .contractId(contractId)
+                    .sealId(sealOrSignatureId)  // 印章ID或签名ID
                     .pageNumber(position.getPageNumber())
                     .positionX(position.getX())
                     .positionY(position.getY())
@@ -421,52 +1339,20 @@ public class SealStampServiceImpl implements SealStampService {
                     .sealTime(now)
                     .build();
 
-            records.add(sealRecordRepository.save(record));
+            records.add(record);
         }
 
         return records;
     }
 
-    /**
-     * 更新合同为已签章状态
-     */
-    private void updateContractSigned(ContractFile contract, Path signedPath) {
-        contract.setSignedPath(signedPath.toString());
-        contract.setStatus(ContractFile.Status.SIGNED);
-        contractFileRepository.save(contract);
-
-        // 清理旧的签章后预览图缓存，确保下次预览时重新生成
-        clearSignedPreviewCache(contract.getId());
-    }
-
-    /**
-     * 清理签章后预览图缓存
-     * <p>
-     * 每次重新签章后，需要清理旧的预览图缓存，确保显示最新的签章效果
-     * </p>
-     */
-    private void clearSignedPreviewCache(Long contractId) {
-        String previewDir = String.format("%s/preview/%d/signed",
-                fileUploadConfig.getContractPath(), contractId);
-        Path previewPath = Paths.get(previewDir);
-
-        if (Files.exists(previewPath)) {
-            try {
-                // 删除目录下所有预览图文件
-                Files.list(previewPath)
-                        .filter(Files::isRegularFile)
-                        .forEach(file -> {
-                            try {
-                                Files.delete(file);
-                                log.debug("删除旧预览图: {}", file);
-                            } catch (IOException e) {
-                                log.warn("删除预览图失败: {}", file, e);
-                            }
-                        });
-                log.info("清理签章预览图缓存: contractId={}", contractId);
-            } catch (IOException e) {
-                log.warn("清理预览图缓存失败: contractId={}", contractId, e);
-            }
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除文件失败: {}", path, e);
         }
     }
 
@@ -527,11 +1413,6 @@ public class SealStampServiceImpl implements SealStampService {
         }
     }
 
-    private PersonalSignature findSignatureOrThrow(Long signatureId) {
-        return personalSignatureRepository.findById(signatureId)
-                .orElseThrow(() -> new BusinessException("个人签名不存在: " + signatureId));
-    }
-
     private void validateSignatureStatus(PersonalSignature signature) {
         if (signature.getStatus() != PersonalSignature.Status.ENABLED) {
             throw new BusinessException("个人签名已禁用: " + signature.getSignatureName());
@@ -553,108 +1434,182 @@ public class SealStampServiceImpl implements SealStampService {
     }
 
     /**
-     * 使用图片路径执行盖章
-     *
-     * @param contract  合同文件
-     * @param imagePath 图片路径（印章或签名）
-     * @param positions 盖章位置列表
-     * @return 签章后文件路径
-     */
-    private Path doStampWithImage(ContractFile contract, Path imagePath,
-                                   List<SealPositionRequest> positions) {
-        // 优先使用已签章的 PDF，支持多次签章累加
-        String pathToUse = (contract.getSignedPath() != null && !contract.getSignedPath().isEmpty())
-                ? contract.getSignedPath()
-                : contract.getOriginalPath();
-        Path sourcePath = Paths.get(pathToUse);
-        if (!Files.exists(sourcePath)) {
-            throw new BusinessException("合同文件不存在");
-        }
-
-        if (!Files.exists(imagePath)) {
-            throw new BusinessException("图片文件不存在: " + imagePath);
-        }
-
-        try (PDDocument document = Loader.loadPDF(sourcePath.toFile())) {
-            stampOnDocumentWithImage(document, imagePath, positions);
-            return saveSignedDocument(document, contract);
-        } catch (IOException e) {
-            log.error("盖章处理失败: contractId={}", contract.getId(), e);
-            throw new BusinessException("盖章处理失败: " + e.getMessage());
-        }
+     * 根据签章类型校验印章/签名并解析图片路径
+     */
+    private StampImage resolveStampImage(ContractSealRequest request) {
+        return resolveStampImages(List.of(request)).get(0);
     }
 
     /**
-     * 在 PDF 文档上绘制图片（印章或签名）
+     * 批量校验印章/签名并解析图片路径（印章和签名各一次 findAllById）
      *
-     * @param document  PDF 文档
-     * @param imagePath 图片路径
-     * @param positions 盖章位置列表
+     * @param requests 盖章请求列表（印章和个人签名可混合）
+     * @return 与请求一一对应的盖章图片
      */
-    private void stampOnDocumentWithImage(PDDocument document, Path imagePath,
-                                           List<SealPositionRequest> positions) throws IOException {
-        // 加载图片
-        PDImageXObject image = PDImageXObject.createFromFile(imagePath.toString(), document);
-
-        // 在每个位置绘制图片
-        for (SealPositionRequest position : positions) {
-            int pageIndex = position.getPageNumber() - 1;  // 转为0索引
-            PDPage page = document.getPage(pageIndex);
-
-            // 使用 APPEND 模式添加内容，保留原有内容
-            try (PDPageContentStream contentStream = new PDPageContentStream(
-                    document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
-
-                float x = position.getX().floatValue();
-                float y = position.getY().floatValue();
-                float width = position.getWidth().floatValue();
-                float height = position.getHeight().floatValue();
-
-                // 绘制图片
-                contentStream.drawImage(image, x, y, width, height);
+    private List<StampImage> resolveStampImages(List<ContractSealRequest> requests) {
+        Set<Long> sealIds = new HashSet<>();
+        Set<Long> signatureIds = new HashSet<>();
+        for (ContractSealRequest request : requests) {
+            if (isSignature(request)) {
+                if (request.getSignatureId() == null) {
+                    throw new BusinessException("个人签名ID不能为空");
+                }
+                signatureIds.add(request.getSignatureId());
+            } else {
+                // 印章模式（普通章或骑缝章）
+                if (request.getSealId() == null) {
+                    throw new BusinessException("印章ID不能为空");
+                }
+                sealIds.add(request.getSealId());
+            }
+        }
 
-                log.debug("绘制图片: page={}, x={}, y={}, w={}, h={}",
-                        position.getPageNumber(), x, y, width, height);
+        Map<Long, SealInfo> seals = sealIds.isEmpty() ? Map.of()
+                : sealInfoRepository.findAllById(sealIds).stream()
+                .collect(Collectors.toMap(SealInfo::getId, Function.identity()));
+        Map<Long, PersonalSignature> signatures = signatureIds.isEmpty() ? Map.of()
+                : personalSignatureRepository.findAllById(signatureIds).stream()
+                .collect(Collectors.toMap(PersonalSignature::getId, Function.identity()));
+
+        List<StampImage> images = new ArrayList<>(requests.size());
+        for (ContractSealRequest request : requests) {
+            if (isSignature(request)) {
+                PersonalSignature signature = signatures.get(request.getSignatureId());
+                if (signature == null) {
+                    throw new BusinessException("个人签名不存在: " + request.getSignatureId());
+                }
+                validateSignatureStatus(signature);
+                log.info("使用个人签名: signatureId={}, name={}", signature.getId(), signature.getSignatureName());
+                images.add(new StampImage(StampImageCache.ImageKind.SIGNATURE, signature.getId(),
+                        getSignatureImagePath(signature)));
+            } else {
+                SealInfo sealInfo = seals.get(request.getSealId());
+                if (sealInfo == null) {
+                    throw new BusinessException("印章不存在: " + request.getSealId());
+                }
+                validateSealStatus(sealInfo);
+                log.info("使用印章: sealId={}, name={}", sealInfo.getId(), sealInfo.getSealName());
+                images.add(new StampImage(StampImageCache.ImageKind.SEAL, sealInfo.getId(),
+                        getSealImagePath(sealInfo)));
             }
         }
+        return images;
     }
 
     /**
-     * 保存签章记录（支持印章和签名）
+     * 将版式角色绑定转换为盖章请求（位置在读取合同页数后由版式展开）
      */
-    private List<SealRecord> saveSealRecordsWithType(ContractFile contract, Long sealOrSignatureId,
-                                                      ContractSealRequest request) {
-        List<SealRecord> records = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (SealPositionRequest position : request.getPositions()) {
-            SealRecord record = SealRecord.builder()
-                    .contractId(contract.getId())
-                    .sealId(sealOrSignatureId)  // 印章ID或签名ID
-                    .pageNumber(position.getPageNumber())
-                    .positionX(position.getX())
-                    .positionY(position.getY())
-                    .sealWidth(position.getWidth())
-                    .sealHeight(position.getHeight())
-                    .sealType(request.getSealType())
+    private List<ContractSealRequest> toSealRequests(CompiledLayout layout, StampLayoutApplyRequest request) {
+        Set<String> roles = new HashSet<>();
+        List<ContractSealRequest> requests = new ArrayList<>(request.getBindings().size());
+        for (StampLayoutBindingRequest binding : request.getBindings()) {
+            String role = binding.getSealRole() != null ? binding.getSealRole().trim() : null;
+            if (role == null || !layout.roles().contains(role)) {
+                throw new BusinessException(String.format("版式 %s 中不存在签章角色: %s",
+                        layout.name(), binding.getSealRole()));
+            }
+            if (!roles.add(role)) {
+                throw new BusinessException("签章角色重复绑定: " + role);
+            }
+            requests.add(ContractSealRequest.builder()
+                    .sealId(binding.getSealId())
+                    .signatureId(binding.getSignatureId())
+                    .sealType(binding.getSealType())
                     .operatorId(request.getOperatorId())
                     .operatorName(request.getOperatorName())
-                    .sealTime(now)
-                    .build();
-
-            records.add(sealRecordRepository.save(record));
+                    .build());
         }
+        return requests;
+    }
 
-        return records;
+    private static Integer sealTypeOf(ContractSealRequest request) {
+        return request.getSealType() != null ? request.getSealType() : SealRecord.SealType.NORMAL;
+    }
+
+    private boolean isSignature(ContractSealRequest request) {
+        Integer sealType = request.getSealType() != null ? request.getSealType() : 1;
+        return sealType == SealRecord.SealType.PERSONAL_SIGNATURE;
     }
 
     private void validatePositions(List<SealPositionRequest> positions, Integer pageCount) {
         for (SealPositionRequest position : positions) {
-            if (position.getPageNumber() > pageCount) {
+            boolean anchored = position.getAnchorText() != null && !position.getAnchorText().isBlank();
+            if (!anchored && (position.getPageNumber() == null || position.getX() == null || position.getY() == null)) {
+                throw new BusinessException("盖章位置需指定页码和坐标，或指定锚点文本");
+            }
+            if (position.getPageNumber() != null && position.getPageNumber() > pageCount) {
                 throw new BusinessException(
                         String.format("页码超出范围: %d (总页数: %d)",
                                 position.getPageNumber(), pageCount));
             }
+            validateGeometry(position);
         }
     }
+
+    /**
+     * 校验坐标和尺寸的取值范围
+     * <p>
+     * 尺寸必须大于 0 且不超过页面尺寸上限，坐标和锚点偏移的绝对值不超过页面尺寸上限，
+     * 避免超大数值拖慢位置索引和渲染
+     * </p>
+     */
+    private void validateGeometry(SealPositionRequest position) {
+        if (position.getWidth() == null || position.getHeight() == null
+                || position.getWidth().signum() <= 0 || position.getHeight().signum() <= 0
+                || exceedsPageSize(position.getWidth()) || exceedsPageSize(position.getHeight())) {
+            throw new BusinessException(String.format("印章尺寸必须大于0且不超过%.0f", PlacedSeal.MAX_PAGE_SIZE));
+        }
+        if (exceedsPageSize(position.getX()) || exceedsPageSize(position.getY())
+                || exceedsPageSize(position.getAnchorOffsetX()) || exceedsPageSize(position.getAnchorOffsetY())) {
+            throw new BusinessException(String.format("盖章坐标超出范围: 绝对值不能超过%.0f", PlacedSeal.MAX_PAGE_SIZE));
+        }
+    }
+
+    private static boolean exceedsPageSize(BigDecimal value) {
+        return value != null && value.abs().compareTo(MAX_PAGE_SIZE) > 0;
+    }
+
+    /**
+     * 盖章图片（来源类型、印章或签名ID、图片路径）
+     */
+    private record StampImage(StampImageCache.ImageKind kind, Long id, Path path) {
+    }
+
+    /**
+     * 阶段 1 读取的元数据（合同快照及已校验的图片）
+     */
+    private record StampContext(ContractFile contract, List<StampImage> images) {
+    }
+
+    /**
+     * 工作区打开时读取的合同及可用的印章/签名
+     */
+    private record WorkspaceSnapshot(ContractFile contract, List<StampWorkspace.WorkspaceImage> images) {
+    }
+
+    /**
+     * 阶段 3 的提交结果
+     */
+    private record CommitResult(ContractFile contract, List<SealRecord> records) {
+    }
+
+    /**
+     * 修订文件信息（源文件大小、签章后文件大小、是否为增量更新）
+     */
+    private record RevisionFiles(long baseSize, long signedSize, boolean incremental) {
+    }
+
+    /**
+     * 撤销盖章时读取的合同、待撤销修订及其余有效签章所在页码（仅在指回非增量的旧文件时需要）
+     */
+    private record UndoContext(ContractFile contract, StampRevision revision, List<Integer> remainingPages) {
+    }
+
+    /**
+     * PDF 写出操作
+     */
+    @FunctionalInterface
+    private interface PdfWriter {
+        void write(Path target) throws IOException;
+    }
 }
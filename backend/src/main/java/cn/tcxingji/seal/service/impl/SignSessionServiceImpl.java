@@ -0,0 +1,311 @@
+package cn.tcxingji.seal.service.impl;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.SignSessionCreateRequest;
+import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.dto.response.SignSessionResponse;
+import cn.tcxingji.seal.entity.ContractFile;
+import cn.tcxingji.seal.entity.SignSession;
+import cn.tcxingji.seal.entity.SignSessionSigner;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.lock.LeaseHeartbeat;
+import cn.tcxingji.seal.repository.ContractFileRepository;
+import cn.tcxingji.seal.repository.SignSessionRepository;
+import cn.tcxingji.seal.repository.SignSessionSignerRepository;
+import cn.tcxingji.seal.service.SealStampService;
+import cn.tcxingji.seal.service.SignSessionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多方签署会话服务实现类
+ * <p>
+ * 会话状态变更（提交签署方、开始合并）在会话行锁内完成，只持有到短事务结束；
+ * 签署方准备和合并都在事务外执行，合并由 {@link SealStampService#mergeSigners} 在合同锁内完成。
+ * 每次开始合并登记唯一的持有者标识，合并期间按数据库时钟续期合并租约；
+ * 会话在保存签章记录的同一事务中切换为已完成，合并被接管或已提交后不会重复盖章
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SignSessionServiceImpl implements SignSessionService {
+
+    /**
+     * 合并已被其他请求接管的错误码
+     */
+    private static final int CONFLICT = 409;
+
+    private final SignSessionRepository signSessionRepository;
+    private final SignSessionSignerRepository signSessionSignerRepository;
+    private final ContractFileRepository contractFileRepository;
+    private final SealStampService sealStampService;
+    private final StampConfig stampConfig;
+    private final LeaseHeartbeat leaseHeartbeat;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public SignSessionResponse create(SignSessionCreateRequest request) {
+        int maxSigners = stampConfig.getSession().getMaxSigners();
+        if (request.getExpectedSigners() > maxSigners) {
+            throw new BusinessException(String.format("单个签署会话最多 %d 个签署方", maxSigners));
+        }
+        ContractFile contract = contractFileRepository.findById(request.getContractId())
+                .orElseThrow(() -> new BusinessException("合同不存在: " + request.getContractId()));
+        if (contract.getStatus() == ContractFile.Status.CANCELLED) {
+            throw new BusinessException("合同已作废，无法盖章");
+        }
+
+        SignSession session = signSessionRepository.save(SignSession.builder()
+                .contractId(contract.getId())
+                .baseVersion(contract.getVersion())
+                .expectedSigners(request.getExpectedSigners())
+                .operatorId(request.getOperatorId())
+                .operatorName(request.getOperatorName())
+                .expireTime(LocalDateTime.now().plus(stampConfig.getSession().getTtl()))
+                .build());
+
+        log.info("创建签署会话: sessionId={}, contractId={}, baseVersion={}, expectedSigners={}",
+                session.getId(), contract.getId(), contract.getVersion(), request.getExpectedSigners());
+        return toResponse(session, 0);
+    }
+
+    @Override
+    public SignSessionResponse addSigner(Long sessionId, ContractSealRequest request) {
+        // 1. 准备签章前先检查会话状态，避免为已结束的会话做无用功
+        SignSession session = findSessionOrThrow(sessionId);
+        validateOpen(session);
+
+        // 2. 校验、锚点定位和图片预编码（不加载 PDF、不加锁，各签署方并行）
+        ContractSealRequest prepared = sealStampService.prepareSigner(session.getContractId(), request);
+        String payload = toJson(prepared);
+
+        // 3. 会话行锁内写入签署方，最后一个签署方将会话切换为合并中
+        SignerAdded added = transactionTemplate.execute(status -> {
+            SignSession locked = lockSessionOrThrow(sessionId);
+            validateOpen(locked);
+            long count = signSessionSignerRepository.countBySessionId(sessionId);
+            if (count >= locked.getExpectedSigners()) {
+                throw new BusinessException("签署方已满: " + locked.getExpectedSigners());
+            }
+            signSessionSignerRepository.save(SignSessionSigner.builder()
+                    .sessionId(sessionId)
+                    .payload(payload)
+                    .operatorId(prepared.getOperatorId())
+                    .operatorName(prepared.getOperatorName())
+                    .build());
+            boolean ready = count + 1 >= locked.getExpectedSigners();
+            if (ready) {
+                locked = startMerge(locked);
+            }
+            return new SignerAdded(locked, (int) count + 1, ready);
+        });
+
+        log.info("签署方已提交: sessionId={}, contractId={}, signers={}/{}",
+                sessionId, session.getContractId(), added.signerCount(), session.getExpectedSigners());
+        if (!added.ready()) {
+            return toResponse(added.session(), added.signerCount());
+        }
+        return merge(added.session());
+    }
+
+    @Override
+    public SignSessionResponse complete(Long sessionId) {
+        SignSession session = transactionTemplate.execute(status -> {
+            SignSession locked = lockSessionOrThrow(sessionId);
+            boolean mergeStalled = locked.getStatus() == SignSession.Status.MERGING
+                    && signSessionRepository.countStalledMerge(sessionId) > 0;
+            if (locked.getStatus() != SignSession.Status.OPEN && locked.getStatus() != SignSession.Status.FAILED
+                    && !mergeStalled) {
+                throw new BusinessException("签署会话不可合并，当前状态: " + locked.getStatus());
+            }
+            if (signSessionSignerRepository.countBySessionId(sessionId) == 0) {
+                throw new BusinessException("签署会话还没有签署方");
+            }
+            if (mergeStalled) {
+                log.warn("签署会话合并租约已过期，重新合并: sessionId={}, mergeDeadline={}",
+                        sessionId, locked.getMergeDeadline());
+            }
+            return startMerge(locked);
+        });
+        return merge(session);
+    }
+
+    @Override
+    public SignSessionResponse getSession(Long sessionId) {
+        SignSession session = findSessionOrThrow(sessionId);
+        return toResponse(session, (int) signSessionSignerRepository.countBySessionId(sessionId));
+    }
+
+    @Override
+    public List<SignSessionResponse> getSessionsByContract(Long contractId) {
+        return signSessionRepository.findByContractIdOrderByIdDesc(contractId).stream()
+                .map(session -> toResponse(session,
+                        (int) signSessionSignerRepository.countBySessionId(session.getId())))
+                .toList();
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 将会话切换为合并中，登记本次合并的持有者并设置合并租约（在会话行锁内调用）
+     * <p>
+     * 租约截止时间按数据库时钟写入；持久化上下文随后被清空，返回的会话只在内存中更新状态和持有者
+     * </p>
+     */
+    private SignSession startMerge(SignSession locked) {
+        String owner = UUID.randomUUID().toString();
+        signSessionRepository.startMerge(locked.getId(), owner, toMicros(stampConfig.getSession().getMergeLease()));
+        locked.setStatus(SignSession.Status.MERGING);
+        locked.setMergeOwner(owner);
+        return locked;
+    }
+
+    /**
+     * 合并所有签署方（会话已切换为合并中）
+     * <p>
+     * 合并期间定期续期合并租约；签章记录与会话完成状态在同一事务中提交，合并已被接管时本次盖章回滚。
+     * 合并失败时会话标记为合并失败并返回失败原因，签署方数据保留，可通过完成接口重试；
+     * 节点在合并中宕机时，会话在合并租约到期后也可通过完成接口重新合并
+     * </p>
+     */
+    private SignSessionResponse merge(SignSession session) {
+        Long sessionId = session.getId();
+        String owner = session.getMergeOwner();
+        List<SignSessionSigner> signers = signSessionSignerRepository.findBySessionIdOrderByIdAsc(sessionId);
+        List<ContractSealRequest> requests = signers.stream()
+                .map(signer -> fromJson(signer.getPayload()))
+                .toList();
+
+        Long currentVersion = contractFileRepository.findById(session.getContractId())
+                .map(ContractFile::getVersion)
+                .orElse(null);
+        if (!Objects.equals(currentVersion, session.getBaseVersion())) {
+            // 签章位置已在准备阶段解析为坐标，与合同版本无关，直接在最新版本上追加
+            log.info("合同在签署期间已更新，在最新版本上合并: sessionId={}, baseVersion={}, currentVersion={}",
+                    sessionId, session.getBaseVersion(), currentVersion);
+        }
+
+        Duration lease = stampConfig.getSession().getMergeLease();
+        ContractSealResponse response;
+        try (LeaseHeartbeat.Renewal ignored = leaseHeartbeat.start(lease, "sign-session:" + sessionId,
+                () -> renewMerge(sessionId, owner, lease))) {
+            response = sealStampService.mergeSigners(session.getContractId(), requests, () -> {
+                if (signSessionRepository.finish(sessionId, owner, SignSession.Status.COMPLETED, null) == 0) {
+                    throw new BusinessException(CONFLICT, "签署会话合并已被其他请求接管");
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("签署会话合并失败: sessionId={}, contractId={}", sessionId, session.getContractId(), e);
+            String error = truncate(e.getMessage());
+            Integer updated = transactionTemplate.execute(tx ->
+                    signSessionRepository.finish(sessionId, owner, SignSession.Status.FAILED, error));
+            if (updated == null || updated == 0) {
+                log.warn("签署会话合并已被接管，不写回本次失败: sessionId={}", sessionId);
+            }
+            return toResponse(findSessionOrThrow(sessionId), requests.size());
+        }
+
+        // 会话已随签章记录一起完成，结果写回失败只影响查询展示
+        try {
+            String result = toJson(response);
+            transactionTemplate.execute(tx -> signSessionRepository.saveResult(sessionId, owner, result));
+        } catch (RuntimeException e) {
+            log.warn("写回签署会话合并结果失败: sessionId={}", sessionId, e);
+        }
+        return toResponse(findSessionOrThrow(sessionId), requests.size());
+    }
+
+    /**
+     * 续期合并租约，返回合并是否仍由本次持有
+     */
+    private boolean renewMerge(Long sessionId, String owner, Duration lease) {
+        Integer updated = transactionTemplate.execute(tx ->
+                signSessionRepository.renewMerge(sessionId, owner, toMicros(lease)));
+        return updated != null && updated > 0;
+    }
+
+    private void validateOpen(SignSession session) {
+        if (session.getStatus() != SignSession.Status.OPEN) {
+            throw new BusinessException("签署会话已结束，不再接受签署方");
+        }
+        if (session.getExpireTime().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("签署会话已过期");
+        }
+    }
+
+    private SignSessionResponse toResponse(SignSession session, int signerCount) {
+        SignSessionResponse response = SignSessionResponse.fromEntity(session);
+        response.setSignerCount(signerCount);
+        if (session.getResult() != null) {
+            try {
+                response.setResult(objectMapper.readValue(session.getResult(), ContractSealResponse.class));
+            } catch (JsonProcessingException e) {
+                log.warn("解析签署会话结果失败: sessionId={}", session.getId(), e);
+            }
+        }
+        return response;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("签署数据序列化失败: " + e.getMessage());
+        }
+    }
+
+    private ContractSealRequest fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, ContractSealRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("签署数据解析失败: " + e.getMessage());
+        }
+    }
+
+    private static long toMicros(Duration duration) {
+        return TimeUnit.NANOSECONDS.toMicros(duration.toNanos());
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private SignSession findSessionOrThrow(Long sessionId) {
+        return signSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new BusinessException("签署会话不存在: " + sessionId));
+    }
+
+    private SignSession lockSessionOrThrow(Long sessionId) {
+        return signSessionRepository.lockById(sessionId)
+                .orElseThrow(() -> new BusinessException("签署会话不存在: " + sessionId));
+    }
+
+    /**
+     * 提交签署方的结果
+     *
+     * @param session     会话（已加锁读取）
+     * @param signerCount 提交后的签署方数量
+     * @param ready       是否已全部就绪（会话已切换为合并中）
+     */
+    private record SignerAdded(SignSession session, int signerCount, boolean ready) {
+    }
+}
@@ -6,6 +6,7 @@ import cn.tcxingji.seal.dto.request.SignatureQueryRequest;
 import cn.tcxingji.seal.dto.response.PageResponse;
 import cn.tcxingji.seal.dto.response.SignatureResponse;
 import cn.tcxingji.seal.entity.PersonalSignature;
+import cn.tcxingji.seal.pdf.StampImageCache;
 import cn.tcxingji.seal.repository.PersonalSignatureRepository;
 import cn.tcxingji.seal.service.SignatureService;
 import lombok.RequiredArgsConstructor;
@@ -39,6 +40,7 @@ public class SignatureServiceImpl implements SignatureService {
 
     private final PersonalSignatureRepository signatureRepository;
     private final FileUploadConfig fileUploadConfig;
+    private final StampImageCache stampImageCache;
 
     /**
      * 文件访问基础URL
@@ -98,6 +100,7 @@ public class SignatureServiceImpl implements SignatureService {
                 .orElseThrow(() -> new RuntimeException("签名不存在: id=" + id));
 
         signatureRepository.delete(signature);
+        stampImageCache.invalidate(StampImageCache.ImageKind.SIGNATURE, id);
         log.info("签名删除成功: id={}", id);
     }
 
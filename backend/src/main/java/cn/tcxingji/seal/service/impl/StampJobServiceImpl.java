@@ -0,0 +1,119 @@
+package cn.tcxingji.seal.service.impl;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.PerforationSealRequest;
+import cn.tcxingji.seal.dto.response.StampJobResponse;
+import cn.tcxingji.seal.entity.ContractFile;
+import cn.tcxingji.seal.entity.StampJob;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.job.StampJobEventHub;
+import cn.tcxingji.seal.repository.ContractFileRepository;
+import cn.tcxingji.seal.repository.StampJobRepository;
+import cn.tcxingji.seal.service.StampJobService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * 异步盖章任务服务实现类
+ *
+ * @author TC System
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StampJobServiceImpl implements StampJobService {
+
+    private final StampJobRepository stampJobRepository;
+    private final ContractFileRepository contractFileRepository;
+    private final StampJobEventHub eventHub;
+    private final StampConfig stampConfig;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional
+    public StampJobResponse submitStamp(Long contractId, ContractSealRequest request) {
+        return submit(contractId, StampJob.JobType.STAMP, request, request.getOperatorId());
+    }
+
+    @Override
+    @Transactional
+    public StampJobResponse submitBatch(Long contractId, List<ContractSealRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BusinessException("盖章请求不能为空");
+        }
+        return submit(contractId, StampJob.JobType.BATCH, requests, requests.get(0).getOperatorId());
+    }
+
+    @Override
+    @Transactional
+    public StampJobResponse submitPerforation(Long contractId, PerforationSealRequest request) {
+        return submit(contractId, StampJob.JobType.PERFORATION, request, request.getOperatorId());
+    }
+
+    @Override
+    public StampJobResponse getJob(Long jobId) {
+        return eventHub.toResponse(findJobOrThrow(jobId));
+    }
+
+    @Override
+    public List<StampJobResponse> getJobsByContract(Long contractId) {
+        return stampJobRepository.findByContractIdOrderByIdDesc(contractId).stream()
+                .map(eventHub::toResponse)
+                .toList();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long jobId) {
+        StampJob job = findJobOrThrow(jobId);
+        return eventHub.subscribe(job, stampConfig.getJob().getSseTimeout().toMillis());
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 写入任务表
+     * <p>
+     * 提交时只做轻量校验（合同存在且未作废），印章等校验在执行时完成
+     * </p>
+     */
+    private StampJobResponse submit(Long contractId, int jobType, Object payload, Long operatorId) {
+        ContractFile contract = contractFileRepository.findById(contractId)
+                .orElseThrow(() -> new BusinessException("合同不存在: " + contractId));
+        if (contract.getStatus() == ContractFile.Status.CANCELLED) {
+            throw new BusinessException("合同已作废，无法盖章");
+        }
+
+        StampJob job = StampJob.builder()
+                .contractId(contractId)
+                .jobType(jobType)
+                .payload(toJson(payload))
+                .maxAttempts(Math.max(1, stampConfig.getJob().getMaxAttempts()))
+                .operatorId(operatorId)
+                .build();
+        job = stampJobRepository.save(job);
+
+        log.info("提交盖章任务: jobId={}, contractId={}, jobType={}", job.getId(), contractId, jobType);
+        return eventHub.toResponse(job);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("盖章请求序列化失败: " + e.getMessage());
+        }
+    }
+
+    private StampJob findJobOrThrow(Long jobId) {
+        return stampJobRepository.findById(jobId)
+                .orElseThrow(() -> new BusinessException("盖章任务不存在: " + jobId));
+    }
+}
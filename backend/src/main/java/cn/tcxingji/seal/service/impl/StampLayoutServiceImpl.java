@@ -0,0 +1,166 @@
+package cn.tcxingji.seal.service.impl;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.dto.request.StampLayoutItemRequest;
+import cn.tcxingji.seal.dto.request.StampLayoutRequest;
+import cn.tcxingji.seal.dto.response.StampLayoutResponse;
+import cn.tcxingji.seal.entity.StampLayout;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.layout.CompiledLayout;
+import cn.tcxingji.seal.layout.StampLayoutCache;
+import cn.tcxingji.seal.repository.StampLayoutRepository;
+import cn.tcxingji.seal.service.StampLayoutService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 盖章版式服务实现类
+ * <p>
+ * 保存前用 {@link CompiledLayout#compile} 校验页码选择和参考页面范围，修改后清除版式缓存
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StampLayoutServiceImpl implements StampLayoutService {
+
+    private final StampLayoutRepository stampLayoutRepository;
+    private final StampLayoutCache stampLayoutCache;
+    private final StampConfig stampConfig;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional
+    public StampLayoutResponse create(StampLayoutRequest request) {
+        log.info("创建盖章版式: ownerId={}, name={}", request.getOwnerId(), request.getLayoutName());
+
+        if (stampLayoutRepository.existsByOwnerIdAndLayoutName(request.getOwnerId(), request.getLayoutName())) {
+            throw new BusinessException("版式名称已存在");
+        }
+        validate(request);
+
+        StampLayout layout = StampLayout.builder()
+                .layoutName(request.getLayoutName())
+                .ownerId(request.getOwnerId())
+                .pageWidth(request.getPageWidth())
+                .pageHeight(request.getPageHeight())
+                .items(writeItems(request.getItems()))
+                .status(StampLayout.Status.ENABLED)
+                .createBy(request.getOperatorName())
+                .updateBy(request.getOperatorName())
+                .build();
+
+        StampLayout saved = stampLayoutRepository.save(layout);
+        log.info("盖章版式创建成功: id={}, items={}", saved.getId(), request.getItems().size());
+        return StampLayoutResponse.fromEntity(saved, request.getItems());
+    }
+
+    @Override
+    @Transactional
+    public StampLayoutResponse update(Long id, StampLayoutRequest request) {
+        log.info("更新盖章版式: id={}", id);
+
+        StampLayout layout = findByIdOrThrow(id);
+        if (!request.getOwnerId().equals(layout.getOwnerId())) {
+            throw new BusinessException("不能修改版式的所有者");
+        }
+        if (stampLayoutRepository.existsByOwnerIdAndLayoutNameAndIdNot(
+                layout.getOwnerId(), request.getLayoutName(), id)) {
+            throw new BusinessException("版式名称已存在");
+        }
+        validate(request);
+
+        layout.setLayoutName(request.getLayoutName());
+        layout.setPageWidth(request.getPageWidth());
+        layout.setPageHeight(request.getPageHeight());
+        layout.setItems(writeItems(request.getItems()));
+        layout.setUpdateBy(request.getOperatorName());
+
+        StampLayout saved = stampLayoutRepository.save(layout);
+        stampLayoutCache.invalidate(id);
+        log.info("盖章版式更新成功: id={}, items={}", id, request.getItems().size());
+        return StampLayoutResponse.fromEntity(saved, request.getItems());
+    }
+
+    @Override
+    public StampLayoutResponse getById(Long id) {
+        StampLayout layout = findByIdOrThrow(id);
+        return StampLayoutResponse.fromEntity(layout, stampLayoutCache.readItems(layout));
+    }
+
+    @Override
+    public List<StampLayoutResponse> listByOwner(Long ownerId) {
+        return stampLayoutRepository.findByOwnerIdOrderByIdDesc(ownerId).stream()
+                .map(layout -> StampLayoutResponse.fromEntity(layout, stampLayoutCache.readItems(layout)))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public StampLayoutResponse updateStatus(Long id, Integer status) {
+        log.info("更新盖章版式状态: id={}, status={}", id, status);
+
+        if (status == null || (status != StampLayout.Status.DISABLED && status != StampLayout.Status.ENABLED)) {
+            throw new BusinessException("无效的状态值");
+        }
+
+        StampLayout layout = findByIdOrThrow(id);
+        layout.setStatus(status);
+        StampLayout saved = stampLayoutRepository.save(layout);
+        stampLayoutCache.invalidate(id);
+        return StampLayoutResponse.fromEntity(saved, stampLayoutCache.readItems(saved));
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        log.info("删除盖章版式: id={}", id);
+
+        if (!stampLayoutRepository.existsById(id)) {
+            throw new BusinessException(404, "盖章版式不存在");
+        }
+        stampLayoutRepository.deleteById(id);
+        stampLayoutCache.invalidate(id);
+        log.info("盖章版式删除成功: id={}", id);
+    }
+
+    // ==================== 私有方法 ====================
+
+    private StampLayout findByIdOrThrow(Long id) {
+        return stampLayoutRepository.findById(id)
+                .orElseThrow(() -> new BusinessException(404, "盖章版式不存在"));
+    }
+
+    /**
+     * 校验条目数量、页码选择和参考页面范围
+     */
+    private void validate(StampLayoutRequest request) {
+        int maxItems = stampConfig.getLayout().getMaxItems();
+        if (request.getItems().size() > maxItems) {
+            throw new BusinessException(String.format("单个版式最多 %d 个条目，当前 %d 个",
+                    maxItems, request.getItems().size()));
+        }
+        BigDecimal pageWidth = request.getPageWidth() != null ? request.getPageWidth() : new BigDecimal("595");
+        BigDecimal pageHeight = request.getPageHeight() != null ? request.getPageHeight() : new BigDecimal("842");
+        request.setPageWidth(pageWidth);
+        request.setPageHeight(pageHeight);
+        CompiledLayout.compile(null, request.getLayoutName(), pageWidth, pageHeight, request.getItems());
+    }
+
+    private String writeItems(List<StampLayoutItemRequest> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化版式条目失败", e);
+        }
+    }
+}
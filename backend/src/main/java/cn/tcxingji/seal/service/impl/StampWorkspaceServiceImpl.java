@@ -0,0 +1,97 @@
+package cn.tcxingji.seal.service.impl;
+
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.StampWorkspaceOpenRequest;
+import cn.tcxingji.seal.dto.response.ContractSealResponse;
+import cn.tcxingji.seal.dto.response.StampWorkspaceResponse;
+import cn.tcxingji.seal.service.SealStampService;
+import cn.tcxingji.seal.service.StampWorkspaceService;
+import cn.tcxingji.seal.workspace.StampWorkspace;
+import cn.tcxingji.seal.workspace.StampWorkspaceRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 盖章工作区服务实现类
+ * <p>
+ * 工作区由 {@link StampWorkspaceRegistry} 保存在本实例内存中，同一工作区的操作串行执行；
+ * 文档处理和提交由 {@link SealStampService} 完成
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StampWorkspaceServiceImpl implements StampWorkspaceService {
+
+    private final SealStampService sealStampService;
+    private final StampWorkspaceRegistry stampWorkspaceRegistry;
+
+    @Override
+    public StampWorkspaceResponse open(StampWorkspaceOpenRequest request) {
+        stampWorkspaceRegistry.ensureCapacity();
+        StampWorkspace workspace = sealStampService.openWorkspace(request);
+        stampWorkspaceRegistry.register(workspace);
+        return StampWorkspaceResponse.fromWorkspace(workspace);
+    }
+
+    @Override
+    public StampWorkspaceResponse place(String workspaceId, ContractSealRequest request) {
+        StampWorkspace workspace = stampWorkspaceRegistry.get(workspaceId);
+        try {
+            return workspace.execute(() -> {
+                ContractSealRequest placed = sealStampService.placeInWorkspace(workspace, request);
+                StampWorkspaceResponse response = StampWorkspaceResponse.fromWorkspace(workspace);
+                response.setPlacedPositions(placed.getPositions());
+                return response;
+            });
+        } finally {
+            removeIfClosed(workspace);
+        }
+    }
+
+    @Override
+    public StampWorkspaceResponse commit(String workspaceId) {
+        StampWorkspace workspace = stampWorkspaceRegistry.get(workspaceId);
+        try {
+            return workspace.execute(() -> {
+                ContractSealResponse result = sealStampService.commitWorkspace(workspace);
+                StampWorkspaceResponse response = StampWorkspaceResponse.fromWorkspace(workspace);
+                response.setResult(result);
+                workspace.close();
+                return response;
+            });
+        } finally {
+            removeIfClosed(workspace);
+        }
+    }
+
+    @Override
+    public void discard(String workspaceId) {
+        StampWorkspace workspace = stampWorkspaceRegistry.get(workspaceId);
+        workspace.execute(() -> {
+            workspace.close();
+            return null;
+        });
+        stampWorkspaceRegistry.remove(workspaceId);
+        log.info("丢弃盖章工作区: workspaceId={}, contractId={}, placements={}",
+                workspaceId, workspace.getContractId(), workspace.getPlacements().size());
+    }
+
+    @Override
+    public StampWorkspaceResponse getWorkspace(String workspaceId) {
+        StampWorkspace workspace = stampWorkspaceRegistry.get(workspaceId);
+        return workspace.execute(() -> StampWorkspaceResponse.fromWorkspace(workspace));
+    }
+
+    /**
+     * 工作区已关闭（提交完成、处理失败或已过期）时从注册表移除
+     */
+    private void removeIfClosed(StampWorkspace workspace) {
+        if (workspace.isClosed()) {
+            stampWorkspaceRegistry.remove(workspace.getId());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package cn.tcxingji.seal.service.impl;
+
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.entity.ContractFile;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.pdf.PdfDocumentLease;
+import cn.tcxingji.seal.pdf.PdfMemoryGovernor;
+import cn.tcxingji.seal.pdf.TextIndexCache;
+import cn.tcxingji.seal.pdf.TextPositionIndex;
+import cn.tcxingji.seal.repository.ContractFileRepository;
+import cn.tcxingji.seal.service.TextAnchorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文本锚点定位服务实现类
+ * <p>
+ * 索引在上传时构建；上线前上传的合同在首次使用锚点时补建索引并回写路径，之后只读取缓存的索引
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TextAnchorServiceImpl implements TextAnchorService {
+
+    private final ContractFileRepository contractFileRepository;
+    private final TextIndexCache textIndexCache;
+    private final PdfMemoryGovernor pdfMemoryGovernor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public Path buildIndex(Path pdfPath, PDDocument document) throws IOException {
+        long start = System.nanoTime();
+        TextPositionIndex index = TextPositionIndex.build(document);
+        Path indexPath = TextPositionIndex.pathFor(pdfPath);
+        index.write(indexPath);
+        textIndexCache.put(indexPath, index);
+        log.info("文本位置索引构建完成: file={}, chars={}, cost={}ms",
+                pdfPath.getFileName(), index.size(), (System.nanoTime() - start) / 1_000_000);
+        return indexPath;
+    }
+
+    @Override
+    public List<SealPositionRequest> resolveAnchors(ContractFile contract, List<SealPositionRequest> positions) {
+        if (positions.stream().noneMatch(TextAnchorServiceImpl::hasAnchor)) {
+            return positions;
+        }
+        TextPositionIndex index = loadIndex(contract);
+
+        List<SealPositionRequest> resolved = new ArrayList<>(positions.size());
+        for (SealPositionRequest position : positions) {
+            if (!hasAnchor(position)) {
+                resolved.add(position);
+                continue;
+            }
+            int occurrence = position.getAnchorOccurrence() != null ? position.getAnchorOccurrence() : 1;
+            TextPositionIndex.AnchorMatch match = index
+                    .find(position.getAnchorText(), position.getPageNumber(), occurrence)
+                    .orElseThrow(() -> new BusinessException("未找到锚点文本: " + position.getAnchorText()));
+
+            // 印章中心对齐锚点中心，再加偏移
+            float width = position.getWidth().floatValue();
+            float height = position.getHeight().floatValue();
+            float x = match.centerX() + floatOrZero(position.getAnchorOffsetX()) - width / 2;
+            float y = match.centerY() + floatOrZero(position.getAnchorOffsetY()) - height / 2;
+
+            resolved.add(SealPositionRequest.builder()
+                    .pageNumber(match.pageNumber())
+                    .x(BigDecimal.valueOf(x).setScale(2, RoundingMode.HALF_UP))
+                    .y(BigDecimal.valueOf(y).setScale(2, RoundingMode.HALF_UP))
+                    .width(position.getWidth())
+                    .height(position.getHeight())
+                    .anchorText(position.getAnchorText())
+                    .anchorOccurrence(position.getAnchorOccurrence())
+                    .anchorOffsetX(position.getAnchorOffsetX())
+                    .anchorOffsetY(position.getAnchorOffsetY())
+                    .build());
+            log.debug("锚点定位: contractId={}, anchor={}, page={}, x={}, y={}",
+                    contract.getId(), position.getAnchorText(), match.pageNumber(), x, y);
+        }
+        return resolved;
+    }
+
+    /**
+     * 读取合同的文本位置索引，索引缺失时补建
+     */
+    private TextPositionIndex loadIndex(ContractFile contract) {
+        try {
+            if (contract.getTextIndexPath() != null) {
+                Path indexPath = Paths.get(contract.getTextIndexPath());
+                if (Files.exists(indexPath)) {
+                    return textIndexCache.get(indexPath);
+                }
+            }
+
+            Path pdfPath = Paths.get(contract.getOriginalPath());
+            if (!Files.exists(pdfPath)) {
+                throw new BusinessException("合同文件不存在");
+            }
+            log.info("合同缺少文本位置索引，开始补建: contractId={}", contract.getId());
+            Path indexPath;
+            try (PdfDocumentLease lease = pdfMemoryGovernor.open(pdfPath)) {
+                indexPath = buildIndex(pdfPath, lease.getDocument());
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    contractFileRepository.updateTextIndexPath(contract.getId(), indexPath.toString()));
+            return textIndexCache.get(indexPath);
+        } catch (IOException e) {
+            log.error("读取文本位置索引失败: contractId={}", contract.getId(), e);
+            throw new BusinessException("读取文本位置索引失败: " + e.getMessage());
+        }
+    }
+
+    private static boolean hasAnchor(SealPositionRequest position) {
+        return position.getAnchorText() != null && !position.getAnchorText().isBlank();
+    }
+
+    private static float floatOrZero(BigDecimal value) {
+        return value != null ? value.floatValue() : 0f;
+    }
+}
@@ -0,0 +1,163 @@
+package cn.tcxingji.seal.signing;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.pdf.PdfDocumentLease;
+import cn.tcxingji.seal.pdf.PdfMemoryGovernor;
+import lombok.RequiredArgsConstructor;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.ExternalSigningSupport;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.ess.ESSCertIDv2;
+import org.bouncycastle.asn1.ess.SigningCertificateV2;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.IssuerSerial;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.CMSAttributeTableGenerator;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSTypedData;
+import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
+import org.bouncycastle.cms.SignerInfoGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.Calendar;
+
+/**
+ * PAdES-B 数字签名器
+ * <p>
+ * 以增量更新追加一个不可见签名域（SubFilter 为 ETSI.CAdES.detached），对 ByteRange 覆盖的内容计算 SHA-256 摘要，
+ * 生成分离式 CMS 签名：签名属性包含 content-type、message-digest 和 signing-certificate-v2，
+ * 不包含 signing-time（PAdES 要求签名时间只写在签名字典 /M 中）。
+ * 实例无状态，多个线程可用同一凭据并行签名不同文档
+ * </p>
+ *
+ * @author TC System
+ */
+@Component
+@RequiredArgsConstructor
+public class PadesSigner {
+
+    private final StampConfig stampConfig;
+    private final PdfMemoryGovernor pdfMemoryGovernor;
+
+    /**
+     * 对 PDF 进行数字签名
+     *
+     * @param source     源 PDF
+     * @param target     签名后 PDF（源文件字节加一个增量更新）
+     * @param credential 已解锁的签名凭据
+     * @param signerName 签名人名称（为空时使用证书主题）
+     * @throws cn.tcxingji.seal.exception.BusinessException 签名证书不在有效期内
+     */
+    public void sign(Path source, Path target, SigningKeyStore.Credential credential, String signerName)
+            throws IOException {
+        credential.checkValidity();
+        StampConfig.Signing config = stampConfig.getSigning();
+        try (PdfDocumentLease lease = pdfMemoryGovernor.open(source);
+             SignatureOptions options = new SignatureOptions();
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            PDDocument document = lease.getDocument();
+
+            PDSignature signature = new PDSignature();
+            signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
+            signature.setSubFilter(PDSignature.SUBFILTER_ETSI_CADES_DETACHED);
+            signature.setName(signerName != null && !signerName.isBlank()
+                    ? signerName : credential.certificate().getSubjectX500Principal().getName());
+            signature.setReason(config.getReason());
+            signature.setLocation(config.getLocation());
+            signature.setSignDate(Calendar.getInstance());
+            options.setPreferredSignatureSize(config.getSignatureSize());
+            document.addSignature(signature, options);
+
+            ExternalSigningSupport external = document.saveIncrementalForExternalSigning(out);
+            external.setSignature(createCms(external.getContent(), credential));
+        }
+    }
+
+    /**
+     * 对签名内容流式计算摘要并生成分离式 CMS 签名（DER 编码）
+     */
+    private static byte[] createCms(InputStream content, SigningKeyStore.Credential credential) throws IOException {
+        try {
+            X509Certificate certificate = credential.certificate();
+            SignerInfoGenerator signerInfo = new JcaSignerInfoGeneratorBuilder(
+                    new JcaDigestCalculatorProviderBuilder().build())
+                    .setSignedAttributeGenerator(padesAttributes(certificate))
+                    .build(new JcaContentSignerBuilder(credential.signatureAlgorithm())
+                            .build(credential.privateKey()), certificate);
+
+            CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+            generator.addSignerInfoGenerator(signerInfo);
+            generator.addCertificates(new JcaCertStore(credential.chain()));
+            return generator.generate(new StreamContent(content), false).getEncoded(ASN1Encoding.DER);
+        } catch (GeneralSecurityException | OperatorCreationException | CMSException e) {
+            throw new IOException("生成 CMS 签名失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * PAdES-B 签名属性：在标准属性上增加 signing-certificate-v2，并移除 signing-time
+     */
+    private static CMSAttributeTableGenerator padesAttributes(X509Certificate certificate)
+            throws GeneralSecurityException {
+        byte[] certificateHash = MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded());
+        IssuerSerial issuerSerial = new IssuerSerial(
+                X500Name.getInstance(certificate.getIssuerX500Principal().getEncoded()),
+                certificate.getSerialNumber());
+        Attribute signingCertificate = new Attribute(PKCSObjectIdentifiers.id_aa_signingCertificateV2,
+                new DERSet(new SigningCertificateV2(new ESSCertIDv2(certificateHash, issuerSerial))));
+
+        DefaultSignedAttributeTableGenerator standard =
+                new DefaultSignedAttributeTableGenerator(new AttributeTable(signingCertificate));
+        return parameters -> standard.getAttributes(parameters).remove(CMSAttributes.signingTime);
+    }
+
+    /**
+     * 以流方式提供待签名内容（ByteRange 覆盖的字节），避免整份文档读入内存
+     */
+    private static final class StreamContent implements CMSTypedData {
+
+        private final InputStream content;
+
+        private StreamContent(InputStream content) {
+            this.content = content;
+        }
+
+        @Override
+        public ASN1ObjectIdentifier getContentType() {
+            return CMSObjectIdentifiers.data;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            content.transferTo(out);
+        }
+
+        @Override
+        public Object getContent() {
+            return content;
+        }
+    }
+}
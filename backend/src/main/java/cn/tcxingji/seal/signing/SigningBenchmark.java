@@ -0,0 +1,171 @@
+package cn.tcxingji.seal.signing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 数字签名基准测试
+ * <p>
+ * 用同一份 PDF 和已解锁的凭据，在指定线程数下并行签名多份副本（写入临时文件后删除），
+ * 统计吞吐量、每核吞吐量（按签名线程实际消耗的 CPU 时间计算）和单份签名耗时分布；先预热一次，不计入结果
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SigningBenchmark {
+
+    /**
+     * 单次测试最多签名份数
+     */
+    public static final int MAX_DOCUMENTS = 200;
+
+    private final SigningKeyStore signingKeyStore;
+    private final PadesSigner padesSigner;
+
+    /**
+     * 执行基准测试
+     *
+     * @param source    源 PDF
+     * @param documents 签名份数（1 ~ {@link #MAX_DOCUMENTS}）
+     * @param threads   并行线程数（不大于 0 时为 CPU 核数）
+     * @return 测试报告
+     */
+    public Report run(Path source, int documents, int threads) throws IOException {
+        int count = Math.min(Math.max(1, documents), MAX_DOCUMENTS);
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        SigningKeyStore.Credential credential = signingKeyStore.unlock();
+        long sourceSize = Files.size(source);
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        boolean cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+
+        Path workDir = Files.createTempDirectory("seal-sign-benchmark");
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "sign-benchmark-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            signOnce(source, workDir.resolve("warmup.pdf"), credential, threadBean, cpuTimeSupported);
+
+            long start = System.nanoTime();
+            List<Future<Sample>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Path target = workDir.resolve("signed-" + i + ".pdf");
+                futures.add(executor.submit(() -> signOnce(source, target, credential, threadBean, cpuTimeSupported)));
+            }
+            long[] latencies = new long[count];
+            long cpuNanos = 0;
+            for (int i = 0; i < count; i++) {
+                Sample sample = futures.get(i).get();
+                latencies[i] = sample.latencyNanos();
+                cpuNanos += sample.cpuNanos();
+            }
+            long wallNanos = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            double throughput = count / (wallNanos / 1_000_000_000.0);
+            Double perCore = cpuTimeSupported && cpuNanos > 0 ? count / (cpuNanos / 1_000_000_000.0) : null;
+            Report report = new Report(sourceSize, count, parallelism, credential.signatureAlgorithm(),
+                    wallNanos, throughput, perCore,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[count - 1]);
+            log.info("数字签名基准测试完成: source={}, documents={}, threads={}, throughput={}/s, perCore={}/s, p99Ms={}",
+                    source.getFileName(), count, parallelism, String.format("%.2f", throughput),
+                    perCore != null ? String.format("%.2f", perCore) : "-", report.p99Nanos() / 1_000_000.0);
+            return report;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause();
+            throw new IOException("签名失败: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("基准测试被中断", e);
+        } finally {
+            executor.shutdownNow();
+            deleteDirectory(workDir);
+        }
+    }
+
+    /**
+     * 签名一份副本，返回耗时和本线程消耗的 CPU 时间
+     */
+    private Sample signOnce(Path source, Path target, SigningKeyStore.Credential credential,
+                            ThreadMXBean threadBean, boolean cpuTimeSupported) {
+        long cpuStart = cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+        long start = System.nanoTime();
+        try {
+            padesSigner.sign(source, target, credential, "benchmark");
+            Files.deleteIfExists(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long latency = System.nanoTime() - start;
+        long cpu = cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() - cpuStart : 0;
+        return new Sample(latency, cpu);
+    }
+
+    /**
+     * 最近秩法取分位数
+     */
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+    }
+
+    private static void deleteDirectory(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.warn("删除基准测试临时目录失败: {}", dir, e);
+        }
+    }
+
+    /**
+     * 单份签名的耗时和 CPU 时间（纳秒）
+     */
+    private record Sample(long latencyNanos, long cpuNanos) {
+    }
+
+    /**
+     * 测试报告
+     *
+     * @param sourceSize         源文件字节数
+     * @param documents          签名份数
+     * @param threads            并行线程数
+     * @param signatureAlgorithm 签名算法
+     * @param wallNanos          总耗时（纳秒）
+     * @param throughput         吞吐量（份/秒）
+     * @param throughputPerCore  每核吞吐量（份/CPU 秒；不支持线程 CPU 计时时为空）
+     * @param p50Nanos           单份耗时中位数（纳秒）
+     * @param p99Nanos           单份耗时 P99（纳秒）
+     * @param maxNanos           单份最长耗时（纳秒）
+     */
+    public record Report(long sourceSize, int documents, int threads, String signatureAlgorithm,
+                         long wallNanos, double throughput, Double throughputPerCore,
+                         long p50Nanos, long p99Nanos, long maxNanos) {
+    }
+}
@@ -0,0 +1,173 @@
+package cn.tcxingji.seal.signing;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateExpiredException;
+import java.security.cert.CertificateNotYetValidException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 数字签名密钥库
+ * <p>
+ * 从本地 PKCS#12 文件加载签名私钥和证书链，首次使用时解锁一次并缓存在进程内，
+ * 之后所有签名（包括批量签名的各个线程）共用同一把已解锁的私钥。
+ * 缓存的凭据在签名证书到期（notAfter）后失效，下次使用时重新加载密钥库（便于替换为续期后的证书）
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SigningKeyStore {
+
+    private final StampConfig stampConfig;
+
+    private volatile Credential credential;
+
+    /**
+     * 获取已解锁的签名凭据（首次调用或缓存的证书已到期时加载密钥库）
+     *
+     * @return 签名凭据
+     * @throws BusinessException 未启用数字签名、密钥库未配置、无法解锁或证书不在有效期内
+     */
+    public Credential unlock() {
+        Credential current = credential;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            if (credential == null || credential.isExpired()) {
+                credential = null;
+                credential = load();
+            }
+            return credential;
+        }
+    }
+
+    private Credential load() {
+        StampConfig.Signing config = stampConfig.getSigning();
+        if (!config.isEnabled()) {
+            throw new BusinessException("数字签名未启用");
+        }
+        if (config.getKeystorePath() == null || config.getKeystorePath().isBlank()) {
+            throw new BusinessException("未配置数字签名密钥库");
+        }
+        Path path = Paths.get(config.getKeystorePath());
+        char[] storePassword = toChars(config.getKeystorePassword());
+        char[] keyPassword = config.getKeyPassword() == null || config.getKeyPassword().isEmpty()
+                ? storePassword : config.getKeyPassword().toCharArray();
+
+        try (InputStream in = Files.newInputStream(path)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, storePassword);
+
+            String alias = resolveAlias(keyStore, config.getKeyAlias());
+            PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, keyPassword);
+            Certificate[] chain = keyStore.getCertificateChain(alias);
+            if (privateKey == null || chain == null || chain.length == 0) {
+                throw new BusinessException("密钥库条目缺少私钥或证书链: " + alias);
+            }
+            List<X509Certificate> certificates = new ArrayList<>(chain.length);
+            for (Certificate certificate : chain) {
+                certificates.add((X509Certificate) certificate);
+            }
+            certificates.get(0).checkValidity();
+
+            String algorithm = signatureAlgorithm(privateKey);
+            log.info("数字签名密钥库已解锁: alias={}, subject={}, algorithm={}, notAfter={}",
+                    alias, certificates.get(0).getSubjectX500Principal().getName(), algorithm,
+                    certificates.get(0).getNotAfter());
+            return new Credential(privateKey, Collections.unmodifiableList(certificates), algorithm);
+        } catch (IOException | GeneralSecurityException e) {
+            log.error("加载数字签名密钥库失败: {}", path, e);
+            throw new BusinessException("加载数字签名密钥库失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 确定私钥别名：已配置时校验存在，否则取第一个私钥条目
+     */
+    private static String resolveAlias(KeyStore keyStore, String configured) throws GeneralSecurityException {
+        if (configured != null && !configured.isBlank()) {
+            if (!keyStore.isKeyEntry(configured)) {
+                throw new BusinessException("密钥库中不存在私钥条目: " + configured);
+            }
+            return configured;
+        }
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.isKeyEntry(alias)) {
+                return alias;
+            }
+        }
+        throw new BusinessException("密钥库中没有私钥条目");
+    }
+
+    private static String signatureAlgorithm(PrivateKey privateKey) {
+        return switch (privateKey.getAlgorithm()) {
+            case "RSA" -> "SHA256withRSA";
+            case "EC" -> "SHA256withECDSA";
+            default -> throw new BusinessException("不支持的签名密钥算法: " + privateKey.getAlgorithm());
+        };
+    }
+
+    private static char[] toChars(String password) {
+        return password != null ? password.toCharArray() : new char[0];
+    }
+
+    /**
+     * 已解锁的签名凭据
+     *
+     * @param privateKey         签名私钥
+     * @param chain              证书链（第一个为签名证书）
+     * @param signatureAlgorithm 签名算法（如 SHA256withRSA）
+     */
+    public record Credential(PrivateKey privateKey, List<X509Certificate> chain, String signatureAlgorithm) {
+
+        /**
+         * 签名证书
+         */
+        public X509Certificate certificate() {
+            return chain.get(0);
+        }
+
+        /**
+         * 签名证书是否已过期
+         */
+        public boolean isExpired() {
+            return certificate().getNotAfter().before(new Date());
+        }
+
+        /**
+         * 校验签名证书当前在有效期内（每次签名前调用，避免长时间运行的进程用过期证书签名）
+         *
+         * @throws BusinessException 证书已过期或尚未生效
+         */
+        public void checkValidity() {
+            try {
+                certificate().checkValidity();
+            } catch (CertificateExpiredException e) {
+                throw new BusinessException("签名证书已过期: notAfter=" + certificate().getNotAfter());
+            } catch (CertificateNotYetValidException e) {
+                throw new BusinessException("签名证书尚未生效: notBefore=" + certificate().getNotBefore());
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package cn.tcxingji.seal.workspace;
+
+import cn.tcxingji.seal.dto.request.ContractSealRequest;
+import cn.tcxingji.seal.dto.request.SealPositionRequest;
+import cn.tcxingji.seal.entity.ContractFile;
+import cn.tcxingji.seal.exception.BusinessException;
+import cn.tcxingji.seal.pdf.StampImageCache;
+import cn.tcxingji.seal.pdf.WorkingDocument;
+import cn.tcxingji.seal.placement.SealPlacementIndex;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 盖章工作区
+ * <p>
+ * 打开时加载一次合同文档和操作人可用的印章/签名，之后每次盖章只修改内存中的文档，
+ * 提交时一次写出签章后文件并保存所有签章记录。每次盖章都与打开时的已有签章和本工作区先前的盖章做重叠检测。
+ * 同一工作区的操作通过 {@link #execute} 串行执行；
+ * 关闭后（提交、丢弃、过期或处理失败）文档和内存额度立即释放
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Getter
+public class StampWorkspace {
+
+    /**
+     * 工作区ID
+     */
+    private final String id;
+
+    /**
+     * 打开时读取的合同（提交时校验版本未变）
+     */
+    private final ContractFile contract;
+
+    /**
+     * 源文件（已签章时为签章后文件）
+     */
+    private final Path sourcePath;
+
+    /**
+     * 源文件字节数
+     */
+    private final long sourceBytes;
+
+    /**
+     * 工作文档
+     */
+    private final WorkingDocument document;
+
+    /**
+     * 操作人ID
+     */
+    private final Long operatorId;
+
+    /**
+     * 操作人姓名
+     */
+    private final String operatorName;
+
+    /**
+     * 打开时间
+     */
+    private final LocalDateTime createTime;
+
+    /**
+     * 过期时间（最长存活时间）
+     */
+    private final LocalDateTime expireTime;
+
+    /**
+     * 可用的印章/签名（来源类型:ID -> 图片）
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, WorkspaceImage> images = new LinkedHashMap<>();
+
+    /**
+     * 已完成的盖章（锚点已解析为坐标）
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<ContractSealRequest> placements = new ArrayList<>();
+
+    /**
+     * 重叠检测（基于打开时的已有签章，依次计入本工作区的盖章）
+     */
+    @Getter(AccessLevel.NONE)
+    private final SealPlacementIndex.OverlapCheck overlapCheck;
+
+    /**
+     * 重叠提示（按盖章顺序）
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<String> warnings = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile LocalDateTime lastAccessTime;
+
+    private volatile boolean closed;
+
+    public StampWorkspace(String id, ContractFile contract, Path sourcePath, long sourceBytes,
+                          WorkingDocument document, Collection<WorkspaceImage> images,
+                          SealPlacementIndex.OverlapCheck overlapCheck,
+                          Long operatorId, String operatorName, Duration ttl) {
+        this.id = id;
+        this.contract = contract;
+        this.sourcePath = sourcePath;
+        this.sourceBytes = sourceBytes;
+        this.document = document;
+        this.overlapCheck = overlapCheck;
+        this.operatorId = operatorId;
+        this.operatorName = operatorName;
+        this.createTime = LocalDateTime.now();
+        this.expireTime = createTime.plus(ttl);
+        this.lastAccessTime = createTime;
+        for (WorkspaceImage image : images) {
+            this.images.put(key(image.kind(), image.id()), image);
+        }
+    }
+
+    public Long getContractId() {
+        return contract.getId();
+    }
+
+    /**
+     * 查找可用的印章/签名
+     *
+     * @return 图片，不可用时返回 null
+     */
+    public WorkspaceImage getImage(StampImageCache.ImageKind kind, Long imageId) {
+        return images.get(key(kind, imageId));
+    }
+
+    /**
+     * 可用的印章/签名
+     */
+    public List<WorkspaceImage> getImages() {
+        return List.copyOf(images.values());
+    }
+
+    /**
+     * 已完成的盖章（副本）
+     */
+    public List<ContractSealRequest> getPlacements() {
+        return List.copyOf(placements);
+    }
+
+    /**
+     * 已盖章位置总数
+     */
+    public int getPositionCount() {
+        return placements.stream().mapToInt(placement -> placement.getPositions().size()).sum();
+    }
+
+    /**
+     * 重叠提示（副本）
+     */
+    public List<String> getWarnings() {
+        return List.copyOf(warnings);
+    }
+
+    /**
+     * 检测一次盖章的位置是否与已有签章或本工作区先前的盖章重叠，并将其计入后续检测（在 {@link #execute} 内、绘制前调用）
+     *
+     * @param positions 已解析的盖章位置
+     * @param sealType  签章类型
+     * @return 本次盖章的重叠提示
+     * @throws BusinessException 重叠策略为拒绝且存在重叠
+     */
+    public List<String> checkOverlaps(List<SealPositionRequest> positions, Integer sealType) {
+        List<String> found = overlapCheck.accept(positions, sealType);
+        warnings.addAll(found);
+        return found;
+    }
+
+    /**
+     * 记录一次已绘制的盖章（在 {@link #execute} 内调用）
+     */
+    public void addPlacement(ContractSealRequest placement) {
+        placements.add(placement);
+    }
+
+    /**
+     * 在工作区锁内执行操作，并刷新最近访问时间
+     *
+     * @throws BusinessException 工作区已关闭或已过期
+     */
+    public <T> T execute(Supplier<T> action) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new BusinessException("盖章工作区已关闭: " + id);
+            }
+            if (expireTime.isBefore(LocalDateTime.now())) {
+                close();
+                throw new BusinessException("盖章工作区已过期: " + id);
+            }
+            lastAccessTime = LocalDateTime.now();
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 已过期或空闲超时时关闭（正在执行操作的工作区不等待、不关闭）
+     *
+     * @param idleTimeout 空闲超时
+     * @return 是否已关闭
+     */
+    boolean closeIfExpired(Duration idleTimeout) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (closed || expireTime.isBefore(now) || lastAccessTime.plus(idleTimeout).isBefore(now)) {
+                close();
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭工作区并释放文档（多次关闭只释放一次）
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            document.close();
+        } catch (IOException e) {
+            log.warn("关闭盖章工作区文档失败: workspaceId={}", id, e);
+        }
+    }
+
+    private static String key(StampImageCache.ImageKind kind, Long imageId) {
+        return kind + ":" + imageId;
+    }
+
+    /**
+     * 可用的印章/签名图片
+     *
+     * @param kind 来源类型
+     * @param id   印章ID或签名ID
+     * @param name 名称
+     * @param path 图片路径
+     */
+    public record WorkspaceImage(StampImageCache.ImageKind kind, Long id, String name, Path path) {
+    }
+}
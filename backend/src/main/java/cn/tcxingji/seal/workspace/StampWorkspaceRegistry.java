@@ -0,0 +1,113 @@
+package cn.tcxingji.seal.workspace;
+
+import cn.tcxingji.seal.config.StampConfig;
+import cn.tcxingji.seal.exception.BusinessException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 盖章工作区注册表
+ * <p>
+ * 工作区只保存在本实例内存中：数量受 max-open 限制，文档内存由 {@link cn.tcxingji.seal.pdf.PdfMemoryGovernor} 统一预算；
+ * 定期关闭过期或空闲超时的工作区，释放文档和内存额度
+ * </p>
+ *
+ * @author TC System
+ */
+@Slf4j
+@Component
+public class StampWorkspaceRegistry {
+
+    private final StampConfig stampConfig;
+    private final Map<String, StampWorkspace> workspaces = new ConcurrentHashMap<>();
+
+    public StampWorkspaceRegistry(StampConfig stampConfig, MeterRegistry meterRegistry) {
+        this.stampConfig = stampConfig;
+        Gauge.builder("seal.workspace.open", workspaces, Map::size)
+                .description("当前打开的盖章工作区数")
+                .register(meterRegistry);
+        Gauge.builder("seal.workspace.reserved", this, StampWorkspaceRegistry::reservedBytes)
+                .description("盖章工作区文档占用的内存额度")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 检查是否还能打开新的工作区（打开文档前调用，避免无谓加载）
+     *
+     * @throws BusinessException 已达上限时抛出（错误码 503）
+     */
+    public void ensureCapacity() {
+        if (workspaces.size() >= stampConfig.getWorkspace().getMaxOpen()) {
+            throw new BusinessException(503, "打开的盖章工作区过多，请稍后重试");
+        }
+    }
+
+    /**
+     * 登记已打开的工作区；已达上限时关闭该工作区并拒绝
+     */
+    public synchronized void register(StampWorkspace workspace) {
+        if (workspaces.size() >= stampConfig.getWorkspace().getMaxOpen()) {
+            workspace.close();
+            throw new BusinessException(503, "打开的盖章工作区过多，请稍后重试");
+        }
+        workspaces.put(workspace.getId(), workspace);
+    }
+
+    /**
+     * 获取工作区
+     *
+     * @throws BusinessException 不存在、已关闭或已过期时抛出
+     */
+    public StampWorkspace get(String workspaceId) {
+        StampWorkspace workspace = workspaces.get(workspaceId);
+        if (workspace == null || workspace.isClosed()) {
+            workspaces.remove(workspaceId);
+            throw new BusinessException("盖章工作区不存在或已过期: " + workspaceId);
+        }
+        return workspace;
+    }
+
+    /**
+     * 移除工作区（调用方负责关闭）
+     */
+    public void remove(String workspaceId) {
+        workspaces.remove(workspaceId);
+    }
+
+    /**
+     * 定期关闭过期或空闲超时的工作区
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 60_000)
+    public void evictExpired() {
+        int evicted = 0;
+        for (StampWorkspace workspace : workspaces.values()) {
+            if (workspace.closeIfExpired(stampConfig.getWorkspace().getIdleTimeout())) {
+                workspaces.remove(workspace.getId());
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.info("关闭过期盖章工作区: {}", evicted);
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        workspaces.values().forEach(StampWorkspace::close);
+        workspaces.clear();
+    }
+
+    private long reservedBytes() {
+        return workspaces.values().stream()
+                .mapToLong(workspace -> workspace.getDocument().getReservedBytes())
+                .sum();
+    }
+}
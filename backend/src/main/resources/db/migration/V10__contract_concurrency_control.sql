@@ -0,0 +1,17 @@
+-- =============================================
+-- 合同并发控制
+-- 用途: 1. contract_file 增加乐观锁版本号
+--       2. 新增 contract_lock 租约锁表，多实例间对同一合同的盖章互斥
+-- 创建时间: 2026-10-16
+-- =============================================
+
+ALTER TABLE contract_file
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号' AFTER remark;
+
+-- 租约锁：持有者崩溃后锁在 locked_until 到期后可被其他实例接管
+CREATE TABLE contract_lock (
+    contract_id BIGINT NOT NULL PRIMARY KEY COMMENT '合同文件ID',
+    owner VARCHAR(100) NOT NULL COMMENT '持有者（实例标识 + 线程）',
+    locked_until DATETIME(3) NOT NULL COMMENT '租约到期时间',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '加锁时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='合同租约锁表';
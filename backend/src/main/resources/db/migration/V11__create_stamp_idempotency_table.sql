@@ -0,0 +1,31 @@
+-- =====================================================
+-- 太初星集电子签章系统 - 盖章幂等键表
+-- Version: V11
+-- Author: TC System
+-- Date: 2026-10-16
+-- Description: 保存 Idempotency-Key 对应的盖章结果，客户端重试时直接返回已保存的结果；
+--              处理中的记录带租约，实例宕机后可被接管
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS stamp_idempotency (
+    -- 幂等键（客户端 Idempotency-Key 请求头）
+    idempotency_key VARCHAR(128) PRIMARY KEY COMMENT '幂等键',
+
+    -- 请求信息
+    contract_id BIGINT NOT NULL COMMENT '合同文件ID',
+    operation TINYINT NOT NULL COMMENT '操作类型: 1-普通盖章 2-批量盖章 3-骑缝章',
+    request_hash CHAR(64) NOT NULL COMMENT '请求体 SHA-256，同一幂等键的请求体必须一致',
+
+    -- 处理状态
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '状态: 0-处理中 1-已完成',
+    locked_until DATETIME COMMENT '处理中租约到期时间，超时后可被其他请求接管',
+    response MEDIUMTEXT COMMENT '盖章结果（JSON）',
+
+    -- 审计字段
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    expire_time DATETIME NOT NULL COMMENT '过期时间，过期记录定期清理',
+
+    -- 索引
+    INDEX idx_expire_time (expire_time) COMMENT '过期清理索引'
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='盖章幂等键表';
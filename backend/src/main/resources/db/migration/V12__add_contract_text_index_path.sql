@@ -0,0 +1,8 @@
+-- =============================================
+-- 合同文本位置索引
+-- 用途: contract_file 增加文本位置索引文件路径，上传时提取字符位置，盖章时按锚点文本定位
+-- 创建时间: 2026-10-16
+-- =============================================
+
+ALTER TABLE contract_file
+    ADD COLUMN text_index_path VARCHAR(500) COMMENT '文本位置索引文件路径' AFTER signed_path;
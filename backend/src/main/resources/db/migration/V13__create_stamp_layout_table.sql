@@ -0,0 +1,39 @@
+-- =====================================================
+-- 太初星集电子签章系统 - 盖章版式表
+-- Version: V13
+-- Author: TC System
+-- Date: 2026-10-16
+-- Description: 创建盖章版式表，保存可复用的一组盖章位置（页码选择、坐标、尺寸、签章角色），
+--              保存时按参考页面尺寸校验一次，盖章时按合同页数展开，不再逐次解析和校验位置参数
+-- =====================================================
+
+-- 盖章版式表
+CREATE TABLE IF NOT EXISTS stamp_layout (
+    -- 主键ID
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+
+    -- 版式基本信息
+    layout_name VARCHAR(100) NOT NULL COMMENT '版式名称',
+    owner_id BIGINT NOT NULL COMMENT '所有者ID',
+
+    -- 参考页面尺寸（单位 pt，默认 A4）
+    page_width DECIMAL(10,2) NOT NULL DEFAULT 595.00 COMMENT '参考页面宽度',
+    page_height DECIMAL(10,2) NOT NULL DEFAULT 842.00 COMMENT '参考页面高度',
+
+    -- 版式条目
+    items MEDIUMTEXT NOT NULL COMMENT '版式条目（JSON）: pageSelector, x, y, width, height, sealRole',
+
+    -- 状态信息
+    status TINYINT DEFAULT 1 COMMENT '状态: 0-禁用 1-启用',
+
+    -- 审计字段
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    create_by VARCHAR(50) COMMENT '创建人',
+    update_by VARCHAR(50) COMMENT '更新人',
+
+    -- 索引
+    UNIQUE INDEX uk_owner_name (owner_id, layout_name) COMMENT '所有者内版式名称唯一',
+    INDEX idx_status (status) COMMENT '状态索引'
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='盖章版式表';
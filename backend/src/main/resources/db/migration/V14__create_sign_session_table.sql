@@ -0,0 +1,54 @@
+-- =====================================================
+-- 太初星集电子签章系统 - 多方签署会话表
+-- Version: V14
+-- Author: TC System
+-- Date: 2026-10-16
+-- Description: 创建签署会话表和签署方表。各签署方基于同一基准版本独立准备签章（校验、锚点定位、图片预编码），
+--              全部签署方就绪后在一次合同锁内按顺序合并为连续的增量更新
+-- =====================================================
+
+-- 签署会话表
+CREATE TABLE IF NOT EXISTS sign_session (
+    -- 主键ID
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+
+    -- 会话信息
+    contract_id BIGINT NOT NULL COMMENT '合同文件ID',
+    base_version BIGINT NOT NULL COMMENT '创建会话时的合同版本号',
+    expected_signers INT NOT NULL COMMENT '预期签署方数量，全部就绪后自动合并',
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '状态: 0-签署中 1-合并中 2-已完成 3-合并失败',
+
+    -- 合并结果
+    result MEDIUMTEXT COMMENT '合并结果（JSON）',
+    error_message VARCHAR(1000) COMMENT '失败原因',
+
+    -- 操作人
+    operator_id BIGINT COMMENT '发起人ID',
+    operator_name VARCHAR(50) COMMENT '发起人姓名',
+
+    -- 时间
+    expire_time DATETIME NOT NULL COMMENT '过期时间，过期后不再接受签署方',
+    finish_time DATETIME COMMENT '合并完成时间',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    -- 索引
+    INDEX idx_contract (contract_id) COMMENT '合同索引',
+    INDEX idx_status (status) COMMENT '状态索引'
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='多方签署会话表';
+
+-- 签署方表
+CREATE TABLE IF NOT EXISTS sign_session_signer (
+    -- 主键ID（同时决定合并顺序）
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+
+    session_id BIGINT NOT NULL COMMENT '签署会话ID',
+    payload MEDIUMTEXT NOT NULL COMMENT '已准备的盖章请求（JSON，锚点已解析为坐标）',
+    operator_id BIGINT COMMENT '签署人ID',
+    operator_name VARCHAR(50) COMMENT '签署人姓名',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '提交时间',
+
+    INDEX idx_session (session_id) COMMENT '会话索引'
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='签署会话签署方表';
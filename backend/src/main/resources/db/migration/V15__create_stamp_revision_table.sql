@@ -0,0 +1,41 @@
+-- =====================================================
+-- 太初星集电子签章系统 - 盖章修订表
+-- Version: V15
+-- Author: TC System
+-- Date: 2026-10-16
+-- Description: 每次盖章提交记录一个修订（基准文件、签章后文件及其大小），签章记录关联所属修订；
+--              撤销最近一次盖章时，增量更新的修订只需截断到基准文件的字节长度
+-- =====================================================
+
+-- 盖章修订表
+CREATE TABLE IF NOT EXISTS stamp_revision (
+    -- 主键ID
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+
+    -- 修订信息
+    contract_id BIGINT NOT NULL COMMENT '合同文件ID',
+    revision_no INT NOT NULL COMMENT '合同内的修订序号（从1开始）',
+    previous_signed_path VARCHAR(500) COMMENT '盖章前的签章后文件路径，为空表示盖章前未签章',
+    base_path VARCHAR(500) NOT NULL COMMENT '本次盖章的源文件路径',
+    base_size BIGINT NOT NULL COMMENT '源文件字节数（增量更新时即撤销后的截断位置）',
+    signed_path VARCHAR(500) NOT NULL COMMENT '签章后文件路径',
+    signed_size BIGINT NOT NULL COMMENT '签章后文件字节数',
+    incremental TINYINT NOT NULL DEFAULT 0 COMMENT '签章后文件是否为源文件加增量更新: 0-否 1-是',
+    seal_count INT NOT NULL DEFAULT 0 COMMENT '签章记录数',
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '状态: 0-有效 1-已撤销',
+
+    -- 时间
+    revoke_time DATETIME COMMENT '撤销时间',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    -- 索引
+    UNIQUE INDEX uk_contract_revision (contract_id, revision_no) COMMENT '合同修订序号唯一'
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='盖章修订表';
+
+-- 签章记录关联修订，撤销后保留记录并标记状态
+ALTER TABLE seal_record
+    ADD COLUMN revision_id BIGINT COMMENT '所属盖章修订ID' AFTER contract_id,
+    ADD COLUMN status TINYINT NOT NULL DEFAULT 0 COMMENT '状态: 0-有效 1-已撤销' AFTER operator_name,
+    ADD INDEX idx_revision (revision_id);
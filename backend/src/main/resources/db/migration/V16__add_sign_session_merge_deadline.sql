@@ -0,0 +1,9 @@
+-- =============================================
+-- 签署会话合并租约
+-- 用途: sign_session 增加合并租约截止时间；合并中的会话超过截止时间未完成（如节点宕机）时可重新合并，
+--       合并结果只在租约截止时间未被他人改写时写回
+-- 创建时间: 2026-10-16
+-- =============================================
+
+ALTER TABLE sign_session
+    ADD COLUMN merge_deadline DATETIME COMMENT '合并租约截止时间（合并中有效）' AFTER expire_time;
@@ -0,0 +1,8 @@
+-- =============================================
+-- 幂等操作类型增加版式盖章
+-- 用途: 版式盖章使用独立的操作类型 4，不再与批量盖章共用，同一幂等键不能在两种操作间混用
+-- 创建时间: 2026-10-16
+-- =============================================
+
+ALTER TABLE stamp_idempotency
+    MODIFY COLUMN operation TINYINT NOT NULL COMMENT '操作类型: 1-普通盖章 2-批量盖章 3-骑缝章 4-版式盖章';
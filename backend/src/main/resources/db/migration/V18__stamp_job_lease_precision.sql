@@ -0,0 +1,10 @@
+-- =============================================
+-- 盖章任务租约精度
+-- 用途: stamp_job 的租约到期时间和下次执行时间改为毫秒精度，
+--       与 contract_lock 一致按数据库时钟（NOW(3)）写入和比较，执行期间定期续期
+-- 创建时间: 2026-10-16
+-- =============================================
+
+ALTER TABLE stamp_job
+    MODIFY COLUMN next_run_time DATETIME(3) NOT NULL COMMENT '最早可执行时间（重试退避）',
+    MODIFY COLUMN locked_until DATETIME(3) COMMENT '租约到期时间，执行期间定期续期，过期未完成的任务可被重新领取';
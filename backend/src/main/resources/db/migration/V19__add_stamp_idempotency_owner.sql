@@ -0,0 +1,10 @@
+-- =============================================
+-- 幂等记录持有者
+-- 用途: stamp_idempotency 增加处理者标识，续期、保存结果和删除只作用于自己登记或接管的记录；
+--       租约到期时间改为毫秒精度，与 contract_lock 一致按数据库时钟（NOW(3)）计算和比较
+-- 创建时间: 2026-10-16
+-- =============================================
+
+ALTER TABLE stamp_idempotency
+    ADD COLUMN owner VARCHAR(64) COMMENT '处理者标识（每次登记或接管唯一）' AFTER idempotency_key,
+    MODIFY COLUMN locked_until DATETIME(3) COMMENT '处理中租约到期时间，超时后可被其他请求接管';
@@ -0,0 +1,10 @@
+-- =============================================
+-- 签署会话合并持有者
+-- 用途: sign_session 增加合并持有者标识，续期和结束合并只作用于本次合并；
+--       合并租约截止时间改为毫秒精度，按数据库时钟（NOW(3)）写入、续期和比较
+-- 创建时间: 2026-10-16
+-- =============================================
+
+ALTER TABLE sign_session
+    ADD COLUMN merge_owner VARCHAR(64) COMMENT '合并持有者标识（每次开始合并唯一）' AFTER merge_deadline,
+    MODIFY COLUMN merge_deadline DATETIME(3) COMMENT '合并租约截止时间（合并中有效，合并期间定期续期）';
@@ -0,0 +1,45 @@
+-- =====================================================
+-- 太初星集电子签章系统 - 异步盖章任务表
+-- Version: V8
+-- Author: TC System
+-- Date: 2026-10-16
+-- Description: 创建异步盖章任务表，多个后端实例通过 SELECT ... FOR UPDATE SKIP LOCKED 共享任务队列
+-- =====================================================
+
+-- 异步盖章任务表
+CREATE TABLE IF NOT EXISTS stamp_job (
+    -- 主键ID
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+
+    -- 任务信息
+    contract_id BIGINT NOT NULL COMMENT '合同文件ID',
+    job_type TINYINT NOT NULL COMMENT '任务类型: 1-普通盖章 2-批量盖章 3-骑缝章',
+    payload MEDIUMTEXT NOT NULL COMMENT '盖章请求（JSON）',
+
+    -- 执行状态
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '状态: 0-排队中 1-执行中 2-成功 3-失败',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已尝试次数',
+    max_attempts INT NOT NULL DEFAULT 3 COMMENT '最大尝试次数',
+    next_run_time DATETIME NOT NULL COMMENT '最早可执行时间（重试退避）',
+    locked_by VARCHAR(100) COMMENT '领取任务的工作节点',
+    locked_until DATETIME COMMENT '可见性超时时间，超时未完成的任务可被重新领取',
+
+    -- 执行结果
+    result MEDIUMTEXT COMMENT '盖章结果（JSON）',
+    error_message VARCHAR(1000) COMMENT '失败原因',
+    start_time DATETIME COMMENT '最近一次开始执行时间',
+    finish_time DATETIME COMMENT '完成时间',
+
+    -- 操作人信息
+    operator_id BIGINT COMMENT '操作人ID',
+
+    -- 审计字段
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    -- 索引
+    INDEX idx_status_next_run (status, next_run_time) COMMENT '待领取任务索引',
+    INDEX idx_status_locked_until (status, locked_until) COMMENT '超时任务索引',
+    INDEX idx_contract (contract_id) COMMENT '合同ID索引'
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='异步盖章任务表';
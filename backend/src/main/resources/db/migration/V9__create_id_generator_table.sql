@@ -0,0 +1,15 @@
+-- =============================================
+-- 主键号段表 (id_generator)
+-- 用途: 为需要批量插入的实体预分配主键（Hibernate TableGenerator），
+--       替代 AUTO_INCREMENT 主键，使 JDBC 批量 INSERT 生效
+-- 创建时间: 2026-10-16
+-- =============================================
+
+CREATE TABLE id_generator (
+    gen_name VARCHAR(255) NOT NULL PRIMARY KEY COMMENT '号段名称',
+    gen_value BIGINT NOT NULL COMMENT '已分配的最大值'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='主键号段表';
+
+-- 签章记录号段：从现有最大ID之后开始，留出一个号段的余量
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'seal_record', COALESCE(MAX(id), 0) + 100 FROM seal_record;